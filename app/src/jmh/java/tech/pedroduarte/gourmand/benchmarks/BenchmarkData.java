@@ -0,0 +1,59 @@
+package tech.pedroduarte.gourmand.benchmarks;
+
+import tech.pedroduarte.gourmand.features.datagen.application.DatasetGenerator;
+import tech.pedroduarte.gourmand.features.datagen.application.DatasetSpec;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvDataSource;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvRestaurantRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Datasets for the benchmarks, written by the {@code gen-data} generator with its default
+ * distributions, so a given row count gives the same rows on every run and the benchmarks
+ * measure the same data as {@code gen-data} followed by {@code loadtest}.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Writes the dataset into a new temporary directory, to be removed with {@link #delete}.
+     */
+    static Path write(int rows) throws IOException {
+        Path directory = Files.createTempDirectory("gourmand-benchmark");
+        new DatasetGenerator(DatasetSpec.of(rows, DatasetSpec.DEFAULT_CUISINES, DatasetSpec.DEFAULT_SEED))
+                .write(directory);
+        return directory;
+    }
+
+    /**
+     * Loads the dataset into memory, through files that are removed once loaded.
+     */
+    static RestaurantRepository load(int rows) {
+        try {
+            Path directory = write(rows);
+            try {
+                return new CsvRestaurantRepository(CsvDataSource.fromDirectory(directory));
+            } finally {
+                delete(directory);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
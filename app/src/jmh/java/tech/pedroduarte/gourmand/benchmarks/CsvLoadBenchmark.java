@@ -0,0 +1,68 @@
+package tech.pedroduarte.gourmand.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.pedroduarte.gourmand.common.utils.CsvReader;
+import tech.pedroduarte.gourmand.features.datagen.application.DatasetGenerator;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvDataSource;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvRestaurantRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestion: parsing the restaurants file alone, and loading both files into restaurants.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CsvLoadBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    private int rows;
+
+    private Path directory;
+    private CsvDataSource dataSource;
+
+    @Setup(Level.Trial)
+    public void writeData() throws IOException {
+        directory = BenchmarkData.write(rows);
+        dataSource = CsvDataSource.fromDirectory(directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteData() throws IOException {
+        BenchmarkData.delete(directory);
+    }
+
+    @Benchmark
+    public List<String[]> readCsv() throws IOException {
+        try (InputStream in = Files.newInputStream(directory.resolve(DatasetGenerator.RESTAURANTS_FILE))) {
+            return new CsvReader().readCsv(in, true, columns -> columns);
+        }
+    }
+
+    @Benchmark
+    public List<Restaurant> load() {
+        return new CsvRestaurantRepository(dataSource).findAll();
+    }
+}
@@ -0,0 +1,77 @@
+package tech.pedroduarte.gourmand.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.pedroduarte.gourmand.common.metrics.Metrics;
+import tech.pedroduarte.gourmand.features.search.application.SearchService;
+import tech.pedroduarte.gourmand.features.search.application.dto.SearchResult;
+import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the built-in metrics: a timed stage on its own next to the two clock reads it needs,
+ * and a small search with recording off and on, whose difference is what recording adds to
+ * every search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MetricsBenchmark {
+
+    @Param({"false", "true"})
+    private boolean enabled;
+
+    private SearchService searchService;
+    private SearchCriteria criteria;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RestaurantSearchDomainService domainService = new RestaurantSearchDomainService();
+        searchService = new SearchService(BenchmarkData.load(1_000), domainService);
+        searchService.warmUp();
+        criteria = QueryShape.ALL_FILTERS.criteria();
+        if (enabled) {
+            Metrics.enable();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Metrics.disable();
+        Metrics.reset();
+    }
+
+    @Benchmark
+    public long clockReads() {
+        return System.nanoTime() - System.nanoTime();
+    }
+
+    @Benchmark
+    public long timedStage() {
+        long started = Metrics.start();
+        Metrics.record(Metrics.Timer.SEARCH, started);
+        return started;
+    }
+
+    @Benchmark
+    public List<SearchResult> search() {
+        return searchService.search(criteria);
+    }
+}
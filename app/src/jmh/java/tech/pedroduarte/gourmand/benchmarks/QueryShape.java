@@ -0,0 +1,41 @@
+package tech.pedroduarte.gourmand.benchmarks;
+
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+/**
+ * Searches the benchmarks run, from one that matches every row to one that narrows by every
+ * attribute.
+ */
+public enum QueryShape {
+
+    NO_FILTER {
+        @Override
+        SearchCriteria criteria() {
+            return SearchCriteria.builder().build();
+        }
+    },
+    NAME_ONLY {
+        @Override
+        SearchCriteria criteria() {
+            return SearchCriteria.builder().name("grill").build();
+        }
+    },
+    ALL_FILTERS {
+        @Override
+        SearchCriteria criteria() {
+            return SearchCriteria.builder()
+                    .name("grill")
+                    .minRating(new Rating(3))
+                    .maxDistance(new Distance(5))
+                    .maxPrice(new Price(30))
+                    .cuisine(new Cuisine("Italian"))
+                    .build();
+        }
+    };
+
+    abstract SearchCriteria criteria();
+}
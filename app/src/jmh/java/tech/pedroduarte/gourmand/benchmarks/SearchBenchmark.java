@@ -0,0 +1,75 @@
+package tech.pedroduarte.gourmand.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.pedroduarte.gourmand.features.search.application.SearchService;
+import tech.pedroduarte.gourmand.features.search.application.dto.SearchResult;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtering and sorting on their own, as the plain list pipeline runs them, and the whole
+ * search through {@link SearchService} with its indexes built beforehand.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SearchBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    private int rows;
+
+    @Param({"NO_FILTER", "NAME_ONLY", "ALL_FILTERS"})
+    private QueryShape shape;
+
+    private RestaurantSearchDomainService domainService;
+    private SearchService searchService;
+    private List<Restaurant> restaurants;
+    private List<Restaurant> matches;
+    private SearchCriteria criteria;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        domainService = new RestaurantSearchDomainService();
+        RestaurantRepository repository = BenchmarkData.load(rows);
+        restaurants = repository.findAll();
+        criteria = shape.criteria();
+        matches = findMatches();
+        searchService = new SearchService(repository, domainService);
+        searchService.warmUp();
+    }
+
+    @Benchmark
+    public List<Restaurant> findMatches() {
+        return domainService.findMatches(restaurants, criteria.name(), criteria.minRating(), criteria.maxDistance(),
+                criteria.maxPrice(), criteria.cuisine());
+    }
+
+    @Benchmark
+    public List<Restaurant> sortByRelevance() {
+        return domainService.sortByRelevance(matches);
+    }
+
+    @Benchmark
+    public List<SearchResult> search() {
+        return searchService.search(criteria);
+    }
+}
@@ -4,8 +4,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
 import tech.pedroduarte.gourmand.common.config.LoggingConfig;
+import tech.pedroduarte.gourmand.features.datagen.cli.GenDataCommand;
+import tech.pedroduarte.gourmand.features.search.cli.AutocompleteCommand;
+import tech.pedroduarte.gourmand.features.search.cli.DaemonCommand;
+import tech.pedroduarte.gourmand.features.search.cli.LoadTestCommand;
 import tech.pedroduarte.gourmand.features.search.cli.SearchCommand;
+import tech.pedroduarte.gourmand.features.search.cli.ServeCommand;
+import tech.pedroduarte.gourmand.features.search.cli.ShellCommand;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.PrintWriter;
 
 @CommandLine.Command(
@@ -21,12 +29,22 @@ public class GourmandApplication implements Runnable {
     public static void main(String[] args) {
         LoggingConfig.configureLogging(args);
         GourmandApplication app = new GourmandApplication();
-        SearchCommand searchCommand = new SearchCommand();
+        // Machine-readable results skip System.out's PrintStream and go straight to the descriptor
+        SearchCommand searchCommand = new SearchCommand(new FileOutputStream(FileDescriptor.out));
 
         CommandLine cmd = new CommandLine(app);
-        printBanner(cmd);
+        if (System.console() != null) {
+            // Keep piped output (e.g. search --batch) machine-readable
+            printBanner(cmd);
+        }
         int exitCode = cmd
                 .addSubcommand(searchCommand)
+                .addSubcommand(new AutocompleteCommand())
+                .addSubcommand(new DaemonCommand())
+                .addSubcommand(new ServeCommand())
+                .addSubcommand(new ShellCommand())
+                .addSubcommand(new GenDataCommand())
+                .addSubcommand(new LoadTestCommand())
                 .setExecutionStrategy(new CommandLine.RunLast()) // Run only the last specified command
                 .setParameterExceptionHandler(new ParameterExceptionHandler())
                 .setExecutionExceptionHandler(new ExecutionExceptionHandler())
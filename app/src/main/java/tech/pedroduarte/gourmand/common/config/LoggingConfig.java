@@ -1,23 +1,49 @@
 package tech.pedroduarte.gourmand.common.config;
 
+import ch.qos.logback.classic.BasicConfigurator;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.core.joran.spi.JoranException;
 import org.slf4j.LoggerFactory;
 
+import java.net.URL;
+
+/**
+ * Logging starts quiet (see {@link QuietLoggingConfigurator}); the console and rolling file
+ * appenders from {@value #VERBOSE_CONFIG} are only built when {@code --verbose} is given.
+ */
 public class LoggingConfig {
 
+    static final String VERBOSE_CONFIG = "logback-verbose.xml";
+
     public static void configureLogging(String[] args) {
+        if (shouldEnableLogging(args)) {
+            enableVerboseLogging();
+        }
+    }
 
+    private static void enableVerboseLogging() {
         LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
-        Logger rootLogger = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
-
-        boolean enableLogging = shouldEnableLogging(args);
+        loggerContext.reset();
 
-        if (enableLogging) {
-            rootLogger.setLevel(Level.INFO);
-        } else {
-            rootLogger.setLevel(Level.OFF);
+        URL config = LoggingConfig.class.getClassLoader().getResource(VERBOSE_CONFIG);
+        try {
+            if (config == null) {
+                throw new JoranException(VERBOSE_CONFIG + " not found on the classpath");
+            }
+            JoranConfigurator configurator = new JoranConfigurator();
+            configurator.setContext(loggerContext);
+            configurator.doConfigure(config);
+        } catch (JoranException e) {
+            // Still honour --verbose, on the console only
+            loggerContext.reset();
+            BasicConfigurator basic = new BasicConfigurator();
+            basic.setContext(loggerContext);
+            basic.configure(loggerContext);
+            loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+            loggerContext.getLogger(LoggingConfig.class).warn("Could not load {}", VERBOSE_CONFIG, e);
         }
     }
 
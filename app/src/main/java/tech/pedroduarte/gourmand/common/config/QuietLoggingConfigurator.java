@@ -0,0 +1,23 @@
+package tech.pedroduarte.gourmand.common.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.Configurator;
+import ch.qos.logback.core.spi.ContextAwareBase;
+
+/**
+ * Default logback configuration, registered as a service so it runs before any XML lookup.
+ * <p>
+ * It only turns the root logger off: no appenders are created and Joran is never loaded,
+ * which keeps a one-shot search from paying for logging it will not use. The console and
+ * file appenders are set up by {@link LoggingConfig} when {@code --verbose} is given.
+ */
+public class QuietLoggingConfigurator extends ContextAwareBase implements Configurator {
+
+    @Override
+    public ExecutionStatus configure(LoggerContext loggerContext) {
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.OFF);
+        return ExecutionStatus.DO_NOT_INVOKE_NEXT_IF_ANY;
+    }
+}
@@ -0,0 +1,13 @@
+package tech.pedroduarte.gourmand.common.exception;
+
+/**
+ * Exception thrown when work is turned away because too much is already running or waiting.
+ * The caller may retry later.
+ */
+public class OverloadedException extends RuntimeException {
+
+    public OverloadedException(String message) {
+        super(message);
+    }
+
+}
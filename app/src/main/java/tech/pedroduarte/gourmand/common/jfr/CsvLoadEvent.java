@@ -0,0 +1,30 @@
+package tech.pedroduarte.gourmand.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Reading and parsing one CSV data file, from opening it to the last row.
+ */
+@Name("tech.pedroduarte.gourmand.CsvLoad")
+@Label("CSV Load")
+@Category({"Gourmand", "Data"})
+@Description("Reading and parsing one CSV data file")
+@StackTrace(false)
+public final class CsvLoadEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,25 @@
+package tech.pedroduarte.gourmand.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A search index built because no cached one covered the current data.
+ */
+@Name("tech.pedroduarte.gourmand.IndexBuild")
+@Label("Index Build")
+@Category({"Gourmand", "Search"})
+@Description("A search index built on first use after the data changed")
+@StackTrace(false)
+public final class IndexBuildEvent extends Event {
+
+    @Label("Index")
+    public String index;
+
+    @Label("Rows")
+    public long rows;
+}
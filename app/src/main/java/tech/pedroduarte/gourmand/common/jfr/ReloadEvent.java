@@ -0,0 +1,29 @@
+package tech.pedroduarte.gourmand.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Loading the data again and publishing it as a new snapshot.
+ */
+@Name("tech.pedroduarte.gourmand.Reload")
+@Label("Reload")
+@Category({"Gourmand", "Data"})
+@Description("Loading the data files again and publishing them as a new snapshot")
+@StackTrace(false)
+public final class ReloadEvent extends Event {
+
+    @Label("Version")
+    public long version;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Journaled Changes")
+    @Description("Changes replayed from the journal over the loaded data")
+    public long journaled;
+}
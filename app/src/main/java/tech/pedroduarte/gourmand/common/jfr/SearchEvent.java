@@ -0,0 +1,44 @@
+package tech.pedroduarte.gourmand.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One search, from the call to the materialized results.
+ */
+@Name("tech.pedroduarte.gourmand.Search")
+@Label("Search")
+@Category({"Gourmand", "Search"})
+@Description("One search with its criteria shape, access path and row counts")
+@StackTrace(false)
+public final class SearchEvent extends Event {
+
+    @Label("Criteria")
+    @Description("Filters given, e.g. name+rating+cuisine; the values themselves are left out")
+    public String criteria;
+
+    @Label("Access Path")
+    public String accessPath;
+
+    @Label("Limit")
+    public int limit;
+
+    @Label("Candidates")
+    @Description("Rows the access path produced")
+    public long candidates;
+
+    @Label("Rows Scanned")
+    @Description("Rows the filters were evaluated on")
+    public long rowsScanned;
+
+    @Label("Results")
+    public int results;
+
+    @Label("Coalesced")
+    @Description("Whether the search shared the results of an identical one already running")
+    public boolean coalesced;
+}
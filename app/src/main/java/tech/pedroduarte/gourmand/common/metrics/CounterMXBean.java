@@ -0,0 +1,9 @@
+package tech.pedroduarte.gourmand.common.metrics;
+
+/**
+ * JMX view of one {@link Metrics.Counter}.
+ */
+public interface CounterMXBean {
+
+    long getValue();
+}
@@ -0,0 +1,187 @@
+package tech.pedroduarte.gourmand.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution of durations in nanoseconds, recorded without locks.
+ * <p>
+ * Buckets are log-linear, as in HdrHistogram: every power of two is split into 32 equal
+ * sub-buckets, so any percentile is reported within about 3% of the true value while a whole
+ * histogram is a fixed array of about a thousand counters. Durations from 2<sup>40</sup> ns (about
+ * 18 minutes) up share the last bucket; the maximum is kept exactly.
+ * <p>
+ * Each thread records into one of several stripes picked by its id, so threads on different
+ * cores rarely touch the same cache lines. A {@link #snapshot()} sums the stripes; it is not an
+ * atomic cut across concurrent recordings, which is fine for monitoring.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_MAGNITUDE = 39;
+    private static final long MAX_TRACKED = (1L << (MAX_MAGNITUDE + 1)) - 1;
+    static final int BUCKETS = (MAX_MAGNITUDE - SUB_BITS + 2) * SUB_COUNT;
+
+    // Each stripe holds its buckets followed by the sum and the maximum of its durations
+    private static final int SUM = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+
+    public LatencyHistogram() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    LatencyHistogram(int threads) {
+        int count = Integer.highestOneBit(Math.max(1, Math.min(threads, 64)) * 2 - 1);
+        this.stripes = new AtomicLongArray[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS + 2);
+        }
+        this.stripeMask = count - 1;
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        AtomicLongArray stripe = stripes[(int) Thread.currentThread().threadId() & stripeMask];
+        stripe.getAndIncrement(bucketOf(value));
+        stripe.getAndAdd(SUM, value);
+        long max = stripe.get(MAX);
+        while (value > max && !stripe.compareAndSet(MAX, max, value)) {
+            max = stripe.get(MAX);
+        }
+    }
+
+    /**
+     * Clears every recording. Durations recorded while it runs may survive it in part.
+     */
+    public void reset() {
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < stripe.length(); i++) {
+                stripe.set(i, 0);
+            }
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucket = stripe.get(i);
+                counts[i] += bucket;
+                count += bucket;
+            }
+            sum += stripe.get(SUM);
+            max = Math.max(max, stripe.get(MAX));
+        }
+        return new Snapshot(counts, count, sum, max);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        long tracked = Math.min(value, MAX_TRACKED);
+        int magnitude = 63 - Long.numberOfLeadingZeros(tracked);
+        int shift = magnitude - SUB_BITS;
+        // The leading one bit plus the next SUB_BITS bits pick the sub-bucket within the power of two
+        return ((magnitude - SUB_BITS + 1) << SUB_BITS) + (int) (tracked >>> shift) - SUB_COUNT;
+    }
+
+    /**
+     * Largest value that falls in the bucket.
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket >> SUB_BITS) - 1;
+        long mantissa = (bucket & (SUB_COUNT - 1)) + SUB_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Immutable copy of a histogram at one point in time.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long max() {
+            return max;
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Smallest duration that at least {@code percentile} percent of the recordings do not
+         * exceed, rounded up to the top of its bucket; 0 when nothing was recorded.
+         */
+        public long valueAtPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100");
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                seen += counts[bucket];
+                if (seen >= rank) {
+                    // The last bucket also holds every duration too long to track
+                    return bucket == counts.length - 1 ? max : Math.min(highestValueOf(bucket), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Copy that also counts the recordings a stalled closed-loop client never made, as
+         * HdrHistogram's {@code copyCorrectedForCoordinatedOmission} does: every duration longer
+         * than {@code expectedInterval} adds one recording of each of the durations the requests
+         * queued behind it would have seen, that duration less one, two, … intervals.
+         */
+        public Snapshot correctedForCoordinatedOmission(long expectedInterval) {
+            if (expectedInterval <= 0) {
+                throw new IllegalArgumentException("Expected interval must be positive");
+            }
+            long[] corrected = counts.clone();
+            long correctedCount = count;
+            long correctedSum = sum;
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                long recordings = counts[bucket];
+                if (recordings == 0) {
+                    continue;
+                }
+                long value = bucket == counts.length - 1 ? max : Math.min(highestValueOf(bucket), max);
+                for (long missing = value - expectedInterval; missing >= expectedInterval; missing -= expectedInterval) {
+                    corrected[bucketOf(missing)] += recordings;
+                    correctedCount += recordings;
+                    correctedSum += missing * recordings;
+                }
+            }
+            return new Snapshot(corrected, correctedCount, correctedSum, max);
+        }
+    }
+}
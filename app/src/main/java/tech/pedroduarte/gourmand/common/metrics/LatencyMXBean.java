@@ -0,0 +1,21 @@
+package tech.pedroduarte.gourmand.common.metrics;
+
+/**
+ * JMX view of one {@link Metrics.Timer}, in microseconds.
+ */
+public interface LatencyMXBean {
+
+    long getCount();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP90Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+}
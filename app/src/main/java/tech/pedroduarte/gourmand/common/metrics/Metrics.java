@@ -0,0 +1,133 @@
+package tech.pedroduarte.gourmand.common.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide latency histograms and counters of the search pipeline.
+ * <p>
+ * Recording is off until {@link #enable()} is called. While off, {@link #start()} returns 0
+ * without reading the clock and every other call returns after reading one flag, so the
+ * instrumented code costs nothing measurable. While on, timing a stage reads the clock twice
+ * and records into a {@link LatencyHistogram}; counters are {@link LongAdder}s, striped like
+ * the histograms. Either way recording never blocks.
+ * <p>
+ * Timers are read with {@link #start()} and handed back to {@link #record}, in the same way
+ * as the timers of a search probe.
+ */
+public final class Metrics {
+
+    /**
+     * Timed stages, each with its own histogram.
+     */
+    public enum Timer {
+        LOAD("load"),
+        RELOAD("reload"),
+        INDEX_BUILD("index-build"),
+        SEARCH("search"),
+        FIND_MATCHES("findMatches"),
+        SORT_BY_RELEVANCE("sortByRelevance"),
+        RENDER("render");
+
+        private final String label;
+
+        Timer(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    public enum Counter {
+        ROWS_LOADED("rows-loaded"),
+        ROWS_SCANNED("rows-scanned"),
+        INDEX_CACHE_HITS("index-cache-hits"),
+        INDEX_CACHE_MISSES("index-cache-misses"),
+        EXECUTED_SEARCHES("executed-searches"),
+        COALESCED_SEARCHES("coalesced-searches");
+
+        private final String label;
+
+        Counter(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    private static final Map<Timer, LatencyHistogram> HISTOGRAMS = new EnumMap<>(Timer.class);
+    private static final Map<Counter, LongAdder> COUNTERS = new EnumMap<>(Counter.class);
+    private static volatile boolean enabled;
+
+    static {
+        for (Timer timer : Timer.values()) {
+            HISTOGRAMS.put(timer, new LatencyHistogram());
+        }
+        for (Counter counter : Counter.values()) {
+            COUNTERS.put(counter, new LongAdder());
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static void disable() {
+        enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Current time for {@link #record}, or 0 when recording is off.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records the time since {@code startedAt}. Does nothing for a timer started while
+     * recording was off.
+     */
+    public static void record(Timer timer, long startedAt) {
+        if (startedAt != 0L) {
+            HISTOGRAMS.get(timer).record(System.nanoTime() - startedAt);
+        }
+    }
+
+    public static void increment(Counter counter) {
+        add(counter, 1);
+    }
+
+    public static void add(Counter counter, long amount) {
+        if (enabled) {
+            COUNTERS.get(counter).add(amount);
+        }
+    }
+
+    public static LatencyHistogram.Snapshot snapshot(Timer timer) {
+        return HISTOGRAMS.get(timer).snapshot();
+    }
+
+    public static long count(Counter counter) {
+        return COUNTERS.get(counter).sum();
+    }
+
+    /**
+     * Clears every histogram and counter, leaving recording on or off.
+     */
+    public static void reset() {
+        HISTOGRAMS.values().forEach(LatencyHistogram::reset);
+        COUNTERS.values().forEach(LongAdder::reset);
+    }
+}
@@ -0,0 +1,104 @@
+package tech.pedroduarte.gourmand.common.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Publishes the {@link Metrics} as MXBeans of the platform MBean server, one per timer under
+ * {@code tech.pedroduarte.gourmand:type=Latency,name=<timer>} and one per counter under
+ * {@code tech.pedroduarte.gourmand:type=Counter,name=<counter>}, for JConsole, VisualVM or any
+ * JMX exporter to read from a running process.
+ * <p>
+ * The beans read the live histograms on every access, so they reflect recordings made after
+ * they were registered.
+ */
+public final class MetricsJmx {
+
+    static final String DOMAIN = "tech.pedroduarte.gourmand";
+
+    private MetricsJmx() {
+    }
+
+    /**
+     * Registers every bean not registered yet.
+     */
+    public static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (Metrics.Timer timer : Metrics.Timer.values()) {
+                register(server, latencyName(timer), new Latency(timer));
+            }
+            for (Metrics.Counter counter : Metrics.Counter.values()) {
+                register(server, counterName(counter), new Count(counter));
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register metrics with JMX", e);
+        }
+    }
+
+    static ObjectName latencyName(Metrics.Timer timer) throws JMException {
+        return new ObjectName(DOMAIN + ":type=Latency,name=" + timer.label());
+    }
+
+    static ObjectName counterName(Metrics.Counter counter) throws JMException {
+        return new ObjectName(DOMAIN + ":type=Counter,name=" + counter.label());
+    }
+
+    private static void register(MBeanServer server, ObjectName name, Object bean) throws JMException {
+        if (!server.isRegistered(name)) {
+            server.registerMBean(bean, name);
+        }
+    }
+
+    private static double micros(double nanos) {
+        return nanos / 1_000;
+    }
+
+    private record Latency(Metrics.Timer timer) implements LatencyMXBean {
+
+        @Override
+        public long getCount() {
+            return Metrics.snapshot(timer).count();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return micros(Metrics.snapshot(timer).mean());
+        }
+
+        @Override
+        public double getP50Micros() {
+            return micros(Metrics.snapshot(timer).valueAtPercentile(50));
+        }
+
+        @Override
+        public double getP90Micros() {
+            return micros(Metrics.snapshot(timer).valueAtPercentile(90));
+        }
+
+        @Override
+        public double getP99Micros() {
+            return micros(Metrics.snapshot(timer).valueAtPercentile(99));
+        }
+
+        @Override
+        public double getP999Micros() {
+            return micros(Metrics.snapshot(timer).valueAtPercentile(99.9));
+        }
+
+        @Override
+        public double getMaxMicros() {
+            return micros(Metrics.snapshot(timer).max());
+        }
+    }
+
+    private record Count(Metrics.Counter counter) implements CounterMXBean {
+
+        @Override
+        public long getValue() {
+            return Metrics.count(counter);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package tech.pedroduarte.gourmand.common.metrics;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Plain text table of the {@link Metrics}, for commands that print them once before exiting.
+ * Timers and counters that recorded nothing are left out.
+ */
+public final class MetricsReport {
+
+    private static final String TIMER_FORMAT = "%-16s %7s %10s %10s %10s %10s %10s%n";
+    private static final String COUNTER_FORMAT = "%-20s %12s%n";
+
+    private MetricsReport() {
+    }
+
+    public static void print(PrintWriter writer) {
+        writer.printf(TIMER_FORMAT, "STAGE", "COUNT", "MEAN", "P50", "P90", "P99", "MAX");
+        for (Metrics.Timer timer : Metrics.Timer.values()) {
+            LatencyHistogram.Snapshot snapshot = Metrics.snapshot(timer);
+            if (snapshot.count() == 0) {
+                continue;
+            }
+            writer.printf(TIMER_FORMAT, timer.label(), snapshot.count(),
+                    duration(snapshot.mean()),
+                    duration(snapshot.valueAtPercentile(50)),
+                    duration(snapshot.valueAtPercentile(90)),
+                    duration(snapshot.valueAtPercentile(99)),
+                    duration(snapshot.max()));
+        }
+        writer.println();
+        writer.printf(COUNTER_FORMAT, "COUNTER", "VALUE");
+        for (Metrics.Counter counter : Metrics.Counter.values()) {
+            long value = Metrics.count(counter);
+            if (value != 0) {
+                writer.printf(COUNTER_FORMAT, counter.label(), value);
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Nanoseconds in the largest unit that keeps at least one whole digit.
+     */
+    public static String duration(double nanos) {
+        if (nanos >= 1_000_000_000) {
+            return String.format(Locale.ROOT, "%.2fs", nanos / 1_000_000_000);
+        }
+        if (nanos >= 1_000_000) {
+            return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000);
+        }
+        if (nanos >= 1_000) {
+            return String.format(Locale.ROOT, "%.1fus", nanos / 1_000);
+        }
+        return String.format(Locale.ROOT, "%.0fns", nanos);
+    }
+}
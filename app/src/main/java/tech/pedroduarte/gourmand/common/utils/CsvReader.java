@@ -7,6 +7,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -51,6 +52,30 @@ public class CsvReader {
         }
     }
 
+    /**
+     * Streams the rows of a CSV input one at a time instead of loading it into memory.
+     * Blank lines are skipped and a header, if present, is passed on like any other row.
+     */
+    public void forEachRow(InputStream inputStream, Consumer<String[]> consumer) {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("InputStream cannot be null");
+        }
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = parseLine(line);
+                if (values != null) {
+                    consumer.accept(values);
+                }
+            }
+
+        } catch (IOException e) {
+            throw new DataLoadException("Failed to read CSV data", e);
+        }
+    }
 
     private String[] parseLine(String line) {
         if (line == null || line.trim().isEmpty()) {
@@ -61,9 +86,16 @@ public class CsvReader {
         StringBuilder currentValue = new StringBuilder();
         boolean inQuotes = false;
 
-        for (char c : line.toCharArray()) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
             if (c == '"') {
-                inQuotes = !inQuotes;
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    // A doubled quote inside a quoted value stands for the quote itself
+                    currentValue.append('"');
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
             } else if (c == SEPARATOR && !inQuotes) {
                 values.add(currentValue.toString().trim());
                 currentValue.setLength(0);
@@ -74,17 +106,7 @@ public class CsvReader {
 
         values.add(currentValue.toString().trim());
 
-        return values.stream()
-                .map(this::cleanValue)
-                .toArray(String[]::new);
-    }
-
-    private String cleanValue(String value) {
-        String cleaned = value.trim();
-        if (cleaned.startsWith("\"") && cleaned.endsWith("\"")) {
-            cleaned = cleaned.substring(1, cleaned.length() - 1).trim();
-        }
-        return cleaned;
+        return values.toArray(String[]::new);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package tech.pedroduarte.gourmand.common.utils;
+
+import java.util.function.Supplier;
+
+/**
+ * Value computed on first use, exactly once, however many threads ask for it at the same time.
+ */
+public final class Lazy<T> implements Supplier<T> {
+
+    private final Supplier<T> factory;
+    private volatile T value;
+
+    public Lazy(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public T get() {
+        T current = value;
+        if (current == null) {
+            synchronized (this) {
+                current = value;
+                if (current == null) {
+                    current = factory.get();
+                    value = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,92 @@
+package tech.pedroduarte.gourmand.common.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one computation per key at a time: callers asking for a key whose computation is
+ * still running wait for it and share its outcome, value or exception, instead of starting their
+ * own.
+ * <p>
+ * Nothing is kept once a computation finishes, so a later caller always computes afresh and a
+ * failure never outlives the callers that were waiting for it.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final Runnable onCoalesced;
+
+    public SingleFlight() {
+        this(() -> {
+        });
+    }
+
+    /**
+     * @param onCoalesced called for every caller that shares a computation already running,
+     *                    before it waits for the outcome
+     */
+    public SingleFlight(Runnable onCoalesced) {
+        this.onCoalesced = onCoalesced;
+    }
+
+    public V run(K key, Supplier<V> computation) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.increment();
+            onCoalesced.run();
+            return await(running);
+        }
+        executions.increment();
+        try {
+            V value = computation.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            if (e.getCause() instanceof Error failure) {
+                throw failure;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Computations started, one per caller that found no computation of its key running.
+     */
+    public long executions() {
+        return executions.sum();
+    }
+
+    /**
+     * Callers that shared the computation another caller had already started.
+     */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Keys being computed right now.
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,142 @@
+package tech.pedroduarte.gourmand.features.datagen.application;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Writes synthetic {@code restaurants.csv} and {@code cuisines.csv} files in the schema the CSV
+ * repository reads.
+ * <ul>
+ *   <li>Cuisines start with real cuisine names, followed by made-up ones when more are asked
+ *   for. Their popularity follows a Zipf distribution, so the first cuisines are the most
+ *   common.</li>
+ *   <li>Names are two words of the vocabulary, drawn by a Zipf distribution too, followed by
+ *   the row number, which keeps every name unique.</li>
+ *   <li>Ratings follow the given weights. Distances from 1 to 10 miles, prices from $10 to $50
+ *   in steps of $5 and coordinates around Manhattan are uniform.</li>
+ * </ul>
+ * Every choice comes from one seeded generator, so a spec always produces the same bytes.
+ * Rows are formatted and written one at a time, so memory use does not depend on the row count.
+ */
+public class DatasetGenerator {
+
+    public static final String RESTAURANTS_FILE = "restaurants.csv";
+    public static final String CUISINES_FILE = "cuisines.csv";
+
+    private static final List<String> CUISINE_NAMES = List.of(
+            "American", "Chinese", "Italian", "Mexican", "Japanese", "Thai", "Indian", "French", "Korean",
+            "Vietnamese", "Greek", "Spanish", "Turkish", "Lebanese", "German", "Brazilian", "Peruvian",
+            "Ethiopian", "Moroccan", "Malaysian", "Indonesian", "Russian", "Caribbean", "Portuguese", "Filipino");
+    private static final List<String> NAME_WORDS = List.of(
+            "Golden", "Grill", "Bistro", "Kitchen", "Garden", "House", "Palace", "Corner", "Tasty", "Spicy",
+            "Delicious", "Herbed", "Fresh", "Urban", "Royal", "Street", "Harbor", "Village", "Crispy", "Smoky",
+            "Dragon", "Lotus", "Olive", "Fiesta", "Sakura", "Bamboo", "Saffron", "Basil", "Ember", "Hearth");
+    private static final String[] ONSETS = {
+            "b", "c", "d", "f", "g", "h", "j", "k", "l", "m", "n", "p", "r", "s", "t", "v", "z", "ch", "sh", "tr"};
+    private static final String[] VOWELS = {"a", "e", "i", "o", "u", "ai", "ou"};
+
+    // Area the coordinates fall in, in micro-degrees
+    private static final long MIN_LATITUDE = 40_650_000;
+    private static final long MIN_LONGITUDE = -74_050_000;
+    private static final int COORDINATE_SPREAD = 200_000;
+
+    private static final int WRITE_BUFFER = 1 << 16;
+
+    private final DatasetSpec spec;
+
+    public DatasetGenerator(DatasetSpec spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * Writes both files into the directory, creating it if needed and replacing files already
+     * there.
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (Writer cuisines = Files.newBufferedWriter(directory.resolve(CUISINES_FILE), StandardCharsets.UTF_8);
+             Writer restaurants = new BufferedWriter(new OutputStreamWriter(
+                     Files.newOutputStream(directory.resolve(RESTAURANTS_FILE)), StandardCharsets.UTF_8), WRITE_BUFFER)) {
+            write(cuisines, restaurants);
+        }
+    }
+
+    void write(Writer cuisinesOut, Writer restaurantsOut) throws IOException {
+        SplittableRandom random = new SplittableRandom(spec.seed());
+        List<String> cuisines = words(CUISINE_NAMES, spec.cuisines(), random.split());
+        List<String> vocabulary = words(NAME_WORDS, spec.vocabularySize(), random.split());
+
+        cuisinesOut.write("id,name\n");
+        for (int i = 0; i < cuisines.size(); i++) {
+            cuisinesOut.write((i + 1) + "," + cuisines.get(i) + "\n");
+        }
+
+        DiscreteDistribution cuisine = DiscreteDistribution.zipf(cuisines.size(), spec.cuisineSkew());
+        DiscreteDistribution word = DiscreteDistribution.zipf(vocabulary.size(), spec.nameSkew());
+        DiscreteDistribution rating = DiscreteDistribution.weighted(spec.ratingWeights());
+        SplittableRandom rows = random.split();
+        StringBuilder line = new StringBuilder(128);
+
+        restaurantsOut.write("name,customer_rating,distance,price,cuisine_id,latitude,longitude\n");
+        for (long row = 0; row < spec.rows(); row++) {
+            line.setLength(0);
+            line.append(vocabulary.get(word.next(rows))).append(' ')
+                    .append(vocabulary.get(word.next(rows))).append(' ')
+                    .append(row + 1).append(',')
+                    .append(rating.next(rows) + 1).append(',')
+                    .append(1 + rows.nextInt(10)).append(',')
+                    .append(10 + 5 * rows.nextInt(9)).append(',')
+                    .append(cuisine.next(rows) + 1).append(',');
+            appendDegrees(line, MIN_LATITUDE + rows.nextInt(COORDINATE_SPREAD));
+            line.append(',');
+            appendDegrees(line, MIN_LONGITUDE + rows.nextInt(COORDINATE_SPREAD));
+            line.append('\n');
+            restaurantsOut.append(line);
+        }
+    }
+
+    /**
+     * The known words first, then made-up words of two or three syllables until there are
+     * {@code count} distinct ones, all letters only and capitalized.
+     */
+    static List<String> words(List<String> known, int count, SplittableRandom random) {
+        Set<String> words = new LinkedHashSet<>(known.subList(0, Math.min(count, known.size())));
+        StringBuilder word = new StringBuilder();
+        while (words.size() < count) {
+            word.setLength(0);
+            int syllables = 2 + random.nextInt(2);
+            for (int i = 0; i < syllables; i++) {
+                word.append(ONSETS[random.nextInt(ONSETS.length)]).append(VOWELS[random.nextInt(VOWELS.length)]);
+            }
+            word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+            words.add(word.toString());
+        }
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Writes micro-degrees as a decimal with six places, without going through a double.
+     */
+    private static void appendDegrees(StringBuilder line, long microDegrees) {
+        if (microDegrees < 0) {
+            line.append('-');
+            microDegrees = -microDegrees;
+        }
+        line.append(microDegrees / 1_000_000).append('.');
+        long fraction = microDegrees % 1_000_000;
+        for (long digit = 100_000; digit > fraction && digit > 1; digit /= 10) {
+            line.append('0');
+        }
+        line.append(fraction);
+    }
+}
@@ -0,0 +1,72 @@
+package tech.pedroduarte.gourmand.features.datagen.application;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Size and distributions of a synthetic dataset. The same spec always produces the same files.
+ *
+ * @param rows           restaurants to write
+ * @param cuisines       distinct cuisines
+ * @param seed           seed of every random choice
+ * @param cuisineSkew    Zipf exponent of cuisine popularity; 0 gives every cuisine the same share
+ * @param ratingWeights  relative share of each rating, from 1 to 5 stars
+ * @param vocabularySize distinct words restaurant names are made of
+ * @param nameSkew       Zipf exponent of how often each word appears in names
+ */
+public record DatasetSpec(
+        long rows,
+        int cuisines,
+        long seed,
+        double cuisineSkew,
+        List<Integer> ratingWeights,
+        int vocabularySize,
+        double nameSkew
+) {
+
+    public static final int DEFAULT_CUISINES = 19;
+    public static final long DEFAULT_SEED = 42;
+    public static final double DEFAULT_CUISINE_SKEW = 1.0;
+    /**
+     * {@link #DEFAULT_RATING_WEIGHTS} as comma-separated text, the form the command line takes.
+     */
+    public static final String DEFAULT_RATING_WEIGHTS_TEXT = "5,10,25,35,25";
+    public static final List<Integer> DEFAULT_RATING_WEIGHTS =
+            Arrays.stream(DEFAULT_RATING_WEIGHTS_TEXT.split(",")).map(Integer::valueOf).toList();
+    public static final int DEFAULT_VOCABULARY_SIZE = 500;
+    public static final double DEFAULT_NAME_SKEW = 1.0;
+    /**
+     * Most cuisines or name words, well within the made-up words that can be formed.
+     */
+    public static final int MAX_WORDS = 100_000;
+
+    public DatasetSpec {
+        if (rows < 0) {
+            throw new IllegalArgumentException("Rows must not be negative");
+        }
+        if (cuisines < 1 || cuisines > MAX_WORDS) {
+            throw new IllegalArgumentException(String.format("Cuisines must be between 1 and %d", MAX_WORDS));
+        }
+        if (cuisineSkew < 0 || nameSkew < 0) {
+            throw new IllegalArgumentException("Skew must not be negative");
+        }
+        if (ratingWeights.size() != 5
+                || ratingWeights.stream().anyMatch(weight -> weight < 0)
+                || ratingWeights.stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException(
+                    "Rating weights must be 5 non-negative numbers, one per rating, not all zero");
+        }
+        if (vocabularySize < 2 || vocabularySize > MAX_WORDS) {
+            throw new IllegalArgumentException(String.format("Vocabulary must have between 2 and %d words", MAX_WORDS));
+        }
+        ratingWeights = List.copyOf(ratingWeights);
+    }
+
+    /**
+     * A spec with the default distributions.
+     */
+    public static DatasetSpec of(long rows, int cuisines, long seed) {
+        return new DatasetSpec(rows, cuisines, seed, DEFAULT_CUISINE_SKEW, DEFAULT_RATING_WEIGHTS,
+                DEFAULT_VOCABULARY_SIZE, DEFAULT_NAME_SKEW);
+    }
+}
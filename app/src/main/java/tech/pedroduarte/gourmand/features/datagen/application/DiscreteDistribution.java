@@ -0,0 +1,57 @@
+package tech.pedroduarte.gourmand.features.datagen.application;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Draws indexes from 0 to n - 1 with fixed probabilities, by binary search over the cumulative
+ * weights, so a draw costs O(log n) and no allocation.
+ */
+final class DiscreteDistribution {
+
+    private final double[] cumulative;
+
+    private DiscreteDistribution(double[] weights) {
+        cumulative = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+        cumulative[cumulative.length - 1] = 1.0;
+    }
+
+    /**
+     * Index i drawn with probability proportional to 1 / (i + 1)^exponent.
+     */
+    static DiscreteDistribution zipf(int n, double exponent) {
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = 1.0 / Math.pow(i + 1, exponent);
+        }
+        return new DiscreteDistribution(weights);
+    }
+
+    static DiscreteDistribution weighted(List<Integer> weights) {
+        return new DiscreteDistribution(weights.stream().mapToDouble(Integer::doubleValue).toArray());
+    }
+
+    int next(SplittableRandom random) {
+        // First index whose cumulative weight exceeds the draw, which skips zero weights
+        double draw = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] > draw) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,120 @@
+package tech.pedroduarte.gourmand.features.datagen.cli;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+import tech.pedroduarte.gourmand.features.datagen.application.DatasetGenerator;
+import tech.pedroduarte.gourmand.features.datagen.application.DatasetSpec;
+
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+@Command(
+        name = "gen-data",
+        description = "Writes a synthetic restaurants.csv and cuisines.csv of any size, the same for a given seed",
+        mixinStandardHelpOptions = true,
+        version = "1.0"
+)
+public class GenDataCommand implements Callable<Integer> {
+
+    private final static Logger logger = LoggerFactory.getLogger(GenDataCommand.class);
+
+    @Spec
+    private CommandSpec spec;
+
+    @Option(
+            names = {"--rows"},
+            description = "Number of restaurants",
+            paramLabel = "N",
+            required = true
+    )
+    private long rows;
+
+    @Option(
+            names = {"--cuisines"},
+            description = "Number of cuisines (default: ${DEFAULT-VALUE})",
+            paramLabel = "M",
+            defaultValue = "" + DatasetSpec.DEFAULT_CUISINES
+    )
+    private int cuisines;
+
+    @Option(
+            names = {"--seed"},
+            description = "Seed of every random choice (default: ${DEFAULT-VALUE})",
+            paramLabel = "S",
+            defaultValue = "" + DatasetSpec.DEFAULT_SEED
+    )
+    private long seed;
+
+    @Option(
+            names = {"--out"},
+            description = "Directory to write the files to, usable as --data-dir",
+            paramLabel = "DIR",
+            required = true
+    )
+    private Path out;
+
+    @Option(
+            names = {"--cuisine-skew"},
+            description = "Zipf exponent of cuisine popularity, 0 for even shares (default: ${DEFAULT-VALUE})",
+            paramLabel = "S",
+            defaultValue = "" + DatasetSpec.DEFAULT_CUISINE_SKEW
+    )
+    private double cuisineSkew;
+
+    @Option(
+            names = {"--ratings"},
+            description = "Relative share of ratings 1 to 5 (default: ${DEFAULT-VALUE})",
+            paramLabel = "W1,W2,W3,W4,W5",
+            split = ",",
+            defaultValue = DatasetSpec.DEFAULT_RATING_WEIGHTS_TEXT
+    )
+    private List<Integer> ratingWeights;
+
+    @Option(
+            names = {"--vocabulary"},
+            description = "Distinct words restaurant names are made of (default: ${DEFAULT-VALUE})",
+            paramLabel = "N",
+            defaultValue = "" + DatasetSpec.DEFAULT_VOCABULARY_SIZE
+    )
+    private int vocabularySize;
+
+    @Option(
+            names = {"--name-skew"},
+            description = "Zipf exponent of how often each word appears in names (default: ${DEFAULT-VALUE})",
+            paramLabel = "S",
+            defaultValue = "" + DatasetSpec.DEFAULT_NAME_SKEW
+    )
+    private double nameSkew;
+
+    @Option(
+            names = {"-v", "--verbose"},
+            description = "Prints additional information"
+    )
+    private boolean verbose;
+
+    @Override
+    public Integer call() {
+        PrintWriter writer = spec.commandLine().getOut();
+        try {
+            DatasetSpec dataset = new DatasetSpec(rows, cuisines, seed, cuisineSkew, ratingWeights, vocabularySize,
+                    nameSkew);
+            long started = System.nanoTime();
+            new DatasetGenerator(dataset).write(out);
+            long millis = (System.nanoTime() - started) / 1_000_000;
+
+            writer.printf("Wrote %d restaurants and %d cuisines to %s in %d ms%n", rows, cuisines, out, millis);
+            writer.flush();
+            return 0;
+        } catch (Exception e) {
+            spec.commandLine().getErr().printf("Error: %s%n", e.getMessage());
+            logger.error("Error generating data", e);
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package tech.pedroduarte.gourmand.features.search.application;
+
+import tech.pedroduarte.gourmand.common.exception.OverloadedException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounds how many searches run at once, so that overload turns into quick rejections instead of
+ * a growing backlog of slow requests.
+ * <p>
+ * Work runs on the calling thread once admitted. Up to the current concurrency limit runs at
+ * once; the limit adapts to latency through {@link AimdLimit}. Callers beyond it wait in a
+ * bounded FIFO queue, each for at most the queue timeout. An {@link OverloadedException} turns
+ * a caller away:
+ * <ul>
+ *   <li>when the queue is full,</li>
+ *   <li>when the expected wait, from the queue length and the average latency, already exceeds
+ *   the queue timeout,</li>
+ *   <li>or when its timeout passes before a slot frees up. A waiter whose timeout has passed is
+ *   never started late.</li>
+ * </ul>
+ * Waiting callers hold no more than a queue entry, so memory stays bounded however many
+ * requests arrive.
+ */
+public class AdmissionController {
+
+    private static final int LATENCY_SMOOTHING = 8;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+    private final AimdLimit limit;
+    private final int queueCapacity;
+    private final long queueTimeoutNanos;
+    private int running;
+    private long averageLatencyNanos;
+    private long admitted;
+    private long rejected;
+    private long shed;
+
+    /**
+     * @param initialLimit  concurrent searches allowed before any latency has been observed
+     * @param maxLimit      most concurrent searches the limit may grow to
+     * @param latencyTarget latency above which the limit is cut
+     * @param queueCapacity most searches waiting for a slot
+     * @param queueTimeout  longest a search waits for a slot
+     */
+    public AdmissionController(int initialLimit, int maxLimit, Duration latencyTarget, int queueCapacity,
+                               Duration queueTimeout) {
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Queue capacity must not be negative");
+        }
+        if (queueTimeout.isNegative()) {
+            throw new IllegalArgumentException("Queue timeout must not be negative");
+        }
+        this.limit = new AimdLimit(initialLimit, maxLimit, latencyTarget.toNanos());
+        this.queueCapacity = queueCapacity;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+    }
+
+    /**
+     * Runs the work once admitted and returns its result.
+     *
+     * @throws OverloadedException when the work is turned away without running
+     */
+    public <T> T execute(Supplier<T> work) {
+        acquire();
+        long started = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            release(System.nanoTime() - started);
+        }
+    }
+
+    private void acquire() {
+        lock.lock();
+        try {
+            // Whenever callers wait, the limit is in use, so a finishing call will admit them
+            if (queue.isEmpty() && running < limit.current()) {
+                running++;
+                admitted++;
+                return;
+            }
+            if (queue.size() >= queueCapacity) {
+                rejected++;
+                throw new OverloadedException(String.format(
+                        "Too many searches waiting (%d), try again later", queue.size()));
+            }
+            long expectedWait = (queue.size() + 1) * averageLatencyNanos / limit.current();
+            if (expectedWait > queueTimeoutNanos) {
+                rejected++;
+                throw new OverloadedException(String.format(
+                        "Searches are waiting longer than %d ms, try again later", queueTimeoutMillis()));
+            }
+            await(new Waiter(lock.newCondition(), System.nanoTime() + queueTimeoutNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void await(Waiter waiter) {
+        queue.addLast(waiter);
+        boolean interrupted = false;
+        try {
+            while (!waiter.admitted) {
+                long remaining = waiter.deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    queue.remove(waiter);
+                    shed++;
+                    limit.onDropped();
+                    throw new OverloadedException(String.format(
+                            "No search slot freed up within %d ms, try again later", queueTimeoutMillis()));
+                }
+                try {
+                    waiter.ready.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    // The deadline bounds the wait anyway
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void release(long latencyNanos) {
+        lock.lock();
+        try {
+            limit.onFinished(latencyNanos, running);
+            running--;
+            averageLatencyNanos = averageLatencyNanos == 0
+                    ? latencyNanos
+                    : averageLatencyNanos + (latencyNanos - averageLatencyNanos) / LATENCY_SMOOTHING;
+            long now = System.nanoTime();
+            while (running < limit.current() && !queue.isEmpty()) {
+                Waiter next = queue.pollFirst();
+                if (next.deadline - now > 0) {
+                    running++;
+                    admitted++;
+                    next.admitted = true;
+                }
+                next.ready.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long queueTimeoutMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos);
+    }
+
+    /**
+     * Searches allowed to run at once right now.
+     */
+    public int limit() {
+        lock.lock();
+        try {
+            return limit.current();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int running() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Searches started, straight away or after waiting.
+     */
+    public long admitted() {
+        lock.lock();
+        try {
+            return admitted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Searches turned away on arrival, with a full queue or a wait longer than the timeout ahead.
+     */
+    public long rejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Searches that waited until their timeout and were then dropped without running.
+     */
+    public long shed() {
+        lock.lock();
+        try {
+            return shed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition ready;
+        private final long deadline;
+        private boolean admitted;
+
+        Waiter(Condition ready, long deadline) {
+            this.ready = ready;
+            this.deadline = deadline;
+        }
+    }
+}
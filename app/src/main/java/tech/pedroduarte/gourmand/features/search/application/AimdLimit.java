@@ -0,0 +1,67 @@
+package tech.pedroduarte.gourmand.features.search.application;
+
+/**
+ * Concurrency limit that adapts to latency by additive increase and multiplicative decrease.
+ * <p>
+ * Each call that finishes within the latency target raises the limit by {@code 1 / limit}, so
+ * about one more concurrent call is allowed per limit's worth of calls. The limit only grows
+ * while at least half of it is in use. A call slower than the target, or one dropped before
+ * it ran, cuts the limit by {@link #BACKOFF}. The limit is cut at most once per limit's worth
+ * of calls, because calls that started before a cut would otherwise cut it again.
+ * Not thread-safe: {@link AdmissionController} only uses it under its lock.
+ */
+final class AimdLimit {
+
+    static final double BACKOFF = 0.9;
+
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private double limit;
+    private int callsSinceDecrease;
+
+    AimdLimit(int initialLimit, int maxLimit, long latencyTargetNanos) {
+        if (initialLimit < 1 || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(String.format(
+                    "Initial concurrency limit must be between 1 and %d", maxLimit));
+        }
+        if (latencyTargetNanos <= 0) {
+            throw new IllegalArgumentException("Latency target must be positive");
+        }
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.limit = initialLimit;
+        this.callsSinceDecrease = Integer.MAX_VALUE;
+    }
+
+    int current() {
+        return (int) limit;
+    }
+
+    /**
+     * Records a finished call.
+     *
+     * @param running calls running when it finished, itself included
+     */
+    void onFinished(long latencyNanos, int running) {
+        if (callsSinceDecrease < Integer.MAX_VALUE) {
+            callsSinceDecrease++;
+        }
+        if (latencyNanos > latencyTargetNanos) {
+            decrease();
+        } else if (running * 2 >= current()) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    void onDropped() {
+        decrease();
+    }
+
+    private void decrease() {
+        if (callsSinceDecrease < current()) {
+            return;
+        }
+        limit = Math.max(1, limit * BACKOFF);
+        callsSinceDecrease = 0;
+    }
+}
@@ -0,0 +1,60 @@
+package tech.pedroduarte.gourmand.features.search.application;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.pedroduarte.gourmand.features.search.application.dto.Completion;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.index.PrefixIndex;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class AutocompleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteService.class);
+
+    private final RestaurantRepository restaurantRepository;
+    private final RestaurantSearchDomainService domainService;
+    private volatile PrefixIndex prefixIndex;
+
+    public AutocompleteService(RestaurantRepository restaurantRepository,
+                               RestaurantSearchDomainService domainService) {
+        this.restaurantRepository = restaurantRepository;
+        this.domainService = domainService;
+    }
+
+    /**
+     * Returns up to {@code limit} restaurant and cuisine names starting with the prefix,
+     * most relevant first.
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix cannot be null");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+
+        return prefixIndex().complete(prefix, limit).stream()
+                .map(Completion::fromDomain)
+                .collect(Collectors.toList());
+    }
+
+    private PrefixIndex prefixIndex() {
+        List<Restaurant> restaurants = restaurantRepository.findAll();
+        PrefixIndex current = prefixIndex;
+        if (current == null || !current.covers(restaurants)) {
+            current = PrefixIndex.build(
+                    restaurants,
+                    domainService.relevanceRanks(restaurants),
+                    restaurantRepository.findAllCuisines()
+            );
+            logger.info("Built prefix index with {} names", current.size());
+            prefixIndex = current;
+        }
+        return current;
+    }
+
+}
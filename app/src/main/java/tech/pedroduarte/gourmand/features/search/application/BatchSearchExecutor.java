@@ -0,0 +1,146 @@
+package tech.pedroduarte.gourmand.features.search.application;
+
+import tech.pedroduarte.gourmand.features.search.application.dto.SearchResult;
+import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Runs many searches concurrently while handing the results back in submission order.
+ * <p>
+ * Queries are grouped into chunks of {@code chunkSize}, and each chunk runs as one task
+ * through {@link SearchService#searchAll}, so its plain searches share a single scan of the
+ * data. At most {@code maxInFlight} chunks are pending at a time: once the window is full,
+ * {@link #submit} waits for the oldest chunk and reports it before accepting more, so
+ * arbitrarily long inputs are processed in constant memory.
+ * Instances are meant to be driven by a single thread.
+ */
+public class BatchSearchExecutor {
+
+    /**
+     * Receives the outcome of each query, always on the submitting thread and in order.
+     */
+    public interface ResultHandler {
+        void onResults(String queryId, List<SearchResult> results);
+
+        void onError(String queryId, Exception error);
+    }
+
+    private final SearchService searchService;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final int chunkSize;
+    private final ResultHandler handler;
+    private final Deque<CompletableFuture<List<Outcome>>> inFlight = new ArrayDeque<>();
+    private List<PendingQuery> chunk;
+
+    public BatchSearchExecutor(SearchService searchService, Executor executor, int maxInFlight, int chunkSize,
+                               ResultHandler handler) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("At least one chunk must be allowed in flight");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        this.searchService = searchService;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.chunkSize = chunkSize;
+        this.handler = handler;
+        this.chunk = new ArrayList<>(chunkSize);
+    }
+
+    /**
+     * Queues a query. The criteria are built on the worker thread, so a supplier that throws
+     * (invalid input) is reported through {@link ResultHandler#onError} at its position.
+     */
+    public void submit(String queryId, Supplier<SearchCriteria> criteria) {
+        chunk.add(new PendingQuery(queryId, criteria));
+        if (chunk.size() == chunkSize) {
+            dispatch();
+        }
+    }
+
+    /**
+     * Waits for every pending query and reports them in order.
+     */
+    public void flush() {
+        if (!chunk.isEmpty()) {
+            dispatch();
+        }
+        while (!inFlight.isEmpty()) {
+            completeOldest();
+        }
+    }
+
+    private void dispatch() {
+        while (inFlight.size() >= maxInFlight) {
+            completeOldest();
+        }
+        List<PendingQuery> queries = chunk;
+        chunk = new ArrayList<>(chunkSize);
+        inFlight.addLast(CompletableFuture.supplyAsync(() -> run(queries), executor));
+    }
+
+    private List<Outcome> run(List<PendingQuery> queries) {
+        List<Outcome> outcomes = new ArrayList<>(queries.size());
+        List<SearchCriteria> valid = new ArrayList<>(queries.size());
+        for (PendingQuery query : queries) {
+            try {
+                valid.add(query.criteria().get());
+                outcomes.add(new Outcome(query.queryId(), null, null));
+            } catch (RuntimeException e) {
+                outcomes.add(new Outcome(query.queryId(), null, e));
+            }
+        }
+
+        List<List<SearchResult>> results;
+        try {
+            results = searchService.searchAll(valid);
+        } catch (RuntimeException e) {
+            outcomes.replaceAll(outcome -> outcome.error() != null ? outcome : new Outcome(outcome.queryId(), null, e));
+            return outcomes;
+        }
+
+        int next = 0;
+        for (int i = 0; i < outcomes.size(); i++) {
+            Outcome outcome = outcomes.get(i);
+            if (outcome.error() == null) {
+                outcomes.set(i, new Outcome(outcome.queryId(), results.get(next++), null));
+            }
+        }
+        return outcomes;
+    }
+
+    private void completeOldest() {
+        List<Outcome> outcomes;
+        try {
+            outcomes = inFlight.removeFirst().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+        for (Outcome outcome : outcomes) {
+            if (outcome.error() != null) {
+                handler.onError(outcome.queryId(), outcome.error());
+            } else {
+                handler.onResults(outcome.queryId(), outcome.results());
+            }
+        }
+    }
+
+    private record PendingQuery(String queryId, Supplier<SearchCriteria> criteria) {
+    }
+
+    private record Outcome(String queryId, List<SearchResult> results, Exception error) {
+    }
+}
@@ -0,0 +1,110 @@
+package tech.pedroduarte.gourmand.features.search.application;
+
+import tech.pedroduarte.gourmand.common.utils.JsonWriter;
+import tech.pedroduarte.gourmand.features.search.domain.SearchProbe;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the plan and timings of one search and renders them as a single JSON object:
+ * <pre>
+ * {"accessPath":"full-scan","rows":1000,"candidates":1000,
+ *  "filters":[{"predicate":"rating","rowsIn":1000,"rowsOut":412}],
+ *  "sort":{"method":"packed-keys","rows":412},"results":5,
+ *  "timings":{"loadNanos":…,"indexNanos":…,"filterNanos":…,"sortNanos":…,"renderNanos":…,"totalNanos":…}}
+ * </pre>
+ * Stages that run several times accumulate their time. Not thread-safe: use one per search.
+ */
+public class QueryProfile implements SearchProbe {
+
+    private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+    private final List<FilterStage> filters = new ArrayList<>();
+    private String accessPath;
+    private int totalRows;
+    private int candidateRows;
+    private String sortMethod;
+    private int sortedRows;
+    private int results;
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public long startTimer() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void stageFinished(String stage, long startedAt) {
+        stageNanos.merge(stage, System.nanoTime() - startedAt, Long::sum);
+    }
+
+    @Override
+    public void accessPath(String path, int totalRows, int candidateRows) {
+        this.accessPath = path;
+        this.totalRows = totalRows;
+        this.candidateRows = candidateRows;
+    }
+
+    @Override
+    public void filterApplied(String predicate, int rowsIn, int rowsOut) {
+        filters.add(new FilterStage(predicate, rowsIn, rowsOut));
+    }
+
+    @Override
+    public void sorted(String method, int rows) {
+        this.sortMethod = method;
+        this.sortedRows = rows;
+    }
+
+    @Override
+    public void resultsReturned(int results) {
+        this.results = results;
+    }
+
+    public Map<String, Long> stageNanos() {
+        return Map.copyOf(stageNanos);
+    }
+
+    public String toJson() {
+        JsonWriter json = new JsonWriter().beginObject();
+        json.name("accessPath").value(accessPath);
+        json.name("rows").value(totalRows);
+        json.name("candidates").value(candidateRows);
+
+        json.name("filters").beginArray();
+        for (FilterStage filter : filters) {
+            json.beginObject()
+                    .name("predicate").value(filter.predicate())
+                    .name("rowsIn").value(filter.rowsIn())
+                    .name("rowsOut").value(filter.rowsOut())
+                    .endObject();
+        }
+        json.endArray();
+
+        json.name("sort").beginObject()
+                .name("method").value(sortMethod)
+                .name("rows").value(sortedRows)
+                .endObject();
+        json.name("results").value(results);
+
+        json.name("timings").beginObject();
+        long total = 0;
+        for (Map.Entry<String, Long> stage : stageNanos.entrySet()) {
+            json.name(stage.getKey() + "Nanos").value(stage.getValue());
+            total += stage.getValue();
+        }
+        json.name("totalNanos").value(total);
+        json.endObject();
+
+        return json.endObject().toString();
+    }
+
+    private record FilterStage(String predicate, int rowsIn, int rowsOut) {
+    }
+}
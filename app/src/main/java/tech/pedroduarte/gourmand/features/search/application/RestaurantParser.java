@@ -0,0 +1,82 @@
+package tech.pedroduarte.gourmand.features.search.application;
+
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a {@link Restaurant} from textual field/value pairs, for changes that arrive over the
+ * network.
+ * <p>
+ * Field names are those of {@link SearchCriteriaParser}. Every field is required except the
+ * location, which takes both {@code lat} and {@code lon} or neither.
+ */
+public class RestaurantParser {
+
+    public static final List<String> FIELDS = List.of(
+            SearchCriteriaParser.NAME, SearchCriteriaParser.RATING, SearchCriteriaParser.DISTANCE,
+            SearchCriteriaParser.PRICE, SearchCriteriaParser.CUISINE, SearchCriteriaParser.LATITUDE,
+            SearchCriteriaParser.LONGITUDE);
+
+    public Restaurant parse(Map<String, String> fields) {
+        String name = required(fields, SearchCriteriaParser.NAME);
+        Rating rating = new Rating(parseInt(SearchCriteriaParser.RATING, required(fields, SearchCriteriaParser.RATING)));
+        Distance distance = new Distance(
+                parseDouble(SearchCriteriaParser.DISTANCE, required(fields, SearchCriteriaParser.DISTANCE)));
+        Price price = new Price(parseDouble(SearchCriteriaParser.PRICE, required(fields, SearchCriteriaParser.PRICE)));
+        Cuisine cuisine = new Cuisine(required(fields, SearchCriteriaParser.CUISINE));
+
+        String latitude = value(fields, SearchCriteriaParser.LATITUDE);
+        String longitude = value(fields, SearchCriteriaParser.LONGITUDE);
+        GeoLocation location = null;
+        if (latitude != null || longitude != null) {
+            if (latitude == null || longitude == null) {
+                throw new IllegalArgumentException("Both lat and lon are required for a location");
+            }
+            location = new GeoLocation(parseDouble(SearchCriteriaParser.LATITUDE, latitude),
+                    parseDouble(SearchCriteriaParser.LONGITUDE, longitude));
+        }
+        return new Restaurant(name, rating, distance, price, cuisine, location);
+    }
+
+    /**
+     * The trimmed value of a field that must be present.
+     */
+    public static String required(Map<String, String> fields, String field) {
+        String value = value(fields, field);
+        if (value == null) {
+            throw new IllegalArgumentException(String.format("Missing %s", field));
+        }
+        return value;
+    }
+
+    private static String value(Map<String, String> fields, String field) {
+        String value = fields.get(field);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private static int parseInt(String field, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid %s: '%s' is not a whole number", field, value));
+        }
+    }
+
+    private static double parseDouble(String field, String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid %s: '%s' is not a number", field, value));
+        }
+    }
+}
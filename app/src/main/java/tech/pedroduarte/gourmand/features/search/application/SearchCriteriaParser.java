@@ -0,0 +1,95 @@
+package tech.pedroduarte.gourmand.features.search.application;
+
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds {@link SearchCriteria} from textual field/value pairs, for inputs that don't go
+ * through the command line options (batch files, network requests).
+ * <p>
+ * Field names match the long option names of the search command. Missing or blank values
+ * leave the criterion unset.
+ */
+public class SearchCriteriaParser {
+
+    public static final String NAME = "name";
+    public static final String RATING = "rating";
+    public static final String DISTANCE = "distance";
+    public static final String PRICE = "price";
+    public static final String CUISINE = "cuisine";
+    public static final String LATITUDE = "lat";
+    public static final String LONGITUDE = "lon";
+    public static final String FUZZY = "fuzzy";
+
+    public static final List<String> FIELDS =
+            List.of(NAME, RATING, DISTANCE, PRICE, CUISINE, LATITUDE, LONGITUDE, FUZZY);
+
+    public SearchCriteria parse(Map<String, String> fields) {
+        SearchCriteria.Builder builder = SearchCriteria.builder()
+                .name(value(fields, NAME));
+
+        String rating = value(fields, RATING);
+        if (rating != null) {
+            builder.minRating(new Rating(parseInt(RATING, rating)));
+        }
+        String distance = value(fields, DISTANCE);
+        if (distance != null) {
+            builder.maxDistance(new Distance(parseDouble(DISTANCE, distance)));
+        }
+        String price = value(fields, PRICE);
+        if (price != null) {
+            builder.maxPrice(new Price(parseDouble(PRICE, price)));
+        }
+        String cuisine = value(fields, CUISINE);
+        if (cuisine != null) {
+            builder.cuisine(new Cuisine(cuisine));
+        }
+
+        String latitude = value(fields, LATITUDE);
+        String longitude = value(fields, LONGITUDE);
+        if (latitude != null || longitude != null) {
+            if (latitude == null || longitude == null) {
+                throw new IllegalArgumentException("Both lat and lon are required for a location search");
+            }
+            builder.origin(new GeoLocation(parseDouble(LATITUDE, latitude), parseDouble(LONGITUDE, longitude)));
+        }
+
+        String fuzzy = value(fields, FUZZY);
+        if (fuzzy != null) {
+            builder.fuzzyDistance(parseInt(FUZZY, fuzzy));
+        }
+
+        return builder.build();
+    }
+
+    private static String value(Map<String, String> fields, String field) {
+        String value = fields.get(field);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private static int parseInt(String field, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid %s: '%s' is not a whole number", field, value));
+        }
+    }
+
+    private static double parseDouble(String field, String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid %s: '%s' is not a number", field, value));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package tech.pedroduarte.gourmand.features.search.application;
+
+import jdk.jfr.EventType;
+import tech.pedroduarte.gourmand.common.jfr.SearchEvent;
+import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+import tech.pedroduarte.gourmand.features.search.domain.SearchProbe;
+
+/**
+ * Collects the access path and row counts of a search for its {@link SearchEvent}, passing
+ * every call on to the probe it wraps. It is only enabled when that probe is, so recording an
+ * event never switches a search to the slower profiled code.
+ */
+final class SearchEventProbe implements SearchProbe {
+
+    private static final EventType TYPE = EventType.getEventType(SearchEvent.class);
+
+    private final SearchProbe delegate;
+    private final SearchEvent event;
+    private String accessPath;
+    private int candidates;
+    private long rowsScanned = -1;
+
+    private SearchEventProbe(SearchProbe delegate, SearchEvent event) {
+        this.delegate = delegate;
+        this.event = event;
+    }
+
+    /**
+     * Starts the event of a search, or returns null when no recording includes it, in which
+     * case nothing is allocated.
+     */
+    static SearchEventProbe begin(SearchProbe delegate) {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        return new SearchEventProbe(delegate, event);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public long startTimer() {
+        return delegate.startTimer();
+    }
+
+    @Override
+    public void stageFinished(String stage, long startedAt) {
+        delegate.stageFinished(stage, startedAt);
+    }
+
+    @Override
+    public void accessPath(String path, int totalRows, int candidateRows) {
+        this.accessPath = path;
+        this.candidates = candidateRows;
+        delegate.accessPath(path, totalRows, candidateRows);
+    }
+
+    @Override
+    public void filterApplied(String predicate, int rowsIn, int rowsOut) {
+        delegate.filterApplied(predicate, rowsIn, rowsOut);
+    }
+
+    @Override
+    public void rowsScanned(int rows) {
+        this.rowsScanned = rows;
+        delegate.rowsScanned(rows);
+    }
+
+    @Override
+    public void sorted(String method, int rows) {
+        delegate.sorted(method, rows);
+    }
+
+    @Override
+    public void resultsReturned(int results) {
+        delegate.resultsReturned(results);
+    }
+
+    void commit(SearchCriteria criteria, int limit, int results) {
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.criteria = criteria.shape();
+        event.limit = limit;
+        event.results = results;
+        // A search that joined an identical one never reached the data itself
+        event.coalesced = accessPath == null;
+        event.accessPath = accessPath;
+        event.candidates = candidates;
+        // Location searches walk the grid cells without a filter pass of their own
+        event.rowsScanned = rowsScanned < 0 ? candidates : rowsScanned;
+        event.commit();
+    }
+}
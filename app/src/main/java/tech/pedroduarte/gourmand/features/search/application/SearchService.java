@@ -2,22 +2,62 @@ package tech.pedroduarte.gourmand.features.search.application;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import tech.pedroduarte.gourmand.common.jfr.SearchEvent;
+import tech.pedroduarte.gourmand.common.metrics.Metrics;
+import tech.pedroduarte.gourmand.common.utils.SingleFlight;
+import tech.pedroduarte.gourmand.features.search.application.dto.SearchFacets;
 import tech.pedroduarte.gourmand.features.search.application.dto.SearchResult;
+import tech.pedroduarte.gourmand.features.search.domain.FacetCounts;
+import tech.pedroduarte.gourmand.features.search.domain.NearbyRestaurant;
 import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.ResultCursor;
 import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+import tech.pedroduarte.gourmand.features.search.domain.SearchProbe;
+import tech.pedroduarte.gourmand.features.search.domain.index.GeoGridIndex;
+import tech.pedroduarte.gourmand.features.search.domain.index.RestaurantColumns;
+import tech.pedroduarte.gourmand.features.search.domain.index.SearchIndexes;
 import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantSnapshot;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.ScanningRestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.SnapshotRepository;
 import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Searches the restaurants of a repository.
+ * <p>
+ * Every call pins one {@link RestaurantSnapshot} and reads the data and its indexes from it
+ * alone, so it stays consistent while the repository publishes newer data. A
+ * {@link SnapshotRepository} supplies its snapshots, indexes included; for any other
+ * repository the service builds and caches the indexes of the list it returns.
+ * <p>
+ * A {@link ScanningRestaurantRepository} is never loaded whole: each call streams the
+ * restaurants that can match from it and keeps only the best matches, without indexes. Ties
+ * come in the order of the store rather than that of the data files. Fuzzy name searches need
+ * the name index and are rejected.
+ * <p>
+ * Concurrent unprofiled searches for the same canonical criteria and limit against the same
+ * snapshot share one computation and its results, so a popular query that spikes is answered
+ * once per wave of callers rather than once per caller.
+ * <p>
+ * While a flight recording includes it, every {@link #search} emits a {@link SearchEvent} with
+ * the shape of its criteria, its access path and row counts, to line up GC pauses and
+ * allocation with the queries that caused them.
+ */
 public class SearchService {
 
     private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
-    private static final int MAX_RESULTS = 5;
+    public static final int DEFAULT_LIMIT = 5;
 
     private final RestaurantRepository restaurantRepository;
     private final RestaurantSearchDomainService domainService;
+    private final SingleFlight<InFlightSearch, List<SearchResult>> searches =
+            new SingleFlight<>(() -> Metrics.increment(Metrics.Counter.COALESCED_SEARCHES));
+    private volatile RestaurantSnapshot indexed;
 
     public SearchService(RestaurantRepository restaurantRepository,
                          RestaurantSearchDomainService domainService) {
@@ -25,26 +65,317 @@ public class SearchService {
         this.domainService = domainService;
     }
 
+    /**
+     * Builds every search index up front, so that the first searches of a long-running
+     * process don't pay for it.
+     */
+    public void warmUp() {
+        if (restaurantRepository instanceof ScanningRestaurantRepository) {
+            return;
+        }
+        pin().warmUp();
+    }
+
     public List<SearchResult> search(SearchCriteria criteria) {
+        return search(criteria, SearchProbe.DISABLED);
+    }
+
+    public List<SearchResult> search(SearchCriteria criteria, SearchProbe probe) {
+        return search(criteria, DEFAULT_LIMIT, probe);
+    }
+
+    /**
+     * Runs a search returning at most {@code limit} results, reporting its access path, stage
+     * row counts and timings to the probe.
+     * <p>
+     * Without a probe, a call joins an identical search already running on the same snapshot
+     * and returns its results, which are then unmodifiable. A failed search is not remembered,
+     * so the next call runs it again.
+     */
+    public List<SearchResult> search(SearchCriteria criteria, int limit, SearchProbe probe) {
+        long started = Metrics.start();
+        SearchEventProbe traced = SearchEventProbe.begin(probe);
+
+        List<SearchResult> results = run(criteria, limit, probe, traced != null ? traced : probe);
+
+        Metrics.record(Metrics.Timer.SEARCH, started);
+        if (traced != null) {
+            traced.commit(criteria, limit, results.size());
+        }
+        return results;
+    }
+
+    /**
+     * @param traced the probe itself, or a wrapper of it collecting the event of this search
+     */
+    private List<SearchResult> run(SearchCriteria criteria, int limit, SearchProbe probe, SearchProbe traced) {
+        if (probe != SearchProbe.DISABLED || restaurantRepository instanceof ScanningRestaurantRepository) {
+            return materialize(cursor(criteria, limit, traced), limit);
+        }
+        logger.info("Executing search with criteria: {}", criteria);
+        RestaurantSnapshot snapshot = pin();
+        return searches.run(new InFlightSearch(snapshot, criteria.canonical(), limit), () -> {
+            Metrics.increment(Metrics.Counter.EXECUTED_SEARCHES);
+            return List.copyOf(materialize(cursor(snapshot, criteria, limit, traced), limit));
+        });
+    }
+
+    private static List<SearchResult> materialize(ResultCursor cursor, int limit) {
+        List<SearchResult> results = new ArrayList<>(Math.min(limit, 64));
+        while (cursor.next()) {
+            results.add(SearchResult.fromCursor(cursor));
+        }
+        return results;
+    }
+
+    /**
+     * Opens a cursor over at most {@code limit} results, in the same order as {@link #search}.
+     * <p>
+     * Plain attribute searches scan the columns in relevance order as the cursor advances, so
+     * streaming consumers allocate nothing per result. Fuzzy and location searches are resolved
+     * through their indexes up front and the cursor walks the ranked matches.
+     */
+    public ResultCursor cursor(SearchCriteria criteria, int limit, SearchProbe probe) {
         logger.info("Executing search with criteria: {}", criteria);
+        if (restaurantRepository instanceof ScanningRestaurantRepository store) {
+            return scan(store, criteria, limit, probe);
+        }
+        return cursor(pin(), criteria, limit, probe);
+    }
+
+    private ResultCursor scan(ScanningRestaurantRepository store, SearchCriteria criteria, int limit,
+                              SearchProbe probe) {
+        long filterStarted = probe.startTimer();
+        int[] streamed = new int[1];
+        List<NearbyRestaurant> matches;
+        try (Stream<Restaurant> candidates = streamCandidates(store, criteria)) {
+            matches = domainService.findTopMatches(candidates.peek(restaurant -> streamed[0]++), criteria, limit);
+        }
+        // A stream only knows the rows it read, not those of the blocks it skipped
+        probe.accessPath("range-scan", streamed[0], streamed[0]);
+        probe.stageFinished("filter", filterStarted);
+        probe.sorted("top-k", matches.size());
+        probe.resultsReturned(matches.size());
+        return ResultCursor.ofNearby(matches);
+    }
+
+    /**
+     * The restaurants of the store that can match. Its distance bounds only hold for plain
+     * searches, as a location search measures distances from its origin instead.
+     */
+    private static Stream<Restaurant> streamCandidates(ScanningRestaurantRepository store, SearchCriteria criteria) {
+        return store.streamWithin(criteria.origin() == null ? criteria.maxDistance() : null, criteria.maxPrice());
+    }
 
-        List<Restaurant> allRestaurants = restaurantRepository.findAll();
+    private ResultCursor cursor(RestaurantSnapshot snapshot, SearchCriteria criteria, int limit, SearchProbe probe) {
+        List<Restaurant> allRestaurants = snapshot.restaurants();
+        long indexStarted = probe.startTimer();
+        SearchIndexes searchIndexes = snapshot.indexes();
 
+        if (criteria.origin() == null && !criteria.isFuzzy()) {
+            RestaurantColumns columns = searchIndexes.columns();
+            probe.stageFinished("index", indexStarted);
+            probe.accessPath("full-scan", allRestaurants.size(), columns.size());
+            return domainService.rankedMatches(columns, criteria, limit, probe);
+        }
+
+        // Fuzzy name lookups narrow the candidates through the name index, so the
+        // remaining filters no longer need to match the name themselves
+        List<Restaurant> candidates = allRestaurants;
+        String name = criteria.name();
+        if (criteria.isFuzzy()) {
+            candidates = searchIndexes.nameIndex().search(name, criteria.fuzzyDistance());
+            name = null;
+        }
+
+        if (criteria.origin() != null) {
+            probe.stageFinished("index", indexStarted);
+            probe.accessPath(criteria.isFuzzy() ? "name-index+geo-grid" : "geo-grid",
+                    allRestaurants.size(), criteria.isFuzzy() ? candidates.size() : searchIndexes.geoIndex().size());
+            return ResultCursor.ofNearby(searchNearby(criteria, searchIndexes.geoIndex(),
+                    candidates == allRestaurants ? null : candidates, name, limit, probe));
+        }
+        probe.stageFinished("index", indexStarted);
+        probe.accessPath("name-index", allRestaurants.size(), candidates.size());
+
+        long filterStarted = probe.startTimer();
         List<Restaurant> matches = domainService.findMatches(
-                allRestaurants,
-                criteria.name(),
+                candidates,
+                name,
                 criteria.minRating(),
                 criteria.maxDistance(),
                 criteria.maxPrice(),
-                criteria.cuisine()
+                criteria.cuisine(),
+                probe
         );
+        probe.stageFinished("filter", filterStarted);
+
+        long sortStarted = probe.startTimer();
+        List<Restaurant> sortedMatches = domainService.sortByRelevance(matches, probe);
+        probe.stageFinished("sort", sortStarted);
+
+        int count = Math.min(limit, sortedMatches.size());
+        probe.resultsReturned(count);
+        return ResultCursor.of(sortedMatches.subList(0, count));
+    }
+
+    /**
+     * Runs many searches at once, returning their results in the same order as the criteria.
+     * <p>
+     * Plain attribute searches are grouped into a single shared scan of the data; location and
+     * fuzzy searches go through their own indexes one by one.
+     */
+    public List<List<SearchResult>> searchAll(List<SearchCriteria> criteria) {
+        logger.info("Executing {} searches", criteria.size());
+        if (restaurantRepository instanceof ScanningRestaurantRepository store) {
+            List<List<SearchResult>> results = new ArrayList<>(criteria.size());
+            for (SearchCriteria query : criteria) {
+                results.add(materialize(scan(store, query, DEFAULT_LIMIT, SearchProbe.DISABLED), DEFAULT_LIMIT));
+            }
+            return results;
+        }
+
+        RestaurantSnapshot snapshot = pin();
+
+        List<List<SearchResult>> results = new ArrayList<>(criteria.size());
+        List<SearchCriteria> scanned = new ArrayList<>(criteria.size());
+        int[] scanPositions = new int[criteria.size()];
+        for (int i = 0; i < criteria.size(); i++) {
+            SearchCriteria query = criteria.get(i);
+            if (query.origin() != null || query.isFuzzy()) {
+                results.add(materialize(cursor(snapshot, query, DEFAULT_LIMIT, SearchProbe.DISABLED), DEFAULT_LIMIT));
+            } else {
+                scanPositions[scanned.size()] = i;
+                scanned.add(query);
+                results.add(null);
+            }
+        }
+        if (scanned.isEmpty()) {
+            return results;
+        }
+
+        List<List<Restaurant>> matches = domainService.findTopMatches(snapshot.indexes().columns(), scanned, DEFAULT_LIMIT);
+        for (int i = 0; i < matches.size(); i++) {
+            results.set(scanPositions[i], matches.get(i).stream()
+                    .map(SearchResult::fromDomain)
+                    .collect(Collectors.toList()));
+        }
+        return results;
+    }
+
+    /**
+     * Counts every match of the criteria per cuisine, rating, price band and distance band,
+     * without the result limit of {@link #search} and without building any {@link SearchResult}.
+     */
+    public SearchFacets facets(SearchCriteria criteria) {
+        logger.info("Computing facets with criteria: {}", criteria);
+        if (restaurantRepository instanceof ScanningRestaurantRepository store) {
+            return SearchFacets.fromDomain(countFacets(store, criteria));
+        }
+        return SearchFacets.fromDomain(countFacets(pin(), criteria));
+    }
+
+    /**
+     * Number of restaurants matching the criteria, without the result limit of {@link #search}.
+     */
+    public int count(SearchCriteria criteria) {
+        logger.info("Counting matches with criteria: {}", criteria);
+        if (restaurantRepository instanceof ScanningRestaurantRepository store) {
+            return countFacets(store, criteria).total();
+        }
+        RestaurantSnapshot snapshot = pin();
+        if (criteria.origin() == null && !criteria.isFuzzy()) {
+            return domainService.countMatches(snapshot.indexes().columns(), criteria);
+        }
+        return countFacets(snapshot, criteria).total();
+    }
+
+    private FacetCounts countFacets(ScanningRestaurantRepository store, SearchCriteria criteria) {
+        try (Stream<Restaurant> candidates = streamCandidates(store, criteria)) {
+            return domainService.countFacets(candidates, criteria);
+        }
+    }
+
+    private FacetCounts countFacets(RestaurantSnapshot snapshot, SearchCriteria criteria) {
+        List<Restaurant> allRestaurants = snapshot.restaurants();
+        SearchIndexes searchIndexes = snapshot.indexes();
+        if (criteria.origin() == null && !criteria.isFuzzy()) {
+            return domainService.countFacets(searchIndexes.columns(), criteria);
+        }
 
-        List<Restaurant> sortedMatches = domainService.sortByRelevance(matches);
+        List<Restaurant> candidates = allRestaurants;
+        String name = criteria.name();
+        if (criteria.isFuzzy()) {
+            candidates = searchIndexes.nameIndex().search(name, criteria.fuzzyDistance());
+            name = null;
+        }
+
+        if (criteria.origin() != null) {
+            return domainService.countNearbyFacets(findNearest(searchIndexes.geoIndex(),
+                    candidates == allRestaurants ? null : candidates, criteria, name, Integer.MAX_VALUE));
+        }
+
+        return domainService.countFacets(domainService.findMatches(
+                candidates,
+                name,
+                criteria.minRating(),
+                criteria.maxDistance(),
+                criteria.maxPrice(),
+                criteria.cuisine()
+        ));
+    }
+
+    private List<NearbyRestaurant> searchNearby(SearchCriteria criteria, GeoGridIndex geoIndex,
+                                                List<Restaurant> candidates, String name, int limit,
+                                                SearchProbe probe) {
+        long nearestStarted = probe.startTimer();
+        List<NearbyRestaurant> nearest = findNearest(geoIndex, candidates, criteria, name, limit);
+        // The grid yields the top results already ranked, so filtering and sorting are one stage
+        probe.stageFinished("filter", nearestStarted);
+        probe.sorted("grid-top-k", nearest.size());
+        probe.resultsReturned(nearest.size());
+        return nearest;
+    }
+
+    /**
+     * The nearest matches among the candidates a fuzzy name narrowed the search to, or among
+     * every restaurant of the grid when {@code candidates} is null.
+     */
+    private List<NearbyRestaurant> findNearest(GeoGridIndex geoIndex, List<Restaurant> candidates,
+                                               SearchCriteria criteria, String name, int limit) {
+        if (candidates == null) {
+            return domainService.findNearest(geoIndex, criteria.origin(), name, criteria.minRating(),
+                    criteria.maxDistance(), criteria.maxPrice(), criteria.cuisine(), limit);
+        }
+        return domainService.findNearest(geoIndex, candidates, criteria.origin(), name, criteria.minRating(),
+                criteria.maxDistance(), criteria.maxPrice(), criteria.cuisine(), limit);
+    }
+
+    /**
+     * Identity of a running search. Snapshots compare by identity, so a search never joins one
+     * running on data that a reload has since replaced.
+     */
+    private record InFlightSearch(RestaurantSnapshot snapshot, SearchCriteria criteria, int limit) {
+    }
 
-        return sortedMatches.stream()
-                .map(SearchResult::fromDomain)
-                .limit(MAX_RESULTS)
-                .collect(Collectors.toList());
+    /**
+     * The snapshot that one call reads everything from.
+     */
+    private RestaurantSnapshot pin() {
+        if (restaurantRepository instanceof SnapshotRepository snapshots) {
+            return snapshots.snapshot();
+        }
+        List<Restaurant> restaurants = restaurantRepository.findAll();
+        RestaurantSnapshot current = indexed;
+        if (current == null || !current.covers(restaurants)) {
+            Metrics.increment(Metrics.Counter.INDEX_CACHE_MISSES);
+            // Searches never read the cuisines of a snapshot, only their restaurants
+            current = RestaurantSnapshot.of(0, restaurants, List.of(), domainService::relevanceRanks);
+            indexed = current;
+        } else {
+            Metrics.increment(Metrics.Counter.INDEX_CACHE_HITS);
+        }
+        return current;
     }
 
 }
\ No newline at end of file
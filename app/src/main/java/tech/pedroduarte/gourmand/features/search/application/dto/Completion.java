@@ -0,0 +1,23 @@
+package tech.pedroduarte.gourmand.features.search.application.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import tech.pedroduarte.gourmand.features.search.domain.index.PrefixIndex;
+
+import java.util.Locale;
+
+@Value
+@Builder
+public class Completion {
+
+    String text;
+    String type;
+
+    public static Completion fromDomain(PrefixIndex.Completion completion) {
+        return Completion.builder()
+                .text(completion.text())
+                .type(completion.kind().name().toLowerCase(Locale.ROOT))
+                .build();
+    }
+
+}
@@ -0,0 +1,29 @@
+package tech.pedroduarte.gourmand.features.search.application.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import tech.pedroduarte.gourmand.features.search.domain.FacetCounts;
+
+import java.util.Map;
+
+@Value
+@Builder
+public class SearchFacets {
+
+    int total;
+    Map<String, Integer> cuisines;
+    Map<Integer, Integer> ratings;
+    Map<String, Integer> priceBands;
+    Map<String, Integer> distanceBands;
+
+    public static SearchFacets fromDomain(FacetCounts counts) {
+        return SearchFacets.builder()
+                .total(counts.total())
+                .cuisines(counts.byCuisine())
+                .ratings(counts.byRating())
+                .priceBands(counts.byPrice())
+                .distanceBands(counts.byDistance())
+                .build();
+    }
+
+}
@@ -2,7 +2,9 @@ package tech.pedroduarte.gourmand.features.search.application.dto;
 
 import lombok.Builder;
 import lombok.Value;
+import tech.pedroduarte.gourmand.features.search.domain.NearbyRestaurant;
 import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.ResultCursor;
 
 @Value
 @Builder
@@ -15,13 +17,29 @@ public class SearchResult {
     String cuisine;
 
     public static SearchResult fromDomain(Restaurant restaurant) {
-        return SearchResult.builder()
-                .name(restaurant.getName())
-                .rating(restaurant.getRating().getValue())
-                .distance(restaurant.getDistance().getMiles())
-                .price(restaurant.getPrice().getAmount())
-                .cuisine(restaurant.getCuisine().getName())
-                .build();
+        return fromRestaurant(restaurant, restaurant.getDistance().getMiles());
+    }
+
+    public static SearchResult fromNearby(NearbyRestaurant nearby) {
+        return fromRestaurant(nearby.restaurant(), nearby.miles());
+    }
+
+    /**
+     * Copies the current result of the cursor, which is only valid until it moves on.
+     */
+    public static SearchResult fromCursor(ResultCursor cursor) {
+        return new SearchResult(cursor.name(), cursor.rating(), cursor.distance(), cursor.price(), cursor.cuisine());
+    }
+
+    private static SearchResult fromRestaurant(Restaurant restaurant, double miles) {
+        // The all-args constructor behind the builder: no builder object per result
+        return new SearchResult(
+                restaurant.getName(),
+                restaurant.getRating().getValue(),
+                miles,
+                restaurant.getPrice().getAmount(),
+                restaurant.getCuisine().getName()
+        );
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package tech.pedroduarte.gourmand.features.search.application.loadtest;
+
+import tech.pedroduarte.gourmand.features.search.application.SearchService;
+
+/**
+ * Runs the searches on a service in this process, measuring the search pipeline without any
+ * transport or rendering.
+ */
+public class InProcessLoadTarget implements LoadTarget {
+
+    private final SearchService searchService;
+
+    public InProcessLoadTarget(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @Override
+    public String description() {
+        return "in-process";
+    }
+
+    @Override
+    public void execute(LoadQuery query) {
+        searchService.search(query.criteria());
+    }
+}
@@ -0,0 +1,178 @@
+package tech.pedroduarte.gourmand.features.search.application.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.pedroduarte.gourmand.common.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a query mix against a target as a {@link LoadPlan} says, and measures what a user
+ * would have seen.
+ * <p>
+ * Measuring each search from when it actually started hides the searches that queued behind a
+ * slow one ("coordinated omission"): a stalled closed-loop client sends nothing while it waits,
+ * and a late open-loop search looks fast once it finally runs. So latency is measured from when
+ * each search was due. In an open loop that is its slot in the schedule; a closed loop has no
+ * schedule, so its service times are corrected afterwards as HdrHistogram does, given how often
+ * each client meant to start a search. Without that interval a closed loop reports only the
+ * uncorrected service times: an interval guessed from the service times themselves would count
+ * their ordinary variance as stalls and inflate the tail. The uncorrected service times are
+ * always reported; the gap between the two is the queueing.
+ */
+public class LoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    static final String IN_FLIGHT_LIMIT = "in-flight limit reached";
+
+    private final LoadPlan plan;
+
+    public LoadGenerator(LoadPlan plan) {
+        this.plan = plan;
+    }
+
+    public LoadTestResult run(LoadTarget target, QueryMix mix) throws InterruptedException {
+        Recorder recorder = new Recorder();
+        long started = System.nanoTime();
+        long measureFrom = started + plan.warmup().toNanos();
+        long end = measureFrom + plan.duration().toNanos();
+        logger.info("Load test against {}: {} for {} after {} of warm-up", target.description(),
+                plan.isOpenLoop() ? plan.rate() + " searches/s" : plan.clients() + " clients",
+                plan.duration(), plan.warmup());
+
+        if (plan.isOpenLoop()) {
+            runOpenLoop(target, mix, recorder, started, measureFrom, end);
+        } else {
+            runClosedLoop(target, mix, recorder, measureFrom, end);
+        }
+
+        LatencyHistogram.Snapshot serviceTime = recorder.serviceTime.snapshot();
+        LatencyHistogram.Snapshot latency = null;
+        long expectedInterval = 0;
+        if (plan.isOpenLoop()) {
+            latency = recorder.latency.snapshot();
+        } else if (plan.expectedInterval() != null) {
+            expectedInterval = plan.expectedInterval().toNanos();
+            latency = serviceTime.correctedForCoordinatedOmission(expectedInterval);
+        }
+        Map<String, Long> errors = new TreeMap<>();
+        recorder.errors.forEach((kind, count) -> errors.put(kind, count.sum()));
+        return new LoadTestResult(plan, target.description(), mix.size(), recorder.requests.sum(), errors,
+                latency, serviceTime, expectedInterval);
+    }
+
+    private void runOpenLoop(LoadTarget target, QueryMix mix, Recorder recorder, long started, long measureFrom,
+                             long end) throws InterruptedException {
+        double period = 1_000_000_000.0 / plan.rate();
+        Semaphore inFlight = new Semaphore(plan.maxInFlight());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                // Computed from the start rather than added up, so rounding never drifts the rate
+                long due = started + (long) (i * period);
+                if (due - end >= 0) {
+                    break;
+                }
+                sleepUntil(due);
+                LoadQuery query = mix.next();
+                boolean measured = due - measureFrom >= 0;
+                if (!inFlight.tryAcquire()) {
+                    if (measured) {
+                        recorder.failed(IN_FLIGHT_LIMIT);
+                    }
+                    continue;
+                }
+                executor.execute(() -> {
+                    try {
+                        long actualStart = System.nanoTime();
+                        String error = execute(target, query);
+                        if (measured) {
+                            long finished = System.nanoTime();
+                            recorder.completed(finished - due, finished - actualStart, error);
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void runClosedLoop(LoadTarget target, QueryMix mix, Recorder recorder, long measureFrom, long end)
+            throws InterruptedException {
+        List<Thread> clients = new ArrayList<>(plan.clients());
+        for (int i = 0; i < plan.clients(); i++) {
+            clients.add(Thread.ofPlatform().name("gourmand-loadtest-client-" + i).start(() -> {
+                long actualStart;
+                while ((actualStart = System.nanoTime()) - end < 0 && !Thread.currentThread().isInterrupted()) {
+                    String error = execute(target, mix.next());
+                    if (actualStart - measureFrom >= 0) {
+                        long serviceTime = System.nanoTime() - actualStart;
+                        recorder.completed(serviceTime, serviceTime, error);
+                    }
+                }
+            }));
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+    }
+
+    /**
+     * Runs one search, returning the kind of error it failed with or null. The kinds are the
+     * target's own for failed searches and the exception's class otherwise, so they stay few
+     * however many searches fail.
+     */
+    private static String execute(LoadTarget target, LoadQuery query) {
+        try {
+            target.execute(query);
+            return null;
+        } catch (SearchFailedException e) {
+            return e.getMessage();
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            logger.debug("Search {} failed", query.fields(), e);
+            return e.getClass().getSimpleName();
+        }
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static class Recorder {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LatencyHistogram serviceTime = new LatencyHistogram();
+        final LongAdder requests = new LongAdder();
+        final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        void completed(long latencyNanos, long serviceNanos, String error) {
+            if (error != null) {
+                failed(error);
+                return;
+            }
+            requests.increment();
+            latency.record(latencyNanos);
+            serviceTime.record(serviceNanos);
+        }
+
+        void failed(String error) {
+            requests.increment();
+            errors.computeIfAbsent(error, kind -> new LongAdder()).increment();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package tech.pedroduarte.gourmand.features.search.application.loadtest;
+
+import java.time.Duration;
+
+/**
+ * How hard and for how long a load test runs.
+ * <p>
+ * An open-loop plan starts searches at a fixed rate whether or not earlier ones have finished,
+ * as independent users would. A closed-loop plan runs a fixed number of clients that each start
+ * their next search when the last one finishes, which is what most benchmark tools do.
+ *
+ * @param rate             searches started per second, for an open loop; 0 for a closed loop
+ * @param clients          concurrent clients, for a closed loop; 0 for an open loop
+ * @param duration         how long to measure, after the warm-up
+ * @param warmup           how long to run before measuring
+ * @param maxInFlight      most searches of an open loop running at once; a search due while
+ *                         this many run is not started and counts as an error
+ * @param expectedInterval for a closed loop, how often a client would start a search if
+ *                         nothing stalled, used to correct for coordinated omission; null to
+ *                         report the uncorrected service times only
+ */
+public record LoadPlan(
+        double rate,
+        int clients,
+        Duration duration,
+        Duration warmup,
+        int maxInFlight,
+        Duration expectedInterval
+) {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 10_000;
+
+    public LoadPlan {
+        if ((rate > 0) == (clients > 0)) {
+            throw new IllegalArgumentException(
+                    "Either a rate (open loop) or a number of clients (closed loop) is required, not both");
+        }
+        if (rate < 0 || clients < 0) {
+            throw new IllegalArgumentException("Rate and clients must not be negative");
+        }
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        if (warmup.isNegative()) {
+            throw new IllegalArgumentException("Warm-up must not be negative");
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Max in-flight must be at least 1");
+        }
+        if (expectedInterval != null && (expectedInterval.isNegative() || expectedInterval.isZero())) {
+            throw new IllegalArgumentException("Expected interval must be positive");
+        }
+    }
+
+    public static LoadPlan openLoop(double rate, Duration duration, Duration warmup) {
+        return new LoadPlan(rate, 0, duration, warmup, DEFAULT_MAX_IN_FLIGHT, null);
+    }
+
+    public static LoadPlan closedLoop(int clients, Duration duration, Duration warmup) {
+        return new LoadPlan(0, clients, duration, warmup, DEFAULT_MAX_IN_FLIGHT, null);
+    }
+
+    public boolean isOpenLoop() {
+        return rate > 0;
+    }
+}
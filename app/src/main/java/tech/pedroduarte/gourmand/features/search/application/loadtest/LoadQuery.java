@@ -0,0 +1,12 @@
+package tech.pedroduarte.gourmand.features.search.application.loadtest;
+
+import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+
+import java.util.Map;
+
+/**
+ * One query of a load test, both as the field/value pairs sent to a remote target and as the
+ * criteria they parse to, so in-process runs don't measure the parsing.
+ */
+public record LoadQuery(Map<String, String> fields, SearchCriteria criteria) {
+}
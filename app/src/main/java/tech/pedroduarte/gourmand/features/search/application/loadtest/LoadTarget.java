@@ -0,0 +1,20 @@
+package tech.pedroduarte.gourmand.features.search.application.loadtest;
+
+/**
+ * What a load test drives: the search service itself, a daemon or an HTTP endpoint.
+ */
+public interface LoadTarget {
+
+    /**
+     * Short description for the results, such as {@code in-process} or the endpoint's URL.
+     */
+    String description();
+
+    /**
+     * Runs one search and waits for its results.
+     *
+     * @throws SearchFailedException when the search is answered with a failure, counted by its kind
+     * @throws Exception             when the search fails otherwise, counted by the exception's class
+     */
+    void execute(LoadQuery query) throws Exception;
+}
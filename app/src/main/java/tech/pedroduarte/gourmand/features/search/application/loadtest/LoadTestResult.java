@@ -0,0 +1,161 @@
+package tech.pedroduarte.gourmand.features.search.application.loadtest;
+
+import tech.pedroduarte.gourmand.common.metrics.LatencyHistogram;
+import tech.pedroduarte.gourmand.common.metrics.MetricsReport;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Outcome of a load test.
+ *
+ * @param plan             what was run
+ * @param target           description of the target
+ * @param queries          queries in the mix
+ * @param requests         searches due while measuring, including failed ones
+ * @param errors           failed searches by kind of error, sorted by kind
+ * @param latency          durations from when each successful search was due, corrected for
+ *                         coordinated omission; null for a closed loop without an expected
+ *                         interval
+ * @param serviceTime      durations from when each successful search actually started
+ * @param expectedInterval nanoseconds between searches a closed-loop client was assumed to
+ *                         aim for; 0 for an open loop or when none was given
+ */
+public record LoadTestResult(
+        LoadPlan plan,
+        String target,
+        int queries,
+        long requests,
+        Map<String, Long> errors,
+        LatencyHistogram.Snapshot latency,
+        LatencyHistogram.Snapshot serviceTime,
+        long expectedInterval
+) {
+
+    private static final List<Double> PERCENTILES = List.of(50.0, 90.0, 99.0, 99.9, 99.99);
+    private static final String TABLE_FORMAT = "%-14s %10s %10s %10s %10s %10s %10s %10s%n";
+
+    /**
+     * Whether there is a latency distribution corrected for coordinated omission, rather than
+     * only the service times.
+     */
+    public boolean isCorrected() {
+        return latency != null;
+    }
+
+    public long errorCount() {
+        return errors.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public double errorRate() {
+        return requests == 0 ? 0 : (double) errorCount() / requests;
+    }
+
+    /**
+     * Searches finished per second while measuring, failed or not.
+     */
+    public double throughput() {
+        return requests / (plan.duration().toNanos() / 1_000_000_000.0);
+    }
+
+    /**
+     * Writes one {@code key=value} line per figure, in a fixed order and without timestamps or
+     * host details, so the results of two versions can be compared with {@code diff}.
+     * Durations are in microseconds.
+     */
+    public void writeTo(Writer writer) {
+        PrintWriter out = new PrintWriter(writer);
+        out.println("# gourmand loadtest");
+        out.printf("mode=%s%n", plan.isOpenLoop() ? "open-loop" : "closed-loop");
+        out.printf("target=%s%n", target);
+        if (plan.isOpenLoop()) {
+            out.printf(Locale.ROOT, "rate=%.1f%n", plan.rate());
+            out.printf("max-in-flight=%d%n", plan.maxInFlight());
+        } else {
+            out.printf("clients=%d%n", plan.clients());
+            if (isCorrected()) {
+                out.printf(Locale.ROOT, "expected-interval-us=%.1f%n", expectedInterval / 1_000.0);
+            }
+        }
+        out.printf("coordinated-omission=%s%n", isCorrected() ? "corrected" : "uncorrected");
+        out.printf(Locale.ROOT, "duration-s=%.3f%n", plan.duration().toNanos() / 1_000_000_000.0);
+        out.printf(Locale.ROOT, "warmup-s=%.3f%n", plan.warmup().toNanos() / 1_000_000_000.0);
+        out.printf("queries=%d%n", queries);
+        out.printf("requests=%d%n", requests);
+        out.printf(Locale.ROOT, "throughput-per-s=%.1f%n", throughput());
+        out.printf("errors=%d%n", errorCount());
+        out.printf(Locale.ROOT, "error-rate=%.6f%n", errorRate());
+        errors.forEach((kind, count) -> out.printf("error.%s=%d%n", key(kind), count));
+        if (isCorrected()) {
+            writeDistribution(out, "latency", latency);
+        }
+        writeDistribution(out, "service-time", serviceTime);
+        out.flush();
+    }
+
+    /**
+     * Prints the results as a short, human-readable summary.
+     */
+    public void printSummary(PrintWriter out) {
+        if (plan.isOpenLoop()) {
+            out.printf(Locale.ROOT, "Open loop at %.1f searches/s against %s for %s%n", plan.rate(), target,
+                    MetricsReport.duration(plan.duration().toNanos()));
+        } else {
+            out.printf("Closed loop with %d clients against %s for %s%n", plan.clients(), target,
+                    MetricsReport.duration(plan.duration().toNanos()));
+        }
+        out.printf(Locale.ROOT, "Requests: %d, throughput: %.1f/s, errors: %d (%.2f%%)%n",
+                requests, throughput(), errorCount(), errorRate() * 100);
+        errors.forEach((kind, count) -> out.printf("  %s: %d%n", kind, count));
+        out.println();
+        out.printf(TABLE_FORMAT, "", "MEAN", "P50", "P90", "P99", "P99.9", "P99.99", "MAX");
+        if (isCorrected()) {
+            printDistribution(out, "latency", latency);
+        }
+        printDistribution(out, "service time", serviceTime);
+        if (!isCorrected()) {
+            out.println("Service times are uncorrected for coordinated omission (no --expected-interval)");
+        } else if (!plan.isOpenLoop()) {
+            out.printf("Latency assumes each client starts a search every %s%n",
+                    MetricsReport.duration(expectedInterval));
+        }
+        out.flush();
+    }
+
+    private static void writeDistribution(PrintWriter out, String name, LatencyHistogram.Snapshot snapshot) {
+        out.printf(Locale.ROOT, "%s-us.mean=%.1f%n", name, snapshot.mean() / 1_000);
+        for (double percentile : PERCENTILES) {
+            out.printf(Locale.ROOT, "%s-us.p%s=%.1f%n", name, percentileLabel(percentile),
+                    snapshot.valueAtPercentile(percentile) / 1_000.0);
+        }
+        out.printf(Locale.ROOT, "%s-us.max=%.1f%n", name, snapshot.max() / 1_000.0);
+    }
+
+    private static void printDistribution(PrintWriter out, String name, LatencyHistogram.Snapshot snapshot) {
+        Object[] columns = new Object[PERCENTILES.size() + 3];
+        columns[0] = name;
+        columns[1] = MetricsReport.duration(snapshot.mean());
+        for (int i = 0; i < PERCENTILES.size(); i++) {
+            columns[i + 2] = MetricsReport.duration(snapshot.valueAtPercentile(PERCENTILES.get(i)));
+        }
+        columns[columns.length - 1] = MetricsReport.duration(snapshot.max());
+        out.printf(TABLE_FORMAT, columns);
+    }
+
+    private static String percentileLabel(double percentile) {
+        return percentile == Math.rint(percentile)
+                ? String.valueOf((long) percentile)
+                : String.valueOf(percentile);
+    }
+
+    /**
+     * Error kind as a key: lower case, with anything but letters and digits turned into dashes.
+     */
+    private static String key(String kind) {
+        String key = kind.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+        return key.isEmpty() ? "unknown" : key;
+    }
+}
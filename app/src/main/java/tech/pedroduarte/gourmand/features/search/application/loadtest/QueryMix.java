@@ -0,0 +1,113 @@
+package tech.pedroduarte.gourmand.features.search.application.loadtest;
+
+import tech.pedroduarte.gourmand.common.utils.CsvReader;
+import tech.pedroduarte.gourmand.features.search.application.SearchCriteriaParser;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queries a load test replays, in order and starting over at the end, so two runs over the
+ * same mix send the same searches.
+ */
+public final class QueryMix {
+
+    private static final String ID_COLUMN = "id";
+    // Cuisines of both the embedded data and gen-data, so generated queries find results in either
+    private static final List<String> CUISINES = List.of("American", "Chinese", "Italian", "Japanese");
+
+    private final List<LoadQuery> queries;
+    private final AtomicLong position = new AtomicLong();
+
+    private QueryMix(List<LoadQuery> queries) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("The query mix has no queries");
+        }
+        this.queries = List.copyOf(queries);
+    }
+
+    /**
+     * Reads queries in the format of {@code search --batch}: a header naming any of the search
+     * fields, then one query per row. An {@code id} column is allowed and ignored.
+     */
+    public static QueryMix read(InputStream input) {
+        SearchCriteriaParser parser = new SearchCriteriaParser();
+        List<LoadQuery> queries = new ArrayList<>();
+        List<String> columns = new ArrayList<>();
+        new CsvReader().forEachRow(input, row -> {
+            if (columns.isEmpty()) {
+                columns.addAll(parseHeader(row));
+                return;
+            }
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size() && i < row.length; i++) {
+                if (!columns.get(i).equals(ID_COLUMN) && !row[i].isBlank()) {
+                    fields.put(columns.get(i), row[i].trim());
+                }
+            }
+            try {
+                queries.add(new LoadQuery(fields, parser.parse(fields)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                        String.format("Invalid query on row %d: %s", queries.size() + 1, e.getMessage()), e);
+            }
+        });
+        return new QueryMix(queries);
+    }
+
+    /**
+     * Mix of {@code size} queries on rating, distance, price and sometimes cuisine, the same for
+     * a given seed.
+     */
+    public static QueryMix random(int size, long seed) {
+        SearchCriteriaParser parser = new SearchCriteriaParser();
+        SplittableRandom random = new SplittableRandom(seed);
+        List<LoadQuery> queries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            fields.put(SearchCriteriaParser.RATING, String.valueOf(random.nextInt(1, 6)));
+            if (random.nextInt(3) > 0) {
+                fields.put(SearchCriteriaParser.DISTANCE, String.valueOf(random.nextInt(1, 11)));
+            }
+            if (random.nextInt(3) > 0) {
+                fields.put(SearchCriteriaParser.PRICE, String.valueOf(5 * random.nextInt(2, 11)));
+            }
+            if (random.nextInt(3) == 0) {
+                fields.put(SearchCriteriaParser.CUISINE, CUISINES.get(random.nextInt(CUISINES.size())));
+            }
+            queries.add(new LoadQuery(fields, parser.parse(fields)));
+        }
+        return new QueryMix(queries);
+    }
+
+    public int size() {
+        return queries.size();
+    }
+
+    /**
+     * The query after the one last handed out, from any thread.
+     */
+    public LoadQuery next() {
+        return queries.get((int) (position.getAndIncrement() % queries.size()));
+    }
+
+    private static List<String> parseHeader(String[] header) {
+        List<String> columns = new ArrayList<>(header.length);
+        for (String column : header) {
+            String normalized = column.trim().toLowerCase(Locale.ROOT);
+            if (!normalized.equals(ID_COLUMN) && !SearchCriteriaParser.FIELDS.contains(normalized)) {
+                throw new IllegalArgumentException(String.format(
+                        "Unknown query column '%s'. Expected any of: %s, %s",
+                        column.trim(), ID_COLUMN, String.join(", ", SearchCriteriaParser.FIELDS)));
+            }
+            columns.add(normalized);
+        }
+        return columns;
+    }
+}
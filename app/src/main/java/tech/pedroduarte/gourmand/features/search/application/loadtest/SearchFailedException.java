@@ -0,0 +1,14 @@
+package tech.pedroduarte.gourmand.features.search.application.loadtest;
+
+/**
+ * Exception thrown by a {@link LoadTarget} when a search got an answer, but not a successful one.
+ * Its message is the kind of failure, such as {@code HTTP 503}, and must come from a small set,
+ * since failures of the same kind are counted together.
+ */
+public class SearchFailedException extends RuntimeException {
+
+    public SearchFailedException(String kind) {
+        super(kind);
+    }
+
+}
@@ -0,0 +1,62 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import picocli.CommandLine.Option;
+import tech.pedroduarte.gourmand.features.search.application.AdmissionController;
+
+import java.time.Duration;
+
+/**
+ * Admission control for the commands that serve searches to many clients at once.
+ */
+public class AdmissionOptions {
+
+    @Option(
+            names = {"--max-concurrency"},
+            description = "Most searches run at once; the limit starts at the number of cores and adapts to latency up to this (default: 4 per core)",
+            paramLabel = "N"
+    )
+    private Integer maxConcurrency;
+
+    @Option(
+            names = {"--latency-target"},
+            description = "Search latency above which fewer searches run at once (default: ${DEFAULT-VALUE})",
+            paramLabel = "MS",
+            defaultValue = "100"
+    )
+    private long latencyTarget;
+
+    @Option(
+            names = {"--queue-size"},
+            description = "Most searches waiting to run; more are turned away (default: ${DEFAULT-VALUE})",
+            paramLabel = "N",
+            defaultValue = "256"
+    )
+    private int queueSize;
+
+    @Option(
+            names = {"--queue-timeout"},
+            description = "Longest a search waits to run before it is turned away (default: ${DEFAULT-VALUE})",
+            paramLabel = "MS",
+            defaultValue = "500"
+    )
+    private long queueTimeout;
+
+    public AdmissionController toController() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int maxLimit = maxConcurrency == null ? 4 * cores : maxConcurrency;
+        if (maxLimit < 1) {
+            throw new IllegalArgumentException("--max-concurrency must be at least 1");
+        }
+        if (latencyTarget < 1) {
+            throw new IllegalArgumentException("--latency-target must be at least 1");
+        }
+        if (queueSize < 0) {
+            throw new IllegalArgumentException("--queue-size must not be negative");
+        }
+        if (queueTimeout < 0) {
+            throw new IllegalArgumentException("--queue-timeout must not be negative");
+        }
+        return new AdmissionController(Math.min(cores, maxLimit), maxLimit, Duration.ofMillis(latencyTarget),
+                queueSize, Duration.ofMillis(queueTimeout));
+    }
+}
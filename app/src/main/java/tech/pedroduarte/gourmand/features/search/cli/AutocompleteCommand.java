@@ -0,0 +1,97 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+import tech.pedroduarte.gourmand.features.search.application.AutocompleteService;
+import tech.pedroduarte.gourmand.features.search.application.dto.Completion;
+import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvRestaurantRepository;
+
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+@Command(
+        name = "autocomplete",
+        description = "Suggests restaurant and cuisine names starting with the given prefix",
+        mixinStandardHelpOptions = true,
+        version = "1.0"
+)
+public class AutocompleteCommand implements Callable<Integer> {
+
+    private final static Logger logger = LoggerFactory.getLogger(AutocompleteCommand.class);
+
+    @Spec
+    private CommandSpec spec;
+
+    @Parameters(
+            index = "0",
+            description = "Beginning of a restaurant or cuisine name",
+            paramLabel = "PREFIX"
+    )
+    private String prefix;
+
+    @Option(
+            names = {"-k", "--limit"},
+            description = "Maximum number of suggestions (default: ${DEFAULT-VALUE})",
+            paramLabel = "K",
+            defaultValue = "5"
+    )
+    private int limit;
+
+    @Mixin
+    private DataSourceOptions dataSource;
+
+    @Option(
+            names = {"-v", "--verbose"},
+            description = "Prints additional information"
+    )
+    private boolean verbose;
+
+    @Override
+    public Integer call() {
+        try {
+            AutocompleteService autocompleteService = new AutocompleteService(
+                    new CsvRestaurantRepository(dataSource.toDataSource()),
+                    new RestaurantSearchDomainService()
+            );
+
+            displayCompletions(autocompleteService.complete(prefix, limit));
+            return 0;
+        } catch (Exception e) {
+            spec.commandLine().getErr().printf("Error: %s%n", e.getMessage());
+            logger.error("Error executing autocomplete", e);
+            return 1;
+        }
+    }
+
+    private void displayCompletions(List<Completion> completions) {
+        PrintWriter writer = spec.commandLine().getOut();
+
+        if (completions.isEmpty()) {
+            writer.printf("No suggestions found for \"%s\".%n", prefix);
+            writer.flush();
+            return;
+        }
+
+        int textWidth = Math.max(20,
+                completions.stream()
+                        .mapToInt(c -> c.getText().length())
+                        .max()
+                        .orElse(20));
+
+        String rowFormat = "%-" + textWidth + "s  %s%n";
+        completions.forEach(completion ->
+                writer.printf(rowFormat, completion.getText(), completion.getType())
+        );
+
+        writer.flush();
+    }
+
+}
@@ -0,0 +1,156 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import tech.pedroduarte.gourmand.common.utils.CsvReader;
+import tech.pedroduarte.gourmand.features.search.application.BatchSearchExecutor;
+import tech.pedroduarte.gourmand.features.search.application.SearchCriteriaParser;
+import tech.pedroduarte.gourmand.features.search.application.SearchService;
+import tech.pedroduarte.gourmand.features.search.application.dto.SearchResult;
+
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executes the criteria rows of a batch file and prints the results as CSV.
+ * <p>
+ * The input needs a header naming its columns, any of {@code name, rating, distance, price,
+ * cuisine, lat, lon, fuzzy}, plus an optional {@code id} used to tag the output rows
+ * (the 1-based row number otherwise). Each result is printed as
+ * {@code query,rank,name,rating,distance,price,cuisine}, in input order.
+ */
+class BatchSearchRunner {
+
+    static final String ID_COLUMN = "id";
+    static final String OUTPUT_HEADER = "query,rank,name,rating,distance,price,cuisine";
+
+    private static final int IN_FLIGHT_PER_THREAD = 2;
+    private static final int QUERIES_PER_SCAN = 256;
+
+    private final SearchService searchService;
+    private final SearchCriteriaParser criteriaParser = new SearchCriteriaParser();
+    private final PrintWriter out;
+    private final PrintWriter err;
+
+    BatchSearchRunner(SearchService searchService, PrintWriter out, PrintWriter err) {
+        this.searchService = searchService;
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * Runs every query of the input and returns the number of queries that failed.
+     */
+    int run(InputStream input, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "gourmand-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        OutputHandler handler = new OutputHandler();
+        try {
+            BatchSearchExecutor batch = new BatchSearchExecutor(
+                    searchService, executor, threads * IN_FLIGHT_PER_THREAD, QUERIES_PER_SCAN, handler);
+            out.println(OUTPUT_HEADER);
+
+            RowReader rows = new RowReader(batch);
+            new CsvReader().forEachRow(input, rows::accept);
+            if (rows.columns == null) {
+                throw new IllegalArgumentException("Batch input is empty, a header row is required");
+            }
+            batch.flush();
+        } finally {
+            executor.shutdownNow();
+            out.flush();
+            err.flush();
+        }
+        return handler.failures;
+    }
+
+    private List<String> parseHeader(String[] header) {
+        List<String> columns = new ArrayList<>(header.length);
+        for (String column : header) {
+            String normalized = column.trim().toLowerCase(Locale.ROOT);
+            if (!normalized.equals(ID_COLUMN) && !SearchCriteriaParser.FIELDS.contains(normalized)) {
+                throw new IllegalArgumentException(String.format(
+                        "Unknown batch column '%s'. Expected any of: %s, %s",
+                        column.trim(), ID_COLUMN, String.join(", ", SearchCriteriaParser.FIELDS)));
+            }
+            columns.add(normalized);
+        }
+        return columns;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private class RowReader {
+        private final BatchSearchExecutor batch;
+        private List<String> columns;
+        private int rowNumber;
+
+        RowReader(BatchSearchExecutor batch) {
+            this.batch = batch;
+        }
+
+        void accept(String[] row) {
+            if (columns == null) {
+                columns = parseHeader(row);
+                return;
+            }
+            rowNumber++;
+
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < columns.size() && i < row.length; i++) {
+                fields.put(columns.get(i), row[i]);
+            }
+            String id = fields.remove(ID_COLUMN);
+            String queryId = id == null || id.isBlank() ? String.valueOf(rowNumber) : id.trim();
+            batch.submit(queryId, () -> criteriaParser.parse(fields));
+        }
+    }
+
+    private class OutputHandler implements BatchSearchExecutor.ResultHandler {
+        private int failures;
+
+        @Override
+        public void onResults(String queryId, List<SearchResult> results) {
+            String tag = csvField(queryId);
+            int rank = 1;
+            for (SearchResult result : results) {
+                out.print(tag);
+                out.print(',');
+                out.print(rank++);
+                out.print(',');
+                out.print(csvField(result.getName()));
+                out.print(',');
+                out.print(result.getRating());
+                out.print(',');
+                out.print(result.getDistance());
+                out.print(',');
+                out.print(result.getPrice());
+                out.print(',');
+                out.println(csvField(result.getCuisine()));
+            }
+        }
+
+        @Override
+        public void onError(String queryId, Exception error) {
+            failures++;
+            err.printf("Error in query %s: %s%n", queryId, error.getMessage());
+        }
+    }
+}
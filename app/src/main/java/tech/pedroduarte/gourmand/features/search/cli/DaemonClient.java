@@ -0,0 +1,74 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Forwards a command to a running daemon.
+ */
+final class DaemonClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(DaemonClient.class);
+
+    private DaemonClient() {
+    }
+
+    /**
+     * Sends the arguments to the daemon listening on the socket and copies what the command
+     * prints to the writers as it arrives.
+     *
+     * @return the command's exit code, or empty when no daemon is reachable or it serves another
+     * data set, in which case the caller should run the command itself
+     * @throws IOException when the connection fails after the daemon accepted the command, as
+     *                     part of its output may already have been written
+     */
+    static Optional<Integer> forward(Path socketPath, String dataSetKey, List<String> arguments,
+                                     Writer stdout, Writer stderr) throws IOException {
+        if (!Files.exists(socketPath)) {
+            return Optional.empty();
+        }
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            logger.info("Daemon on {} is not reachable, running in-process: {}", socketPath, e.getMessage());
+            return Optional.empty();
+        }
+        try (channel;
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)))) {
+
+            int status;
+            try {
+                new DaemonProtocol.Request(DaemonProtocol.VERSION, dataSetKey, arguments).writeTo(out);
+                status = DaemonProtocol.readStatus(in);
+            } catch (IOException e) {
+                logger.info("Daemon on {} did not answer, running in-process: {}", socketPath, e.getMessage());
+                return Optional.empty();
+            }
+            if (status != DaemonProtocol.STATUS_OK) {
+                logger.info("Daemon on {} refused the request (status {}), running in-process", socketPath, status);
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(DaemonProtocol.readFrames(in, stdout, stderr));
+            } catch (IOException e) {
+                throw new IOException("Lost the connection to the daemon: " + e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+import tech.pedroduarte.gourmand.features.search.application.SearchService;
+import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CopyOnWriteRestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvRestaurantRepository;
+
+import java.io.PrintWriter;
+import java.util.concurrent.Callable;
+
+@Command(
+        name = "daemon",
+        description = "Keeps the data loaded and serves searches over a Unix domain socket",
+        mixinStandardHelpOptions = true,
+        version = "1.0"
+)
+public class DaemonCommand implements Callable<Integer> {
+
+    private final static Logger logger = LoggerFactory.getLogger(DaemonCommand.class);
+
+    @Spec
+    private CommandSpec spec;
+
+    @Mixin
+    private DataSourceOptions dataSource;
+
+    @Mixin
+    private ReloadOptions reload;
+
+    @Mixin
+    private SocketOptions socket;
+
+    @Mixin
+    private MetricsOptions metrics;
+
+    @Option(
+            names = {"--threads"},
+            description = "Number of searches served in parallel (default: available processors)",
+            paramLabel = "N"
+    )
+    private Integer threads;
+
+    @Option(
+            names = {"-v", "--verbose"},
+            description = "Prints additional information"
+    )
+    private boolean verbose;
+
+    @Override
+    public Integer call() {
+        PrintWriter out = spec.commandLine().getOut();
+        try {
+            metrics.start();
+            long started = System.nanoTime();
+            RestaurantSearchDomainService domainService = new RestaurantSearchDomainService();
+            CopyOnWriteRestaurantRepository repository = new CopyOnWriteRestaurantRepository(
+                    () -> new CsvRestaurantRepository(dataSource.toDataSource()),
+                    domainService::relevanceRanks
+            );
+            SearchService searchService = new SearchService(repository, domainService);
+            reload.schedule(repository);
+            out.printf("Loaded data in %d ms%n", (System.nanoTime() - started) / 1_000_000);
+
+            int threadCount = threads != null ? threads : Runtime.getRuntime().availableProcessors();
+            DaemonServer server = new DaemonServer(socket.getSocketPath(), dataSource.dataSetKey(), searchService,
+                    threadCount);
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (Exception e) {
+                    logger.warn("Failed to stop daemon cleanly", e);
+                }
+            }, "gourmand-daemon-shutdown"));
+
+            out.printf("Listening on %s (stop with Ctrl+C)%n", socket.getSocketPath());
+            out.flush();
+            server.awaitTermination();
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (Exception e) {
+            spec.commandLine().getErr().printf("Error: %s%n", e.getMessage());
+            logger.error("Error running daemon", e);
+            return 1;
+        }
+    }
+}
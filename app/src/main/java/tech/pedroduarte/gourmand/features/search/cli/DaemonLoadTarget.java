@@ -0,0 +1,70 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import tech.pedroduarte.gourmand.features.search.application.loadtest.LoadQuery;
+import tech.pedroduarte.gourmand.features.search.application.loadtest.LoadTarget;
+import tech.pedroduarte.gourmand.features.search.application.loadtest.SearchFailedException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Forwards each search to a running daemon as {@code search} would, one connection per search.
+ * A search the daemon refuses or answers with a non-zero exit code is an error.
+ */
+class DaemonLoadTarget implements LoadTarget {
+
+    static final String UNAVAILABLE = "daemon unavailable";
+
+    private final Path socketPath;
+    private final String dataSetKey;
+
+    DaemonLoadTarget(Path socketPath, String dataSetKey) {
+        this.socketPath = socketPath;
+        this.dataSetKey = dataSetKey;
+    }
+
+    @Override
+    public String description() {
+        return "daemon " + socketPath;
+    }
+
+    @Override
+    public void execute(LoadQuery query) throws IOException {
+        Optional<Integer> exitCode = forward(arguments(query));
+        if (exitCode.isEmpty()) {
+            throw new SearchFailedException(UNAVAILABLE);
+        }
+        if (exitCode.get() != 0) {
+            throw new SearchFailedException("exit code " + exitCode.get());
+        }
+    }
+
+    /**
+     * Fails unless a daemon serving the data set answers on the socket.
+     */
+    void checkReachable() throws IOException {
+        if (forward(List.of("--count")).isEmpty()) {
+            throw new IllegalStateException(String.format(
+                    "No daemon serving this data set is listening on %s; start one with 'gourmand daemon'", socketPath));
+        }
+    }
+
+    private Optional<Integer> forward(List<String> arguments) throws IOException {
+        // The results are read off the socket and dropped, as a client would read them
+        return DaemonClient.forward(socketPath, dataSetKey, arguments, Writer.nullWriter(), Writer.nullWriter());
+    }
+
+    private static List<String> arguments(LoadQuery query) {
+        // The fields are named after the search command's long options
+        List<String> arguments = new ArrayList<>(query.fields().size() * 2);
+        query.fields().forEach((field, value) -> {
+            arguments.add("--" + field);
+            arguments.add(value);
+        });
+        return arguments;
+    }
+}
@@ -0,0 +1,194 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format between the daemon and its clients: one request and one reply per connection.
+ * <p>
+ * A request carries the protocol version, the data set the client expects and the raw
+ * command arguments. The reply starts with a status; when it is {@link #STATUS_OK}, what the
+ * command prints follows as it is printed, in frames of at most {@link #FRAME_CHARS} characters
+ * tagged with the stream they belong to, and a last frame carries the exit code. Neither side
+ * ever holds a whole export. Strings and frames are written as a length followed by UTF-8 bytes.
+ */
+final class DaemonProtocol {
+
+    static final int VERSION = 2;
+
+    static final int STATUS_OK = 0;
+    static final int STATUS_OTHER_DATA_SET = 1;
+    static final int STATUS_UNSUPPORTED_VERSION = 2;
+
+    static final int FRAME_CHARS = 8192;
+
+    private static final byte FRAME_EXIT = 0;
+    private static final byte FRAME_OUT = 1;
+    private static final byte FRAME_ERR = 2;
+
+    private static final int MAX_STRING_BYTES = 16 * 1024 * 1024;
+    private static final int MAX_ARGUMENTS = 1024;
+
+    private DaemonProtocol() {
+    }
+
+    record Request(int version, String dataSetKey, List<String> arguments) {
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(version);
+            writeString(out, dataSetKey);
+            out.writeInt(arguments.size());
+            for (String argument : arguments) {
+                writeString(out, argument);
+            }
+            out.flush();
+        }
+
+        static Request readFrom(DataInputStream in) throws IOException {
+            int version = in.readInt();
+            if (version != VERSION) {
+                return new Request(version, "", List.of());
+            }
+            String dataSetKey = readString(in);
+            int count = in.readInt();
+            if (count < 0 || count > MAX_ARGUMENTS) {
+                throw new IOException("Invalid argument count: " + count);
+            }
+            List<String> arguments = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                arguments.add(readString(in));
+            }
+            return new Request(version, dataSetKey, arguments);
+        }
+    }
+
+    static void writeStatus(DataOutputStream out, int status) throws IOException {
+        out.writeInt(status);
+        out.flush();
+    }
+
+    static int readStatus(DataInputStream in) throws IOException {
+        return in.readInt();
+    }
+
+    /**
+     * Writer that sends what is written to it as frames of the standard output.
+     */
+    static Writer outputFrames(DataOutputStream out) {
+        return new FrameWriter(out, FRAME_OUT);
+    }
+
+    /**
+     * Writer that sends what is written to it as frames of the standard error.
+     */
+    static Writer errorFrames(DataOutputStream out) {
+        return new FrameWriter(out, FRAME_ERR);
+    }
+
+    static void writeExitCode(DataOutputStream out, int exitCode) throws IOException {
+        synchronized (out) {
+            out.writeByte(FRAME_EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    /**
+     * Copies the output frames of a reply to the writers as they arrive.
+     *
+     * @return the exit code of the command
+     */
+    static int readFrames(DataInputStream in, Writer out, Writer err) throws IOException {
+        while (true) {
+            byte stream = in.readByte();
+            switch (stream) {
+                case FRAME_EXIT -> {
+                    out.flush();
+                    err.flush();
+                    return in.readInt();
+                }
+                case FRAME_OUT -> out.write(readString(in));
+                case FRAME_ERR -> err.write(readString(in));
+                default -> throw new IOException("Invalid frame: " + stream);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Invalid string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Buffers characters and sends them as one frame when the buffer is full or flushed. Frames
+     * end on character boundaries, so each one decodes on its own.
+     */
+    private static final class FrameWriter extends Writer {
+
+        private final DataOutputStream out;
+        private final byte stream;
+        private final StringBuilder buffer = new StringBuilder(FRAME_CHARS);
+
+        FrameWriter(DataOutputStream out, byte stream) {
+            this.out = out;
+            this.stream = stream;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            while (length > 0) {
+                int count = Math.min(length, FRAME_CHARS - buffer.length());
+                buffer.append(chars, offset, count);
+                offset += count;
+                length -= count;
+                if (buffer.length() == FRAME_CHARS) {
+                    sendFrame();
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            sendFrame();
+            synchronized (out) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        private void sendFrame() throws IOException {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            // A surrogate pair split by the buffer's end waits for its second half
+            int length = Character.isHighSurrogate(buffer.charAt(buffer.length() - 1)) && buffer.length() > 1
+                    ? buffer.length() - 1
+                    : buffer.length();
+            synchronized (out) {
+                out.writeByte(stream);
+                writeString(out, buffer.substring(0, length));
+            }
+            buffer.delete(0, length);
+        }
+    }
+}
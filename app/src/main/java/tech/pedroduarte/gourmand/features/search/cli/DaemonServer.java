@@ -0,0 +1,195 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+import tech.pedroduarte.gourmand.features.search.application.SearchService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves search commands over a Unix domain socket with an already loaded {@link SearchService}.
+ * <p>
+ * Every connection carries one {@link DaemonProtocol.Request}: the arguments are run through a
+ * fresh {@link SearchCommand} bound to the warm service, and its output is streamed back.
+ * Requests for another data set are refused so the client can run the search itself.
+ */
+class DaemonServer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DaemonServer.class);
+
+    private final Path socketPath;
+    private final String dataSetKey;
+    private final SearchService searchService;
+    private final ExecutorService workers;
+    private ServerSocketChannel server;
+    private Thread acceptor;
+
+    DaemonServer(Path socketPath, String dataSetKey, SearchService searchService, int threads) {
+        this.socketPath = socketPath;
+        this.dataSetKey = dataSetKey;
+        this.searchService = searchService;
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "gourmand-daemon-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Binds the socket and starts accepting connections in the background.
+     *
+     * @throws IllegalStateException if another daemon is already listening on the socket
+     */
+    void start() throws IOException {
+        removeStaleSocket();
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        bindPrivately();
+
+        acceptor = new Thread(this::acceptConnections, "gourmand-daemon-acceptor");
+        acceptor.start();
+        logger.info("Daemon listening on {}", socketPath);
+    }
+
+    /**
+     * Blocks until the server is closed.
+     */
+    void awaitTermination() throws InterruptedException {
+        acceptor.join();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Files.deleteIfExists(socketPath);
+    }
+
+    private void acceptConnections() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel connection = server.accept();
+                workers.execute(() -> serve(connection));
+            } catch (AsynchronousCloseException e) {
+                return;
+            } catch (IOException e) {
+                logger.error("Failed to accept connection", e);
+            }
+        }
+    }
+
+    private void serve(SocketChannel connection) {
+        try (connection;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(connection)));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(connection)))) {
+
+            DaemonProtocol.Request request = DaemonProtocol.Request.readFrom(in);
+            int status = status(request);
+            DaemonProtocol.writeStatus(out, status);
+            if (status == DaemonProtocol.STATUS_OK) {
+                run(request, out);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to serve request", e);
+        }
+    }
+
+    private int status(DaemonProtocol.Request request) {
+        if (request.version() != DaemonProtocol.VERSION) {
+            return DaemonProtocol.STATUS_UNSUPPORTED_VERSION;
+        }
+        if (!dataSetKey.equals(request.dataSetKey())) {
+            return DaemonProtocol.STATUS_OTHER_DATA_SET;
+        }
+        return DaemonProtocol.STATUS_OK;
+    }
+
+    /**
+     * Runs the command, streaming what it prints to the client as it goes.
+     */
+    private void run(DaemonProtocol.Request request, DataOutputStream out) throws IOException {
+        PrintWriter stdout = new PrintWriter(DaemonProtocol.outputFrames(out));
+        PrintWriter stderr = new PrintWriter(DaemonProtocol.errorFrames(out));
+        int exitCode = new CommandLine(new SearchCommand(searchService))
+                .setOut(stdout)
+                .setErr(stderr)
+                .execute(request.arguments().toArray(String[]::new));
+        stdout.flush();
+        stderr.flush();
+        if (stdout.checkError() || stderr.checkError()) {
+            throw new IOException("Client went away before the reply was complete");
+        }
+        DaemonProtocol.writeExitCode(out, exitCode);
+    }
+
+    private void removeStaleSocket() throws IOException {
+        if (!Files.exists(socketPath)) {
+            return;
+        }
+        SocketChannel probe;
+        try {
+            probe = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            // Nobody is listening: the file was left behind by a daemon that did not shut down cleanly
+            Files.delete(socketPath);
+            return;
+        }
+        probe.close();
+        throw new IllegalStateException("A daemon is already listening on " + socketPath);
+    }
+
+    /**
+     * Binds the socket inside a directory only the owner can enter, restricts the socket to the
+     * owner and only then moves it into place, so no other user can ever connect to it whatever
+     * the umask. Where POSIX permissions are not supported the socket is bound in place.
+     */
+    private void bindPrivately() throws IOException {
+        Path staging;
+        try {
+            staging = Files.createTempDirectory(socketPath.toAbsolutePath().getParent(), ".gourmand-daemon-",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } catch (UnsupportedOperationException e) {
+            logger.debug("Could not restrict socket permissions", e);
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            return;
+        }
+        try {
+            Path staged = staging.resolve("daemon.sock");
+            server.bind(UnixDomainSocketAddress.of(staged));
+            Files.setPosixFilePermissions(staged, PosixFilePermissions.fromString("rw-------"));
+            Files.move(staged, socketPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        } finally {
+            Files.deleteIfExists(staging.resolve("daemon.sock"));
+            Files.deleteIfExists(staging);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import picocli.CommandLine.Option;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvDataSource;
+
+import java.nio.file.Path;
+
+/**
+ * Data location options shared by every command that loads the restaurant data.
+ */
+public class DataSourceOptions {
+
+    @Option(
+            names = {"--data-dir"},
+            description = "Directory containing data files",
+            type = Path.class
+    )
+    private Path dataDirectory;
+
+    public Path getDataDirectory() {
+        return dataDirectory;
+    }
+
+    /**
+     * Identifies the data set: the absolute data directory, or an empty string for the
+     * embedded data. Two processes with the same key serve the same data.
+     */
+    public String dataSetKey() {
+        return dataDirectory == null ? "" : dataDirectory.toAbsolutePath().normalize().toString();
+    }
+
+    public CsvDataSource toDataSource() {
+        if (dataDirectory != null) {
+            return CsvDataSource.fromDirectory(dataDirectory);
+        }
+        return CsvDataSource.fromResources();
+    }
+}
@@ -0,0 +1,65 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import tech.pedroduarte.gourmand.features.search.application.loadtest.LoadQuery;
+import tech.pedroduarte.gourmand.features.search.application.loadtest.LoadTarget;
+import tech.pedroduarte.gourmand.features.search.application.loadtest.SearchFailedException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Sends each search as {@code GET /search} to a running {@code serve} endpoint. Any status but
+ * 200 is an error of its own kind, so rejections by admission control show up as {@code HTTP 503}.
+ */
+class HttpLoadTarget implements LoadTarget, AutoCloseable {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI endpoint;
+    private final HttpClient client;
+
+    HttpLoadTarget(URI url) {
+        String base = url.toString();
+        this.endpoint = URI.create(base.endsWith("/search") ? base : base.replaceAll("/+$", "") + "/search");
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TIMEOUT)
+                .build();
+    }
+
+    @Override
+    public String description() {
+        return endpoint.toString();
+    }
+
+    @Override
+    public void execute(LoadQuery query) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint + "?" + queryString(query.fields())))
+                .timeout(TIMEOUT)
+                .GET()
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new SearchFailedException("HTTP " + response.statusCode());
+        }
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+
+    private static String queryString(Map<String, String> fields) {
+        StringJoiner query = new StringJoiner("&");
+        fields.forEach((field, value) -> query.add(field + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8)));
+        return query.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import picocli.CommandLine.Option;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CopyOnWriteRestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvCheckpoint;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.JournalCheckpointer;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.MutationJournal;
+
+import java.time.Duration;
+
+/**
+ * Durable changes for the commands that accept them.
+ */
+public class JournalOptions {
+
+    private static final Duration CHECK_INTERVAL = Duration.ofSeconds(1);
+
+    @Option(
+            names = {"--journal"},
+            description = "Accepts changes to the restaurants, keeping them in journal.log in the data directory "
+                    + "until they are written back to the data files"
+    )
+    private boolean enabled;
+
+    @Option(
+            names = {"--checkpoint-records"},
+            description = "Writes the data files back and empties the journal once it holds N changes (default: ${DEFAULT-VALUE})",
+            paramLabel = "N",
+            defaultValue = "100000"
+    )
+    private long checkpointRecords;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens the journal of the data directory, whose changes the repository replays over the
+     * data files it loads, or returns {@code null} without {@code --journal}.
+     */
+    public MutationJournal open(DataSourceOptions dataSource) {
+        if (!enabled) {
+            return null;
+        }
+        if (dataSource.getDataDirectory() == null) {
+            throw new IllegalArgumentException("--journal requires --data-dir, as checkpoints rewrite the data files");
+        }
+        if (checkpointRecords < 1) {
+            throw new IllegalArgumentException("--checkpoint-records must be at least 1");
+        }
+        return MutationJournal.open(dataSource.getDataDirectory().resolve(MutationJournal.FILENAME));
+    }
+
+    /**
+     * Starts checkpointing the repository into the data directory in the background.
+     */
+    public JournalCheckpointer startCheckpointer(CopyOnWriteRestaurantRepository repository, MutationJournal journal,
+                                                 DataSourceOptions dataSource) {
+        return new JournalCheckpointer(repository, journal, new CsvCheckpoint(dataSource.getDataDirectory()),
+                checkpointRecords, CHECK_INTERVAL);
+    }
+}
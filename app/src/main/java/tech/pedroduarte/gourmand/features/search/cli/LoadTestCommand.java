@@ -0,0 +1,229 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+import tech.pedroduarte.gourmand.features.search.application.SearchService;
+import tech.pedroduarte.gourmand.features.search.application.loadtest.InProcessLoadTarget;
+import tech.pedroduarte.gourmand.features.search.application.loadtest.LoadGenerator;
+import tech.pedroduarte.gourmand.features.search.application.loadtest.LoadPlan;
+import tech.pedroduarte.gourmand.features.search.application.loadtest.LoadTarget;
+import tech.pedroduarte.gourmand.features.search.application.loadtest.LoadTestResult;
+import tech.pedroduarte.gourmand.features.search.application.loadtest.QueryMix;
+import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvRestaurantRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+@Command(
+        name = "loadtest",
+        description = "Replays a query mix at a fixed rate (open loop) or with concurrent clients (closed loop) "
+                + "and reports latency percentiles corrected for coordinated omission (closed loop: with --expected-interval)",
+        mixinStandardHelpOptions = true,
+        version = "1.0"
+)
+public class LoadTestCommand implements Callable<Integer> {
+
+    private final static Logger logger = LoggerFactory.getLogger(LoadTestCommand.class);
+
+    @Spec
+    private CommandSpec spec;
+
+    @ArgGroup(exclusive = true, multiplicity = "1")
+    private Load load;
+
+    static class Load {
+        @Option(
+                names = {"--rate"},
+                description = "Searches started per second, whether or not earlier ones have finished (open loop)",
+                paramLabel = "N"
+        )
+        double rate;
+
+        @Option(
+                names = {"--clients"},
+                description = "Clients each starting a search when their last one finishes (closed loop)",
+                paramLabel = "N"
+        )
+        int clients;
+    }
+
+    @Option(
+            names = {"--duration"},
+            description = "Seconds to measure for (default: ${DEFAULT-VALUE})",
+            paramLabel = "SECONDS",
+            defaultValue = "10"
+    )
+    private double duration;
+
+    @Option(
+            names = {"--warmup"},
+            description = "Seconds to run before measuring (default: ${DEFAULT-VALUE})",
+            paramLabel = "SECONDS",
+            defaultValue = "2"
+    )
+    private double warmup;
+
+    @Option(
+            names = {"--max-in-flight"},
+            description = "Most searches of an open loop running at once; more count as errors (default: ${DEFAULT-VALUE})",
+            paramLabel = "N",
+            defaultValue = "" + LoadPlan.DEFAULT_MAX_IN_FLIGHT
+    )
+    private int maxInFlight;
+
+    @Option(
+            names = {"--expected-interval"},
+            description = "Microseconds between a closed-loop client's searches if nothing stalled, "
+                    + "to correct its latency for coordinated omission (default: report uncorrected service times only)",
+            paramLabel = "US"
+    )
+    private Long expectedInterval;
+
+    @Option(
+            names = {"--queries"},
+            description = "CSV file of queries in the --batch format, replayed in order (default: a random mix)",
+            paramLabel = "FILE"
+    )
+    private Path queriesFile;
+
+    @Option(
+            names = {"--mix-size"},
+            description = "Queries in the random mix (default: ${DEFAULT-VALUE})",
+            paramLabel = "N",
+            defaultValue = "1000"
+    )
+    private int mixSize;
+
+    @Option(
+            names = {"--seed"},
+            description = "Seed of the random mix (default: ${DEFAULT-VALUE})",
+            paramLabel = "S",
+            defaultValue = "42"
+    )
+    private long seed;
+
+    @Option(
+            names = {"--url"},
+            description = "Base URL of a running 'serve' endpoint to send the searches to",
+            paramLabel = "URL"
+    )
+    private URI url;
+
+    @Option(
+            names = {"--daemon"},
+            description = "Sends the searches to the running daemon instead of searching in this process"
+    )
+    private boolean daemon;
+
+    @Option(
+            names = {"--out"},
+            description = "File to write the results to, one key=value line per figure",
+            paramLabel = "FILE"
+    )
+    private Path out;
+
+    @Mixin
+    private DataSourceOptions dataSource;
+
+    @Mixin
+    private SocketOptions socket;
+
+    @Option(
+            names = {"-v", "--verbose"},
+            description = "Prints additional information"
+    )
+    private boolean verbose;
+
+    @Override
+    public Integer call() {
+        PrintWriter writer = spec.commandLine().getOut();
+        try {
+            if (url != null && daemon) {
+                throw new IllegalArgumentException("--url cannot be combined with --daemon");
+            }
+            LoadPlan plan = new LoadPlan(load.rate, load.clients, seconds(duration), seconds(warmup), maxInFlight,
+                    expectedInterval == null ? null : Duration.ofNanos(expectedInterval * 1_000));
+            QueryMix mix = queryMix();
+
+            LoadTestResult result;
+            if (url != null) {
+                try (HttpLoadTarget target = new HttpLoadTarget(url)) {
+                    result = run(plan, target, mix, writer);
+                }
+            } else {
+                result = run(plan, target(writer), mix, writer);
+            }
+
+            result.printSummary(writer);
+            if (out != null) {
+                try (Writer file = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+                    result.writeTo(file);
+                }
+                writer.printf("Wrote results to %s%n", out);
+            }
+            writer.flush();
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } catch (Exception e) {
+            spec.commandLine().getErr().printf("Error: %s%n", e.getMessage());
+            logger.error("Error running load test", e);
+            return 1;
+        }
+    }
+
+    private LoadTarget target(PrintWriter writer) throws IOException {
+        if (daemon) {
+            DaemonLoadTarget target = new DaemonLoadTarget(socket.getSocketPath(), dataSource.dataSetKey());
+            target.checkReachable();
+            return target;
+        }
+        long started = System.nanoTime();
+        RestaurantSearchDomainService domainService = new RestaurantSearchDomainService();
+        SearchService searchService = new SearchService(
+                new CsvRestaurantRepository(dataSource.toDataSource()), domainService);
+        // Load the data before the clock starts, so the first searches don't pay for it
+        searchService.count(QueryMix.random(1, seed).next().criteria());
+        writer.printf("Loaded data in %d ms%n", (System.nanoTime() - started) / 1_000_000);
+        return new InProcessLoadTarget(searchService);
+    }
+
+    private LoadTestResult run(LoadPlan plan, LoadTarget target, QueryMix mix, PrintWriter writer)
+            throws InterruptedException {
+        writer.printf("Running against %s with %d queries...%n", target.description(), mix.size());
+        writer.flush();
+        return new LoadGenerator(plan).run(target, mix);
+    }
+
+    private QueryMix queryMix() throws Exception {
+        if (queriesFile == null) {
+            if (mixSize < 1) {
+                throw new IllegalArgumentException("--mix-size must be at least 1");
+            }
+            return QueryMix.random(mixSize, seed);
+        }
+        try (InputStream input = Files.newInputStream(queriesFile)) {
+            return QueryMix.read(input);
+        }
+    }
+
+    private static Duration seconds(double seconds) {
+        return Duration.ofNanos(Math.round(seconds * 1_000_000_000));
+    }
+}
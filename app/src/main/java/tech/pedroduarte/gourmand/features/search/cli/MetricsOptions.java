@@ -0,0 +1,29 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import picocli.CommandLine.Option;
+import tech.pedroduarte.gourmand.common.metrics.Metrics;
+import tech.pedroduarte.gourmand.common.metrics.MetricsJmx;
+
+/**
+ * Metrics publishing for the long-running commands.
+ */
+public class MetricsOptions {
+
+    @Option(
+            names = {"--jmx"},
+            description = "Records latency histograms and counters and publishes them as JMX MBeans under tech.pedroduarte.gourmand"
+    )
+    private boolean jmx;
+
+    /**
+     * Turns recording on and registers the MBeans when asked to; call before loading the data,
+     * so that the initial load is recorded too.
+     */
+    public void start() {
+        if (!jmx) {
+            return;
+        }
+        Metrics.enable();
+        MetricsJmx.register();
+    }
+}
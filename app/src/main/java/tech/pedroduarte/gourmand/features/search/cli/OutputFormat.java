@@ -0,0 +1,33 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import java.util.Locale;
+
+/**
+ * How the search command prints its results: a human-readable table, or one of the
+ * machine-readable formats written by {@link ResultEncoder}.
+ */
+enum OutputFormat {
+    TABLE,
+    JSONL,
+    CSV,
+    TSV;
+
+    static OutputFormat fromName(String name) {
+        for (OutputFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException(String.format(
+                "Unknown format '%s'. Expected one of: table, jsonl, csv, tsv", name));
+    }
+
+    boolean isMachineReadable() {
+        return this != TABLE;
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,55 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Option;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CopyOnWriteRestaurantRepository;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic data reloads for the long-running commands.
+ */
+public class ReloadOptions {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReloadOptions.class);
+
+    @Option(
+            names = {"--reload-interval"},
+            description = "Reloads the data files every SECONDS seconds, while searches keep running on the previous data",
+            paramLabel = "SECONDS"
+    )
+    private Integer reloadInterval;
+
+    public boolean isEnabled() {
+        return reloadInterval != null;
+    }
+
+    /**
+     * Starts reloading the repository in the background when an interval was given, on a daemon
+     * thread that ends with the process. A failed reload is logged and the data loaded before
+     * keeps being served.
+     */
+    public void schedule(CopyOnWriteRestaurantRepository repository) {
+        if (reloadInterval == null) {
+            return;
+        }
+        if (reloadInterval < 1) {
+            throw new IllegalArgumentException("--reload-interval must be at least 1");
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gourmand-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                repository.reload();
+            } catch (Exception e) {
+                logger.error("Error reloading data, keeping the previous data", e);
+            }
+        }, reloadInterval, reloadInterval, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,348 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import tech.pedroduarte.gourmand.features.search.domain.ResultCursor;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streams search results as JSON Lines, CSV or TSV, encoding them straight into UTF-8 bytes.
+ * <p>
+ * Every record is written into one reusable byte buffer without {@code String.format}, boxing
+ * or intermediate strings, and the buffer only goes to the output between records, once it
+ * holds at least {@value #FLUSH_THRESHOLD} bytes. Because writes are record-aligned, a chunk
+ * never ends inside a character, which is what lets {@link #toWriter} bridge to a character
+ * stream. Decimals are printed in fixed point with up to six fraction digits.
+ */
+final class ResultEncoder implements Flushable {
+
+    static final String[] COLUMNS = {"name", "rating", "distance", "price", "cuisine"};
+
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+    private static final int FRACTION_DIGITS = 6;
+    private static final long FRACTION_SCALE = 1_000_000L;
+    private static final double MAX_FIXED_POINT = 1e12;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputFormat format;
+    private final RecordSink out;
+    private byte[] buffer = new byte[FLUSH_THRESHOLD + 4096];
+    private int position;
+
+    ResultEncoder(OutputFormat format, OutputStream out) {
+        this(format, new StreamSink(out));
+    }
+
+    private ResultEncoder(OutputFormat format, RecordSink out) {
+        if (!format.isMachineReadable()) {
+            throw new IllegalArgumentException("The " + format + " format is not streamed");
+        }
+        this.format = format;
+        this.out = out;
+    }
+
+    /**
+     * Encoder writing to a character stream, such as a command's redirected output.
+     */
+    static ResultEncoder toWriter(OutputFormat format, Writer writer) {
+        return new ResultEncoder(format, new WriterSink(writer));
+    }
+
+    /**
+     * Writes the column header of the CSV and TSV formats; JSON Lines has none.
+     */
+    void writeHeader() {
+        if (format == OutputFormat.JSONL) {
+            return;
+        }
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                separator();
+            }
+            putAscii(COLUMNS[i]);
+        }
+        endRecord();
+    }
+
+    /**
+     * Encodes every remaining result of the cursor and returns how many there were.
+     */
+    int writeAll(ResultCursor cursor) {
+        int written = 0;
+        while (cursor.next()) {
+            write(cursor.name(), cursor.rating(), cursor.distance(), cursor.price(), cursor.cuisine());
+            written++;
+        }
+        return written;
+    }
+
+    void write(String name, int rating, double distance, double price, String cuisine) {
+        if (format == OutputFormat.JSONL) {
+            putAscii("{\"name\":");
+            jsonString(name);
+            putAscii(",\"rating\":");
+            putLong(rating);
+            putAscii(",\"distance\":");
+            putDecimal(distance);
+            putAscii(",\"price\":");
+            putDecimal(price);
+            putAscii(",\"cuisine\":");
+            jsonString(cuisine);
+            put('}');
+        } else {
+            textField(name);
+            separator();
+            putLong(rating);
+            separator();
+            putDecimal(distance);
+            separator();
+            putDecimal(price);
+            separator();
+            textField(cuisine);
+        }
+        endRecord();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        out.flush();
+    }
+
+    private void endRecord() {
+        put('\n');
+        if (position >= FLUSH_THRESHOLD) {
+            try {
+                out.write(buffer, 0, position);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+        }
+    }
+
+    private void separator() {
+        put(format == OutputFormat.CSV ? ',' : '\t');
+    }
+
+    private void textField(String value) {
+        if (value == null) {
+            return;
+        }
+        if (format == OutputFormat.TSV) {
+            tsvField(value);
+        } else {
+            csvField(value);
+        }
+    }
+
+    private void csvField(String value) {
+        boolean quoted = false;
+        for (int i = 0; i < value.length() && !quoted; i++) {
+            char c = value.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quoted) {
+            putString(value);
+            return;
+        }
+        put('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                put('"');
+            }
+            i = putChar(value, i);
+        }
+        put('"');
+    }
+
+    private void tsvField(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            switch (value.charAt(i)) {
+                case '\t' -> putAscii("\\t");
+                case '\n' -> putAscii("\\n");
+                case '\r' -> putAscii("\\r");
+                case '\\' -> putAscii("\\\\");
+                default -> i = putChar(value, i);
+            }
+        }
+    }
+
+    private void jsonString(String value) {
+        if (value == null) {
+            putAscii("null");
+            return;
+        }
+        put('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> putAscii("\\\"");
+                case '\\' -> putAscii("\\\\");
+                case '\n' -> putAscii("\\n");
+                case '\r' -> putAscii("\\r");
+                case '\t' -> putAscii("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        putAscii("\\u00");
+                        put(HEX[c >> 4]);
+                        put(HEX[c & 0xF]);
+                    } else {
+                        i = putChar(value, i);
+                    }
+                }
+            }
+        }
+        put('"');
+    }
+
+    private void putDecimal(double value) {
+        if (!Double.isFinite(value) || Math.abs(value) >= MAX_FIXED_POINT) {
+            putAscii(Double.isFinite(value) || format != OutputFormat.JSONL ? Double.toString(value) : "null");
+            return;
+        }
+        long scaled = Math.round(Math.abs(value) * FRACTION_SCALE);
+        if (value < 0 && scaled != 0) {
+            put('-');
+        }
+        putLong(scaled / FRACTION_SCALE);
+        put('.');
+
+        // At least one fraction digit, without trailing zeros
+        long fraction = scaled % FRACTION_SCALE;
+        int digits = FRACTION_DIGITS;
+        while (digits > 1 && fraction % 10 == 0) {
+            fraction /= 10;
+            digits--;
+        }
+        ensureCapacity(digits);
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        position += digits;
+    }
+
+    private void putLong(long value) {
+        if (value < 0) {
+            put('-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    private void putAscii(String text) {
+        ensureCapacity(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[position++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void putString(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            i = putChar(text, i);
+        }
+    }
+
+    /**
+     * Encodes the character at {@code index} as UTF-8 and returns the index of its last
+     * {@code char}, which is the next one for a surrogate pair.
+     */
+    private int putChar(String text, int index) {
+        ensureCapacity(4);
+        char c = text.charAt(index);
+        if (c < 0x80) {
+            buffer[position++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[position++] = (byte) (0xC0 | c >> 6);
+            buffer[position++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c) && index + 1 < text.length()
+                && Character.isLowSurrogate(text.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, text.charAt(++index));
+            buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+            buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+        } else if (Character.isSurrogate(c)) {
+            // Unpaired surrogate: replaced the same way String.getBytes does
+            buffer[position++] = '?';
+        } else {
+            buffer[position++] = (byte) (0xE0 | c >> 12);
+            buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+            buffer[position++] = (byte) (0x80 | c & 0x3F);
+        }
+        return index;
+    }
+
+    private void put(char c) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) c;
+    }
+
+    private void put(byte b) {
+        ensureCapacity(1);
+        buffer[position++] = b;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (position + bytes > buffer.length) {
+            // Only a single record larger than the spare room gets here: records are never split
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+        }
+    }
+
+    /**
+     * Where the encoded records go, in chunks that each hold whole records.
+     */
+    private interface RecordSink extends Flushable {
+
+        void write(byte[] records, int offset, int length) throws IOException;
+    }
+
+    private record StreamSink(OutputStream out) implements RecordSink {
+
+        @Override
+        public void write(byte[] records, int offset, int length) throws IOException {
+            out.write(records, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+    /**
+     * Decodes whole records back into characters for a {@link Writer} target.
+     */
+    private record WriterSink(Writer writer) implements RecordSink {
+
+        @Override
+        public void write(byte[] records, int offset, int length) throws IOException {
+            writer.write(new String(records, offset, length, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+    }
+}
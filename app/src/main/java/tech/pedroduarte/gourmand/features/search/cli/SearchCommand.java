@@ -3,25 +3,44 @@ package tech.pedroduarte.gourmand.features.search.cli;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
+import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
 import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Model.OptionSpec;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Spec;
+import tech.pedroduarte.gourmand.common.metrics.Metrics;
+import tech.pedroduarte.gourmand.common.metrics.MetricsReport;
+import tech.pedroduarte.gourmand.features.search.application.QueryProfile;
 import tech.pedroduarte.gourmand.features.search.application.SearchService;
+import tech.pedroduarte.gourmand.features.search.application.dto.SearchFacets;
 import tech.pedroduarte.gourmand.features.search.application.dto.SearchResult;
 import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
 import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+import tech.pedroduarte.gourmand.features.search.domain.SearchProbe;
 import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantRepository;
 import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
-import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvDataSource;
 import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvRestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.LsmRestaurantRepository;
 import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
 import tech.pedroduarte.gourmand.shared.domain.Price;
 import tech.pedroduarte.gourmand.shared.domain.Rating;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.Callable;
 
 @Command(
@@ -35,6 +54,9 @@ public class SearchCommand implements Callable<Integer> {
     private final static Logger logger = LoggerFactory.getLogger(SearchCommand.class);
 
     private SearchService searchService;
+    private LsmRestaurantRepository store;
+    private final SearchService preloadedService;
+    private final OutputStream standardOutput;
 
     @Spec
     private CommandSpec spec;
@@ -46,6 +68,13 @@ public class SearchCommand implements Callable<Integer> {
     )
     private String name;
 
+    @Option(
+            names = {"--fuzzy"},
+            description = "Match names within N typos (edit distance, 0-3) instead of partially",
+            paramLabel = "N"
+    )
+    private Integer fuzzyDistance;
+
     @Option(
             names = {"-r", "--rating"},
             description = "Minimum customer rating (1-5 stars)",
@@ -78,12 +107,83 @@ public class SearchCommand implements Callable<Integer> {
     )
     private Cuisine cuisine;
 
+    @ArgGroup(exclusive = false)
+    private OriginOptions origin;
+
+    @Mixin
+    private DataSourceOptions dataSource;
+
+    @Mixin
+    private StoreOptions storeOptions;
+
+    @Mixin
+    private SocketOptions socket;
+
+    @Option(
+            names = {"--no-daemon"},
+            description = "Always searches in this process, even if a daemon is running"
+    )
+    private boolean noDaemon;
+
+    @Option(
+            names = {"--facets"},
+            description = "Also prints how many restaurants match per cuisine, rating, price and distance band"
+    )
+    private boolean facets;
+
+    @Option(
+            names = {"--count"},
+            description = "Prints only the number of matching restaurants instead of the results"
+    )
+    private boolean countOnly;
+
+    @Option(
+            names = {"--explain", "--profile"},
+            description = "Prints the query plan, rows per filter stage and stage timings as JSON to standard error"
+    )
+    private boolean explain;
+
+    @Option(
+            names = {"--stats"},
+            description = "Prints latency percentiles of each stage and the row and cache counters to standard error"
+    )
+    private boolean stats;
+
+    @Option(
+            names = {"--format"},
+            description = "Output format: table, jsonl, csv or tsv (default: table)",
+            paramLabel = "FORMAT",
+            converter = OutputFormatConverter.class
+    )
+    private OutputFormat format = OutputFormat.TABLE;
+
+    @Option(
+            names = {"--limit"},
+            description = "Maximum number of results (default: 5 for the table, every match for the other formats)",
+            paramLabel = "N"
+    )
+    private Integer limit;
+
+    @Option(
+            names = {"-o", "--output"},
+            description = "Writes jsonl, csv or tsv results to FILE instead of standard output",
+            paramLabel = "FILE"
+    )
+    private Path outputFile;
+
+    @Option(
+            names = {"--batch"},
+            description = "Runs every criteria row of a CSV file (- for standard input) and prints the results as CSV",
+            paramLabel = "FILE"
+    )
+    private String batchFile;
+
     @Option(
-            names = {"--data-dir"},
-            description = "Directory containing data files",
-            type = Path.class
+            names = {"--threads"},
+            description = "Number of queries run in parallel with --batch (default: available processors)",
+            paramLabel = "N"
     )
-    private Path dataDirectory;
+    private Integer threads;
 
     @Option(
             names = {"-v", "--verbose"},
@@ -91,46 +191,217 @@ public class SearchCommand implements Callable<Integer> {
     )
     private boolean verbose;
 
+    public SearchCommand() {
+        this(null, null);
+    }
+
+    /**
+     * Command writing the machine-readable formats straight to this byte stream (the process
+     * standard output) rather than through the command's character writer.
+     */
+    public SearchCommand(OutputStream standardOutput) {
+        this(null, standardOutput);
+    }
+
+    /**
+     * Command bound to an already loaded service, as used by the daemon.
+     */
+    SearchCommand(SearchService preloadedService) {
+        this(preloadedService, null);
+    }
+
+    private SearchCommand(SearchService preloadedService, OutputStream standardOutput) {
+        this.preloadedService = preloadedService;
+        this.standardOutput = standardOutput;
+    }
+
     @Override
     public Integer call() {
+        boolean recording = stats && !Metrics.isEnabled();
+        if (recording) {
+            Metrics.reset();
+            Metrics.enable();
+        }
         try {
+            if (shouldForwardToDaemon()) {
+                // Exports can be large: they go straight to the descriptor when there is one
+                Writer stdout = standardOutput != null
+                        ? new OutputStreamWriter(standardOutput, StandardCharsets.UTF_8)
+                        : spec.commandLine().getOut();
+                Optional<Integer> exitCode = DaemonClient.forward(socket.getSocketPath(),
+                        dataSource.dataSetKey(), forwardedArguments(), stdout, spec.commandLine().getErr());
+                if (exitCode.isPresent()) {
+                    return exitCode.get();
+                }
+            }
+
+            if (explain && countOnly) {
+                throw new IllegalArgumentException("--explain cannot be combined with --count");
+            }
+            validateOutputOptions();
+            SearchProbe probe = explain ? new QueryProfile() : SearchProbe.DISABLED;
+
+            long loadStarted = probe.startTimer();
             init();
+            probe.stageFinished("load", loadStarted);
+
+            if (batchFile != null) {
+                return runBatch();
+            }
 
             SearchCriteria criteria = SearchCriteria.builder()
                     .name(name)
+                    .fuzzyDistance(fuzzyDistance)
                     .minRating(minRating)
                     .maxDistance(maxDistance)
                     .maxPrice(maxPrice)
                     .cuisine(cuisine)
+                    .origin(origin != null ? origin.toGeoLocation() : null)
                     .build();
 
-            // Print friendly message informing criteria
-            spec.commandLine().getOut().printf("Searching for restaurants with criteria: %n%n%s", criteria.formattedCriteria());
-
-            List<SearchResult> results = searchService.search(criteria);
-            displayResults(results);
+            if (format.isMachineReadable()) {
+                exportResults(criteria, probe);
+            } else {
+                // Print friendly message informing criteria
+                spec.commandLine().getOut().printf("Searching for restaurants with criteria: %n%n%s", criteria.formattedCriteria());
+
+                if (countOnly && !facets) {
+                    spec.commandLine().getOut().printf("%nFound %d matching restaurants%n", searchService.count(criteria));
+                    return 0;
+                }
+                if (!countOnly) {
+                    List<SearchResult> results = searchService.search(
+                            criteria, limit != null ? limit : SearchService.DEFAULT_LIMIT, probe);
+                    long renderStarted = probe.startTimer();
+                    long renderTimer = Metrics.start();
+                    displayResults(results);
+                    Metrics.record(Metrics.Timer.RENDER, renderTimer);
+                    probe.stageFinished("render", renderStarted);
+                }
+                if (facets) {
+                    displayFacets(searchService.facets(criteria));
+                }
+            }
+            if (probe instanceof QueryProfile profile) {
+                spec.commandLine().getErr().println(profile.toJson());
+                spec.commandLine().getErr().flush();
+            }
 
             return 0;
         } catch (Exception e) {
             spec.commandLine().getErr().printf("Error: %s%n", e.getMessage());
             logger.error("Error executing search", e);
             return 1;
+        } finally {
+            StoreOptions.close(store);
+            if (stats) {
+                MetricsReport.print(spec.commandLine().getErr());
+            }
+            if (recording) {
+                Metrics.disable();
+            }
         }
     }
 
+    private boolean shouldForwardToDaemon() {
+        // Batch input and --output name local files or streams, --stats reports on this process
+        // and the daemon never searches a store, so they always run here
+        return preloadedService == null && !noDaemon && batchFile == null && outputFile == null && !stats
+                && !storeOptions.isEnabled();
+    }
+
+    private void validateOutputOptions() {
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("--limit must be at least 1");
+        }
+        if (outputFile != null && !format.isMachineReadable()) {
+            throw new IllegalArgumentException("--output requires --format jsonl, csv or tsv");
+        }
+        if (format.isMachineReadable() && (facets || countOnly)) {
+            throw new IllegalArgumentException("--facets and --count only apply to the table format");
+        }
+    }
+
+    /**
+     * Rebuilds the options this command was given from its own parse result, so nothing the
+     * parent command was given is forwarded and no option value is mistaken for a token.
+     */
+    private List<String> forwardedArguments() {
+        List<String> arguments = new ArrayList<>();
+        for (OptionSpec option : spec.commandLine().getParseResult().matchedOptions()) {
+            if (option.arity().max() == 0) {
+                arguments.add(option.longestName());
+                continue;
+            }
+            for (String value : option.originalStringValues()) {
+                arguments.add(option.longestName() + "=" + value);
+            }
+        }
+        return arguments;
+    }
+
     private void init() {
+        if (preloadedService != null) {
+            this.searchService = preloadedService;
+            return;
+        }
         // Service and repository initialization are deferred until the command is called due to the data directory option.
         // In a real application, this would be done at startup (with a real database).
-        final CsvDataSource csvDataSource;
-        if (dataDirectory != null) {
-            csvDataSource = CsvDataSource.fromDirectory(dataDirectory);
+        this.store = storeOptions.open(dataSource);
+        RestaurantRepository repository = store != null
+                ? store
+                : new CsvRestaurantRepository(dataSource.toDataSource());
+        RestaurantSearchDomainService domainService = new RestaurantSearchDomainService();
+        this.searchService = new SearchService(repository, domainService);
+    }
+
+    private int runBatch() throws IOException {
+        if (name != null || fuzzyDistance != null || minRating != null || maxDistance != null
+                || maxPrice != null || cuisine != null || origin != null || facets || countOnly || explain
+                || format != OutputFormat.TABLE || limit != null || outputFile != null) {
+            throw new IllegalArgumentException("--batch cannot be combined with search criteria or output options");
+        }
+        int threadCount = threads != null ? threads : Runtime.getRuntime().availableProcessors();
+
+        BatchSearchRunner runner = new BatchSearchRunner(
+                searchService, spec.commandLine().getOut(), spec.commandLine().getErr());
+        int failures;
+        if ("-".equals(batchFile)) {
+            failures = runner.run(System.in, threadCount);
         } else {
-            csvDataSource = CsvDataSource.fromResources();
+            Path path = Path.of(batchFile);
+            if (!Files.isRegularFile(path)) {
+                throw new IllegalArgumentException("Batch file not found: " + batchFile);
+            }
+            try (InputStream input = Files.newInputStream(path)) {
+                failures = runner.run(input, threadCount);
+            }
         }
+        return failures == 0 ? 0 : 1;
+    }
 
-        RestaurantRepository repository = new CsvRestaurantRepository(csvDataSource);
-        RestaurantSearchDomainService domainService = new RestaurantSearchDomainService();
-        this.searchService = new SearchService(repository, domainService);
+    private void exportResults(SearchCriteria criteria, SearchProbe probe) throws IOException {
+        if (outputFile != null) {
+            try (OutputStream file = Files.newOutputStream(outputFile)) {
+                export(criteria, probe, new ResultEncoder(format, file));
+            }
+        } else if (standardOutput != null) {
+            export(criteria, probe, new ResultEncoder(format, standardOutput));
+        } else {
+            export(criteria, probe, ResultEncoder.toWriter(format, spec.commandLine().getOut()));
+        }
+    }
+
+    private void export(SearchCriteria criteria, SearchProbe probe, ResultEncoder encoder) throws IOException {
+        long renderTimer = Metrics.start();
+        encoder.writeHeader();
+        // Results are encoded as the cursor reaches them; only the final flush is left
+        encoder.writeAll(searchService.cursor(criteria, limit != null ? limit : Integer.MAX_VALUE, probe));
+        long renderStarted = probe.startTimer();
+        encoder.flush();
+        probe.stageFinished("render", renderStarted);
+        // Streamed, so the recorded render time includes scanning for the results
+        Metrics.record(Metrics.Timer.RENDER, renderTimer);
     }
 
     private void displayResults(List<SearchResult> results) {
@@ -172,6 +443,55 @@ public class SearchCommand implements Callable<Integer> {
         writer.flush();
     }
 
+    private void displayFacets(SearchFacets searchFacets) {
+        PrintWriter writer = spec.commandLine().getOut();
+        writer.printf("%nFacets over %d matching restaurants:%n", searchFacets.getTotal());
+
+        displayFacet(writer, "CUISINE", searchFacets.getCuisines());
+        displayFacet(writer, "RATING", searchFacets.getRatings());
+        displayFacet(writer, "PRICE", searchFacets.getPriceBands());
+        displayFacet(writer, "DISTANCE", searchFacets.getDistanceBands());
+
+        writer.flush();
+    }
+
+    private void displayFacet(PrintWriter writer, String title, Map<?, Integer> counts) {
+        writer.printf("%n%s%n", title);
+        if (counts.isEmpty()) {
+            writer.println("  (none)");
+            return;
+        }
+        int labelWidth = Math.max(12,
+                counts.keySet().stream()
+                        .mapToInt(label -> label.toString().length())
+                        .max()
+                        .orElse(12));
+        String rowFormat = "  %-" + labelWidth + "s  %6d%n";
+        counts.forEach((label, count) -> writer.printf(rowFormat, label, count));
+    }
+
+    static class OriginOptions {
+        @Option(
+                names = {"--lat"},
+                description = "Your latitude; distances are computed from this location (requires --lon)",
+                paramLabel = "LATITUDE",
+                required = true
+        )
+        double latitude;
+
+        @Option(
+                names = {"--lon"},
+                description = "Your longitude; distances are computed from this location (requires --lat)",
+                paramLabel = "LONGITUDE",
+                required = true
+        )
+        double longitude;
+
+        GeoLocation toGeoLocation() {
+            return new GeoLocation(latitude, longitude);
+        }
+    }
+
     static class RatingConverter implements CommandLine.ITypeConverter<Rating> {
         @Override
         public Rating convert(String value) {
@@ -218,6 +538,19 @@ public class SearchCommand implements Callable<Integer> {
         }
     }
 
+    static class OutputFormatConverter implements CommandLine.ITypeConverter<OutputFormat> {
+        @Override
+        public OutputFormat convert(String value) {
+            try {
+                return OutputFormat.fromName(value);
+            } catch (IllegalArgumentException e) {
+                throw new CommandLine.TypeConversionException(
+                        e.getMessage()
+                );
+            }
+        }
+    }
+
     static class CuisineTypeConverter implements CommandLine.ITypeConverter<Cuisine> {
         @Override
         public Cuisine convert(String value) {
@@ -0,0 +1,205 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+import tech.pedroduarte.gourmand.features.search.application.AdmissionController;
+import tech.pedroduarte.gourmand.features.search.application.SearchService;
+import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
+import tech.pedroduarte.gourmand.features.search.http.SearchHttpServer;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CopyOnWriteRestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvRestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.JournalCheckpointer;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.LsmRestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.MutationJournal;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+@Command(
+        name = "serve",
+        description = "Serves searches as a JSON HTTP endpoint (GET /search), and changes with --journal",
+        mixinStandardHelpOptions = true,
+        version = "1.0"
+)
+public class ServeCommand implements Callable<Integer> {
+
+    private final static Logger logger = LoggerFactory.getLogger(ServeCommand.class);
+
+    @Spec
+    private CommandSpec spec;
+
+    @Option(
+            names = {"--port"},
+            description = "Port to listen on (default: ${DEFAULT-VALUE})",
+            paramLabel = "PORT",
+            defaultValue = "8080"
+    )
+    private int port;
+
+    @Option(
+            names = {"--host"},
+            description = "Address to bind (default: ${DEFAULT-VALUE})",
+            paramLabel = "HOST",
+            defaultValue = "127.0.0.1"
+    )
+    private String host;
+
+    @Mixin
+    private DataSourceOptions dataSource;
+
+    @Mixin
+    private ReloadOptions reload;
+
+    @Mixin
+    private JournalOptions journalOptions;
+
+    @Mixin
+    private StoreOptions storeOptions;
+
+    @Mixin
+    private AdmissionOptions admission;
+
+    @Mixin
+    private MetricsOptions metrics;
+
+    @Option(
+            names = {"-v", "--verbose"},
+            description = "Prints additional information"
+    )
+    private boolean verbose;
+
+    @Override
+    public Integer call() {
+        try {
+            metrics.start();
+            long started = System.nanoTime();
+            AdmissionController admissionController = admission.toController();
+            RestaurantSearchDomainService domainService = new RestaurantSearchDomainService();
+            if (storeOptions.isEnabled()) {
+                return serveStore(admissionController, domainService, started);
+            }
+            return serveMemory(admissionController, domainService, started);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (Exception e) {
+            spec.commandLine().getErr().printf("Error: %s%n", e.getMessage());
+            logger.error("Error running HTTP server", e);
+            return 1;
+        }
+    }
+
+    /**
+     * Serves searches of the data held in memory, reloading and journaling changes to it when
+     * asked to. Whatever was opened is closed again if serving fails to start.
+     */
+    private int serveMemory(AdmissionController admissionController, RestaurantSearchDomainService domainService,
+                            long started) throws IOException, InterruptedException {
+        MutationJournal journal = journalOptions.open(dataSource);
+        CopyOnWriteRestaurantRepository repository = null;
+        JournalCheckpointer checkpointer = null;
+        try {
+            repository = new CopyOnWriteRestaurantRepository(
+                    () -> new CsvRestaurantRepository(dataSource.toDataSource()),
+                    domainService::relevanceRanks,
+                    journal
+            );
+            SearchService searchService = new SearchService(repository, domainService);
+            reload.schedule(repository);
+            if (journal != null) {
+                checkpointer = journalOptions.startCheckpointer(repository, journal, dataSource);
+            }
+            PrintWriter out = spec.commandLine().getOut();
+            out.printf("Loaded data in %d ms%n", (System.nanoTime() - started) / 1_000_000);
+            if (journal != null && verbose) {
+                out.printf("Replayed %d journaled changes%n", journal.records());
+            }
+
+            SearchHttpServer server = new SearchHttpServer(searchService, admissionController,
+                    journal == null ? null : repository, new InetSocketAddress(host, port));
+            CopyOnWriteRestaurantRepository served = repository;
+            JournalCheckpointer servedCheckpointer = checkpointer;
+            listen(server, () -> {
+                if (journal != null) {
+                    closeJournal(servedCheckpointer, served, journal);
+                }
+            });
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            if (journal != null) {
+                closeJournal(checkpointer, repository, journal);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Serves searches of the store, which reads only what each search needs. Its data does not
+     * change while it is served, so it takes neither reloads nor changes.
+     */
+    private int serveStore(AdmissionController admissionController, RestaurantSearchDomainService domainService,
+                           long started) throws IOException, InterruptedException {
+        if (journalOptions.isEnabled() || reload.isEnabled()) {
+            throw new IllegalArgumentException("--store cannot be combined with --journal or --reload-interval");
+        }
+        LsmRestaurantRepository store = storeOptions.open(dataSource);
+        try {
+            SearchService searchService = new SearchService(store, domainService);
+            spec.commandLine().getOut().printf("Opened store in %d ms%n", (System.nanoTime() - started) / 1_000_000);
+            listen(new SearchHttpServer(searchService, admissionController, null, new InetSocketAddress(host, port)),
+                    () -> StoreOptions.close(store));
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            StoreOptions.close(store);
+            throw e;
+        }
+    }
+
+    /**
+     * Serves until the process is asked to stop, then stops the server and closes what it
+     * served from.
+     */
+    private void listen(SearchHttpServer server, Runnable onStop) throws InterruptedException {
+        server.start();
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            onStop.run();
+            stopped.countDown();
+        }, "gourmand-serve-shutdown"));
+
+        InetSocketAddress address = server.getAddress();
+        PrintWriter out = spec.commandLine().getOut();
+        out.printf("Listening on http://%s:%d/search (stop with Ctrl+C)%n", address.getHostString(), address.getPort());
+        out.flush();
+        stopped.await();
+    }
+
+    /**
+     * Lets the changes already queued commit before the journal closes. Every change that was
+     * acknowledged is on disk already.
+     */
+    private static void closeJournal(JournalCheckpointer checkpointer, CopyOnWriteRestaurantRepository repository,
+                                     MutationJournal journal) {
+        if (checkpointer != null) {
+            checkpointer.close();
+        }
+        try {
+            if (repository != null) {
+                repository.close();
+            }
+            journal.close();
+        } catch (IOException e) {
+            logger.error("Error closing journal", e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+import tech.pedroduarte.gourmand.features.search.application.SearchService;
+import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CopyOnWriteRestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvRestaurantRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+@Command(
+        name = "shell",
+        description = "Interactive search shell that keeps the data loaded between searches",
+        mixinStandardHelpOptions = true,
+        version = "1.0"
+)
+public class ShellCommand implements Callable<Integer> {
+
+    private final static Logger logger = LoggerFactory.getLogger(ShellCommand.class);
+    private static final String PROMPT = "gourmand> ";
+
+    private final InputStream input;
+    private CopyOnWriteRestaurantRepository repository;
+    private SearchService searchService;
+
+    @Spec
+    private CommandSpec spec;
+
+    @Mixin
+    private DataSourceOptions dataSource;
+
+    @Mixin
+    private MetricsOptions metrics;
+
+    @Option(
+            names = {"-v", "--verbose"},
+            description = "Prints additional information"
+    )
+    private boolean verbose;
+
+    public ShellCommand() {
+        this(System.in);
+    }
+
+    ShellCommand(InputStream input) {
+        this.input = input;
+    }
+
+    @Override
+    public Integer call() {
+        PrintWriter out = spec.commandLine().getOut();
+        try {
+            metrics.start();
+            load();
+        } catch (Exception e) {
+            spec.commandLine().getErr().printf("Error: %s%n", e.getMessage());
+            logger.error("Error loading data", e);
+            return 1;
+        }
+
+        out.println("Type search options (e.g. --cuisine Italian --rating 4), 'help' or 'exit'.");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            while (true) {
+                out.print(PROMPT);
+                out.flush();
+                String line = reader.readLine();
+                if (line == null) {
+                    out.println();
+                    break;
+                }
+                if (!execute(line.trim())) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            spec.commandLine().getErr().printf("Error: %s%n", e.getMessage());
+            logger.error("Error reading input", e);
+            return 1;
+        }
+        out.flush();
+        return 0;
+    }
+
+    /**
+     * Runs one line of input.
+     *
+     * @return false when the shell should exit
+     */
+    private boolean execute(String line) {
+        PrintWriter out = spec.commandLine().getOut();
+        PrintWriter err = spec.commandLine().getErr();
+
+        switch (line) {
+            case "" -> {
+                return true;
+            }
+            case "exit", "quit" -> {
+                return false;
+            }
+            case "help" -> {
+                printHelp(out);
+                return true;
+            }
+            case "reload" -> {
+                reload(out, err);
+                return true;
+            }
+            default -> {
+                search(line, out, err);
+                return true;
+            }
+        }
+    }
+
+    private void search(String line, PrintWriter out, PrintWriter err) {
+        List<String> arguments;
+        try {
+            arguments = ShellTokenizer.tokenize(line);
+        } catch (IllegalArgumentException e) {
+            err.printf("Error: %s%n", e.getMessage());
+            err.flush();
+            return;
+        }
+        if (!arguments.isEmpty() && arguments.get(0).equals("search")) {
+            arguments = arguments.subList(1, arguments.size());
+        }
+        // Every line searches the data loaded when the shell started
+        if (hasOption(arguments, "--data-dir")) {
+            err.println("Error: --data-dir cannot change between searches; start the shell with it instead");
+            err.flush();
+            return;
+        }
+        if (hasOption(arguments, "--store")) {
+            err.println("Error: --store is not supported in the shell; use search --store instead");
+            err.flush();
+            return;
+        }
+
+        long started = System.nanoTime();
+        new CommandLine(new SearchCommand(searchService))
+                .setOut(out)
+                .setErr(err)
+                .execute(arguments.toArray(String[]::new));
+        out.printf("(%.2f ms)%n", (System.nanoTime() - started) / 1_000_000.0);
+        out.flush();
+    }
+
+    private static boolean hasOption(List<String> arguments, String option) {
+        return arguments.stream().anyMatch(argument -> argument.equals(option) || argument.startsWith(option + "="));
+    }
+
+    private void reload(PrintWriter out, PrintWriter err) {
+        try {
+            load();
+        } catch (Exception e) {
+            // Keep serving the data that was loaded before
+            err.printf("Error: %s. Keeping the previous data.%n", e.getMessage());
+            err.flush();
+            logger.error("Error reloading data", e);
+        }
+    }
+
+    /**
+     * Loads the data the first time, and swaps a fresh snapshot in afterwards: the service and
+     * its repository stay the same, only the data they serve changes.
+     */
+    private void load() {
+        long started = System.nanoTime();
+        if (repository == null) {
+            RestaurantSearchDomainService domainService = new RestaurantSearchDomainService();
+            repository = new CopyOnWriteRestaurantRepository(
+                    () -> new CsvRestaurantRepository(dataSource.toDataSource()),
+                    domainService::relevanceRanks
+            );
+            searchService = new SearchService(repository, domainService);
+        } else {
+            repository.reload();
+        }
+        spec.commandLine().getOut().printf("Loaded data in %.2f ms%n", (System.nanoTime() - started) / 1_000_000.0);
+        spec.commandLine().getOut().flush();
+    }
+
+    private void printHelp(PrintWriter out) {
+        out.println("Enter the options of the search command, for example:");
+        out.println("  --name \"Golden Dragon\" --fuzzy 1");
+        out.println("  -c Italian -r 4 -p 25 --facets");
+        out.println();
+        out.println("Commands:");
+        out.println("  help     Shows this help");
+        out.println("  reload   Reloads the data files");
+        out.println("  exit     Leaves the shell");
+        out.println();
+        new CommandLine(new SearchCommand(searchService)).usage(out);
+        out.flush();
+    }
+}
@@ -0,0 +1,32 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+
+/**
+ * Location of the daemon socket, shared by the daemon and the commands that talk to it.
+ */
+public class SocketOptions {
+
+    static final String SOCKET_ENVIRONMENT_VARIABLE = "GOURMAND_SOCKET";
+
+    @Option(
+            names = {"--socket"},
+            description = "Unix domain socket of the daemon (default: $GOURMAND_SOCKET or a per-user file in the temp directory)",
+            paramLabel = "PATH",
+            type = Path.class
+    )
+    private Path socketPath;
+
+    public Path getSocketPath() {
+        if (socketPath != null) {
+            return socketPath;
+        }
+        String fromEnvironment = System.getenv(SOCKET_ENVIRONMENT_VARIABLE);
+        if (fromEnvironment != null && !fromEnvironment.isBlank()) {
+            return Path.of(fromEnvironment);
+        }
+        return Path.of(System.getProperty("java.io.tmpdir"), "gourmand-" + System.getProperty("user.name") + ".sock");
+    }
+}
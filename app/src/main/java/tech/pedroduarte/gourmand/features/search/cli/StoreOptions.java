@@ -0,0 +1,75 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Option;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.LsmRestaurantRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Searching a log-structured store on disk instead of the data loaded into memory.
+ */
+public class StoreOptions {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoreOptions.class);
+    private static final int IMPORT_BATCH = 10_000;
+
+    @Option(
+            names = {"--store"},
+            description = "Searches the store in DIR, reading only what each search needs instead of loading the data "
+                    + "into memory; a missing store is created from the data files first",
+            paramLabel = "DIR",
+            type = Path.class
+    )
+    private Path directory;
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Opens the store, creating it from the data files if the directory is missing or empty, or
+     * returns {@code null} without {@code --store}.
+     */
+    public LsmRestaurantRepository open(DataSourceOptions dataSource) {
+        if (directory == null) {
+            return null;
+        }
+        if (isMissingOrEmpty(directory)) {
+            long imported = LsmRestaurantRepository.create(directory, dataSource.toDataSource(), IMPORT_BATCH);
+            logger.info("Imported {} restaurants into {}", imported, directory);
+        }
+        return LsmRestaurantRepository.open(directory);
+    }
+
+    public static void close(LsmRestaurantRepository store) {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.close();
+        } catch (IOException e) {
+            logger.error("Error closing store", e);
+        }
+    }
+
+    private static boolean isMissingOrEmpty(Path directory) {
+        if (Files.notExists(directory)) {
+            return true;
+        }
+        if (!Files.isDirectory(directory)) {
+            // Opening it reports the problem
+            return false;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findAny().isEmpty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read store " + directory, e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package tech.pedroduarte.gourmand.features.search.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Number of matching restaurants per cuisine, per rating and per price and distance band.
+ * <p>
+ * Bands include their upper limit, like the maximum price and distance filters do, and the
+ * last band is open-ended. Distances beyond 10 miles only occur in location-based searches.
+ */
+public final class FacetCounts {
+
+    public static final int MAX_RATING = 5;
+    private static final double[] PRICE_LIMITS = {20, 30, 40};
+    private static final String[] PRICE_LABELS = {"$10-20", "$20-30", "$30-40", "$40-50"};
+    private static final double[] DISTANCE_LIMITS = {2, 4, 6, 8, 10};
+    private static final String[] DISTANCE_LABELS = {"0-2 mi", "2-4 mi", "4-6 mi", "6-8 mi", "8-10 mi", "10+ mi"};
+
+    private final int total;
+    private final Map<String, Integer> byCuisine;
+    private final Map<Integer, Integer> byRating;
+    private final Map<String, Integer> byPrice;
+    private final Map<String, Integer> byDistance;
+
+    private FacetCounts(int total, Map<String, Integer> byCuisine, Map<Integer, Integer> byRating,
+                        Map<String, Integer> byPrice, Map<String, Integer> byDistance) {
+        this.total = total;
+        this.byCuisine = byCuisine;
+        this.byRating = byRating;
+        this.byPrice = byPrice;
+        this.byDistance = byDistance;
+    }
+
+    public int total() {
+        return total;
+    }
+
+    /**
+     * Cuisines with at least one match, most frequent first (ties by name).
+     */
+    public Map<String, Integer> byCuisine() {
+        return byCuisine;
+    }
+
+    /**
+     * Every rating from the highest to the lowest, including those without matches.
+     */
+    public Map<Integer, Integer> byRating() {
+        return byRating;
+    }
+
+    /**
+     * Every price band from the cheapest, including those without matches.
+     */
+    public Map<String, Integer> byPrice() {
+        return byPrice;
+    }
+
+    /**
+     * Distance bands from the closest, including empty ones except the open-ended last band.
+     */
+    public Map<String, Integer> byDistance() {
+        return byDistance;
+    }
+
+    /**
+     * Accumulates the facets of one search. Cuisines are counted by a dense id, resolved to
+     * their names only once at the end.
+     */
+    public static final class Counter {
+        private final int[] ratings = new int[MAX_RATING + 1];
+        private final int[] prices = new int[PRICE_LABELS.length];
+        private final int[] distances = new int[DISTANCE_LABELS.length];
+        private int[] cuisines;
+        private int total;
+
+        public Counter(int cuisineCount) {
+            this.cuisines = new int[Math.max(1, cuisineCount)];
+        }
+
+        public void add(int rating, double price, double distance, int cuisineId) {
+            total++;
+            ratings[rating]++;
+            prices[band(PRICE_LIMITS, price)]++;
+            distances[band(DISTANCE_LIMITS, distance)]++;
+            if (cuisineId >= cuisines.length) {
+                cuisines = Arrays.copyOf(cuisines, Math.max(cuisineId + 1, cuisines.length * 2));
+            }
+            cuisines[cuisineId]++;
+        }
+
+        /**
+         * @param cuisineNames display name of every cuisine id passed to {@link #add}
+         */
+        public FacetCounts build(List<String> cuisineNames) {
+            List<Map.Entry<String, Integer>> cuisineCounts = new ArrayList<>();
+            for (int id = 0; id < cuisineNames.size() && id < cuisines.length; id++) {
+                if (cuisines[id] > 0) {
+                    cuisineCounts.add(Map.entry(cuisineNames.get(id), cuisines[id]));
+                }
+            }
+            cuisineCounts.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+            Map<String, Integer> byCuisine = new LinkedHashMap<>();
+            cuisineCounts.forEach(entry -> byCuisine.merge(entry.getKey(), entry.getValue(), Integer::sum));
+
+            Map<Integer, Integer> byRating = new LinkedHashMap<>();
+            for (int rating = MAX_RATING; rating >= 1; rating--) {
+                byRating.put(rating, ratings[rating]);
+            }
+
+            Map<String, Integer> byPrice = new LinkedHashMap<>();
+            for (int band = 0; band < prices.length; band++) {
+                byPrice.put(PRICE_LABELS[band], prices[band]);
+            }
+
+            Map<String, Integer> byDistance = new LinkedHashMap<>();
+            int lastBand = distances.length - 1;
+            for (int band = 0; band < distances.length; band++) {
+                if (band < lastBand || distances[band] > 0) {
+                    byDistance.put(DISTANCE_LABELS[band], distances[band]);
+                }
+            }
+
+            return new FacetCounts(total, Collections.unmodifiableMap(byCuisine),
+                    Collections.unmodifiableMap(byRating), Collections.unmodifiableMap(byPrice),
+                    Collections.unmodifiableMap(byDistance));
+        }
+
+        private static int band(double[] limits, double value) {
+            int band = 0;
+            while (band < limits.length && value > limits[band]) {
+                band++;
+            }
+            return band;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package tech.pedroduarte.gourmand.features.search.domain;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * {@link ResultCursor} over an already materialized list of matches.
+ */
+final class ListResultCursor<T> implements ResultCursor {
+
+    private final List<T> matches;
+    private final Function<T, Restaurant> restaurantOf;
+    private final ToDoubleFunction<T> milesOf;
+    private int index = -1;
+    private Restaurant current;
+    private double miles;
+
+    ListResultCursor(List<T> matches, Function<T, Restaurant> restaurantOf, ToDoubleFunction<T> milesOf) {
+        this.matches = matches;
+        this.restaurantOf = restaurantOf;
+        this.milesOf = milesOf;
+    }
+
+    @Override
+    public boolean next() {
+        if (index + 1 >= matches.size()) {
+            index = matches.size();
+            return false;
+        }
+        T match = matches.get(++index);
+        current = restaurantOf.apply(match);
+        miles = milesOf.applyAsDouble(match);
+        return true;
+    }
+
+    @Override
+    public String name() {
+        return current.getName();
+    }
+
+    @Override
+    public int rating() {
+        return current.getRating().getValue();
+    }
+
+    @Override
+    public double distance() {
+        return miles;
+    }
+
+    @Override
+    public double price() {
+        return current.getPrice().getAmount();
+    }
+
+    @Override
+    public String cuisine() {
+        return current.getCuisine().getName();
+    }
+}
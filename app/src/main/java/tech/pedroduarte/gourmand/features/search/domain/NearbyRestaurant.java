@@ -0,0 +1,7 @@
+package tech.pedroduarte.gourmand.features.search.domain;
+
+/**
+ * A restaurant together with its distance, in miles, from the search origin.
+ */
+public record NearbyRestaurant(Restaurant restaurant, double miles) {
+}
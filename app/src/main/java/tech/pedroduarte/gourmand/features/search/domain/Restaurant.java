@@ -1,6 +1,7 @@
 package tech.pedroduarte.gourmand.features.search.domain;
 
 import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
 import tech.pedroduarte.gourmand.shared.domain.Price;
 import tech.pedroduarte.gourmand.shared.domain.Rating;
 
@@ -12,13 +13,20 @@ public class Restaurant {
     private final Distance distance;
     private final Price price;
     private final Cuisine cuisine;
+    private final GeoLocation location; // optional, null when the data has no coordinates
 
     public Restaurant(String name, Rating rating, Distance distance, Price price, Cuisine cuisine) {
+        this(name, rating, distance, price, cuisine, null);
+    }
+
+    public Restaurant(String name, Rating rating, Distance distance, Price price, Cuisine cuisine,
+                      GeoLocation location) {
         this.name = name;
         this.rating = rating;
         this.distance = distance;
         this.price = price;
         this.cuisine = cuisine;
+        this.location = location;
         validate();
     }
 
@@ -46,6 +54,8 @@ public class Restaurant {
     public Distance getDistance() { return distance; }
     public Price getPrice() { return price; }
     public Cuisine getCuisine() { return cuisine; }
+    public GeoLocation getLocation() { return location; }
+    public boolean hasLocation() { return location != null; }
 
     @Override
     public boolean equals(Object o) {
@@ -56,12 +66,13 @@ public class Restaurant {
                 rating.equals(that.rating) &&
                 distance.equals(that.distance) &&
                 price.equals(that.price) &&
-                cuisine.equals(that.cuisine);
+                cuisine.equals(that.cuisine) &&
+                Objects.equals(location, that.location);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, rating, distance, price, cuisine);
+        return Objects.hash(name, rating, distance, price, cuisine, location);
     }
 
     @Override
@@ -0,0 +1,46 @@
+package tech.pedroduarte.gourmand.features.search.domain;
+
+import java.util.List;
+
+/**
+ * Forward-only view over the results of a search, in result order.
+ * <p>
+ * A cursor is a flyweight: its accessors read the current result from the engine's storage
+ * on demand, so walking through the results allocates nothing per row. Values are only
+ * meaningful after {@link #next()} returned {@code true}, and until the following call.
+ */
+public interface ResultCursor {
+
+    /**
+     * Moves to the next result, returning {@code false} once there are no more.
+     */
+    boolean next();
+
+    String name();
+
+    int rating();
+
+    /**
+     * Distance in miles: from the search origin for location-based searches.
+     */
+    double distance();
+
+    double price();
+
+    String cuisine();
+
+    /**
+     * Cursor over restaurants that are already matched and ordered.
+     */
+    static ResultCursor of(List<Restaurant> restaurants) {
+        return new ListResultCursor<>(restaurants, restaurant -> restaurant,
+                restaurant -> restaurant.getDistance().getMiles());
+    }
+
+    /**
+     * Cursor over location-based matches, reporting the distance from the origin.
+     */
+    static ResultCursor ofNearby(List<NearbyRestaurant> matches) {
+        return new ListResultCursor<>(matches, NearbyRestaurant::restaurant, NearbyRestaurant::miles);
+    }
+}
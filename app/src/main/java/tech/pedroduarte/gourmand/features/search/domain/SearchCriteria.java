@@ -1,17 +1,25 @@
 package tech.pedroduarte.gourmand.features.search.domain;
 
 import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
 import tech.pedroduarte.gourmand.shared.domain.Price;
 import tech.pedroduarte.gourmand.shared.domain.Rating;
 
+import java.util.Locale;
+import java.util.StringJoiner;
+
 public record SearchCriteria(
         String name,
         Rating minRating,
         Distance maxDistance,
         Price maxPrice,
-        Cuisine cuisine
+        Cuisine cuisine,
+        GeoLocation origin,
+        Integer fuzzyDistance
 ) {
 
+    public static final int MAX_FUZZY_DISTANCE = 3;
+
     public SearchCriteria {
         if (name != null) {
             name = name.trim();
@@ -19,6 +27,62 @@ public record SearchCriteria(
                 name = null;
             }
         }
+        if (fuzzyDistance != null) {
+            if (fuzzyDistance < 0 || fuzzyDistance > MAX_FUZZY_DISTANCE) {
+                throw new IllegalArgumentException(
+                        String.format("Fuzzy distance must be between %d and %d edits", 0, MAX_FUZZY_DISTANCE)
+                );
+            }
+            if (name == null) {
+                throw new IllegalArgumentException("Fuzzy matching requires a restaurant name");
+            }
+        }
+    }
+
+    public boolean isFuzzy() {
+        return fuzzyDistance != null;
+    }
+
+    /**
+     * The same search with its name lowercased the way matching lowercases it, so that criteria
+     * differing only in the case of the name have one canonical form and the same results.
+     */
+    public SearchCriteria canonical() {
+        if (name == null) {
+            return this;
+        }
+        String lowercased = isFuzzy() ? name.toLowerCase(Locale.ROOT) : name.toLowerCase();
+        if (lowercased.equals(name)) {
+            return this;
+        }
+        return new SearchCriteria(lowercased, minRating, maxDistance, maxPrice, cuisine, origin, fuzzyDistance);
+    }
+
+    /**
+     * The filters given, without their values, e.g. {@code name+rating+cuisine}, or
+     * {@code none}. Searches with the same shape take the same access path.
+     */
+    public String shape() {
+        StringJoiner shape = new StringJoiner("+").setEmptyValue("none");
+        if (name != null) {
+            shape.add(isFuzzy() ? "fuzzy-name" : "name");
+        }
+        if (minRating != null) {
+            shape.add("rating");
+        }
+        if (maxDistance != null) {
+            shape.add("distance");
+        }
+        if (maxPrice != null) {
+            shape.add("price");
+        }
+        if (cuisine != null) {
+            shape.add("cuisine");
+        }
+        if (origin != null) {
+            shape.add("origin");
+        }
+        return shape.toString();
     }
 
     public static Builder builder() {
@@ -31,6 +95,8 @@ public record SearchCriteria(
         private Distance maxDistance;
         private Price maxPrice;
         private Cuisine cuisine;
+        private GeoLocation origin;
+        private Integer fuzzyDistance;
 
         public Builder name(String name) {
             this.name = name;
@@ -57,15 +123,29 @@ public record SearchCriteria(
             return this;
         }
 
+        public Builder origin(GeoLocation origin) {
+            this.origin = origin;
+            return this;
+        }
+
+        public Builder fuzzyDistance(Integer fuzzyDistance) {
+            this.fuzzyDistance = fuzzyDistance;
+            return this;
+        }
+
         public SearchCriteria build() {
-            return new SearchCriteria(name, minRating, maxDistance, maxPrice, cuisine);
+            return new SearchCriteria(name, minRating, maxDistance, maxPrice, cuisine, origin, fuzzyDistance);
         }
     }
 
     public String formattedCriteria() {
         StringBuilder formatted = new StringBuilder();
         if (name != null) {
-            formatted.append("- Name: ").append(name).append("\n");
+            formatted.append("- Name: ").append(name);
+            if (fuzzyDistance != null) {
+                formatted.append(" (up to ").append(fuzzyDistance).append(" typos)");
+            }
+            formatted.append("\n");
         }
         if (minRating != null) {
             formatted.append("- Minimum rating: ").append(minRating).append("\n");
@@ -79,6 +159,9 @@ public record SearchCriteria(
         if (cuisine != null) {
             formatted.append("- Cuisine: ").append(cuisine).append("\n");
         }
+        if (origin != null) {
+            formatted.append("- Distance from: ").append(origin).append("\n");
+        }
         if(formatted.length() == 0) {
             formatted.append("No criteria specified\n");
         }
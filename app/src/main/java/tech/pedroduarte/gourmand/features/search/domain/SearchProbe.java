@@ -0,0 +1,48 @@
+package tech.pedroduarte.gourmand.features.search.domain;
+
+/**
+ * Observer of how a search is executed: the access path, the rows surviving each stage
+ * and the time spent in it.
+ * <p>
+ * Every method defaults to a no-op and {@link #DISABLED} keeps them all, so an unprofiled
+ * search never reads the clock and the calls are inlined away. Timers are read with
+ * {@link #startTimer()} and handed back to {@link #stageFinished}.
+ */
+public interface SearchProbe {
+
+    SearchProbe DISABLED = new SearchProbe() {
+    };
+
+    default boolean isEnabled() {
+        return false;
+    }
+
+    default long startTimer() {
+        return 0L;
+    }
+
+    default void stageFinished(String stage, long startedAt) {
+    }
+
+    /**
+     * How the candidate rows were obtained, e.g. a full scan or an index lookup.
+     */
+    default void accessPath(String path, int totalRows, int candidateRows) {
+    }
+
+    default void filterApplied(String predicate, int rowsIn, int rowsOut) {
+    }
+
+    /**
+     * Rows the filters were evaluated on. Reported even when the probe is not enabled, since
+     * the count is known without extra work.
+     */
+    default void rowsScanned(int rows) {
+    }
+
+    default void sorted(String method, int rows) {
+    }
+
+    default void resultsReturned(int results) {
+    }
+}
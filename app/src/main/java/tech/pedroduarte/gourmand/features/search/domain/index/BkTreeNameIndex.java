@@ -0,0 +1,178 @@
+package tech.pedroduarte.gourmand.features.search.domain.index;
+
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * BK-tree over the distinct lowercased restaurant names, keyed by Levenshtein distance.
+ * <p>
+ * By the triangle inequality, a query within distance {@code n} of some name below a node
+ * at distance {@code d} can only sit under an edge labelled {@code [d - n, d + n]}, so a
+ * bounded lookup only computes the edit distance for a small part of the names.
+ * Nodes are kept in parallel arrays with first-child/next-sibling links to stay compact.
+ */
+public final class BkTreeNameIndex {
+
+    private static final int NONE = -1;
+
+    private final List<Restaurant> restaurants;
+    private String[] terms = new String[16];
+    private int[][] rowsByTerm = new int[16][];
+    private int[] rowCounts = new int[16];
+    private int[] firstChild = new int[16];
+    private int[] nextSibling = new int[16];
+    private int[] edgeDistance = new int[16];
+    private int nodeCount;
+
+    private BkTreeNameIndex(List<Restaurant> restaurants) {
+        this.restaurants = restaurants;
+    }
+
+    public static BkTreeNameIndex build(List<Restaurant> restaurants) {
+        BkTreeNameIndex index = new BkTreeNameIndex(restaurants);
+        EditDistance distance = new EditDistance();
+        for (int row = 0; row < restaurants.size(); row++) {
+            index.insert(normalize(restaurants.get(row).getName()), row, distance);
+        }
+        return index;
+    }
+
+    /**
+     * Restaurants whose name is within {@code maxDistance} edits of the given name
+     * (case-insensitive), in their original order.
+     */
+    public List<Restaurant> search(String name, int maxDistance) {
+        if (nodeCount == 0) {
+            return List.of();
+        }
+        String query = normalize(name);
+        EditDistance distance = new EditDistance();
+
+        int[] matchedRows = new int[16];
+        int matched = 0;
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            int d = distance.between(query, terms[node]);
+            if (d <= maxDistance) {
+                int count = rowCounts[node];
+                if (matched + count > matchedRows.length) {
+                    matchedRows = Arrays.copyOf(matchedRows, Math.max(matchedRows.length * 2, matched + count));
+                }
+                System.arraycopy(rowsByTerm[node], 0, matchedRows, matched, count);
+                matched += count;
+            }
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (Math.abs(edgeDistance[child] - d) <= maxDistance) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = child;
+                }
+            }
+        }
+
+        Arrays.sort(matchedRows, 0, matched);
+        List<Restaurant> result = new ArrayList<>(matched);
+        for (int i = 0; i < matched; i++) {
+            result.add(restaurants.get(matchedRows[i]));
+        }
+        return result;
+    }
+
+    private void insert(String term, int row, EditDistance distance) {
+        if (nodeCount == 0) {
+            newNode(term, row, 0);
+            return;
+        }
+        int node = 0;
+        while (true) {
+            int d = distance.between(term, terms[node]);
+            if (d == 0) {
+                addRow(node, row);
+                return;
+            }
+            int child = firstChild[node];
+            while (child != NONE && edgeDistance[child] != d) {
+                child = nextSibling[child];
+            }
+            if (child == NONE) {
+                int created = newNode(term, row, d);
+                nextSibling[created] = firstChild[node];
+                firstChild[node] = created;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    private int newNode(String term, int row, int distanceFromParent) {
+        if (nodeCount == terms.length) {
+            int capacity = nodeCount * 2;
+            terms = Arrays.copyOf(terms, capacity);
+            rowsByTerm = Arrays.copyOf(rowsByTerm, capacity);
+            rowCounts = Arrays.copyOf(rowCounts, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            edgeDistance = Arrays.copyOf(edgeDistance, capacity);
+        }
+        int node = nodeCount++;
+        terms[node] = term;
+        rowsByTerm[node] = new int[]{row};
+        rowCounts[node] = 1;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        edgeDistance[node] = distanceFromParent;
+        return node;
+    }
+
+    private void addRow(int node, int row) {
+        int[] rows = rowsByTerm[node];
+        if (rowCounts[node] == rows.length) {
+            rowsByTerm[node] = rows = Arrays.copyOf(rows, rows.length * 2);
+        }
+        rows[rowCounts[node]++] = row;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Two-row Levenshtein distance with reusable scratch rows.
+     */
+    private static final class EditDistance {
+        private int[] previous = new int[32];
+        private int[] current = new int[32];
+
+        int between(String a, String b) {
+            int m = a.length();
+            int n = b.length();
+            if (previous.length <= n) {
+                previous = new int[n + 1];
+                current = new int[n + 1];
+            }
+            for (int j = 0; j <= n; j++) {
+                previous[j] = j;
+            }
+            for (int i = 1; i <= m; i++) {
+                current[0] = i;
+                char ca = a.charAt(i - 1);
+                for (int j = 1; j <= n; j++) {
+                    int substitution = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                    current[j] = Math.min(substitution, Math.min(previous[j] + 1, current[j - 1] + 1));
+                }
+                int[] swap = previous;
+                previous = current;
+                current = swap;
+            }
+            return previous[n];
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package tech.pedroduarte.gourmand.features.search.domain.index;
+
+import tech.pedroduarte.gourmand.features.search.domain.NearbyRestaurant;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Uniform latitude/longitude grid over the restaurants that have coordinates.
+ * <p>
+ * Entries are stored grouped by cell (CSR layout: a sorted array of occupied cell ids
+ * plus start offsets), so a nearest-neighbour query only probes the cells of growing
+ * rings around the origin. Expansion stops as soon as the closest point outside the
+ * visited square is farther than the radius or than the current K-th best candidate,
+ * which makes the answer exact without computing the distance to every row.
+ */
+public final class GeoGridIndex {
+
+    static final int DEFAULT_CELLS_PER_DEGREE = 50; // cells of about 1.4 miles of latitude
+    private static final int MAX_CELLS_PER_DEGREE = 100;
+    private static final double MILES_PER_DEGREE = Math.toRadians(1.0) * GeoLocation.EARTH_RADIUS_MILES;
+
+    private static final Comparator<Candidate> RANK =
+            Comparator.comparingDouble(Candidate::miles)
+                    .thenComparing(c -> c.restaurant().getRating(), Comparator.reverseOrder())
+                    .thenComparing(c -> c.restaurant().getPrice())
+                    .thenComparingInt(Candidate::sourceRow);
+
+    private final double cellDegrees;
+    private final int columns;
+    private final int rows;
+    private final long[] cellIds;
+    private final int[] cellStarts;
+    private final Restaurant[] restaurants;
+    private final int[] sourceRows;
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    private GeoGridIndex(int cellsPerDegree, long[] cellIds, int[] cellStarts, Restaurant[] restaurants,
+                         int[] sourceRows, double[] latitudes, double[] longitudes) {
+        this.cellDegrees = 1.0 / cellsPerDegree;
+        this.columns = 360 * cellsPerDegree;
+        this.rows = 180 * cellsPerDegree;
+        this.cellIds = cellIds;
+        this.cellStarts = cellStarts;
+        this.restaurants = restaurants;
+        this.sourceRows = sourceRows;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+    }
+
+    public static GeoGridIndex build(List<Restaurant> restaurants) {
+        return build(restaurants, DEFAULT_CELLS_PER_DEGREE);
+    }
+
+    static GeoGridIndex build(List<Restaurant> restaurants, int cellsPerDegree) {
+        if (cellsPerDegree < 1 || cellsPerDegree > MAX_CELLS_PER_DEGREE) {
+            throw new IllegalArgumentException(
+                    String.format("Cells per degree must be between %d and %d", 1, MAX_CELLS_PER_DEGREE)
+            );
+        }
+        GeoGridIndex layout = new GeoGridIndex(cellsPerDegree, null, null, null, null, null, null);
+
+        // Pack (cell, row) into one long so a primitive sort groups the entries by cell
+        long[] packed = new long[restaurants.size()];
+        int located = 0;
+        for (int row = 0; row < restaurants.size(); row++) {
+            GeoLocation location = restaurants.get(row).getLocation();
+            if (location != null) {
+                long cell = layout.cellOf(location.getLatitude(), location.getLongitude());
+                packed[located++] = cell << Integer.SIZE - 1 | row;
+            }
+        }
+        Arrays.sort(packed, 0, located);
+
+        Restaurant[] entries = new Restaurant[located];
+        int[] sourceRows = new int[located];
+        double[] latitudes = new double[located];
+        double[] longitudes = new double[located];
+        long[] cellIds = new long[located];
+        int[] cellStarts = new int[located + 1];
+        int cells = 0;
+        for (int i = 0; i < located; i++) {
+            long cell = packed[i] >>> Integer.SIZE - 1;
+            int row = (int) (packed[i] & Integer.MAX_VALUE);
+            if (cells == 0 || cellIds[cells - 1] != cell) {
+                cellIds[cells] = cell;
+                cellStarts[cells++] = i;
+            }
+            Restaurant restaurant = restaurants.get(row);
+            entries[i] = restaurant;
+            sourceRows[i] = row;
+            latitudes[i] = restaurant.getLocation().getLatitude();
+            longitudes[i] = restaurant.getLocation().getLongitude();
+        }
+        cellStarts[cells] = located;
+
+        return new GeoGridIndex(cellsPerDegree, Arrays.copyOf(cellIds, cells), Arrays.copyOf(cellStarts, cells + 1),
+                entries, sourceRows, latitudes, longitudes);
+    }
+
+    /**
+     * Number of indexed restaurants (those with coordinates).
+     */
+    public int size() {
+        return restaurants.length;
+    }
+
+    /**
+     * Finds the {@code limit} closest restaurants within {@code radiusMiles} of the origin that
+     * satisfy the filter, ordered by distance, then rating (highest first), then price.
+     */
+    public List<NearbyRestaurant> nearest(GeoLocation origin, double radiusMiles, int limit,
+                                          Predicate<Restaurant> filter) {
+        if (limit <= 0 || restaurants.length == 0) {
+            return List.of();
+        }
+
+        Candidates best = new Candidates(limit);
+        int originColumn = columnOf(origin.getLongitude());
+        int originRow = rowOf(origin.getLatitude());
+        int maxRing = (columns - 1) / 2; // any wider and the ring would wrap onto itself
+        int probes = 0;
+
+        for (int ring = 0; ; ring++) {
+            double bound = ring == 0 ? 0.0 : milesOutside(origin, originColumn, originRow, ring - 1);
+            if (bound > radiusMiles || (best.isFull() && best.worstMiles() < bound)) {
+                break;
+            }
+            if (ring > maxRing || probes > restaurants.length) {
+                // Sparse data or a huge radius: a plain scan is cheaper than more rings
+                return scanAll(origin, radiusMiles, limit, filter);
+            }
+
+            for (int dy = -ring; dy <= ring; dy++) {
+                int y = originRow + dy;
+                if (y < 0 || y >= rows) {
+                    continue;
+                }
+                if (Math.abs(dy) == ring) {
+                    for (int dx = -ring; dx <= ring; dx++) {
+                        probeCell(y, originColumn + dx, origin, radiusMiles, filter, best);
+                        probes++;
+                    }
+                } else {
+                    probeCell(y, originColumn - ring, origin, radiusMiles, filter, best);
+                    probeCell(y, originColumn + ring, origin, radiusMiles, filter, best);
+                    probes += 2;
+                }
+            }
+        }
+        return best.toSortedList();
+    }
+
+    /**
+     * Same answer as {@link #nearest} over an index built from {@code restaurants}, found by
+     * measuring the distance to each of them instead. Cheaper than building the index when the
+     * restaurants are few and searched only once.
+     */
+    public static List<NearbyRestaurant> scan(List<Restaurant> restaurants, GeoLocation origin, double radiusMiles,
+                                              int limit, Predicate<Restaurant> filter) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Candidates best = new Candidates(limit);
+        for (int row = 0; row < restaurants.size(); row++) {
+            Restaurant restaurant = restaurants.get(row);
+            GeoLocation location = restaurant.getLocation();
+            if (location == null) {
+                continue;
+            }
+            double miles = GeoLocation.milesBetween(
+                    origin.getLatitude(), origin.getLongitude(), location.getLatitude(), location.getLongitude());
+            if (miles > radiusMiles || (best.isFull() && miles > best.worstMiles())) {
+                continue;
+            }
+            if (filter.test(restaurant)) {
+                best.offer(new Candidate(restaurant, row, miles));
+            }
+        }
+        return best.toSortedList();
+    }
+
+    private void probeCell(int y, int x, GeoLocation origin, double radiusMiles,
+                           Predicate<Restaurant> filter, Candidates best) {
+        long cell = (long) y * columns + Math.floorMod(x, columns);
+        int slot = Arrays.binarySearch(cellIds, cell);
+        if (slot < 0) {
+            return;
+        }
+        for (int entry = cellStarts[slot]; entry < cellStarts[slot + 1]; entry++) {
+            offer(entry, origin, radiusMiles, filter, best);
+        }
+    }
+
+    private List<NearbyRestaurant> scanAll(GeoLocation origin, double radiusMiles, int limit,
+                                           Predicate<Restaurant> filter) {
+        Candidates best = new Candidates(limit);
+        for (int entry = 0; entry < restaurants.length; entry++) {
+            offer(entry, origin, radiusMiles, filter, best);
+        }
+        return best.toSortedList();
+    }
+
+    private void offer(int entry, GeoLocation origin, double radiusMiles,
+                       Predicate<Restaurant> filter, Candidates best) {
+        double miles = GeoLocation.milesBetween(
+                origin.getLatitude(), origin.getLongitude(), latitudes[entry], longitudes[entry]);
+        if (miles > radiusMiles || (best.isFull() && miles > best.worstMiles())) {
+            return;
+        }
+        if (filter.test(restaurants[entry])) {
+            best.offer(new Candidate(restaurants[entry], sourceRows[entry], miles));
+        }
+    }
+
+    /**
+     * Lower bound of the distance from the origin to any point outside the square of cells
+     * within {@code ring} of the origin cell.
+     */
+    private double milesOutside(GeoLocation origin, int originColumn, int originRow, int ring) {
+        double latitude = origin.getLatitude();
+        double span = ring * cellDegrees;
+        double bound = Double.POSITIVE_INFINITY;
+
+        double latOffset = latitude + 90.0 - originRow * cellDegrees;
+        if (originRow - ring > 0) {
+            bound = Math.min(bound, (latOffset + span) * MILES_PER_DEGREE);
+        }
+        if ((originRow + ring + 1) * cellDegrees < 180.0) {
+            bound = Math.min(bound, (cellDegrees - latOffset + span) * MILES_PER_DEGREE);
+        }
+
+        double lonOffset = shiftedLongitude(origin.getLongitude()) - originColumn * cellDegrees;
+        bound = Math.min(bound, milesToMeridian(latitude, lonOffset + span));
+        bound = Math.min(bound, milesToMeridian(latitude, cellDegrees - lonOffset + span));
+        return bound;
+    }
+
+    private static double milesToMeridian(double latitude, double longitudeDelta) {
+        if (longitudeDelta >= 90.0) {
+            // Past a quarter turn the closest point of the meridian is the nearest pole
+            return (90.0 - Math.abs(latitude)) * MILES_PER_DEGREE;
+        }
+        double sine = Math.cos(Math.toRadians(latitude)) * Math.sin(Math.toRadians(longitudeDelta));
+        return GeoLocation.EARTH_RADIUS_MILES * Math.asin(Math.min(1.0, sine));
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return (long) rowOf(latitude) * columns + columnOf(longitude);
+    }
+
+    private int rowOf(double latitude) {
+        return Math.min(rows - 1, (int) Math.floor((latitude + 90.0) / cellDegrees));
+    }
+
+    private int columnOf(double longitude) {
+        return Math.min(columns - 1, (int) Math.floor(shiftedLongitude(longitude) / cellDegrees));
+    }
+
+    private static double shiftedLongitude(double longitude) {
+        // Maps [-180, 180] onto [0, 360), folding the antimeridian onto -180
+        double shifted = longitude + 180.0;
+        return shifted >= 360.0 ? shifted - 360.0 : shifted;
+    }
+
+    private record Candidate(Restaurant restaurant, int sourceRow, double miles) {
+    }
+
+    /**
+     * Bounded max-heap keeping the best {@code limit} candidates seen so far.
+     */
+    private static final class Candidates {
+        private final int limit;
+        private final PriorityQueue<Candidate> heap;
+
+        Candidates(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 64) + 1, RANK.reversed());
+        }
+
+        boolean isFull() {
+            return heap.size() >= limit;
+        }
+
+        double worstMiles() {
+            return heap.peek().miles();
+        }
+
+        void offer(Candidate candidate) {
+            if (!isFull()) {
+                heap.add(candidate);
+            } else if (RANK.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        List<NearbyRestaurant> toSortedList() {
+            List<Candidate> sorted = new ArrayList<>(heap);
+            sorted.sort(RANK);
+            List<NearbyRestaurant> result = new ArrayList<>(sorted.size());
+            for (Candidate candidate : sorted) {
+                result.add(new NearbyRestaurant(candidate.restaurant(), candidate.miles()));
+            }
+            return result;
+        }
+    }
+}
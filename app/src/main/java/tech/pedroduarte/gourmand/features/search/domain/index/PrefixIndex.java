@@ -0,0 +1,253 @@
+package tech.pedroduarte.gourmand.features.search.domain.index;
+
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prefix completion over restaurant and cuisine names.
+ * <p>
+ * The lowercased names are stored once in a sorted array, which is a flattened trie:
+ * every prefix maps to one contiguous range found with two binary searches. A segment
+ * tree holding the most relevant entry of each node then yields the top-K of that range
+ * in best-first order, touching O(K log n) nodes no matter how many names share the prefix.
+ */
+public final class PrefixIndex {
+
+    public enum Kind { RESTAURANT, CUISINE }
+
+    public record Completion(String text, Kind kind) {
+    }
+
+    private static final int EMPTY = -1;
+
+    private final List<Restaurant> restaurants;
+    private final String[] keys;
+    private final String[] texts;
+    private final Kind[] kinds;
+    private final int[] ranks;
+    private final int[] tree;
+    private final int leaves;
+
+    private PrefixIndex(List<Restaurant> restaurants, String[] keys, String[] texts, Kind[] kinds, int[] ranks) {
+        this.restaurants = restaurants;
+        this.keys = keys;
+        this.texts = texts;
+        this.kinds = kinds;
+        this.ranks = ranks;
+        this.leaves = Math.max(1, Integer.highestOneBit(Math.max(1, keys.length - 1)) << 1);
+        this.tree = buildTree();
+    }
+
+    /**
+     * Builds the index. Restaurants are ranked by {@code relevanceRanks} (position in the
+     * relevance order); a cuisine takes the rank of its most relevant restaurant, just ahead
+     * of that restaurant, and cuisines without restaurants come last.
+     */
+    public static PrefixIndex build(List<Restaurant> restaurants, int[] relevanceRanks, List<Cuisine> cuisines) {
+        Map<Cuisine, Integer> bestCuisineRank = new HashMap<>();
+        List<Entry> entries = new ArrayList<>(restaurants.size() + cuisines.size());
+        for (int row = 0; row < restaurants.size(); row++) {
+            Restaurant restaurant = restaurants.get(row);
+            int rank = relevanceRanks[row];
+            entries.add(new Entry(normalize(restaurant.getName()), restaurant.getName(), Kind.RESTAURANT, 2 * rank + 1));
+            bestCuisineRank.merge(restaurant.getCuisine(), rank, Math::min);
+        }
+        int unranked = 2 * restaurants.size();
+        for (Cuisine cuisine : cuisines) {
+            Integer best = bestCuisineRank.get(cuisine);
+            entries.add(new Entry(normalize(cuisine.getName()), cuisine.getName(), Kind.CUISINE,
+                    best == null ? unranked : 2 * best));
+        }
+
+        entries.sort(Comparator.comparing(Entry::key)
+                .thenComparing(Entry::kind)
+                .thenComparingInt(Entry::rank));
+
+        // Keep one entry per (name, kind), the most relevant one
+        List<Entry> distinct = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            Entry previous = distinct.isEmpty() ? null : distinct.get(distinct.size() - 1);
+            if (previous == null || !previous.key().equals(entry.key()) || previous.kind() != entry.kind()) {
+                distinct.add(entry);
+            }
+        }
+
+        int size = distinct.size();
+        String[] keys = new String[size];
+        String[] texts = new String[size];
+        Kind[] kinds = new Kind[size];
+        int[] ranks = new int[size];
+        for (int i = 0; i < size; i++) {
+            Entry entry = distinct.get(i);
+            keys[i] = entry.key();
+            texts[i] = entry.text();
+            kinds[i] = entry.kind();
+            ranks[i] = entry.rank();
+        }
+        return new PrefixIndex(restaurants, keys, texts, kinds, ranks);
+    }
+
+    /**
+     * Whether this index was built from exactly this list instance.
+     */
+    public boolean covers(List<Restaurant> restaurants) {
+        return this.restaurants == restaurants;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * The {@code limit} most relevant names starting with the prefix (case-insensitive).
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        int from = lowerBound(key);
+        int to = upperBound(key, from);
+        if (from >= to || limit <= 0) {
+            return List.of();
+        }
+
+        NodeHeap heap = new NodeHeap();
+        for (int left = from + leaves, right = to + leaves; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                push(heap, left++);
+            }
+            if ((right & 1) == 1) {
+                push(heap, --right);
+            }
+        }
+
+        List<Completion> completions = new ArrayList<>(Math.min(limit, to - from));
+        while (completions.size() < limit && !heap.isEmpty()) {
+            int node = heap.pop();
+            if (node >= leaves) {
+                int entry = tree[node];
+                completions.add(new Completion(texts[entry], kinds[entry]));
+            } else {
+                push(heap, 2 * node);
+                push(heap, 2 * node + 1);
+            }
+        }
+        return completions;
+    }
+
+    private void push(NodeHeap heap, int node) {
+        int entry = tree[node];
+        if (entry != EMPTY) {
+            heap.push((long) ranks[entry] << Integer.SIZE | node);
+        }
+    }
+
+    private int[] buildTree() {
+        int[] nodes = new int[2 * leaves];
+        Arrays.fill(nodes, EMPTY);
+        for (int i = 0; i < keys.length; i++) {
+            nodes[leaves + i] = i;
+        }
+        for (int node = leaves - 1; node >= 1; node--) {
+            nodes[node] = moreRelevant(nodes[2 * node], nodes[2 * node + 1]);
+        }
+        return nodes;
+    }
+
+    private int moreRelevant(int a, int b) {
+        if (a == EMPTY) return b;
+        if (b == EMPTY) return a;
+        return ranks[b] < ranks[a] ? b : a;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(String prefix, int from) {
+        int low = from;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String normalize(String text) {
+        return text.stripLeading().toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(String key, String text, Kind kind, int rank) {
+    }
+
+    /**
+     * Binary min-heap of packed {@code (rank, node)} longs.
+     */
+    private static final class NodeHeap {
+        private long[] items = new long[32];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(long item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (items[parent] <= item) {
+                    break;
+                }
+                items[i] = items[parent];
+                i = parent;
+            }
+            items[i] = item;
+        }
+
+        int pop() {
+            long top = items[0];
+            long last = items[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && items[child + 1] < items[child]) {
+                    child++;
+                }
+                if (last <= items[child]) {
+                    break;
+                }
+                items[i] = items[child];
+                i = child;
+            }
+            items[i] = last;
+            return (int) top;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package tech.pedroduarte.gourmand.features.search.domain.index;
+
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented copy of the attributes the filters look at, for scans that evaluate many
+ * queries per row.
+ * <p>
+ * Names are lowercased once, cuisines are replaced by a dense id so a query can resolve its
+ * cuisine filter against the few distinct cuisines up front, and every row carries its
+ * position in the relevance order so that keeping a top-K only compares ints.
+ */
+public final class RestaurantColumns {
+
+    private final List<Restaurant> restaurants;
+    private final String[] lowerCaseNames;
+    private final int[] ratings;
+    private final double[] distances;
+    private final double[] prices;
+    private final int[] cuisineIds;
+    private final String[] lowerCaseCuisines;
+    private final List<String> cuisineNames;
+    private final int[] relevanceRanks;
+    private final int[] rowsByRank;
+
+    private RestaurantColumns(List<Restaurant> restaurants, String[] lowerCaseNames, int[] ratings,
+                              double[] distances, double[] prices, int[] cuisineIds,
+                              String[] lowerCaseCuisines, List<String> cuisineNames, int[] relevanceRanks,
+                              int[] rowsByRank) {
+        this.restaurants = restaurants;
+        this.lowerCaseNames = lowerCaseNames;
+        this.ratings = ratings;
+        this.distances = distances;
+        this.prices = prices;
+        this.cuisineIds = cuisineIds;
+        this.lowerCaseCuisines = lowerCaseCuisines;
+        this.cuisineNames = cuisineNames;
+        this.relevanceRanks = relevanceRanks;
+        this.rowsByRank = rowsByRank;
+    }
+
+    /**
+     * Builds the columns. {@code relevanceRanks} holds the position of each row in the
+     * relevance order and must be a permutation of {@code 0..n-1}.
+     */
+    public static RestaurantColumns build(List<Restaurant> restaurants, int[] relevanceRanks) {
+        int size = restaurants.size();
+        if (relevanceRanks.length != size) {
+            throw new IllegalArgumentException("Expected one relevance rank per restaurant");
+        }
+
+        String[] names = new String[size];
+        int[] ratings = new int[size];
+        double[] distances = new double[size];
+        double[] prices = new double[size];
+        int[] cuisineIds = new int[size];
+        int[] rowsByRank = new int[size];
+        Map<String, Integer> cuisineIdsByName = new HashMap<>();
+        List<String> cuisineNames = new ArrayList<>();
+
+        for (int row = 0; row < size; row++) {
+            Restaurant restaurant = restaurants.get(row);
+            // Same case folding as the single-query matchers, so both paths agree
+            names[row] = restaurant.getName().toLowerCase();
+            ratings[row] = restaurant.getRating().getValue();
+            distances[row] = restaurant.getDistance().getMiles();
+            prices[row] = restaurant.getPrice().getAmount();
+            String cuisine = restaurant.getCuisine().getName().toLowerCase();
+            Integer cuisineId = cuisineIdsByName.get(cuisine);
+            if (cuisineId == null) {
+                cuisineId = cuisineNames.size();
+                cuisineIdsByName.put(cuisine, cuisineId);
+                cuisineNames.add(restaurant.getCuisine().getName());
+            }
+            cuisineIds[row] = cuisineId;
+            rowsByRank[relevanceRanks[row]] = row;
+        }
+
+        String[] cuisines = new String[cuisineIdsByName.size()];
+        cuisineIdsByName.forEach((cuisine, id) -> cuisines[id] = cuisine);
+
+        return new RestaurantColumns(restaurants, names, ratings, distances, prices, cuisineIds,
+                cuisines, List.copyOf(cuisineNames), relevanceRanks, rowsByRank);
+    }
+
+    public int size() {
+        return ratings.length;
+    }
+
+    public Restaurant restaurant(int row) {
+        return restaurants.get(row);
+    }
+
+    public Restaurant restaurantAtRank(int rank) {
+        return restaurants.get(rowsByRank[rank]);
+    }
+
+    /**
+     * The row at this position of the relevance order.
+     */
+    public int rowAtRank(int rank) {
+        return rowsByRank[rank];
+    }
+
+    public String lowerCaseName(int row) {
+        return lowerCaseNames[row];
+    }
+
+    public int rating(int row) {
+        return ratings[row];
+    }
+
+    public double distance(int row) {
+        return distances[row];
+    }
+
+    public double price(int row) {
+        return prices[row];
+    }
+
+    public int cuisineId(int row) {
+        return cuisineIds[row];
+    }
+
+    public int relevanceRank(int row) {
+        return relevanceRanks[row];
+    }
+
+    /**
+     * Distinct lowercased cuisine names, indexed by cuisine id.
+     */
+    public int cuisineCount() {
+        return lowerCaseCuisines.length;
+    }
+
+    public String lowerCaseCuisine(int cuisineId) {
+        return lowerCaseCuisines[cuisineId];
+    }
+
+    /**
+     * Cuisine names as first seen in the data, indexed by cuisine id.
+     */
+    public List<String> cuisineNames() {
+        return cuisineNames;
+    }
+}
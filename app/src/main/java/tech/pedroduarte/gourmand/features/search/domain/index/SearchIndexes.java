@@ -0,0 +1,74 @@
+package tech.pedroduarte.gourmand.features.search.domain.index;
+
+import tech.pedroduarte.gourmand.common.jfr.IndexBuildEvent;
+import tech.pedroduarte.gourmand.common.metrics.Metrics;
+import tech.pedroduarte.gourmand.common.utils.Lazy;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Derived search structures for one list of restaurants.
+ * <p>
+ * Each index is built on first use and then shared by every query over the same list,
+ * so callers must create a new instance whenever the underlying data changes.
+ */
+public final class SearchIndexes {
+
+    private final List<Restaurant> restaurants;
+    private final Lazy<GeoGridIndex> geoIndex;
+    private final Lazy<BkTreeNameIndex> nameIndex;
+    private final Lazy<RestaurantColumns> columns;
+
+    private SearchIndexes(List<Restaurant> restaurants, Function<List<Restaurant>, int[]> relevanceRanking) {
+        this.restaurants = restaurants;
+        this.geoIndex = new Lazy<>(timed("geo-grid", () -> GeoGridIndex.build(restaurants)));
+        this.nameIndex = new Lazy<>(timed("name", () -> BkTreeNameIndex.build(restaurants)));
+        this.columns = new Lazy<>(timed("columns",
+                () -> RestaurantColumns.build(restaurants, relevanceRanking.apply(restaurants))));
+    }
+
+    private <T> Supplier<T> timed(String index, Supplier<T> build) {
+        return () -> {
+            long started = Metrics.start();
+            IndexBuildEvent event = new IndexBuildEvent();
+            event.begin();
+            T built = build.get();
+            Metrics.record(Metrics.Timer.INDEX_BUILD, started);
+            if (event.shouldCommit()) {
+                event.index = index;
+                event.rows = restaurants.size();
+                event.commit();
+            }
+            return built;
+        };
+    }
+
+    /**
+     * @param relevanceRanking computes the position of every restaurant in the relevance order
+     */
+    public static SearchIndexes of(List<Restaurant> restaurants, Function<List<Restaurant>, int[]> relevanceRanking) {
+        return new SearchIndexes(restaurants, relevanceRanking);
+    }
+
+    /**
+     * Whether these indexes were built from exactly this list instance.
+     */
+    public boolean covers(List<Restaurant> restaurants) {
+        return this.restaurants == restaurants;
+    }
+
+    public GeoGridIndex geoIndex() {
+        return geoIndex.get();
+    }
+
+    public BkTreeNameIndex nameIndex() {
+        return nameIndex.get();
+    }
+
+    public RestaurantColumns columns() {
+        return columns.get();
+    }
+}
@@ -0,0 +1,28 @@
+package tech.pedroduarte.gourmand.features.search.domain.persistence;
+
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+
+/**
+ * Repository whose restaurants can be changed in memory while it is being searched.
+ * <p>
+ * A change is visible to every read that starts after the method returns. Changes that name a
+ * restaurant that is missing, or add a name that is already used, fail with an
+ * {@link IllegalArgumentException} and leave the data unchanged.
+ */
+public interface MutableRestaurantRepository extends SnapshotRepository {
+
+    void apply(RestaurantMutation mutation);
+
+    default void add(Restaurant restaurant) {
+        apply(new RestaurantMutation.Add(restaurant));
+    }
+
+    default void update(String name, Restaurant restaurant) {
+        apply(new RestaurantMutation.Update(name, restaurant));
+    }
+
+    default void remove(String name) {
+        apply(new RestaurantMutation.Remove(name));
+    }
+
+}
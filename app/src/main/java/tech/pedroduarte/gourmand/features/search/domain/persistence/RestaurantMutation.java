@@ -0,0 +1,50 @@
+package tech.pedroduarte.gourmand.features.search.domain.persistence;
+
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+
+/**
+ * One change to the restaurants of a {@link MutableRestaurantRepository}. Restaurants are
+ * identified by their exact name.
+ */
+public sealed interface RestaurantMutation {
+
+    /**
+     * Adds a restaurant whose name is not used yet.
+     */
+    record Add(Restaurant restaurant) implements RestaurantMutation {
+        public Add {
+            requireRestaurant(restaurant);
+        }
+    }
+
+    /**
+     * Replaces the restaurant called {@code name}, which may be renamed to a name not used yet.
+     */
+    record Update(String name, Restaurant restaurant) implements RestaurantMutation {
+        public Update {
+            requireName(name);
+            requireRestaurant(restaurant);
+        }
+    }
+
+    /**
+     * Removes the restaurant called {@code name}.
+     */
+    record Remove(String name) implements RestaurantMutation {
+        public Remove {
+            requireName(name);
+        }
+    }
+
+    private static void requireName(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Restaurant name cannot be empty");
+        }
+    }
+
+    private static void requireRestaurant(Restaurant restaurant) {
+        if (restaurant == null) {
+            throw new IllegalArgumentException("Restaurant cannot be null");
+        }
+    }
+}
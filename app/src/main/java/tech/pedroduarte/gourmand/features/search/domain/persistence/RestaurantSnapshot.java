@@ -0,0 +1,95 @@
+package tech.pedroduarte.gourmand.features.search.domain.persistence;
+
+import tech.pedroduarte.gourmand.common.utils.Lazy;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.index.SearchIndexes;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Immutable state of the data at one point in time: the restaurants, the cuisines and the
+ * search indexes derived from them.
+ * <p>
+ * A query pins one snapshot and reads everything from it, so it never mixes data from before
+ * and after a change. Snapshots are never modified: a change builds the next one and replaces
+ * the reference to it, and the old one is released once the last query using it finishes.
+ * <p>
+ * The indexes, and for {@link #deferred} snapshots the list of restaurants itself, are built
+ * on first use, once.
+ */
+public final class RestaurantSnapshot {
+
+    private final long version;
+    private final Lazy<List<Restaurant>> restaurants;
+    private final List<Cuisine> cuisines;
+    private final Lazy<SearchIndexes> indexes;
+
+    private RestaurantSnapshot(long version, Supplier<List<Restaurant>> restaurants, List<Cuisine> cuisines,
+                               Function<List<Restaurant>, int[]> relevanceRanking) {
+        this.version = version;
+        this.restaurants = new Lazy<>(restaurants);
+        this.cuisines = cuisines;
+        this.indexes = new Lazy<>(() -> SearchIndexes.of(this.restaurants.get(), relevanceRanking));
+    }
+
+    /**
+     * @param relevanceRanking computes the position of every restaurant in the relevance order
+     */
+    public static RestaurantSnapshot of(long version, List<Restaurant> restaurants, List<Cuisine> cuisines,
+                                        Function<List<Restaurant>, int[]> relevanceRanking) {
+        return new RestaurantSnapshot(version, () -> restaurants, cuisines, relevanceRanking);
+    }
+
+    /**
+     * Snapshot whose restaurants are only computed when first read, so that publishing it
+     * costs nothing when no query looks at it before the next one replaces it.
+     *
+     * @param restaurants computes the list; called at most once
+     */
+    public static RestaurantSnapshot deferred(long version, Supplier<List<Restaurant>> restaurants,
+                                              List<Cuisine> cuisines,
+                                              Function<List<Restaurant>, int[]> relevanceRanking) {
+        return new RestaurantSnapshot(version, restaurants, cuisines, relevanceRanking);
+    }
+
+    /**
+     * Increases with every snapshot published by the same repository.
+     */
+    public long version() {
+        return version;
+    }
+
+    public List<Restaurant> restaurants() {
+        return restaurants.get();
+    }
+
+    public List<Cuisine> cuisines() {
+        return cuisines;
+    }
+
+    public SearchIndexes indexes() {
+        return indexes.get();
+    }
+
+    /**
+     * Whether this snapshot holds exactly this list instance.
+     */
+    public boolean covers(List<Restaurant> restaurants) {
+        return this.restaurants.get() == restaurants;
+    }
+
+    /**
+     * Builds every index now instead of on first use, so that the snapshot can be prepared
+     * before any query sees it.
+     */
+    public RestaurantSnapshot warmUp() {
+        SearchIndexes searchIndexes = indexes();
+        searchIndexes.geoIndex();
+        searchIndexes.nameIndex();
+        searchIndexes.columns();
+        return this;
+    }
+}
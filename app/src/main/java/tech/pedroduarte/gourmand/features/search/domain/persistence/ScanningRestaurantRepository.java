@@ -0,0 +1,24 @@
+package tech.pedroduarte.gourmand.features.search.domain.persistence;
+
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+
+import java.util.stream.Stream;
+
+/**
+ * Repository whose restaurants need not fit in memory. Searches stream the restaurants that can
+ * match from {@link #streamWithin} instead of reading {@link #findAll()}, which loads them all.
+ */
+public interface ScanningRestaurantRepository extends RestaurantRepository {
+
+    /**
+     * The restaurants whose own distance and price are within the bounds, read as the stream is
+     * consumed. The stream keeps the data it reads open until it is closed.
+     *
+     * @param maxDistance upper bound, or null for none
+     * @param maxPrice    upper bound, or null for none
+     */
+    Stream<Restaurant> streamWithin(Distance maxDistance, Price maxPrice);
+
+}
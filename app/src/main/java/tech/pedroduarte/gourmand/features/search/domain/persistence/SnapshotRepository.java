@@ -0,0 +1,13 @@
+package tech.pedroduarte.gourmand.features.search.domain.persistence;
+
+/**
+ * Repository publishing its whole state as immutable {@link RestaurantSnapshot}s.
+ * <p>
+ * Reads never block: {@link #findAll()} and {@link #findAllCuisines()} answer from the current
+ * snapshot, and a caller needing several consistent reads pins {@link #snapshot()} once.
+ */
+public interface SnapshotRepository extends RestaurantRepository {
+
+    RestaurantSnapshot snapshot();
+
+}
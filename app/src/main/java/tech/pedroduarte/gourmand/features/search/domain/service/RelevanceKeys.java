@@ -0,0 +1,103 @@
+package tech.pedroduarte.gourmand.features.search.domain.service;
+
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Packs the relevance order (distance ascending, rating descending, price ascending)
+ * into a single {@code long} per restaurant so that ranking becomes a primitive sort.
+ * <p>
+ * Layout, from the most to the least significant bit:
+ * <pre>
+ *   [ distance rank | 7 - rating (3 bits) | price rank | row index ]
+ * </pre>
+ * Distances and prices are replaced by their dense rank among the distinct values of
+ * the encoded list, which preserves {@link Double#compare} ordering exactly. The row
+ * index makes every key unique and keeps ties in their original (stable) order.
+ */
+public final class RelevanceKeys {
+
+    private static final int RATING_BITS = 3;
+    private static final int RATING_MASK = (1 << RATING_BITS) - 1;
+    private static final int MAX_KEY_BITS = Long.SIZE - 1; // keep keys non-negative
+
+    private final long[] keys;
+    private final int rowBits;
+
+    private RelevanceKeys(long[] keys, int rowBits) {
+        this.keys = keys;
+        this.rowBits = rowBits;
+    }
+
+    /**
+     * Encodes one key per restaurant, indexed by its position in the given list.
+     *
+     * @return the encoded keys, or {@code null} when the ranks do not fit in 63 bits
+     */
+    public static RelevanceKeys encode(List<Restaurant> restaurants) {
+        int size = restaurants.size();
+        double[] distances = new double[size];
+        double[] prices = new double[size];
+        for (int row = 0; row < size; row++) {
+            Restaurant restaurant = restaurants.get(row);
+            distances[row] = restaurant.getDistance().getMiles();
+            prices[row] = restaurant.getPrice().getAmount();
+        }
+
+        double[] distinctDistances = distinct(distances);
+        double[] distinctPrices = distinct(prices);
+
+        int distanceBits = bitsFor(distinctDistances.length);
+        int priceBits = bitsFor(distinctPrices.length);
+        int rowBits = bitsFor(size);
+        if (distanceBits + RATING_BITS + priceBits + rowBits > MAX_KEY_BITS) {
+            return null;
+        }
+
+        int priceShift = rowBits;
+        int ratingShift = priceShift + priceBits;
+        int distanceShift = ratingShift + RATING_BITS;
+
+        long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            long distanceRank = Arrays.binarySearch(distinctDistances, distances[row]);
+            long priceRank = Arrays.binarySearch(distinctPrices, prices[row]);
+            long invertedRating = RATING_MASK - restaurants.get(row).getRating().getValue();
+
+            keys[row] = distanceRank << distanceShift
+                    | invertedRating << ratingShift
+                    | priceRank << priceShift
+                    | row;
+        }
+        return new RelevanceKeys(keys, rowBits);
+    }
+
+    /**
+     * Backing key array, indexed by row. Sorting it in place yields the relevance order.
+     */
+    public long[] keys() {
+        return keys;
+    }
+
+    public int rowOf(long key) {
+        return (int) (key & ((1L << rowBits) - 1));
+    }
+
+    private static double[] distinct(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (count == 0 || Double.compare(sorted[count - 1], sorted[i]) != 0) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    private static int bitsFor(int distinctValues) {
+        return distinctValues <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(distinctValues - 1);
+    }
+}
@@ -1,17 +1,52 @@
 package tech.pedroduarte.gourmand.features.search.domain.service;
 
+import tech.pedroduarte.gourmand.common.metrics.Metrics;
 import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.FacetCounts;
+import tech.pedroduarte.gourmand.features.search.domain.NearbyRestaurant;
 import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.ResultCursor;
+import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+import tech.pedroduarte.gourmand.features.search.domain.SearchProbe;
+import tech.pedroduarte.gourmand.features.search.domain.index.GeoGridIndex;
+import tech.pedroduarte.gourmand.features.search.domain.index.RestaurantColumns;
 import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
 import tech.pedroduarte.gourmand.shared.domain.Price;
 import tech.pedroduarte.gourmand.shared.domain.Rating;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class RestaurantSearchDomainService {
 
+    private static final int SCAN_BLOCK_ROWS = 1024; // a block of every column stays cache-resident
+
+    private static final Comparator<Restaurant> RELEVANCE_ORDER =
+            Comparator.comparing(Restaurant::getDistance)
+                    .thenComparing(Restaurant::getRating, Comparator.reverseOrder())
+                    .thenComparing(Restaurant::getPrice);
+
+    // The relevance order over computed distances, then the order the restaurants were streamed in
+    private static final Comparator<StreamedMatch> STREAMED_ORDER =
+            Comparator.comparingDouble(StreamedMatch::miles)
+                    .thenComparing(match -> match.restaurant().getRating(), Comparator.reverseOrder())
+                    .thenComparing(match -> match.restaurant().getPrice())
+                    .thenComparingLong(StreamedMatch::sequence);
+
     public List<Restaurant> findMatches(
             List<Restaurant> restaurants,
             String name,
@@ -20,23 +55,610 @@ public class RestaurantSearchDomainService {
             Price maxPrice,
             Cuisine cuisine) {
 
-        return restaurants.stream()
+        long started = Metrics.start();
+        List<Restaurant> matches = restaurants.stream()
                 .filter(restaurant -> matchesName(restaurant, name))
                 .filter(restaurant -> matchesRating(restaurant, minRating))
                 .filter(restaurant -> matchesDistance(restaurant, maxDistance))
                 .filter(restaurant -> matchesPrice(restaurant, maxPrice))
                 .filter(restaurant -> matchesCuisine(restaurant, cuisine))
                 .collect(Collectors.toList());
+        Metrics.add(Metrics.Counter.ROWS_SCANNED, restaurants.size());
+        Metrics.record(Metrics.Timer.FIND_MATCHES, started);
+        return matches;
+    }
+
+    /**
+     * Same as {@link #findMatches(List, String, Rating, Distance, Price, Cuisine)}, reporting the
+     * rows that enter and survive each predicate to an enabled probe. Predicates are then applied
+     * one stage at a time, which costs an intermediate list per stage, so the plain version is
+     * used when the probe is disabled.
+     */
+    public List<Restaurant> findMatches(
+            List<Restaurant> restaurants,
+            String name,
+            Rating minRating,
+            Distance maxDistance,
+            Price maxPrice,
+            Cuisine cuisine,
+            SearchProbe probe) {
+
+        probe.rowsScanned(restaurants.size());
+        if (!probe.isEnabled()) {
+            return findMatches(restaurants, name, minRating, maxDistance, maxPrice, cuisine);
+        }
+
+        long started = Metrics.start();
+        List<Restaurant> survivors = restaurants;
+        survivors = applyStage(probe, "name", name != null && !name.isEmpty(), survivors,
+                restaurant -> matchesName(restaurant, name));
+        survivors = applyStage(probe, "rating", minRating != null, survivors,
+                restaurant -> matchesRating(restaurant, minRating));
+        survivors = applyStage(probe, "distance", maxDistance != null, survivors,
+                restaurant -> matchesDistance(restaurant, maxDistance));
+        survivors = applyStage(probe, "price", maxPrice != null, survivors,
+                restaurant -> matchesPrice(restaurant, maxPrice));
+        survivors = applyStage(probe, "cuisine", cuisine != null, survivors,
+                restaurant -> matchesCuisine(restaurant, cuisine));
+        List<Restaurant> matches = survivors == restaurants ? new ArrayList<>(restaurants) : survivors;
+        Metrics.add(Metrics.Counter.ROWS_SCANNED, restaurants.size());
+        Metrics.record(Metrics.Timer.FIND_MATCHES, started);
+        return matches;
+    }
+
+    private static List<Restaurant> applyStage(SearchProbe probe, String predicate, boolean active,
+                                               List<Restaurant> rows, Predicate<Restaurant> filter) {
+        if (!active) {
+            return rows;
+        }
+        List<Restaurant> survivors = new ArrayList<>();
+        for (Restaurant restaurant : rows) {
+            if (filter.test(restaurant)) {
+                survivors.add(restaurant);
+            }
+        }
+        probe.filterApplied(predicate, rows.size(), survivors.size());
+        return survivors;
+    }
+
+    /**
+     * Evaluates many criteria in a single pass over the data and returns, for each of them,
+     * its {@code limit} most relevant matches in relevance order. The result is the same as
+     * running {@link #findMatches} and {@link #sortByRelevance} per criteria.
+     * <p>
+     * Rows are visited in blocks, and every query checks a whole block before the next one is
+     * loaded, so the columns are read from memory once instead of once per query. Each query
+     * only keeps a bounded top-K of relevance ranks.
+     */
+    public List<List<Restaurant>> findTopMatches(RestaurantColumns columns, List<SearchCriteria> criteria,
+                                                 int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        ScanQuery[] queries = new ScanQuery[criteria.size()];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new ScanQuery(criteria.get(i), columns, limit);
+        }
+
+        int size = columns.size();
+        for (int blockStart = 0; blockStart < size; blockStart += SCAN_BLOCK_ROWS) {
+            int blockEnd = Math.min(size, blockStart + SCAN_BLOCK_ROWS);
+            for (ScanQuery query : queries) {
+                for (int row = blockStart; row < blockEnd; row++) {
+                    if (query.matches(columns, row)) {
+                        query.offer(columns.relevanceRank(row));
+                    }
+                }
+            }
+        }
+        Metrics.add(Metrics.Counter.ROWS_SCANNED, size);
+
+        List<List<Restaurant>> results = new ArrayList<>(queries.length);
+        for (ScanQuery query : queries) {
+            results.add(query.toRestaurants(columns));
+        }
+        return results;
+    }
+
+    /**
+     * Streams the {@code limit} most relevant matches of the criteria, in relevance order.
+     * <p>
+     * Rows are visited by relevance rank, so matches come out already sorted: nothing is
+     * collected or sorted, a limited search stops at its last result, and the cursor reads
+     * every field from the columns. The probe gets the row counts of each predicate once the
+     * cursor is exhausted, and the scan time as the filter stage.
+     */
+    public ResultCursor rankedMatches(RestaurantColumns columns, SearchCriteria criteria, int limit,
+                                      SearchProbe probe) {
+        return new RankScanCursor(columns, new ScanQuery(criteria, columns, 0), limit, probe);
+    }
+
+    /**
+     * Number of restaurants matching the criteria, counted over the columns without
+     * materializing the matches.
+     */
+    public int countMatches(RestaurantColumns columns, SearchCriteria criteria) {
+        ScanQuery query = new ScanQuery(criteria, columns, 0);
+        int count = 0;
+        for (int row = 0; row < columns.size(); row++) {
+            if (query.matches(columns, row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Facet counts of every restaurant matching the criteria, in one pass over the columns.
+     */
+    public FacetCounts countFacets(RestaurantColumns columns, SearchCriteria criteria) {
+        ScanQuery query = new ScanQuery(criteria, columns, 0);
+        FacetCounts.Counter counter = new FacetCounts.Counter(columns.cuisineCount());
+        for (int row = 0; row < columns.size(); row++) {
+            if (query.matches(columns, row)) {
+                counter.add(columns.rating(row), columns.price(row), columns.distance(row), columns.cuisineId(row));
+            }
+        }
+        return counter.build(columns.cuisineNames());
+    }
+
+    /**
+     * Facet counts of already matched restaurants, using their own distance.
+     */
+    public FacetCounts countFacets(List<Restaurant> matches) {
+        CuisineIds cuisineIds = new CuisineIds();
+        FacetCounts.Counter counter = new FacetCounts.Counter(0);
+        for (Restaurant restaurant : matches) {
+            counter.add(restaurant.getRating().getValue(), restaurant.getPrice().getAmount(),
+                    restaurant.getDistance().getMiles(), cuisineIds.idOf(restaurant.getCuisine()));
+        }
+        return counter.build(cuisineIds.names);
+    }
+
+    /**
+     * Facet counts of location-based matches, using the distance from the origin.
+     */
+    public FacetCounts countNearbyFacets(List<NearbyRestaurant> matches) {
+        CuisineIds cuisineIds = new CuisineIds();
+        FacetCounts.Counter counter = new FacetCounts.Counter(0);
+        for (NearbyRestaurant nearby : matches) {
+            Restaurant restaurant = nearby.restaurant();
+            counter.add(restaurant.getRating().getValue(), restaurant.getPrice().getAmount(),
+                    nearby.miles(), cuisineIds.idOf(restaurant.getCuisine()));
+        }
+        return counter.build(cuisineIds.names);
+    }
+
+    /**
+     * Finds the closest matching restaurants to the origin, ranked by the distance computed
+     * from it. Restaurants without coordinates never match a location-based search.
+     */
+    public List<NearbyRestaurant> findNearest(
+            GeoGridIndex geoIndex,
+            GeoLocation origin,
+            String name,
+            Rating minRating,
+            Distance maxDistance,
+            Price maxPrice,
+            Cuisine cuisine,
+            int limit) {
+
+        return geoIndex.nearest(origin, radiusMiles(maxDistance), limit,
+                nearbyFilter(name, minRating, maxPrice, cuisine));
+    }
+
+    /**
+     * Same as {@link #findNearest(GeoGridIndex, GeoLocation, String, Rating, Distance, Price, Cuisine, int)}
+     * among {@code candidates} only, which the grid indexes too, in the order it was built from.
+     * Few candidates are measured one by one, since the grid would visit every restaurant near
+     * the origin that is not one of them. Many go through the grid, which skips the others.
+     */
+    public List<NearbyRestaurant> findNearest(
+            GeoGridIndex geoIndex,
+            List<Restaurant> candidates,
+            GeoLocation origin,
+            String name,
+            Rating minRating,
+            Distance maxDistance,
+            Price maxPrice,
+            Cuisine cuisine,
+            int limit) {
+
+        Predicate<Restaurant> filter = nearbyFilter(name, minRating, maxPrice, cuisine);
+        // Spread over the grid, candidates turn up about once every size/candidates rows, so it
+        // visits about limit * size/candidates rows to find the limit nearest
+        if ((long) candidates.size() * candidates.size() <= (long) limit * geoIndex.size()) {
+            return GeoGridIndex.scan(candidates, origin, radiusMiles(maxDistance), limit, filter);
+        }
+        Set<Restaurant> among = Collections.newSetFromMap(new IdentityHashMap<>(candidates.size()));
+        among.addAll(candidates);
+        return geoIndex.nearest(origin, radiusMiles(maxDistance), limit, filter.and(among::contains));
+    }
+
+    private static double radiusMiles(Distance maxDistance) {
+        return maxDistance == null ? Double.POSITIVE_INFINITY : maxDistance.getMiles();
+    }
+
+    private Predicate<Restaurant> nearbyFilter(String name, Rating minRating, Price maxPrice, Cuisine cuisine) {
+        return restaurant -> matchesName(restaurant, name)
+                && matchesRating(restaurant, minRating)
+                && matchesPrice(restaurant, maxPrice)
+                && matchesCuisine(restaurant, cuisine);
+    }
+
+    /**
+     * The {@code limit} most relevant matches of the criteria among restaurants streamed from
+     * storage, keeping no more than {@code limit} of them at a time. They come in the order of
+     * {@link #sortByRelevance}, or of {@link #findNearest} for a location search, each with its
+     * distance: from the origin for a location search, its own otherwise. Ties keep the order of
+     * the stream. Fuzzy name searches need a name index and are not supported.
+     */
+    public List<NearbyRestaurant> findTopMatches(Stream<Restaurant> restaurants, SearchCriteria criteria, int limit) {
+        requireExactName(criteria);
+        if (limit <= 0) {
+            return List.of();
+        }
+        long started = Metrics.start();
+        PriorityQueue<StreamedMatch> best = new PriorityQueue<>(Math.min(limit, 64) + 1, STREAMED_ORDER.reversed());
+        long sequence = 0;
+        for (Iterator<Restaurant> rows = restaurants.iterator(); rows.hasNext(); sequence++) {
+            Restaurant restaurant = rows.next();
+            double miles = milesIfMatching(restaurant, criteria);
+            if (Double.isNaN(miles)) {
+                continue;
+            }
+            StreamedMatch match = new StreamedMatch(restaurant, miles, sequence);
+            if (best.size() < limit) {
+                best.add(match);
+            } else if (STREAMED_ORDER.compare(match, best.peek()) < 0) {
+                best.poll();
+                best.add(match);
+            }
+        }
+        List<StreamedMatch> sorted = new ArrayList<>(best);
+        sorted.sort(STREAMED_ORDER);
+        List<NearbyRestaurant> matches = new ArrayList<>(sorted.size());
+        for (StreamedMatch match : sorted) {
+            matches.add(new NearbyRestaurant(match.restaurant(), match.miles()));
+        }
+        Metrics.add(Metrics.Counter.ROWS_SCANNED, sequence);
+        Metrics.record(Metrics.Timer.FIND_MATCHES, started);
+        return matches;
+    }
+
+    /**
+     * Facet counts of every match of the criteria among restaurants streamed from storage,
+     * without keeping any of them. Distances are measured as in {@link #findTopMatches(Stream,
+     * SearchCriteria, int)}.
+     */
+    public FacetCounts countFacets(Stream<Restaurant> restaurants, SearchCriteria criteria) {
+        requireExactName(criteria);
+        CuisineIds cuisineIds = new CuisineIds();
+        FacetCounts.Counter counter = new FacetCounts.Counter(0);
+        for (Iterator<Restaurant> rows = restaurants.iterator(); rows.hasNext(); ) {
+            Restaurant restaurant = rows.next();
+            double miles = milesIfMatching(restaurant, criteria);
+            if (!Double.isNaN(miles)) {
+                counter.add(restaurant.getRating().getValue(), restaurant.getPrice().getAmount(), miles,
+                        cuisineIds.idOf(restaurant.getCuisine()));
+            }
+        }
+        return counter.build(cuisineIds.names);
+    }
+
+    private static void requireExactName(SearchCriteria criteria) {
+        if (criteria.isFuzzy()) {
+            throw new IllegalArgumentException("Fuzzy name searches need the data loaded in memory");
+        }
+    }
+
+    /**
+     * Distance of a restaurant matching the criteria, or NaN when it does not match.
+     */
+    private double milesIfMatching(Restaurant restaurant, SearchCriteria criteria) {
+        double miles;
+        if (criteria.origin() != null) {
+            if (restaurant.getLocation() == null) {
+                return Double.NaN;
+            }
+            miles = criteria.origin().milesTo(restaurant.getLocation());
+            if (criteria.maxDistance() != null && miles > criteria.maxDistance().getMiles()) {
+                return Double.NaN;
+            }
+        } else {
+            if (!matchesDistance(restaurant, criteria.maxDistance())) {
+                return Double.NaN;
+            }
+            miles = restaurant.getDistance().getMiles();
+        }
+        boolean matches = matchesName(restaurant, criteria.name())
+                && matchesRating(restaurant, criteria.minRating())
+                && matchesPrice(restaurant, criteria.maxPrice())
+                && matchesCuisine(restaurant, criteria.cuisine());
+        return matches ? miles : Double.NaN;
     }
 
     public List<Restaurant> sortByRelevance(List<Restaurant> matches) {
-        return matches.stream()
-                .sorted(
-                        Comparator.comparing(Restaurant::getDistance)
-                                .thenComparing(Restaurant::getRating, Comparator.reverseOrder())
-                                .thenComparing(Restaurant::getPrice)
-                )
-                .collect(Collectors.toList());
+        return sortByRelevance(matches, SearchProbe.DISABLED);
+    }
+
+    /**
+     * Same as {@link #sortByRelevance(List)}, reporting the sort method used to the probe.
+     */
+    public List<Restaurant> sortByRelevance(List<Restaurant> matches, SearchProbe probe) {
+        long started = Metrics.start();
+        RelevanceKeys relevance = RelevanceKeys.encode(matches);
+        if (relevance == null) {
+            // Too many distinct values to pack into one key, fall back to the comparator
+            probe.sorted("comparator", matches.size());
+            List<Restaurant> sorted = matches.stream()
+                    .sorted(RELEVANCE_ORDER)
+                    .collect(Collectors.toList());
+            Metrics.record(Metrics.Timer.SORT_BY_RELEVANCE, started);
+            return sorted;
+        }
+
+        probe.sorted("packed-keys", matches.size());
+        long[] keys = relevance.keys();
+        Arrays.sort(keys);
+
+        List<Restaurant> sorted = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            sorted.add(matches.get(relevance.rowOf(key)));
+        }
+        Metrics.record(Metrics.Timer.SORT_BY_RELEVANCE, started);
+        return sorted;
+    }
+
+    /**
+     * Position of every restaurant in the relevance order, indexed by its position in the list.
+     */
+    public int[] relevanceRanks(List<Restaurant> restaurants) {
+        int[] ranks = new int[restaurants.size()];
+        RelevanceKeys relevance = RelevanceKeys.encode(restaurants);
+        if (relevance == null) {
+            List<Integer> rows = IntStream.range(0, restaurants.size())
+                    .boxed()
+                    .sorted(Comparator.comparing(restaurants::get, RELEVANCE_ORDER))
+                    .collect(Collectors.toList());
+            for (int position = 0; position < rows.size(); position++) {
+                ranks[rows.get(position)] = position;
+            }
+            return ranks;
+        }
+
+        long[] keys = relevance.keys();
+        Arrays.sort(keys);
+        for (int position = 0; position < keys.length; position++) {
+            ranks[relevance.rowOf(keys[position])] = position;
+        }
+        return ranks;
+    }
+
+    /**
+     * Dense ids for cuisines compared case-insensitively, like the cuisine filter does.
+     */
+    private static final class CuisineIds {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        int idOf(Cuisine cuisine) {
+            return ids.computeIfAbsent(cuisine.getName().toLowerCase(), key -> {
+                names.add(cuisine.getName());
+                return names.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * One query of a shared scan: its filters resolved against the columns and its top-K.
+     */
+    private static final class ScanQuery {
+        /** Predicates in evaluation order, cheapest first; indexes of {@link #firstFailing}. */
+        static final String[] PREDICATES = {"rating", "distance", "price", "cuisine", "name"};
+
+        private final String name;
+        private final int minRating;
+        private final double maxDistance;
+        private final double maxPrice;
+        private final boolean[] allowedCuisines;
+        private final int[] bestRanks;
+        private int found;
+
+        ScanQuery(SearchCriteria criteria, RestaurantColumns columns, int limit) {
+            if (criteria.origin() != null || criteria.isFuzzy()) {
+                throw new IllegalArgumentException("Location and fuzzy searches cannot share a scan");
+            }
+            String searchName = criteria.name();
+            this.name = searchName == null || searchName.isEmpty() ? null : searchName.toLowerCase();
+            this.minRating = criteria.minRating() == null ? Integer.MIN_VALUE : criteria.minRating().getValue();
+            this.maxDistance = criteria.maxDistance() == null
+                    ? Double.POSITIVE_INFINITY
+                    : criteria.maxDistance().getMiles();
+            this.maxPrice = criteria.maxPrice() == null
+                    ? Double.POSITIVE_INFINITY
+                    : criteria.maxPrice().getAmount();
+
+            if (criteria.cuisine() == null) {
+                this.allowedCuisines = null;
+            } else {
+                String searchCuisine = criteria.cuisine().getName().toLowerCase();
+                this.allowedCuisines = new boolean[columns.cuisineCount()];
+                for (int id = 0; id < allowedCuisines.length; id++) {
+                    allowedCuisines[id] = columns.lowerCaseCuisine(id).contains(searchCuisine);
+                }
+            }
+            this.bestRanks = new int[limit];
+        }
+
+        boolean matches(RestaurantColumns columns, int row) {
+            return columns.rating(row) >= minRating
+                    && Double.compare(columns.distance(row), maxDistance) <= 0
+                    && Double.compare(columns.price(row), maxPrice) <= 0
+                    && (allowedCuisines == null || allowedCuisines[columns.cuisineId(row)])
+                    && (name == null || columns.lowerCaseName(row).contains(name));
+        }
+
+        /**
+         * Same evaluation as {@link #matches}, returning the index of the predicate that rejected
+         * the row, or -1 if it matches.
+         */
+        int firstFailing(RestaurantColumns columns, int row) {
+            if (columns.rating(row) < minRating) return 0;
+            if (Double.compare(columns.distance(row), maxDistance) > 0) return 1;
+            if (Double.compare(columns.price(row), maxPrice) > 0) return 2;
+            if (allowedCuisines != null && !allowedCuisines[columns.cuisineId(row)]) return 3;
+            if (name != null && !columns.lowerCaseName(row).contains(name)) return 4;
+            return -1;
+        }
+
+        boolean isActive(int predicate) {
+            return switch (predicate) {
+                case 0 -> minRating != Integer.MIN_VALUE;
+                case 1 -> maxDistance != Double.POSITIVE_INFINITY;
+                case 2 -> maxPrice != Double.POSITIVE_INFINITY;
+                case 3 -> allowedCuisines != null;
+                default -> name != null;
+            };
+        }
+
+        /**
+         * Keeps the {@code limit} smallest ranks in ascending order (insertion into a tiny array).
+         */
+        void offer(int rank) {
+            if (found == bestRanks.length) {
+                if (rank > bestRanks[found - 1]) {
+                    return;
+                }
+                found--;
+            }
+            int i = found++;
+            while (i > 0 && bestRanks[i - 1] > rank) {
+                bestRanks[i] = bestRanks[i - 1];
+                i--;
+            }
+            bestRanks[i] = rank;
+        }
+
+        List<Restaurant> toRestaurants(RestaurantColumns columns) {
+            List<Restaurant> restaurants = new ArrayList<>(found);
+            for (int i = 0; i < found; i++) {
+                restaurants.add(columns.restaurantAtRank(bestRanks[i]));
+            }
+            return restaurants;
+        }
+    }
+
+    /**
+     * Cursor scanning the columns in relevance order; the current result is just a row id.
+     */
+    private static final class RankScanCursor implements ResultCursor {
+        private final RestaurantColumns columns;
+        private final ScanQuery query;
+        private final int limit;
+        private final SearchProbe probe;
+        private final int[] rejectedBy = new int[ScanQuery.PREDICATES.length];
+        private int nextRank;
+        private int row = -1;
+        private int returned;
+        private boolean finished;
+
+        RankScanCursor(RestaurantColumns columns, ScanQuery query, int limit, SearchProbe probe) {
+            this.columns = columns;
+            this.query = query;
+            this.limit = limit;
+            this.probe = probe;
+        }
+
+        @Override
+        public boolean next() {
+            if (finished) {
+                return false;
+            }
+            if (returned < limit && (probe.isEnabled() ? scanProfiled() : scan())) {
+                returned++;
+                return true;
+            }
+            finish();
+            return false;
+        }
+
+        private boolean scan() {
+            int size = columns.size();
+            while (nextRank < size) {
+                int candidate = columns.rowAtRank(nextRank++);
+                if (query.matches(columns, candidate)) {
+                    row = candidate;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean scanProfiled() {
+            long started = probe.startTimer();
+            try {
+                int size = columns.size();
+                while (nextRank < size) {
+                    int candidate = columns.rowAtRank(nextRank++);
+                    int rejected = query.firstFailing(columns, candidate);
+                    if (rejected < 0) {
+                        row = candidate;
+                        return true;
+                    }
+                    rejectedBy[rejected]++;
+                }
+                return false;
+            } finally {
+                probe.stageFinished("filter", started);
+            }
+        }
+
+        private void finish() {
+            finished = true;
+            Metrics.add(Metrics.Counter.ROWS_SCANNED, nextRank);
+            probe.rowsScanned(nextRank);
+            if (!probe.isEnabled()) {
+                return;
+            }
+            int rowsIn = nextRank;
+            for (int predicate = 0; predicate < ScanQuery.PREDICATES.length; predicate++) {
+                if (query.isActive(predicate)) {
+                    probe.filterApplied(ScanQuery.PREDICATES[predicate], rowsIn, rowsIn - rejectedBy[predicate]);
+                }
+                rowsIn -= rejectedBy[predicate];
+            }
+            probe.sorted("rank-order", returned);
+            probe.resultsReturned(returned);
+        }
+
+        @Override
+        public String name() {
+            return columns.restaurant(row).getName();
+        }
+
+        @Override
+        public int rating() {
+            return columns.rating(row);
+        }
+
+        @Override
+        public double distance() {
+            return columns.distance(row);
+        }
+
+        @Override
+        public double price() {
+            return columns.price(row);
+        }
+
+        @Override
+        public String cuisine() {
+            return columns.restaurant(row).getCuisine().getName();
+        }
+    }
+
+    private record StreamedMatch(Restaurant restaurant, double miles, long sequence) {
     }
 
     private boolean matchesName(Restaurant restaurant, String searchName) {
@@ -0,0 +1,247 @@
+package tech.pedroduarte.gourmand.features.search.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.pedroduarte.gourmand.common.exception.OverloadedException;
+import tech.pedroduarte.gourmand.common.metrics.Metrics;
+import tech.pedroduarte.gourmand.common.utils.JsonWriter;
+import tech.pedroduarte.gourmand.features.search.application.AdmissionController;
+import tech.pedroduarte.gourmand.features.search.application.RestaurantParser;
+import tech.pedroduarte.gourmand.features.search.application.SearchCriteriaParser;
+import tech.pedroduarte.gourmand.features.search.application.SearchService;
+import tech.pedroduarte.gourmand.features.search.application.dto.SearchResult;
+import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.MutableRestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantMutation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * JSON search endpoint on the JDK's built-in HTTP server.
+ * <ul>
+ *   <li>{@code GET /search?name=…&rating=…&distance=…&price=…&cuisine=…&lat=…&lon=…&fuzzy=…}
+ *   returns {@code {"results":[{"name":…,"rating":…,"distance":…,"price":…,"cuisine":…}]}}</li>
+ *   <li>{@code GET /health} returns {@code {"status":"ok"}}</li>
+ * </ul>
+ * Every exchange runs on its own virtual thread against the shared, read-only service, so
+ * requests never load data and scale with the available cores. Invalid criteria are answered
+ * with {@code 400} and {@code {"error":…}}.
+ * <p>
+ * With an {@link AdmissionController}, searches it turns away are answered with {@code 503},
+ * a {@code Retry-After} header and {@code {"error":…}}.
+ * <p>
+ * With a {@link MutableRestaurantRepository}, {@code /restaurants} also accepts changes, each
+ * answered with {@code 204} once the repository has published it:
+ * <ul>
+ *   <li>{@code POST /restaurants?name=…&rating=…&distance=…&price=…&cuisine=…&lat=…&lon=…} adds a
+ *   restaurant</li>
+ *   <li>{@code PUT /restaurants?…}, with the same parameters, replaces the restaurant of that name</li>
+ *   <li>{@code DELETE /restaurants?name=…} removes it</li>
+ * </ul>
+ * Changes the repository rejects are answered with {@code 400}.
+ */
+public class SearchHttpServer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchHttpServer.class);
+
+    private final SearchService searchService;
+    private final AdmissionController admission;
+    private final MutableRestaurantRepository writes;
+    private final SearchCriteriaParser criteriaParser = new SearchCriteriaParser();
+    private final RestaurantParser restaurantParser = new RestaurantParser();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public SearchHttpServer(SearchService searchService, InetSocketAddress address) throws IOException {
+        this(searchService, null, address);
+    }
+
+    /**
+     * @param admission bounds the searches running at once, or {@code null} to run every search
+     *                  as soon as it arrives
+     */
+    public SearchHttpServer(SearchService searchService, AdmissionController admission, InetSocketAddress address)
+            throws IOException {
+        this(searchService, admission, null, address);
+    }
+
+    /**
+     * @param writes receives the changes made through {@code /restaurants}, or {@code null} to
+     *               serve searches only
+     */
+    public SearchHttpServer(SearchService searchService, AdmissionController admission,
+                            MutableRestaurantRepository writes, InetSocketAddress address) throws IOException {
+        this.searchService = searchService;
+        this.admission = admission;
+        this.writes = writes;
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/search", this::handleSearch);
+        server.createContext("/health", this::handleHealth);
+        if (writes != null) {
+            server.createContext("/restaurants", this::handleRestaurants);
+        }
+    }
+
+    public void start() {
+        server.start();
+        logger.info("HTTP server listening on {}", getAddress());
+    }
+
+    /**
+     * Bound address, with the actual port when started on port 0.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                sendError(exchange, 405, "Only GET is supported");
+                return;
+            }
+
+            SearchCriteria criteria;
+            try {
+                criteria = criteriaParser.parse(
+                        queryParameters(exchange.getRequestURI().getRawQuery(), SearchCriteriaParser.FIELDS));
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+
+            List<SearchResult> results;
+            try {
+                results = admission == null
+                        ? searchService.search(criteria)
+                        : admission.execute(() -> searchService.search(criteria));
+            } catch (OverloadedException e) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, e.getMessage());
+                return;
+            }
+            long renderStarted = Metrics.start();
+            String body = resultsJson(results);
+            Metrics.record(Metrics.Timer.RENDER, renderStarted);
+            send(exchange, 200, body);
+        } catch (RuntimeException e) {
+            logger.error("Search request failed", e);
+            sendError(exchange, 500, "Internal error");
+        }
+    }
+
+    private void handleRestaurants(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            RestaurantMutation mutation;
+            try {
+                Map<String, String> parameters =
+                        queryParameters(exchange.getRequestURI().getRawQuery(), RestaurantParser.FIELDS);
+                mutation = switch (exchange.getRequestMethod()) {
+                    case "POST" -> new RestaurantMutation.Add(restaurantParser.parse(parameters));
+                    case "PUT" -> new RestaurantMutation.Update(
+                            RestaurantParser.required(parameters, SearchCriteriaParser.NAME),
+                            restaurantParser.parse(parameters));
+                    case "DELETE" -> new RestaurantMutation.Remove(
+                            RestaurantParser.required(parameters, SearchCriteriaParser.NAME));
+                    default -> null;
+                };
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            if (mutation == null) {
+                exchange.getResponseHeaders().set("Allow", "POST, PUT, DELETE");
+                sendError(exchange, 405, "Only POST, PUT and DELETE are supported");
+                return;
+            }
+
+            try {
+                writes.apply(mutation);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            exchange.sendResponseHeaders(204, -1);
+        } catch (RuntimeException e) {
+            logger.error("Change request failed", e);
+            sendError(exchange, 500, "Internal error");
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            send(exchange, 200, new JsonWriter().beginObject().name("status").value("ok").endObject().toString());
+        }
+    }
+
+    private Map<String, String> queryParameters(String rawQuery, List<String> fields) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int separator = pair.indexOf('=');
+            String key = URLDecoder.decode(separator < 0 ? pair : pair.substring(0, separator), StandardCharsets.UTF_8);
+            String value = separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            if (!fields.contains(key)) {
+                throw new IllegalArgumentException(String.format(
+                        "Unknown parameter '%s'. Expected any of: %s", key, String.join(", ", fields)));
+            }
+            if (parameters.put(key, value) != null) {
+                throw new IllegalArgumentException(String.format("Parameter '%s' is repeated", key));
+            }
+        }
+        return parameters;
+    }
+
+    private static String resultsJson(List<SearchResult> results) {
+        JsonWriter json = new JsonWriter().beginObject().name("results").beginArray();
+        for (SearchResult result : results) {
+            json.beginObject()
+                    .name("name").value(result.getName())
+                    .name("rating").value(result.getRating())
+                    .name("distance").value(result.getDistance())
+                    .name("price").value(result.getPrice())
+                    .name("cuisine").value(result.getCuisine())
+                    .endObject();
+        }
+        return json.endArray().endObject().toString();
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, new JsonWriter().beginObject().name("error").value(message).endObject().toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
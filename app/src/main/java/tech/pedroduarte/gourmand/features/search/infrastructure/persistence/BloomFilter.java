@@ -0,0 +1,82 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Set of names that may answer "maybe" for a name it does not hold, but never "no" for one it
+ * does. With ten bits per name it wrongly answers "maybe" about one time in a hundred.
+ */
+final class BloomFilter {
+
+    private static final int BITS_PER_NAME = 10;
+    private static final int HASHES = 7;
+
+    private final long[] bits;
+
+    private BloomFilter(long[] bits) {
+        this.bits = bits;
+    }
+
+    static BloomFilter forNames(long expectedNames) {
+        long size = Math.max(Long.SIZE, expectedNames * BITS_PER_NAME);
+        return new BloomFilter(new long[(int) Math.min(Integer.MAX_VALUE - 8, (size + Long.SIZE - 1) / Long.SIZE)]);
+    }
+
+    void add(String name) {
+        long hash = hash(name);
+        long step = (hash >>> 32) | 1;
+        long bitCount = (long) bits.length * Long.SIZE;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String name) {
+        long hash = hash(name);
+        long step = (hash >>> 32) | 1;
+        long bitCount = (long) bits.length * Long.SIZE;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(bits.length);
+        for (long word : bits) {
+            out.writeLong(word);
+        }
+    }
+
+    static BloomFilter readFrom(DataInput in) throws IOException {
+        long[] bits = new long[in.readInt()];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = in.readLong();
+        }
+        return new BloomFilter(bits);
+    }
+
+    /**
+     * 64-bit FNV-1a over the characters, finished with the MurmurHash3 mixer so that both
+     * halves are usable on their own.
+     */
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
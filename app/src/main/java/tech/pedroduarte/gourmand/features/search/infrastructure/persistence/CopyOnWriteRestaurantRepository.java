@@ -0,0 +1,402 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.pedroduarte.gourmand.common.jfr.ReloadEvent;
+import tech.pedroduarte.gourmand.common.metrics.Metrics;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.MutableRestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantMutation;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantSnapshot;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the data of a loaded repository, together with its search indexes, in one immutable
+ * snapshot behind an {@link AtomicReference}.
+ * <p>
+ * Readers only read the reference, so searches never wait, not even during a reload. A reload
+ * loads the data and builds every index off to the side, then swaps the new snapshot in with a
+ * single write: queries that started before keep the snapshot they pinned until they finish.
+ * <p>
+ * Changes are combined: every writer queues its mutation, then whichever writer holds the
+ * write lock applies all the queued mutations at once and publishes a single snapshot for them.
+ * The others find their mutation applied as soon as they get the lock. The cost of building a
+ * snapshot is paid once per batch instead of once per write, so batches grow as write traffic
+ * does, and readers are never blocked by writers. Reloads and batches are serialized with each
+ * other so that versions only move forward.
+ * <p>
+ * A batch does not copy the data either. Writers keep the last full list, the set of its names
+ * and the changes made since; a batch checks its mutations against those, adds its own changes
+ * to them and publishes a snapshot that merges the list and the changes, and builds its indexes,
+ * only when a query first reads it. A batch therefore costs as much as its mutations, whatever
+ * the size of the data. Once the changes reach a sixteenth of the data they are folded into a
+ * new full list, which keeps them from growing without bound.
+ * <p>
+ * Without a journal, changes only live in memory and a reload replaces them. With a
+ * {@link MutationJournal}, every batch is appended and synced before it is published, a reload
+ * replays the journal over the loaded data, and {@link #checkpoint} folds the journal into the
+ * data files. Journaled batches are applied by one commit thread rather than by the writers:
+ * each writer queues its mutation and parks until it is committed, and the commit thread drains
+ * the whole queue into every sync. Writers that queue while a sync is under way make up the next
+ * batch, so a sync is shared by as many writes as arrive during one, without any of them having
+ * to win a lock first. {@link #close} stops the commit thread.
+ */
+public class CopyOnWriteRestaurantRepository implements MutableRestaurantRepository, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CopyOnWriteRestaurantRepository.class);
+    private static final int MIN_CHANGES_TO_FOLD = 256;
+
+    private final Supplier<? extends RestaurantRepository> loader;
+    private final Function<List<Restaurant>, int[]> relevanceRanking;
+    private final AtomicReference<RestaurantSnapshot> current = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<PendingWrite> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+    private final MutationJournal journal; // null when changes are kept in memory only
+    private volatile Thread committer; // started by the first journaled write
+    private volatile boolean closed;
+
+    // Written under the write lock: the last full list, its names, and the changes made since,
+    // both as one map for checking mutations and batch by batch for the published snapshots
+    private List<Restaurant> base;
+    private Set<String> baseNames;
+    private final Map<String, Restaurant> changes = new HashMap<>();
+    private ChangeLog changeLog;
+
+    /**
+     * Loads the first snapshot right away.
+     *
+     * @param loader           reads the data from its source, on every reload
+     * @param relevanceRanking computes the position of every restaurant in the relevance order
+     */
+    public CopyOnWriteRestaurantRepository(Supplier<? extends RestaurantRepository> loader,
+                                           Function<List<Restaurant>, int[]> relevanceRanking) {
+        this(loader, relevanceRanking, null);
+    }
+
+    /**
+     * Loads the first snapshot right away, replaying the journal over the loaded data.
+     *
+     * @param journal records every change before it is published
+     */
+    public CopyOnWriteRestaurantRepository(Supplier<? extends RestaurantRepository> loader,
+                                           Function<List<Restaurant>, int[]> relevanceRanking,
+                                           MutationJournal journal) {
+        this.loader = loader;
+        this.relevanceRanking = relevanceRanking;
+        this.journal = journal;
+        load();
+    }
+
+    @Override
+    public RestaurantSnapshot snapshot() {
+        return current.get();
+    }
+
+    @Override
+    public List<Restaurant> findAll() {
+        return current.get().restaurants();
+    }
+
+    @Override
+    public List<Cuisine> findAllCuisines() {
+        return current.get().cuisines();
+    }
+
+    /**
+     * Loads the data again, replays the journal over it and publishes the result once its
+     * indexes are built. When loading fails the current snapshot stays in place and the
+     * exception is rethrown.
+     *
+     * @return the snapshot now being served
+     */
+    public RestaurantSnapshot reload() {
+        return load();
+    }
+
+    // Kept apart from the overridable reload() so that the constructor never calls into a subclass
+    private RestaurantSnapshot load() {
+        long started = Metrics.start();
+        ReloadEvent event = new ReloadEvent();
+        event.begin();
+        writeLock.lock();
+        try {
+            RestaurantRepository source = loader.get();
+            List<RestaurantMutation> journaled = journal == null ? List.of() : journal.readAll();
+            RuntimeException[] none = new RuntimeException[journaled.size()];
+            List<Restaurant> restaurants = MutationBatch.replay(source.findAll(), journaled);
+            RestaurantSnapshot next = RestaurantSnapshot.of(nextVersion(), restaurants,
+                    cuisinesOf(source.findAllCuisines(), journaled, none), relevanceRanking).warmUp();
+            rebase(restaurants);
+            RestaurantSnapshot published = publish(next);
+            Metrics.record(Metrics.Timer.RELOAD, started);
+            if (event.shouldCommit()) {
+                event.version = published.version();
+                event.rows = restaurants.size();
+                event.journaled = journaled.size();
+                event.commit();
+            }
+            return published;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the mutation, possibly in the same batch as those of other writers, and returns
+     * once a snapshot containing it is published.
+     */
+    @Override
+    public void apply(RestaurantMutation mutation) {
+        if (closed) {
+            throw new IllegalStateException("Repository is closed");
+        }
+        PendingWrite write = new PendingWrite(mutation);
+        pending.add(write);
+        if (journal != null) {
+            // Read after queuing: either the commit thread drains this write or it is taken back here
+            if (closed && pending.remove(write)) {
+                throw new IllegalStateException("Repository is closed");
+            }
+            LockSupport.unpark(committer());
+            write.await();
+        } else {
+            writeLock.lock();
+            try {
+                if (!write.isDone()) {
+                    applyPending();
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        write.rethrowFailure();
+    }
+
+    /**
+     * Stops the commit thread once it has committed every queued write, waiting up to a minute
+     * for it. Later writes fail.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread thread = committer;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            if (!thread.join(Duration.ofMinutes(1))) {
+                logger.warn("Queued writes still committing after one minute");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Thread committer() {
+        Thread thread = committer;
+        if (thread == null) {
+            synchronized (pending) {
+                if (committer == null) {
+                    committer = Thread.ofPlatform().name("gourmand-journal-commit").daemon()
+                            .start(this::commitPending);
+                }
+                thread = committer;
+            }
+        }
+        return thread;
+    }
+
+    private void commitPending() {
+        while (true) {
+            // Read before the queue, so a write queued before closing is always drained
+            boolean closing = closed;
+            if (pending.isEmpty()) {
+                if (closing) {
+                    return;
+                }
+                LockSupport.park(this);
+                continue;
+            }
+            writeLock.lock();
+            try {
+                applyPending();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private void applyPending() {
+        List<PendingWrite> batch = new ArrayList<>();
+        for (PendingWrite write = pending.poll(); write != null; write = pending.poll()) {
+            batch.add(write);
+        }
+        RuntimeException[] failures = new RuntimeException[batch.size()];
+        try {
+            List<RestaurantMutation> mutations = batch.stream().map(PendingWrite::mutation).toList();
+            List<byte[]> records = journal == null ? null : MutationJournal.encodeEach(mutations, failures);
+            Map<String, Restaurant> changed = MutationBatch.apply(this::stored, mutations, failures);
+            if (!changed.isEmpty()) {
+                if (journal != null) {
+                    journal.appendEncoded(MutationBatch.applied(records, failures));
+                }
+                changes.putAll(changed);
+                changeLog = new ChangeLog(changeLog, changed);
+                List<Restaurant> restaurants = base;
+                ChangeLog log = changeLog;
+                RestaurantSnapshot snapshot = publish(RestaurantSnapshot.deferred(nextVersion(),
+                        () -> MutationBatch.merge(restaurants, log.replay()),
+                        cuisinesOf(current.get().cuisines(), mutations, failures), relevanceRanking));
+                if (changes.size() >= Math.max(MIN_CHANGES_TO_FOLD, base.size() / 16)) {
+                    fold(snapshot.restaurants());
+                }
+            }
+        } catch (RuntimeException e) {
+            // Nothing was published: every write not already rejected fails with the same cause
+            MutationBatch.failAll(failures, e);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(failures[i]);
+        }
+    }
+
+    /**
+     * Writes the current data with the writer, such as a {@link CsvCheckpoint}, then drops the
+     * journaled changes it contains. Writing happens outside the write lock, so changes keep
+     * being applied, and journaled after the checkpoint, in the meantime. A crash before the
+     * journal is cut replays changes the data files already contain, which gives the same data.
+     */
+    public void checkpoint(Consumer<RestaurantSnapshot> writer) {
+        if (journal == null) {
+            throw new IllegalStateException("Checkpoints need a journal");
+        }
+        checkpointLock.lock();
+        try {
+            RestaurantSnapshot snapshot;
+            long covered;
+            writeLock.lock();
+            try {
+                snapshot = current.get();
+                covered = journal.position();
+            } finally {
+                writeLock.unlock();
+            }
+
+            writer.accept(snapshot);
+
+            writeLock.lock();
+            try {
+                journal.discardBefore(covered);
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * The known cuisines, followed by any new cuisine of the restaurants the applied mutations
+     * write. Cuisines no longer used by any restaurant are kept.
+     */
+    private static List<Cuisine> cuisinesOf(List<Cuisine> known, List<RestaurantMutation> mutations,
+                                            RuntimeException[] failures) {
+        Set<Cuisine> cuisines = new LinkedHashSet<>(known);
+        for (int i = 0; i < mutations.size(); i++) {
+            if (failures[i] != null) {
+                continue;
+            }
+            switch (mutations.get(i)) {
+                case RestaurantMutation.Add add -> cuisines.add(add.restaurant().getCuisine());
+                case RestaurantMutation.Update update -> cuisines.add(update.restaurant().getCuisine());
+                case RestaurantMutation.Remove remove -> {
+                }
+            }
+        }
+        return cuisines.size() == known.size() ? known : List.copyOf(cuisines);
+    }
+
+    private boolean stored(String name) {
+        return changes.containsKey(name) ? changes.get(name) != null : baseNames.contains(name);
+    }
+
+    private void rebase(List<Restaurant> restaurants) {
+        base = restaurants;
+        baseNames = new HashSet<>(restaurants.size() * 2);
+        for (Restaurant restaurant : restaurants) {
+            baseNames.add(restaurant.getName());
+        }
+        changes.clear();
+        changeLog = null;
+    }
+
+    /**
+     * Makes the merged list of the latest snapshot the new full list, which queries reading that
+     * snapshot may already have merged.
+     */
+    private void fold(List<Restaurant> merged) {
+        changes.forEach((name, restaurant) -> {
+            if (restaurant == null) {
+                baseNames.remove(name);
+            } else {
+                baseNames.add(name);
+            }
+        });
+        base = merged;
+        changes.clear();
+        changeLog = null;
+    }
+
+    private long nextVersion() {
+        RestaurantSnapshot previous = current.get();
+        return previous == null ? 1 : previous.version() + 1;
+    }
+
+    private RestaurantSnapshot publish(RestaurantSnapshot next) {
+        current.set(next);
+        logger.debug("Published data version {}", next.version());
+        return next;
+    }
+
+    /**
+     * The changes of every batch since the last full list, newest first. Each snapshot keeps the
+     * entry of its own batch, so later batches never change what it sees.
+     */
+    private record ChangeLog(ChangeLog previous, Map<String, Restaurant> changed) {
+
+        /**
+         * Every change up to this batch, each name with its latest value.
+         */
+        Map<String, Restaurant> replay() {
+            List<Map<String, Restaurant>> batches = new ArrayList<>();
+            for (ChangeLog entry = this; entry != null; entry = entry.previous) {
+                batches.add(entry.changed);
+            }
+            Map<String, Restaurant> all = new LinkedHashMap<>();
+            for (int i = batches.size() - 1; i >= 0; i--) {
+                all.putAll(batches.get(i));
+            }
+            return all;
+        }
+    }
+}
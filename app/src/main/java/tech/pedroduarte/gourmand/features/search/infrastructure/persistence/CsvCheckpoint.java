@@ -0,0 +1,156 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.pedroduarte.gourmand.common.utils.CsvReader;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantSnapshot;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Writes a snapshot back to the {@code cuisines.csv} and {@code restaurants.csv} files of a data
+ * directory, in the format {@link CsvRestaurantRepository} reads.
+ * <p>
+ * Each file is written next to the original, synced and then renamed over it. Cuisines keep
+ * the ids they already have and new ones get the next free ids, so the new cuisines file is
+ * also valid for the old restaurants file: a crash between the two renames leaves readable
+ * data either way.
+ */
+public class CsvCheckpoint implements Consumer<RestaurantSnapshot> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvCheckpoint.class);
+    private static final String CUISINES_FILENAME = "cuisines.csv";
+    private static final String RESTAURANTS_FILENAME = "restaurants.csv";
+
+    private final Path dataDirectory;
+
+    public CsvCheckpoint(Path dataDirectory) {
+        this.dataDirectory = dataDirectory;
+    }
+
+    @Override
+    public void accept(RestaurantSnapshot snapshot) {
+        long started = System.nanoTime();
+        try {
+            Map<Cuisine, Long> cuisineIds = cuisineIds(snapshot);
+            writeAtomically(CUISINES_FILENAME, out -> writeCuisines(out, cuisineIds));
+            writeAtomically(RESTAURANTS_FILENAME, out -> writeRestaurants(out, snapshot.restaurants(), cuisineIds));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write checkpoint to " + dataDirectory, e);
+        }
+        logger.info("Wrote checkpoint of data version {} in {} ms", snapshot.version(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private Map<Cuisine, Long> cuisineIds(RestaurantSnapshot snapshot) throws IOException {
+        Map<Cuisine, Long> ids = new HashMap<>();
+        long nextId = 1;
+        Path existing = dataDirectory.resolve(CUISINES_FILENAME);
+        if (Files.exists(existing)) {
+            try (InputStream in = Files.newInputStream(existing)) {
+                for (Map.Entry<Long, Cuisine> entry : new CsvReader().readCsv(in, true,
+                        columns -> Map.entry(Long.parseLong(columns[0].trim()), new Cuisine(columns[1].trim())))) {
+                    ids.put(entry.getValue(), entry.getKey());
+                    nextId = Math.max(nextId, entry.getKey() + 1);
+                }
+            }
+        }
+        for (Cuisine cuisine : snapshot.cuisines()) {
+            if (!ids.containsKey(cuisine)) {
+                ids.put(cuisine, nextId++);
+            }
+        }
+        for (Restaurant restaurant : snapshot.restaurants()) {
+            if (!ids.containsKey(restaurant.getCuisine())) {
+                ids.put(restaurant.getCuisine(), nextId++);
+            }
+        }
+        return ids;
+    }
+
+    private static void writeCuisines(Writer out, Map<Cuisine, Long> cuisineIds) throws IOException {
+        out.write("id,name\n");
+        List<Map.Entry<Cuisine, Long>> byId = cuisineIds.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .toList();
+        StringBuilder line = new StringBuilder(32);
+        for (Map.Entry<Cuisine, Long> entry : byId) {
+            line.setLength(0);
+            line.append(entry.getValue()).append(',');
+            quote(line, entry.getKey().getName());
+            out.append(line).append('\n');
+        }
+    }
+
+    private static void writeRestaurants(Writer out, List<Restaurant> restaurants, Map<Cuisine, Long> cuisineIds)
+            throws IOException {
+        out.write("name,customer_rating,distance,price,cuisine_id,latitude,longitude\n");
+        StringBuilder line = new StringBuilder(96);
+        for (Restaurant restaurant : restaurants) {
+            line.setLength(0);
+            quote(line, restaurant.getName());
+            line.append(',').append(restaurant.getRating().getValue())
+                    .append(',').append(restaurant.getDistance().getMiles())
+                    .append(',').append(restaurant.getPrice().getAmount())
+                    .append(',').append(cuisineIds.get(restaurant.getCuisine()))
+                    .append(',');
+            if (restaurant.hasLocation()) {
+                line.append(restaurant.getLocation().getLatitude())
+                        .append(',').append(restaurant.getLocation().getLongitude());
+            } else {
+                line.append(',');
+            }
+            out.append(line).append('\n');
+        }
+    }
+
+    /**
+     * Names are always quoted, with embedded quotes doubled, so commas and quotes survive.
+     */
+    static void quote(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private void writeAtomically(String filename, CsvContent content) throws IOException {
+        Path target = dataDirectory.resolve(filename);
+        Path temporary = dataDirectory.resolve(filename + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temporary);
+             Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 64 * 1024)) {
+            content.writeTo(out);
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        DurableFiles.replace(temporary, target);
+    }
+
+    @FunctionalInterface
+    private interface CsvContent {
+        void writeTo(Writer out) throws IOException;
+    }
+}
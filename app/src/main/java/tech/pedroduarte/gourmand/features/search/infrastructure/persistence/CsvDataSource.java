@@ -36,6 +36,24 @@ public class CsvDataSource {
         return getInputStream(CUISINES_FILENAME);
     }
 
+    /**
+     * Where the restaurants are read from, for diagnostics.
+     */
+    public String restaurantsLocation() {
+        return location(RESTAURANTS_FILENAME);
+    }
+
+    /**
+     * Where the cuisines are read from, for diagnostics.
+     */
+    public String cuisinesLocation() {
+        return location(CUISINES_FILENAME);
+    }
+
+    private String location(String filename) {
+        return useResources ? "classpath:data/" + filename : dataDirectory.resolve(filename).toString();
+    }
+
     private InputStream getInputStream(String filename) {
         if (useResources) {
             InputStream is = getClass().getClassLoader()
@@ -3,46 +3,78 @@ package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.pedroduarte.gourmand.common.exception.DataLoadException;
+import tech.pedroduarte.gourmand.common.jfr.CsvLoadEvent;
+import tech.pedroduarte.gourmand.common.metrics.Metrics;
 import tech.pedroduarte.gourmand.common.utils.CsvReader;
 import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
 import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
 import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantRepository;
 import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
 import tech.pedroduarte.gourmand.shared.domain.Price;
 import tech.pedroduarte.gourmand.shared.domain.Rating;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class CsvRestaurantRepository implements RestaurantRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(CsvRestaurantRepository.class);
+    private static final int LATITUDE_COLUMN = 5;
+    private static final int LONGITUDE_COLUMN = 6;
 
     private final CsvReader csvReader;
     private final CsvDataSource dataSource;
-    private List<Restaurant> restaurants;
-    private Map<Long, Cuisine> cuisinesMap;
+    private final Map<Long, Cuisine> cuisinesMap;
+    private final List<Restaurant> restaurants;
 
+    /**
+     * Loads both files up front; the loaded data is never modified afterwards, so it can be read
+     * from any thread once the constructor returns.
+     */
     public CsvRestaurantRepository(CsvDataSource dataSource) {
         this.csvReader = new CsvReader();
         this.dataSource = dataSource;
-        loadData();
-    }
-
-    @Override
-    public List<Restaurant> findAll() {
-        return restaurants;
+        long started = Metrics.start();
+        try {
+            this.cuisinesMap = loadCuisines(csvReader, dataSource);
+            this.restaurants = loadRestaurants();
+        } catch (Exception e) {
+            throw new DataLoadException("Failed to load data files", e);
+        }
+        Metrics.add(Metrics.Counter.ROWS_LOADED, restaurants.size());
+        Metrics.record(Metrics.Timer.LOAD, started);
     }
 
-    private void loadData() {
+    /**
+     * Reads the restaurants one row at a time, passing each to the action without keeping it,
+     * for data too large to load.
+     */
+    public static void forEachRestaurant(CsvDataSource dataSource, Consumer<Restaurant> action) {
+        CsvReader csvReader = new CsvReader();
+        Map<Long, Cuisine> cuisines;
         try {
-            this.cuisinesMap = loadCuisines();
-            this.restaurants = loadRestaurants();
+            cuisines = loadCuisines(csvReader, dataSource);
         } catch (Exception e) {
             throw new DataLoadException("Failed to load data files", e);
         }
+        boolean[] header = {true};
+        csvReader.forEachRow(dataSource.getRestaurantsStream(), columns -> {
+            if (header[0]) {
+                header[0] = false;
+                return;
+            }
+            action.accept(mapToRestaurant(columns, cuisines));
+        });
+    }
+
+    @Override
+    public List<Restaurant> findAll() {
+        return restaurants;
     }
 
     @Override
@@ -50,10 +82,12 @@ public class CsvRestaurantRepository implements RestaurantRepository {
         return List.copyOf(cuisinesMap.values());
     }
 
-    private Map<Long, Cuisine> loadCuisines() throws IOException {
+    private static Map<Long, Cuisine> loadCuisines(CsvReader csvReader, CsvDataSource dataSource) throws IOException {
         logger.debug("Loading cuisines from data source");
 
-        try (InputStream is = dataSource.getCuisinesStream()) {
+        CsvLoadEvent event = new CsvLoadEvent();
+        event.begin();
+        try (CountingInputStream is = CountingInputStream.of(dataSource.getCuisinesStream())) {
             List<Map.Entry<Long, Cuisine>> entries = csvReader.readCsv(
                     is,
                     true, // skip header
@@ -67,6 +101,7 @@ public class CsvRestaurantRepository implements RestaurantRepository {
                     .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
 
             logger.info("Loaded {} cuisines", cuisinesMap.size());
+            commit(event, dataSource.cuisinesLocation(), entries.size(), is);
             return Collections.unmodifiableMap(cuisinesMap);
         }
     }
@@ -74,19 +109,31 @@ public class CsvRestaurantRepository implements RestaurantRepository {
     private List<Restaurant> loadRestaurants() throws IOException {
         logger.debug("Loading restaurants from data source");
 
-        try (InputStream is = dataSource.getRestaurantsStream()) {
+        CsvLoadEvent event = new CsvLoadEvent();
+        event.begin();
+        try (CountingInputStream is = CountingInputStream.of(dataSource.getRestaurantsStream())) {
             List<Restaurant> loadedRestaurants = csvReader.readCsv(
                     is,
                     true, // skip header
-                    this::mapToRestaurant
+                    columns -> mapToRestaurant(columns, cuisinesMap)
             );
 
             logger.info("Loaded {} restaurants", loadedRestaurants.size());
+            commit(event, dataSource.restaurantsLocation(), loadedRestaurants.size(), is);
             return Collections.unmodifiableList(loadedRestaurants);
         }
     }
 
-    private Restaurant mapToRestaurant(String[] columns) {
+    private static void commit(CsvLoadEvent event, String file, int rows, CountingInputStream stream) {
+        if (event.shouldCommit()) {
+            event.file = file;
+            event.rows = rows;
+            event.bytes = stream.count;
+            event.commit();
+        }
+    }
+
+    private static Restaurant mapToRestaurant(String[] columns, Map<Long, Cuisine> cuisinesMap) {
         try {
             String name = columns[0].trim();
             Rating rating = new Rating(Integer.parseInt(columns[1]));
@@ -99,7 +146,8 @@ public class CsvRestaurantRepository implements RestaurantRepository {
                     rating,
                     distance,
                     price,
-                    cuisinesMap.get(cuisineId)
+                    cuisinesMap.get(cuisineId),
+                    mapToLocation(columns)
             );
         } catch (IllegalArgumentException e) {
             throw new DataLoadException(
@@ -109,4 +157,61 @@ public class CsvRestaurantRepository implements RestaurantRepository {
         }
     }
 
+    private static GeoLocation mapToLocation(String[] columns) {
+        // Coordinates are optional trailing columns
+        if (columns.length <= LONGITUDE_COLUMN
+                || columns[LATITUDE_COLUMN].isEmpty()
+                || columns[LONGITUDE_COLUMN].isEmpty()) {
+            return null;
+        }
+        return new GeoLocation(
+                Double.parseDouble(columns[LATITUDE_COLUMN]),
+                Double.parseDouble(columns[LONGITUDE_COLUMN])
+        );
+    }
+
+    /**
+     * Counts the bytes read through it, for the load event. The reader buffers its input, so
+     * this is called once per buffer rather than once per byte.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        /**
+         * Wraps the stream, leaving a missing one for the reader to reject.
+         */
+        static CountingInputStream of(InputStream in) {
+            return in == null ? null : new CountingInputStream(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
 }
\ No newline at end of file
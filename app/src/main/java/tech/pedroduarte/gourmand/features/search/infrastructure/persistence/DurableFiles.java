@@ -0,0 +1,35 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Renames that survive a crash once they return.
+ * <p>
+ * A rename changes the directory rather than the file, so syncing the file is not enough: until
+ * the directory is synced too, a crash can bring back the old name.
+ */
+final class DurableFiles {
+
+    private DurableFiles() {
+    }
+
+    /**
+     * Atomically replaces {@code target} with {@code source}, which the caller has already
+     * synced, and syncs the directory holding them.
+     */
+    static void replace(Path source, Path target) throws IOException {
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(target.toAbsolutePath().getParent());
+    }
+
+    static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+}
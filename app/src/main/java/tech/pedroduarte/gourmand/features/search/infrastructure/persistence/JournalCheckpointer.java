@@ -0,0 +1,77 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantSnapshot;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Checkpoints a journaled repository in the background whenever its journal holds at least
+ * {@code maxRecords} mutations.
+ * <p>
+ * This bounds recovery: a restart replays at most {@code maxRecords} mutations, plus those
+ * written during one check interval and one checkpoint.
+ */
+public class JournalCheckpointer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalCheckpointer.class);
+
+    private final CopyOnWriteRestaurantRepository repository;
+    private final MutationJournal journal;
+    private final Consumer<RestaurantSnapshot> writer;
+    private final long maxRecords;
+    private final ScheduledExecutorService scheduler;
+
+    public JournalCheckpointer(CopyOnWriteRestaurantRepository repository, MutationJournal journal,
+                               Consumer<RestaurantSnapshot> writer, long maxRecords, Duration checkInterval) {
+        if (maxRecords < 1) {
+            throw new IllegalArgumentException("maxRecords must be at least 1");
+        }
+        this.repository = repository;
+        this.journal = journal;
+        this.writer = writer;
+        this.maxRecords = maxRecords;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gourmand-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = checkInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkpointIfDue, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkpointIfDue() {
+        long records = journal.records();
+        if (records < maxRecords) {
+            return;
+        }
+        try {
+            repository.checkpoint(writer);
+            logger.info("Checkpointed {} journal records", records);
+        } catch (Exception e) {
+            // The journal still holds every change, so the next check simply tries again
+            logger.error("Error writing checkpoint", e);
+        }
+    }
+
+    /**
+     * Stops checking, waiting for a checkpoint in progress to finish.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.warn("Checkpoint still running after one minute");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
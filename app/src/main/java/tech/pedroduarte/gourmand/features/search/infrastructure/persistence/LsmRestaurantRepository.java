@@ -0,0 +1,649 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantMutation;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.ScanningRestaurantRepository;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Log-structured store of restaurants in a directory: recent changes in a sorted in-memory
+ * memtable, everything older in immutable {@link SortedRun} files.
+ * <p>
+ * A change is appended to a {@link MutationJournal} and then written to the memtable. Once the
+ * memtable holds {@code memtableEntries} names it is frozen, a new one takes the writes, and a
+ * background thread writes the frozen one out as a new run and drops its changes from the
+ * journal. Once there are {@code maxRuns} runs the same thread merges them into one, dropping
+ * removed names and overwritten values. A {@code MANIFEST} file, replaced atomically, lists
+ * the runs in use, so a crash at any point reopens to the runs of the last complete flush or
+ * compaction plus the journal.
+ * <p>
+ * Only the memtables and the block index of each run stay in memory, whatever the size of the
+ * data. Reads merge the memtables and runs newest first, so each name shows its latest value;
+ * {@link #streamWithin} hands restaurants over one at a time as they are read and skips the run
+ * blocks whose distance and price bounds rule them out, so a search holds one block per run
+ * rather than the data. Each read sees every change completed before it started. Reads never
+ * wait for writes, flushes or compactions.
+ */
+public class LsmRestaurantRepository implements ScanningRestaurantRepository, Closeable {
+
+    public static final int DEFAULT_MEMTABLE_ENTRIES = 64 * 1024;
+    public static final int DEFAULT_BLOCK_ENTRIES = 128;
+    public static final int DEFAULT_MAX_RUNS = 4;
+
+    private static final Logger logger = LoggerFactory.getLogger(LsmRestaurantRepository.class);
+    private static final String MANIFEST = "MANIFEST";
+
+    private final Path directory;
+    private final int memtableEntries;
+    private final int blockEntries;
+    private final int maxRuns;
+    private final MutationJournal journal;
+    private final ConcurrentLinkedQueue<PendingWrite> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ExecutorService background;
+    private volatile Tables tables;
+    private long nextRun; // only used while opening and by the background thread
+
+    private LsmRestaurantRepository(Path directory, int memtableEntries, int blockEntries, int maxRuns)
+            throws IOException {
+        this.directory = directory;
+        this.memtableEntries = memtableEntries;
+        this.blockEntries = blockEntries;
+        this.maxRuns = maxRuns;
+        this.background = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gourmand-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Files.createDirectories(directory);
+        List<SortedRun> runs = openRuns();
+        this.journal = MutationJournal.open(directory.resolve(MutationJournal.FILENAME));
+        Memtable active = new Memtable();
+        for (RestaurantMutation mutation : journal.readAll()) {
+            for (StoredEntry entry : changes(mutation)) {
+                active.entries.put(entry.name(), entry);
+            }
+        }
+        this.tables = new Tables(active, List.of(), runs);
+        logger.info("Opened {} with {} runs and {} journaled changes", directory, runs.size(),
+                active.entries.size());
+        if (active.entries.size() >= memtableEntries) {
+            writeLock.lock();
+            try {
+                rotate();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Opens the store in the directory, creating it if needed, with the default sizes.
+     */
+    public static LsmRestaurantRepository open(Path directory) {
+        return open(directory, DEFAULT_MEMTABLE_ENTRIES, DEFAULT_BLOCK_ENTRIES, DEFAULT_MAX_RUNS);
+    }
+
+    /**
+     * @param memtableEntries names the memtable holds before it is written out as a run
+     * @param blockEntries    entries per run block, the unit of reading and of skipping
+     * @param maxRuns         runs that trigger merging them all into one
+     */
+    public static LsmRestaurantRepository open(Path directory, int memtableEntries, int blockEntries, int maxRuns) {
+        if (memtableEntries < 1 || blockEntries < 1 || maxRuns < 2) {
+            throw new IllegalArgumentException("Memtable and block sizes must be positive and maxRuns at least 2");
+        }
+        try {
+            return new LsmRestaurantRepository(directory, memtableEntries, blockEntries, maxRuns);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open store " + directory, e);
+        }
+    }
+
+    /**
+     * Creates a store in the directory holding every restaurant of the CSV files. The store is
+     * built in a sibling directory and moved into place once complete, so a failed or
+     * interrupted import leaves no store behind, and the next one starts over.
+     *
+     * @param directory  where the store goes: absent, or an empty directory
+     * @param batchSize  restaurants stored per journal sync
+     * @return the number of restaurants imported
+     */
+    public static long create(Path directory, CsvDataSource dataSource, int batchSize) {
+        Path building = directory.resolveSibling(directory.getFileName() + ".importing");
+        try {
+            deleteDirectory(building);
+            long imported;
+            try (LsmRestaurantRepository store = open(building)) {
+                imported = store.importCsv(dataSource, batchSize);
+                store.flush();
+            }
+            Files.deleteIfExists(directory);
+            DurableFiles.replace(building, directory);
+            return imported;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create store " + directory, e);
+        }
+    }
+
+    /**
+     * Every restaurant, by name, all in memory at once. Reads every block.
+     */
+    @Override
+    public List<Restaurant> findAll() {
+        return findWithin(null, null);
+    }
+
+    /**
+     * The restaurants within the distance and price, by name, all in memory at once, reading
+     * only the run blocks that can hold some.
+     *
+     * @param maxDistance upper bound, or null for none
+     * @param maxPrice    upper bound, or null for none
+     */
+    public List<Restaurant> findWithin(Distance maxDistance, Price maxPrice) {
+        try (Stream<Restaurant> restaurants = streamWithin(maxDistance, maxPrice)) {
+            return restaurants.toList();
+        }
+    }
+
+    /**
+     * The restaurants within the distance and price, by name, reading only the run blocks that
+     * can hold some, one block per run at a time. The runs read stay open until the stream is
+     * closed, even if a compaction replaces them.
+     */
+    @Override
+    public Stream<Restaurant> streamWithin(Distance maxDistance, Price maxPrice) {
+        Tables current = acquire();
+        try {
+            MergingScan scan = new MergingScan(current.memtables(), current.runs(), ScanRange.upTo(maxDistance, maxPrice));
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(live(scan), 0), false)
+                    .map(StoredEntry::restaurant)
+                    .onClose(current::release);
+        } catch (RuntimeException e) {
+            current.release();
+            throw e;
+        }
+    }
+
+    public Optional<Restaurant> find(String name) {
+        Tables current = acquire();
+        try {
+            StoredEntry entry = lookup(current, name);
+            return entry == null ? Optional.empty() : Optional.ofNullable(entry.restaurant());
+        } finally {
+            current.release();
+        }
+    }
+
+    /**
+     * Cuisines of the stored restaurants, by name. A cuisine whose last restaurant was removed
+     * may be listed until the runs are next merged.
+     */
+    @Override
+    public List<Cuisine> findAllCuisines() {
+        Tables current = acquire();
+        try {
+            TreeMap<String, Cuisine> cuisines = new TreeMap<>();
+            for (SortedRun run : current.runs()) {
+                run.cuisines().forEach(cuisine -> cuisines.put(cuisine.getName(), cuisine));
+            }
+            for (Collection<StoredEntry> memtable : current.memtables()) {
+                for (StoredEntry entry : memtable) {
+                    if (!entry.isRemoved()) {
+                        cuisines.put(entry.restaurant().getCuisine().getName(), entry.restaurant().getCuisine());
+                    }
+                }
+            }
+            return List.copyOf(cuisines.values());
+        } finally {
+            current.release();
+        }
+    }
+
+    /**
+     * Applies the mutation once it is in the journal, with the same checks as
+     * {@link tech.pedroduarte.gourmand.features.search.domain.persistence.MutableRestaurantRepository}:
+     * a missing or already used name fails with an {@link IllegalArgumentException}.
+     * <p>
+     * Writes are combined as in {@link CopyOnWriteRestaurantRepository}: whichever writer holds the
+     * write lock journals every queued mutation with a single sync.
+     */
+    public void apply(RestaurantMutation mutation) {
+        PendingWrite write = new PendingWrite(mutation);
+        pending.add(write);
+        writeLock.lock();
+        try {
+            if (!write.isDone()) {
+                applyPending();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        write.rethrowFailure();
+    }
+
+    private void applyPending() {
+        List<PendingWrite> batch = new ArrayList<>();
+        for (PendingWrite write = pending.poll(); write != null; write = pending.poll()) {
+            batch.add(write);
+        }
+        RuntimeException[] failures = new RuntimeException[batch.size()];
+        Tables current = tables;
+        try {
+            List<RestaurantMutation> mutations = batch.stream().map(PendingWrite::mutation).toList();
+            List<byte[]> records = MutationJournal.encodeEach(mutations, failures);
+            Map<String, Restaurant> changed = MutationBatch.apply(name -> exists(current, name), mutations, failures);
+            if (!changed.isEmpty()) {
+                journal.appendEncoded(MutationBatch.applied(records, failures));
+                changed.forEach((name, restaurant) ->
+                        current.active().entries.put(name, new StoredEntry(name, restaurant)));
+            }
+        } catch (RuntimeException e) {
+            // Nothing was stored: every write not already rejected fails with the same cause
+            MutationBatch.failAll(failures, e);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(failures[i]);
+        }
+        if (current.active().entries.size() >= memtableEntries) {
+            rotate();
+        }
+    }
+
+    public void add(Restaurant restaurant) {
+        apply(new RestaurantMutation.Add(restaurant));
+    }
+
+    /**
+     * Adds the restaurants as one batch, journaled with a single sync. Fails with the first
+     * failure of the batch, such as a name already used, once the others are stored.
+     */
+    public void addAll(List<Restaurant> restaurants) {
+        List<PendingWrite> writes = new ArrayList<>(restaurants.size());
+        for (Restaurant restaurant : restaurants) {
+            PendingWrite write = new PendingWrite(new RestaurantMutation.Add(restaurant));
+            writes.add(write);
+            pending.add(write);
+        }
+        writeLock.lock();
+        try {
+            if (!writes.isEmpty() && !writes.getLast().isDone()) {
+                applyPending();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        writes.forEach(PendingWrite::rethrowFailure);
+    }
+
+    /**
+     * Adds every restaurant of the CSV files, read one row at a time and stored in batches of
+     * {@code batchSize}, so that neither the files nor the store need to fit in memory.
+     *
+     * @return the number of restaurants added
+     */
+    private long importCsv(CsvDataSource dataSource, int batchSize) {
+        List<Restaurant> batch = new ArrayList<>(batchSize);
+        long[] added = new long[1];
+        CsvRestaurantRepository.forEachRestaurant(dataSource, restaurant -> {
+            batch.add(restaurant);
+            if (batch.size() == batchSize) {
+                addAll(batch);
+                added[0] += batch.size();
+                batch.clear();
+            }
+        });
+        addAll(batch);
+        return added[0] + batch.size();
+    }
+
+    public void update(String name, Restaurant restaurant) {
+        apply(new RestaurantMutation.Update(name, restaurant));
+    }
+
+    public void remove(String name) {
+        apply(new RestaurantMutation.Remove(name));
+    }
+
+    /**
+     * Writes every memtable out as a run now, and returns once they are written.
+     */
+    public void flush() {
+        Future<?> flushed;
+        writeLock.lock();
+        try {
+            flushed = tables.active().entries.isEmpty() ? background.submit(this::flushFrozen) : rotate();
+        } finally {
+            writeLock.unlock();
+        }
+        await(flushed);
+    }
+
+    /**
+     * Merges every run into one now, and returns once it is done.
+     */
+    public void compact() {
+        await(background.submit(this::compactRuns));
+    }
+
+    /**
+     * Waits for a flush or compaction in progress, then releases the files. Changes still in a
+     * memtable are in the journal and are read back when the store is opened again.
+     */
+    @Override
+    public void close() throws IOException {
+        background.shutdown();
+        try {
+            if (!background.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.warn("Flush or compaction still running after one minute");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+        tables.runs().forEach(SortedRun::close);
+    }
+
+    /**
+     * Runs currently in use, newest first.
+     */
+    List<SortedRun> runs() {
+        return tables.runs();
+    }
+
+    /**
+     * The current tables, with every run retained until {@link Tables#release}.
+     */
+    private Tables acquire() {
+        while (true) {
+            Tables current = tables;
+            if (current.retain()) {
+                return current;
+            }
+        }
+    }
+
+    private static boolean exists(Tables tables, String name) {
+        StoredEntry entry = lookup(tables, name);
+        return entry != null && !entry.isRemoved();
+    }
+
+    private static StoredEntry lookup(Tables tables, String name) {
+        StoredEntry entry = tables.active().entries.get(name);
+        for (int i = 0; entry == null && i < tables.frozen().size(); i++) {
+            entry = tables.frozen().get(i).entries.get(name);
+        }
+        for (int i = 0; entry == null && i < tables.runs().size(); i++) {
+            entry = tables.runs().get(i).find(name);
+        }
+        return entry;
+    }
+
+    /**
+     * What the mutation stores. Writing these again gives the same data, which is what makes
+     * replaying the journal over runs that already hold some of it safe.
+     */
+    private static List<StoredEntry> changes(RestaurantMutation mutation) {
+        return switch (mutation) {
+            case RestaurantMutation.Add add -> List.of(StoredEntry.of(add.restaurant()));
+            case RestaurantMutation.Update update -> update.name().equals(update.restaurant().getName())
+                    ? List.of(StoredEntry.of(update.restaurant()))
+                    : List.of(StoredEntry.removed(update.name()), StoredEntry.of(update.restaurant()));
+            case RestaurantMutation.Remove remove -> List.of(StoredEntry.removed(remove.name()));
+        };
+    }
+
+    /**
+     * Freezes the memtable and schedules writing it out. Called under the write lock.
+     */
+    private Future<?> rotate() {
+        Tables current = tables;
+        Memtable frozen = current.active();
+        frozen.journalEnd = journal.position();
+        List<Memtable> allFrozen = new ArrayList<>(current.frozen().size() + 1);
+        allFrozen.add(frozen);
+        allFrozen.addAll(current.frozen());
+        tables = new Tables(new Memtable(), List.copyOf(allFrozen), current.runs());
+        return background.submit(() -> {
+            try {
+                flushFrozen();
+                if (tables.runs().size() >= maxRuns) {
+                    compactRuns();
+                }
+            } catch (RuntimeException e) {
+                // The memtable stays frozen and journaled, and the next flush writes it first
+                logger.error("Error writing memtable of {}", directory, e);
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Writes the frozen memtables out as runs, oldest first. Runs on the background thread.
+     */
+    private void flushFrozen() {
+        while (!tables.frozen().isEmpty()) {
+            flushOldest();
+        }
+    }
+
+    private void flushOldest() {
+        Tables current = tables;
+        Memtable oldest = current.frozen().getLast();
+        long started = System.nanoTime();
+        Iterator<StoredEntry> entries = current.runs().isEmpty()
+                ? live(oldest.entries.values().iterator()) // nothing older for a removal to hide
+                : oldest.entries.values().iterator();
+        SortedRun run = SortedRun.write(nextRunFile(), entries, oldest.entries.size(), blockEntries);
+
+        writeLock.lock();
+        try {
+            Tables latest = tables;
+            List<SortedRun> runs = new ArrayList<>(latest.runs().size() + 1);
+            runs.add(run);
+            runs.addAll(latest.runs());
+            writeManifest(runs);
+            tables = new Tables(latest.active(), latest.frozen().subList(0, latest.frozen().size() - 1),
+                    List.copyOf(runs));
+            long covered = oldest.journalEnd;
+            journal.discardBefore(covered);
+            for (Memtable memtable : tables.frozen()) {
+                memtable.journalEnd -= covered;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        logger.info("Flushed {} entries to {} in {} ms", run.entries(), run.file().getFileName(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Merges every run into one. Runs on the background thread, the only one changing the runs,
+     * so the runs merged are still the current ones when the merged run replaces them.
+     */
+    private void compactRuns() {
+        List<SortedRun> inputs = tables.runs();
+        if (inputs.size() < 2) {
+            return;
+        }
+        long started = System.nanoTime();
+        // Every run is merged, so no older value is left for a removal to hide
+        SortedRun merged = SortedRun.write(nextRunFile(), live(new MergingScan(List.of(), inputs, ScanRange.ALL)),
+                inputs.stream().mapToLong(SortedRun::entries).sum(), blockEntries);
+
+        writeLock.lock();
+        try {
+            writeManifest(List.of(merged));
+            Tables latest = tables;
+            tables = new Tables(latest.active(), latest.frozen(), List.of(merged));
+        } finally {
+            writeLock.unlock();
+        }
+        inputs.forEach(SortedRun::retire);
+        logger.info("Compacted {} runs into {} with {} entries in {} ms", inputs.size(),
+                merged.file().getFileName(), merged.entries(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Deletes what an interrupted {@link #create} left behind, if anything.
+     */
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        logger.warn("Deleting incomplete store {}", directory);
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static Iterator<StoredEntry> live(Iterator<StoredEntry> entries) {
+        Stream<StoredEntry> stream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(entries, 0), false);
+        return stream.filter(entry -> !entry.isRemoved()).iterator();
+    }
+
+    private Path nextRunFile() {
+        return directory.resolve(String.format("%08d%s", nextRun++, SortedRun.SUFFIX));
+    }
+
+    /**
+     * Opens the runs the manifest lists and deletes the files a crash left behind: runs written
+     * but never listed, and runs merged but not yet deleted.
+     */
+    private List<SortedRun> openRuns() throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        List<String> listed = Files.exists(manifest)
+                ? Files.readAllLines(manifest, StandardCharsets.UTF_8).stream()
+                        .filter(line -> !line.isBlank())
+                        .toList()
+                : List.of();
+        Set<String> inUse = new HashSet<>(listed);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                boolean run = name.endsWith(SortedRun.SUFFIX);
+                if (run) {
+                    String number = name.substring(0, name.length() - SortedRun.SUFFIX.length());
+                    nextRun = Math.max(nextRun, Long.parseLong(number) + 1);
+                }
+                if ((run && !inUse.contains(name)) || name.endsWith(SortedRun.SUFFIX + ".tmp")) {
+                    logger.warn("Deleting unused run file {}", file);
+                    Files.delete(file);
+                }
+            }
+        }
+        List<SortedRun> runs = new ArrayList<>(listed.size());
+        for (String name : listed) {
+            runs.add(SortedRun.open(directory.resolve(name)));
+        }
+        return List.copyOf(runs);
+    }
+
+    private void writeManifest(List<SortedRun> runs) {
+        Path manifest = directory.resolve(MANIFEST);
+        Path temporary = directory.resolve(MANIFEST + ".tmp");
+        try {
+            Files.write(temporary, runs.stream().map(run -> run.file().getFileName().toString()).toList(),
+                    StandardCharsets.UTF_8);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            DurableFiles.replace(temporary, manifest);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write manifest of " + directory, e);
+        }
+    }
+
+    private static void await(Future<?> task) {
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the store", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Sorted changes not yet written out. {@code journalEnd} is where the changes of a frozen
+     * memtable end in the journal; it is read and written under the write lock.
+     */
+    private static final class Memtable {
+        private final ConcurrentSkipListMap<String, StoredEntry> entries = new ConcurrentSkipListMap<>();
+        private long journalEnd;
+    }
+
+    /**
+     * Everything a read merges, replaced as a whole: the memtable taking writes, the frozen
+     * memtables waiting to be written out and the runs, each list newest first.
+     */
+    private record Tables(Memtable active, List<Memtable> frozen, List<SortedRun> runs) {
+
+        List<Collection<StoredEntry>> memtables() {
+            List<Collection<StoredEntry>> memtables = new ArrayList<>(frozen.size() + 1);
+            memtables.add(active.entries.values());
+            frozen.forEach(memtable -> memtables.add(memtable.entries.values()));
+            return memtables;
+        }
+
+        /**
+         * Keeps every run open until {@link #release}, or fails when one was already closed
+         * because newer tables replaced these.
+         */
+        boolean retain() {
+            for (int i = 0; i < runs.size(); i++) {
+                if (!runs.get(i).retain()) {
+                    runs.subList(0, i).forEach(SortedRun::release);
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void release() {
+            runs.forEach(SortedRun::release);
+        }
+    }
+}
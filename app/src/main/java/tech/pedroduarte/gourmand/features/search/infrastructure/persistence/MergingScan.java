@@ -0,0 +1,160 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Walks memtables and sorted runs together in name order, yielding for every name only its
+ * newest entry.
+ * <p>
+ * Sources are given newest first. Runs skip the blocks a {@link ScanRange} rules out, but a
+ * skipped block may still hold the newest entry of a name, such as a removal or an update that
+ * moved the restaurant out of the range, so an older entry of the name is only yielded once
+ * every newer run is known not to hold it. Names only increase, so each run reads every
+ * skipped block it is asked about at most once.
+ */
+final class MergingScan implements Iterator<StoredEntry> {
+
+    private final PriorityQueue<Source> queue = new PriorityQueue<>(
+            Comparator.comparing((Source source) -> source.current.name()).thenComparingInt(source -> source.rank));
+    private final List<Source> sources = new ArrayList<>();
+    private final ScanRange range;
+    private StoredEntry next;
+
+    /**
+     * @param memtables entries of each memtable, sorted by name, newest memtable first
+     * @param runs      runs, newest first, all older than the memtables
+     */
+    MergingScan(List<? extends Collection<StoredEntry>> memtables, List<SortedRun> runs, ScanRange range) {
+        this.range = range;
+        for (Collection<StoredEntry> memtable : memtables) {
+            add(new Source(sources.size(), memtable.iterator(), null, range));
+        }
+        for (SortedRun run : runs) {
+            add(new Source(sources.size(), null, run, range));
+        }
+    }
+
+    private void add(Source source) {
+        sources.add(source);
+        if (source.advance()) {
+            queue.add(source);
+        }
+    }
+
+    /**
+     * Whether another entry is left. Removals are yielded too, so that callers can tell them
+     * apart; live restaurants outside the range are not.
+     */
+    @Override
+    public boolean hasNext() {
+        while (next == null && !queue.isEmpty()) {
+            Source newest = queue.poll();
+            StoredEntry entry = newest.current;
+            while (!queue.isEmpty() && queue.peek().current.name().equals(entry.name())) {
+                Source older = queue.poll();
+                if (older.advance()) {
+                    queue.add(older);
+                }
+            }
+            if (newest.advance()) {
+                queue.add(newest);
+            }
+            if (!entry.isRemoved() && !range.contains(entry.restaurant())) {
+                continue;
+            }
+            if (!hiddenByNewerRun(entry.name(), newest.rank)) {
+                next = entry;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public StoredEntry next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        StoredEntry entry = next;
+        next = null;
+        return entry;
+    }
+
+    private boolean hiddenByNewerRun(String name, int rank) {
+        for (int i = 0; i < rank; i++) {
+            if (sources.get(i).holdsInSkippedBlock(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Source {
+        private final int rank;
+        private final Iterator<StoredEntry> memtable;
+        private final SortedRun run;
+        private final ScanRange range;
+        private StoredEntry current;
+
+        // Position in the run
+        private int block = -1;
+        private List<StoredEntry> entries = List.of();
+        private int position;
+
+        // Last skipped block read to check whether it holds a name
+        private int skippedBlock = -1;
+        private List<StoredEntry> skippedEntries;
+
+        Source(int rank, Iterator<StoredEntry> memtable, SortedRun run, ScanRange range) {
+            this.rank = rank;
+            this.memtable = memtable;
+            this.run = run;
+            this.range = range;
+        }
+
+        boolean advance() {
+            if (memtable != null) {
+                current = memtable.hasNext() ? memtable.next() : null;
+                return current != null;
+            }
+            while (position == entries.size()) {
+                if (++block == run.blocks().size()) {
+                    current = null;
+                    return false;
+                }
+                if (range.overlaps(run.blocks().get(block))) {
+                    entries = run.readBlock(block);
+                } else {
+                    entries = List.of();
+                }
+                position = 0;
+            }
+            current = entries.get(position++);
+            return true;
+        }
+
+        /**
+         * Whether the name is stored in a block of this run that the scan skipped. Blocks that
+         * were read yield their entries through the queue instead. Memtables skip nothing.
+         */
+        boolean holdsInSkippedBlock(String name) {
+            if (run == null || !run.mightContain(name)) {
+                return false;
+            }
+            int index = run.blockOf(name);
+            if (index < 0 || range.overlaps(run.blocks().get(index))) {
+                return false;
+            }
+            if (index != skippedBlock) {
+                skippedBlock = index;
+                skippedEntries = run.readBlock(index);
+            }
+            return SortedRun.find(skippedEntries, name) != null;
+        }
+    }
+}
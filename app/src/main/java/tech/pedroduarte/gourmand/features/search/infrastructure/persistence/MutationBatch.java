@@ -0,0 +1,157 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantMutation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Checks mutations against the data and records their effect as a change set: the final
+ * restaurant of every changed name, or null once the name is removed.
+ * <p>
+ * The mutations are checked one after the other, each against the data as the previous ones
+ * left it, and a failed mutation changes nothing. Checking only looks names up, so a batch
+ * costs as much as its mutations, whatever the size of the data. {@link #merge} turns the data
+ * and its changes into a list when one is needed.
+ */
+final class MutationBatch {
+
+    private MutationBatch() {
+    }
+
+    /**
+     * @param stored   whether a restaurant uses the name before the batch
+     * @param failures receives, at the position of each mutation, why it was rejected; mutations
+     *                 already rejected there are skipped
+     * @return the changes made by the batch, empty when every mutation was rejected
+     */
+    static Map<String, Restaurant> apply(Predicate<String> stored, List<RestaurantMutation> mutations,
+                                         RuntimeException[] failures) {
+        Map<String, Restaurant> changed = new LinkedHashMap<>();
+        for (int i = 0; i < mutations.size(); i++) {
+            if (failures[i] != null) {
+                continue;
+            }
+            switch (mutations.get(i)) {
+                case RestaurantMutation.Add add -> {
+                    String name = add.restaurant().getName();
+                    if (exists(name, stored, changed)) {
+                        failures[i] = alreadyExists(name);
+                    } else {
+                        changed.put(name, add.restaurant());
+                    }
+                }
+                case RestaurantMutation.Update update -> {
+                    String newName = update.restaurant().getName();
+                    if (!exists(update.name(), stored, changed)) {
+                        failures[i] = notFound(update.name());
+                    } else if (!newName.equals(update.name()) && exists(newName, stored, changed)) {
+                        failures[i] = alreadyExists(newName);
+                    } else {
+                        changed.put(update.name(), null);
+                        changed.put(newName, update.restaurant());
+                    }
+                }
+                case RestaurantMutation.Remove remove -> {
+                    if (!exists(remove.name(), stored, changed)) {
+                        failures[i] = notFound(remove.name());
+                    } else {
+                        changed.put(remove.name(), null);
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * The mutations, or their journal records, that were not rejected.
+     */
+    static <T> List<T> applied(List<T> mutations, RuntimeException[] failures) {
+        List<T> applied = new ArrayList<>(mutations.size());
+        for (int i = 0; i < mutations.size(); i++) {
+            if (failures[i] == null) {
+                applied.add(mutations.get(i));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Applies journaled mutations without checking them: adds and updates write the restaurant
+     * under its name and removes drop the name. Each name ends up with the value its last
+     * mutation gives it, so replaying mutations over data that already contains some of them
+     * gives the same result as replaying them once.
+     */
+    static List<Restaurant> replay(List<Restaurant> restaurants, List<RestaurantMutation> mutations) {
+        Map<String, Restaurant> changed = new LinkedHashMap<>();
+        for (RestaurantMutation mutation : mutations) {
+            switch (mutation) {
+                case RestaurantMutation.Add add -> changed.put(add.restaurant().getName(), add.restaurant());
+                case RestaurantMutation.Update update -> {
+                    changed.put(update.name(), null);
+                    changed.put(update.restaurant().getName(), update.restaurant());
+                }
+                case RestaurantMutation.Remove remove -> changed.put(remove.name(), null);
+            }
+        }
+        return merge(restaurants, changed);
+    }
+
+    /**
+     * @param changed final restaurant of every changed name, null once removed
+     */
+    static List<Restaurant> merge(List<Restaurant> restaurants, Map<String, Restaurant> changed) {
+        if (changed.isEmpty()) {
+            return restaurants;
+        }
+
+        // Changed restaurants keep their place in the list, new ones go at the end
+        List<Restaurant> next = new ArrayList<>(restaurants.size() + changed.size());
+        Set<String> written = new HashSet<>();
+        for (Restaurant restaurant : restaurants) {
+            String name = restaurant.getName();
+            if (!changed.containsKey(name)) {
+                next.add(restaurant);
+            } else if (changed.get(name) != null && written.add(name)) {
+                next.add(changed.get(name));
+            }
+        }
+        for (Map.Entry<String, Restaurant> entry : changed.entrySet()) {
+            if (entry.getValue() != null && written.add(entry.getKey())) {
+                next.add(entry.getValue());
+            }
+        }
+        return Collections.unmodifiableList(next);
+    }
+
+    /**
+     * Fails every mutation that was not rejected already with the same cause.
+     */
+    static void failAll(RuntimeException[] failures, RuntimeException cause) {
+        for (int i = 0; i < failures.length; i++) {
+            if (failures[i] == null) {
+                failures[i] = cause;
+            }
+        }
+    }
+
+    private static boolean exists(String name, Predicate<String> stored, Map<String, Restaurant> changed) {
+        return changed.containsKey(name) ? changed.get(name) != null : stored.test(name);
+    }
+
+    static IllegalArgumentException alreadyExists(String name) {
+        return new IllegalArgumentException(String.format("Restaurant '%s' already exists", name));
+    }
+
+    static IllegalArgumentException notFound(String name) {
+        return new IllegalArgumentException(String.format("Restaurant '%s' not found", name));
+    }
+}
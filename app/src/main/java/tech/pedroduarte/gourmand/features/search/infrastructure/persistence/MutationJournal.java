@@ -0,0 +1,340 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantMutation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of the mutations applied since the data files were last written.
+ * <p>
+ * Every record is framed as {@code length, CRC-32, payload}. A batch of mutations is written
+ * with one write and made durable with one {@link FileChannel#force}, so the cost of the sync
+ * is shared by every mutation in the batch. A crash can only tear the end of the file: a last
+ * record that fails its length or checksum is dropped when the journal is opened. A bad record
+ * followed by more data is corruption, and opening the journal fails rather than lose the
+ * mutations after it.
+ * <p>
+ * The journal is not synchronized: its owner serializes appends and truncations.
+ */
+public class MutationJournal implements Closeable {
+
+    public static final String FILENAME = "journal.log";
+
+    private static final Logger logger = LoggerFactory.getLogger(MutationJournal.class);
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MAX_RECORD_BYTES = 1024 * 1024;
+    private static final byte ADD = 1;
+    private static final byte UPDATE = 2;
+    private static final byte REMOVE = 3;
+
+    private final Path file;
+    private FileChannel channel;
+    private List<RestaurantMutation> recovered;
+    private volatile long records;
+
+    private MutationJournal(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            this.recovered = recover();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.records = recovered.size();
+    }
+
+    /**
+     * Opens the journal, creating it if needed, and drops a torn record left by a crash.
+     *
+     * @throws UncheckedIOException when a record before the last one is corrupt
+     */
+    public static MutationJournal open(Path file) {
+        try {
+            return new MutationJournal(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open journal " + file, e);
+        }
+    }
+
+    /**
+     * Every mutation in the journal, oldest first.
+     */
+    public List<RestaurantMutation> readAll() {
+        if (recovered == null) {
+            try {
+                recovered = read(0, channel.size()).mutations();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read journal " + file, e);
+            }
+        }
+        return recovered;
+    }
+
+    /**
+     * Appends the mutations and returns once they are on disk. When that fails the journal is
+     * cut back to where it was, so it never holds mutations that were reported as failed.
+     *
+     * @throws IllegalArgumentException when a mutation cannot be journaled, before anything is
+     *                                  written
+     */
+    public void append(List<RestaurantMutation> mutations) {
+        appendEncoded(mutations.stream().map(MutationJournal::encode).toList());
+    }
+
+    /**
+     * Encodes each mutation for {@link #appendEncoded}. A mutation the journal cannot hold is
+     * rejected at its position in {@code failures} and left out as null, so that it fails alone
+     * rather than with every mutation batched with it.
+     */
+    static List<byte[]> encodeEach(List<RestaurantMutation> mutations, RuntimeException[] failures) {
+        List<byte[]> payloads = new ArrayList<>(mutations.size());
+        for (int i = 0; i < mutations.size(); i++) {
+            byte[] payload = null;
+            try {
+                payload = encode(mutations.get(i));
+            } catch (IllegalArgumentException e) {
+                failures[i] = e;
+            }
+            payloads.add(payload);
+        }
+        return payloads;
+    }
+
+    /**
+     * Appends mutations encoded by {@link #encodeEach}, as {@link #append} does.
+     */
+    void appendEncoded(List<byte[]> payloads) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payloads.size() * 96);
+        for (byte[] payload : payloads) {
+            writeRecord(bytes, payload);
+        }
+
+        long start = -1;
+        try {
+            start = channel.size();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, start + buffer.position());
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            truncateAfterFailure(start);
+            throw new UncheckedIOException("Failed to write journal " + file, e);
+        }
+        recovered = null;
+        records += payloads.size();
+    }
+
+    /**
+     * End of the journal: every mutation appended so far lies before it.
+     */
+    public long position() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read journal " + file, e);
+        }
+    }
+
+    /**
+     * Number of mutations in the journal.
+     */
+    public long records() {
+        return records;
+    }
+
+    /**
+     * Drops the mutations before {@code position}, once they are stored elsewhere. The kept tail
+     * is written to a new file that atomically replaces the journal, so a crash leaves either
+     * the old journal or the new one.
+     */
+    public void discardBefore(long position) {
+        try {
+            long end = channel.size();
+            Path rewritten = file.resolveSibling(file.getFileName() + ".tmp");
+            long kept;
+            try (FileChannel tail = FileChannel.open(rewritten, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (long copied = 0; copied < end - position; ) {
+                    copied += channel.transferTo(position + copied, end - position - copied, tail);
+                }
+                tail.force(false);
+                kept = read(position, end).mutations().size();
+            }
+            DurableFiles.replace(rewritten, file);
+            channel.close();
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            recovered = null;
+            records = kept;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to truncate journal " + file, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private List<RestaurantMutation> recover() throws IOException {
+        long size = channel.size();
+        Records valid = read(0, size);
+        if (valid.end() < size) {
+            logger.warn("Dropping {} bytes of incomplete journal records from {}", size - valid.end(), file);
+            channel.truncate(valid.end());
+            channel.force(false);
+        }
+        logger.info("Recovered {} journal records from {}", valid.mutations().size(), file);
+        return valid.mutations();
+    }
+
+    /**
+     * The valid records between the two positions, and where the last of them ends.
+     */
+    private Records read(long from, long to) throws IOException {
+        List<RestaurantMutation> mutations = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long position = from;
+        while (position + HEADER_BYTES <= to) {
+            header.clear();
+            readFully(header, position);
+            int length = header.getInt(0);
+            int checksum = header.getInt(Integer.BYTES);
+            if (length <= 0 || length > MAX_RECORD_BYTES) {
+                // A crash after the file grew but before the data landed leaves only zeros
+                if (zerosUntil(position, to)) {
+                    break;
+                }
+                throw corruptAt(position);
+            }
+            if (position + HEADER_BYTES + length > to) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != checksum) {
+                if (position + HEADER_BYTES + length == to) {
+                    break;
+                }
+                throw corruptAt(position);
+            }
+            mutations.add(decode(payload.array()));
+            position += HEADER_BYTES + length;
+        }
+        return new Records(mutations, position);
+    }
+
+    private boolean zerosUntil(long from, long to) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(64 * 1024);
+        for (long position = from; position < to; position += chunk.limit()) {
+            chunk.clear().limit((int) Math.min(chunk.capacity(), to - position));
+            readFully(chunk, position);
+            for (int i = 0; i < chunk.limit(); i++) {
+                if (chunk.get(i) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private IOException corruptAt(long position) {
+        return new IOException(String.format(
+                "Journal %s is corrupt at byte %d, before its last record", file, position));
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of journal " + file);
+            }
+        }
+    }
+
+    private void truncateAfterFailure(long start) {
+        if (start < 0) {
+            return;
+        }
+        try {
+            channel.truncate(start);
+        } catch (IOException e) {
+            logger.error("Failed to cut journal {} back after a failed write", file, e);
+        }
+    }
+
+    private static void writeRecord(ByteArrayOutputStream out, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue());
+        out.writeBytes(header.array());
+        out.writeBytes(payload);
+    }
+
+    /**
+     * @throws IllegalArgumentException when a name is too long for the record format
+     */
+    private static byte[] encode(RestaurantMutation mutation) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            switch (mutation) {
+                case RestaurantMutation.Add add -> {
+                    out.writeByte(ADD);
+                    RestaurantCodec.write(out, add.restaurant());
+                }
+                case RestaurantMutation.Update update -> {
+                    out.writeByte(UPDATE);
+                    out.writeUTF(update.name());
+                    RestaurantCodec.write(out, update.restaurant());
+                }
+                case RestaurantMutation.Remove remove -> {
+                    out.writeByte(REMOVE);
+                    out.writeUTF(remove.name());
+                }
+            }
+        } catch (UTFDataFormatException e) {
+            throw new IllegalArgumentException("Names and cuisines must encode to at most 65535 bytes", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static RestaurantMutation decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        return switch (type) {
+            case ADD -> new RestaurantMutation.Add(RestaurantCodec.read(in));
+            case UPDATE -> new RestaurantMutation.Update(in.readUTF(), RestaurantCodec.read(in));
+            case REMOVE -> new RestaurantMutation.Remove(in.readUTF());
+            default -> throw new IOException("Unknown journal record type " + type);
+        };
+    }
+
+    private record Records(List<RestaurantMutation> mutations, long end) {
+    }
+}
@@ -0,0 +1,61 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantMutation;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A mutation queued for whichever thread applies the next batch. The thread that queued it can
+ * wait for its outcome without holding any lock.
+ */
+final class PendingWrite {
+
+    private final RestaurantMutation mutation;
+    private final Thread writer = Thread.currentThread();
+    private RuntimeException failure;
+    private volatile boolean done;
+
+    PendingWrite(RestaurantMutation mutation) {
+        this.mutation = mutation;
+    }
+
+    RestaurantMutation mutation() {
+        return mutation;
+    }
+
+    boolean isDone() {
+        return done;
+    }
+
+    /**
+     * @param failure why the mutation was rejected, or null once it is applied
+     */
+    void complete(RuntimeException failure) {
+        this.failure = failure;
+        this.done = true;
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Blocks the thread that queued the mutation until it is completed.
+     */
+    void await() {
+        boolean interrupted = false;
+        while (!done) {
+            LockSupport.park(this);
+            interrupted |= Thread.interrupted();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Throws why the mutation was rejected, if it was.
+     */
+    void rethrowFailure() {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
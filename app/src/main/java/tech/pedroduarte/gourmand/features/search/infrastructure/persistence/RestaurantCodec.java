@@ -0,0 +1,44 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary form of a restaurant shared by the files this package writes.
+ */
+final class RestaurantCodec {
+
+    private RestaurantCodec() {
+    }
+
+    static void write(DataOutput out, Restaurant restaurant) throws IOException {
+        out.writeUTF(restaurant.getName());
+        out.writeByte(restaurant.getRating().getValue());
+        out.writeDouble(restaurant.getDistance().getMiles());
+        out.writeDouble(restaurant.getPrice().getAmount());
+        out.writeUTF(restaurant.getCuisine().getName());
+        out.writeBoolean(restaurant.hasLocation());
+        if (restaurant.hasLocation()) {
+            out.writeDouble(restaurant.getLocation().getLatitude());
+            out.writeDouble(restaurant.getLocation().getLongitude());
+        }
+    }
+
+    static Restaurant read(DataInput in) throws IOException {
+        String name = in.readUTF();
+        Rating rating = new Rating(in.readByte());
+        Distance distance = new Distance(in.readDouble());
+        Price price = new Price(in.readDouble());
+        Cuisine cuisine = new Cuisine(in.readUTF());
+        GeoLocation location = in.readBoolean() ? new GeoLocation(in.readDouble(), in.readDouble()) : null;
+        return new Restaurant(name, rating, distance, price, cuisine, location);
+    }
+}
@@ -0,0 +1,46 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+
+/**
+ * Inclusive bounds on distance and price that a scan of sorted runs is limited to. Blocks whose
+ * restaurants all fall outside them are skipped without being read.
+ */
+record ScanRange(double minDistance, double maxDistance, double minPrice, double maxPrice) {
+
+    static final ScanRange ALL = new ScanRange(
+            Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY
+    );
+
+    /**
+     * @param maxDistance upper bound, or null for none
+     * @param maxPrice    upper bound, or null for none
+     */
+    static ScanRange upTo(Distance maxDistance, Price maxPrice) {
+        return new ScanRange(
+                Double.NEGATIVE_INFINITY,
+                maxDistance == null ? Double.POSITIVE_INFINITY : maxDistance.getMiles(),
+                Double.NEGATIVE_INFINITY,
+                maxPrice == null ? Double.POSITIVE_INFINITY : maxPrice.getAmount()
+        );
+    }
+
+    boolean contains(Restaurant restaurant) {
+        double distance = restaurant.getDistance().getMiles();
+        double price = restaurant.getPrice().getAmount();
+        return distance >= minDistance && distance <= maxDistance && price >= minPrice && price <= maxPrice;
+    }
+
+    /**
+     * Whether some restaurant of the block may fall inside the range. Blocks holding only
+     * removals never do.
+     */
+    boolean overlaps(SortedRun.Block block) {
+        return block.live() > 0
+                && block.minDistance() <= maxDistance && block.maxDistance() >= minDistance
+                && block.minPrice() <= maxPrice && block.maxPrice() >= minPrice;
+    }
+}
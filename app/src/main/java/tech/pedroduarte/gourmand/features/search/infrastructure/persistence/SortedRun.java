@@ -0,0 +1,434 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Immutable file of entries sorted by name, one run of an {@link LsmRestaurantRepository}.
+ * <p>
+ * The entries are stored in blocks of a fixed number of entries, each with its own CRC-32. The
+ * file ends with an index holding, for every block, its first and last name and the smallest
+ * and largest distance and price of its restaurants, followed by the cuisines of the run and a
+ * {@link BloomFilter} of its names. Only the index is kept in memory: a lookup first asks the
+ * filter, then reads the one block whose names cover it, and a scan limited to a
+ * {@link ScanRange} skips the blocks whose bounds fall outside it.
+ * <p>
+ * A run is shared by the scans reading it, which {@link #retain} it while they do, and closed
+ * once it is {@link #retire retired} and the last of them releases it.
+ */
+final class SortedRun implements Closeable {
+
+    static final String SUFFIX = ".run";
+
+    private static final int MAGIC = 0x474d5231;
+    private static final int TRAILER_BYTES = Long.BYTES + 3 * Integer.BYTES;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final List<Block> blocks;
+    private final List<Cuisine> cuisines;
+    private final BloomFilter names;
+    private final long entries;
+    private final AtomicInteger references = new AtomicInteger(1);
+    private final AtomicLong blocksRead = new AtomicLong();
+    private volatile boolean deleteOnClose;
+
+    /**
+     * Where a block lies in the file and the bounds of what it holds. The distance and price
+     * bounds only cover live restaurants: {@code live} is zero for a block of removals only.
+     */
+    record Block(long offset, int length, int checksum, String firstName, String lastName, int live,
+                 double minDistance, double maxDistance, double minPrice, double maxPrice) {
+    }
+
+    private SortedRun(Path file, FileChannel channel, List<Block> blocks, List<Cuisine> cuisines, BloomFilter names,
+                      long entries) {
+        this.file = file;
+        this.channel = channel;
+        this.blocks = blocks;
+        this.cuisines = cuisines;
+        this.names = names;
+        this.entries = entries;
+    }
+
+    /**
+     * Writes the entries, which must be sorted by name without duplicates, to a new run file. The
+     * file is written next to its final name, synced and renamed, so it is complete once it
+     * exists.
+     *
+     * @param expectedEntries sizes the name filter; more entries only make it less selective
+     */
+    static SortedRun write(Path file, Iterator<StoredEntry> sorted, long expectedEntries, int blockEntries) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(temporary)) {
+                new RunWriter(new BufferedOutputStream(stream, 64 * 1024), expectedEntries, blockEntries)
+                        .write(sorted);
+            }
+            try (FileChannel sync = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                sync.force(true);
+            }
+            DurableFiles.replace(temporary, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write run " + file, e);
+        }
+        return open(file);
+    }
+
+    static SortedRun open(Path file) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            long size = channel.size();
+            if (size < TRAILER_BYTES) {
+                throw new IOException("Run file too short");
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+            readFully(channel, trailer, size - TRAILER_BYTES);
+            long indexOffset = trailer.getLong(0);
+            int indexLength = trailer.getInt(Long.BYTES);
+            int indexChecksum = trailer.getInt(Long.BYTES + Integer.BYTES);
+            if (trailer.getInt(Long.BYTES + 2 * Integer.BYTES) != MAGIC
+                    || indexOffset < 0 || indexOffset + indexLength != size - TRAILER_BYTES) {
+                throw new IOException("Not a run file");
+            }
+            ByteBuffer index = ByteBuffer.allocate(indexLength);
+            readFully(channel, index, indexOffset);
+            verify(index.array(), indexChecksum);
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(index.array()));
+            int blockCount = in.readInt();
+            List<Block> blocks = new ArrayList<>(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                blocks.add(new Block(in.readLong(), in.readInt(), in.readInt(), in.readUTF(), in.readUTF(),
+                        in.readInt(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble()));
+            }
+            int cuisineCount = in.readInt();
+            List<Cuisine> cuisines = new ArrayList<>(cuisineCount);
+            for (int i = 0; i < cuisineCount; i++) {
+                cuisines.add(new Cuisine(in.readUTF()));
+            }
+            BloomFilter names = BloomFilter.readFrom(in);
+            long entries = in.readLong();
+            return new SortedRun(file, channel, List.copyOf(blocks), List.copyOf(cuisines), names, entries);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new UncheckedIOException("Failed to open run " + file, e);
+        }
+    }
+
+    Path file() {
+        return file;
+    }
+
+    List<Block> blocks() {
+        return blocks;
+    }
+
+    /**
+     * Cuisines of the live restaurants of the run, by name.
+     */
+    List<Cuisine> cuisines() {
+        return cuisines;
+    }
+
+    /**
+     * Number of entries, removals included.
+     */
+    long entries() {
+        return entries;
+    }
+
+    /**
+     * Number of blocks read from the file since it was opened.
+     */
+    long blocksRead() {
+        return blocksRead.get();
+    }
+
+    /**
+     * Whether the run may hold the name; false means it certainly does not.
+     */
+    boolean mightContain(String name) {
+        return names.mightContain(name);
+    }
+
+    /**
+     * The entry stored under the name, or null when the run has none. Reads at most one block.
+     */
+    StoredEntry find(String name) {
+        if (!names.mightContain(name)) {
+            return null;
+        }
+        int block = blockOf(name);
+        return block < 0 ? null : find(readBlock(block), name);
+    }
+
+    /**
+     * The entry stored under the name in entries read from one block, or null.
+     */
+    static StoredEntry find(List<StoredEntry> block, String name) {
+        int low = 0;
+        int high = block.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = block.get(middle).name().compareTo(name);
+            if (comparison == 0) {
+                return block.get(middle);
+            } else if (comparison < 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Index of the block whose names cover the name, or -1 when the name falls between blocks
+     * or outside the run.
+     */
+    int blockOf(String name) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Block block = blocks.get(middle);
+            if (block.lastName().compareTo(name) < 0) {
+                low = middle + 1;
+            } else if (block.firstName().compareTo(name) > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    List<StoredEntry> readBlock(int index) {
+        Block block = blocks.get(index);
+        try {
+            ByteBuffer bytes = ByteBuffer.allocate(block.length());
+            readFully(channel, bytes, block.offset());
+            verify(bytes.array(), block.checksum());
+            blocksRead.incrementAndGet();
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.array()));
+            int count = in.readInt();
+            List<StoredEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                boolean live = in.readBoolean();
+                entries.add(live ? StoredEntry.of(RestaurantCodec.read(in)) : StoredEntry.removed(in.readUTF()));
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read block " + index + " of run " + file, e);
+        }
+    }
+
+    /**
+     * Registers one more reader, unless the run is already closed.
+     *
+     * @return whether the run can be read until the matching {@link #release}
+     */
+    boolean retain() {
+        for (int count = references.get(); count > 0; count = references.get()) {
+            if (references.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            closeQuietly(channel);
+            if (deleteOnClose) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to delete run " + file, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the owner's reference and deletes the file once no scan reads it any more.
+     */
+    void retire() {
+        deleteOnClose = true;
+        release();
+    }
+
+    /**
+     * Drops the owner's reference, keeping the file.
+     */
+    @Override
+    public void close() {
+        release();
+    }
+
+    private static void verify(byte[] bytes, int checksum) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Checksum mismatch");
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of run file");
+            }
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing is written through this channel
+        }
+    }
+
+    /**
+     * Streams blocks to the file as they fill up, keeping only the index in memory.
+     */
+    private static final class RunWriter {
+        private final DataOutputStream out;
+        private final int blockEntries;
+        private final List<Block> blocks = new ArrayList<>();
+        private final Set<String> cuisines = new TreeSet<>();
+        private final BloomFilter names;
+        private final ByteArrayOutputStream block = new ByteArrayOutputStream(16 * 1024);
+        private final List<StoredEntry> pending = new ArrayList<>();
+        private long offset;
+        private long entries;
+
+        RunWriter(OutputStream out, long expectedEntries, int blockEntries) {
+            this.out = new DataOutputStream(out);
+            this.blockEntries = blockEntries;
+            this.names = BloomFilter.forNames(expectedEntries);
+        }
+
+        void write(Iterator<StoredEntry> sorted) throws IOException {
+            String previous = null;
+            while (sorted.hasNext()) {
+                StoredEntry entry = sorted.next();
+                if (previous != null && previous.compareTo(entry.name()) >= 0) {
+                    throw new IllegalArgumentException("Entries are not sorted by name at " + entry.name());
+                }
+                previous = entry.name();
+                names.add(entry.name());
+                pending.add(entry);
+                if (pending.size() == blockEntries) {
+                    writeBlock();
+                }
+            }
+            if (!pending.isEmpty()) {
+                writeBlock();
+            }
+            writeIndex();
+            out.flush();
+        }
+
+        private void writeBlock() throws IOException {
+            block.reset();
+            DataOutputStream data = new DataOutputStream(block);
+            data.writeInt(pending.size());
+            int live = 0;
+            double minDistance = Double.POSITIVE_INFINITY;
+            double maxDistance = Double.NEGATIVE_INFINITY;
+            double minPrice = Double.POSITIVE_INFINITY;
+            double maxPrice = Double.NEGATIVE_INFINITY;
+            for (StoredEntry entry : pending) {
+                data.writeBoolean(!entry.isRemoved());
+                if (entry.isRemoved()) {
+                    data.writeUTF(entry.name());
+                    continue;
+                }
+                Restaurant restaurant = entry.restaurant();
+                RestaurantCodec.write(data, restaurant);
+                live++;
+                minDistance = Math.min(minDistance, restaurant.getDistance().getMiles());
+                maxDistance = Math.max(maxDistance, restaurant.getDistance().getMiles());
+                minPrice = Math.min(minPrice, restaurant.getPrice().getAmount());
+                maxPrice = Math.max(maxPrice, restaurant.getPrice().getAmount());
+                cuisines.add(restaurant.getCuisine().getName());
+            }
+            data.flush();
+
+            byte[] bytes = block.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            blocks.add(new Block(offset, bytes.length, (int) crc.getValue(), pending.getFirst().name(),
+                    pending.getLast().name(), live, minDistance, maxDistance, minPrice, maxPrice));
+            out.write(bytes);
+            offset += bytes.length;
+            entries += pending.size();
+            pending.clear();
+        }
+
+        private void writeIndex() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + blocks.size() * 96 + (int) (entries * 2));
+            DataOutputStream index = new DataOutputStream(bytes);
+            index.writeInt(blocks.size());
+            for (Block written : blocks) {
+                index.writeLong(written.offset());
+                index.writeInt(written.length());
+                index.writeInt(written.checksum());
+                index.writeUTF(written.firstName());
+                index.writeUTF(written.lastName());
+                index.writeInt(written.live());
+                index.writeDouble(written.minDistance());
+                index.writeDouble(written.maxDistance());
+                index.writeDouble(written.minPrice());
+                index.writeDouble(written.maxPrice());
+            }
+            index.writeInt(cuisines.size());
+            for (String cuisine : cuisines) {
+                index.writeUTF(cuisine);
+            }
+            names.writeTo(index);
+            index.writeLong(entries);
+            index.flush();
+
+            byte[] indexBytes = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(indexBytes);
+            out.write(indexBytes);
+            out.writeLong(offset);
+            out.writeInt(indexBytes.length);
+            out.writeInt((int) crc.getValue());
+            out.writeInt(MAGIC);
+        }
+    }
+}
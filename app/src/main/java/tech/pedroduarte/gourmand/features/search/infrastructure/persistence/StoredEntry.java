@@ -0,0 +1,23 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+
+/**
+ * Latest value stored under a name in an {@link LsmRestaurantRepository}: the restaurant, or
+ * null when the name was removed. Removals are kept as entries so that they hide the older
+ * values of the name in older runs.
+ */
+record StoredEntry(String name, Restaurant restaurant) {
+
+    static StoredEntry of(Restaurant restaurant) {
+        return new StoredEntry(restaurant.getName(), restaurant);
+    }
+
+    static StoredEntry removed(String name) {
+        return new StoredEntry(name, null);
+    }
+
+    boolean isRemoved() {
+        return restaurant == null;
+    }
+}
@@ -0,0 +1,71 @@
+package tech.pedroduarte.gourmand.shared.domain;
+
+import java.util.Objects;
+
+public class GeoLocation {
+
+    public static final double EARTH_RADIUS_MILES = 3958.8;
+
+    private final double latitude;
+    private final double longitude;
+    private static final double MAX_LATITUDE = 90.0;
+    private static final double MAX_LONGITUDE = 180.0;
+
+    public GeoLocation(double latitude, double longitude) {
+        validateCoordinates(latitude, longitude);
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    private void validateCoordinates(double latitude, double longitude) {
+        if (!(latitude >= -MAX_LATITUDE && latitude <= MAX_LATITUDE)) {
+            throw new IllegalArgumentException(
+                    String.format("Latitude must be between %.1f and %.1f degrees", -MAX_LATITUDE, MAX_LATITUDE)
+            );
+        }
+        if (!(longitude >= -MAX_LONGITUDE && longitude <= MAX_LONGITUDE)) {
+            throw new IllegalArgumentException(
+                    String.format("Longitude must be between %.1f and %.1f degrees", -MAX_LONGITUDE, MAX_LONGITUDE)
+            );
+        }
+    }
+
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+
+    /**
+     * Great-circle (haversine) distance to another location, in miles.
+     */
+    public double milesTo(GeoLocation other) {
+        return milesBetween(latitude, longitude, other.latitude, other.longitude);
+    }
+
+    public static double milesBetween(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double a = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_MILES * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GeoLocation)) return false;
+        GeoLocation that = (GeoLocation) o;
+        return Double.compare(that.latitude, latitude) == 0 &&
+                Double.compare(that.longitude, longitude) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(latitude, longitude);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.6f, %.6f", latitude, longitude);
+    }
+}
@@ -0,0 +1,30 @@
+package tech.pedroduarte.gourmand.commons.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.Configurator;
+import org.junit.jupiter.api.Test;
+import tech.pedroduarte.gourmand.common.config.QuietLoggingConfigurator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuietLoggingConfiguratorTest {
+
+    @Test
+    void shouldTurnLoggingOffWithoutCreatingAppenders() {
+        // Given
+        LoggerContext context = new LoggerContext();
+        QuietLoggingConfigurator configurator = new QuietLoggingConfigurator();
+        configurator.setContext(context);
+
+        // When
+        Configurator.ExecutionStatus status = configurator.configure(context);
+
+        // Then
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        assertThat(status).isEqualTo(Configurator.ExecutionStatus.DO_NOT_INVOKE_NEXT_IF_ANY);
+        assertThat(root.getLevel()).isEqualTo(Level.OFF);
+        assertThat(root.iteratorForAppenders().hasNext()).isFalse();
+    }
+}
@@ -0,0 +1,116 @@
+package tech.pedroduarte.gourmand.commons.metrics;
+
+import org.junit.jupiter.api.Test;
+import tech.pedroduarte.gourmand.common.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    void shouldReportPercentilesWithinThreePercent() {
+        // Given
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        // When
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        // Then
+        assertThat(snapshot.count()).isEqualTo(10_000);
+        assertThat(snapshot.max()).isEqualTo(10_000_000);
+        assertThat(snapshot.mean()).isCloseTo(5_000_500, within(0.5));
+        assertThat(snapshot.valueAtPercentile(50)).isBetween(5_000_000L, 5_150_000L);
+        assertThat(snapshot.valueAtPercentile(99)).isBetween(9_900_000L, 10_000_000L);
+        assertThat(snapshot.valueAtPercentile(100)).isEqualTo(10_000_000);
+    }
+
+    @Test
+    void shouldKeepSmallValuesExactAndClampHugeOnes() {
+        // Given
+        histogram.record(7);
+        histogram.record(7);
+        histogram.record(Long.MAX_VALUE);
+
+        // When
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        // Then
+        assertThat(snapshot.valueAtPercentile(50)).isEqualTo(7);
+        assertThat(snapshot.valueAtPercentile(100)).isEqualTo(Long.MAX_VALUE);
+        assertThat(snapshot.max()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void shouldCountEveryRecordingFromConcurrentThreads() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> writers = new ArrayList<>();
+
+        // When
+        try {
+            for (int thread = 0; thread < 4; thread++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        histogram.record(i);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertThat(histogram.snapshot().count()).isEqualTo(200_000);
+        assertThat(histogram.snapshot().max()).isEqualTo(49_999);
+    }
+
+    @Test
+    void shouldBackfillTheRecordingsAStalledClientSkippedWhenCorrecting() {
+        // Given
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1_000_000);
+        }
+        histogram.record(100_000_000);
+        LatencyHistogram.Snapshot measured = histogram.snapshot();
+
+        // When
+        LatencyHistogram.Snapshot corrected = measured.correctedForCoordinatedOmission(1_000_000);
+
+        // Then
+        // The 100 ms stall hid the 99 searches that would have waited 99, 98, … 1 ms behind it
+        assertThat(corrected.count()).isEqualTo(199);
+        assertThat(corrected.max()).isEqualTo(100_000_000);
+        assertThat(corrected.valueAtPercentile(90)).isBetween(78_000_000L, 84_000_000L);
+        assertThat(measured.count()).isEqualTo(100);
+        assertThat(measured.valueAtPercentile(90)).isLessThan(1_100_000L);
+    }
+
+    @Test
+    void shouldForgetEverythingOnReset() {
+        // Given
+        histogram.record(1_000);
+
+        // When
+        histogram.reset();
+
+        // Then
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count()).isZero();
+        assertThat(snapshot.max()).isZero();
+        assertThat(snapshot.valueAtPercentile(99)).isZero();
+    }
+}
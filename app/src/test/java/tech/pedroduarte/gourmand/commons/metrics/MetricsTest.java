@@ -0,0 +1,78 @@
+package tech.pedroduarte.gourmand.commons.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.pedroduarte.gourmand.common.metrics.Metrics;
+import tech.pedroduarte.gourmand.common.metrics.MetricsJmx;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsTest {
+
+    @BeforeEach
+    void setUp() {
+        Metrics.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Metrics.disable();
+        Metrics.reset();
+    }
+
+    @Test
+    void shouldRecordNothingByDefault() {
+        // When
+        long started = Metrics.start();
+        Metrics.record(Metrics.Timer.SEARCH, started);
+        Metrics.add(Metrics.Counter.ROWS_SCANNED, 100);
+
+        // Then
+        assertThat(Metrics.isEnabled()).isFalse();
+        assertThat(started).isZero();
+        assertThat(Metrics.snapshot(Metrics.Timer.SEARCH).count()).isZero();
+        assertThat(Metrics.count(Metrics.Counter.ROWS_SCANNED)).isZero();
+    }
+
+    @Test
+    void shouldRecordTimersAndCountersOnceEnabled() {
+        // Given
+        Metrics.enable();
+
+        // When
+        long started = Metrics.start();
+        Metrics.record(Metrics.Timer.SEARCH, started);
+        Metrics.add(Metrics.Counter.ROWS_SCANNED, 100);
+        Metrics.increment(Metrics.Counter.ROWS_SCANNED);
+
+        // Then
+        assertThat(Metrics.snapshot(Metrics.Timer.SEARCH).count()).isEqualTo(1);
+        assertThat(Metrics.count(Metrics.Counter.ROWS_SCANNED)).isEqualTo(101);
+    }
+
+    @Test
+    void shouldPublishEveryTimerAndCounterOverJmx() throws Exception {
+        // Given
+        Metrics.enable();
+        Metrics.add(Metrics.Counter.ROWS_LOADED, 42);
+        Metrics.record(Metrics.Timer.LOAD, Metrics.start());
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        // When
+        MetricsJmx.register();
+        MetricsJmx.register();
+
+        // Then
+        assertThat(server.queryNames(new ObjectName("tech.pedroduarte.gourmand:type=Latency,*"), null))
+                .hasSize(Metrics.Timer.values().length);
+        assertThat(server.getAttribute(new ObjectName("tech.pedroduarte.gourmand:type=Counter,name=rows-loaded"),
+                "Value")).isEqualTo(42L);
+        assertThat(server.getAttribute(new ObjectName("tech.pedroduarte.gourmand:type=Latency,name=load"),
+                "Count")).isEqualTo(1L);
+    }
+}
@@ -10,6 +10,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -260,6 +261,32 @@ class CsvReaderTest {
         }
     }
 
+    @Nested
+    class Streaming {
+        @Test
+        void shouldStreamEveryRowIncludingHeader() {
+            // Given
+            String csv = """
+                name,age,city
+
+                John,30,New York
+                Jane,25,London""";
+            List<String> names = new ArrayList<>();
+
+            // When
+            csvReader.forEachRow(toInputStream(csv), columns -> names.add(columns[0]));
+
+            // Then
+            assertThat(names).containsExactly("name", "John", "Jane");
+        }
+
+        @Test
+        void shouldRejectNullInputStream() {
+            assertThatThrownBy(() -> csvReader.forEachRow(null, columns -> { }))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
     // Helper methods and classes
     private InputStream toInputStream(String content) {
         return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
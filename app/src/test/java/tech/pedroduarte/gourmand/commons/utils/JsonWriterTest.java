@@ -0,0 +1,45 @@
+package tech.pedroduarte.gourmand.commons.utils;
+
+import org.junit.jupiter.api.Test;
+import tech.pedroduarte.gourmand.common.utils.JsonWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonWriterTest {
+
+    @Test
+    void shouldWriteNestedObjectsAndArrays() {
+        // When
+        String json = new JsonWriter()
+                .beginObject()
+                .name("name").value("Pizza")
+                .name("rating").value(4)
+                .name("price").value(12.5)
+                .name("open").value(true)
+                .name("tags").beginArray().value("a").value("b").endArray()
+                .name("empty").beginObject().endObject()
+                .name("missing").value((String) null)
+                .endObject()
+                .toString();
+
+        // Then
+        assertThat(json).isEqualTo(
+                "{\"name\":\"Pizza\",\"rating\":4,\"price\":12.5,\"open\":true,"
+                        + "\"tags\":[\"a\",\"b\"],\"empty\":{},\"missing\":null}");
+    }
+
+    @Test
+    void shouldEscapeStrings() {
+        // When
+        String json = new JsonWriter().value("say \"hi\"\\\n\u0001").toString();
+
+        // Then
+        assertThat(json).isEqualTo("\"say \\\"hi\\\"\\\\\\n\\u0001\"");
+    }
+
+    @Test
+    void shouldWriteNonFiniteNumbersAsNull() {
+        assertThat(new JsonWriter().beginArray().value(Double.NaN).endArray().toString())
+                .isEqualTo("[null]");
+    }
+}
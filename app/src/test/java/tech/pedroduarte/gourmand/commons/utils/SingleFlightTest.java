@@ -0,0 +1,117 @@
+package tech.pedroduarte.gourmand.commons.utils;
+
+import org.junit.jupiter.api.Test;
+import tech.pedroduarte.gourmand.common.utils.SingleFlight;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> flights = new SingleFlight<>();
+
+    /**
+     * Starts {@code callers} calls of the key, the first of which computes until released, and
+     * returns once the others have all joined it.
+     */
+    private List<Future<Integer>> runTogether(ExecutorService executor, int callers, CountDownLatch release,
+                                              Supplier<Integer> computation) throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        List<Future<Integer>> calls = new ArrayList<>();
+        calls.add(executor.submit(() -> flights.run("key", () -> {
+            started.countDown();
+            await(release);
+            return computation.get();
+        })));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < callers; i++) {
+            calls.add(executor.submit(() -> flights.run("key", computation)));
+        }
+        while (flights.coalesced() < callers - 1) {
+            Thread.onSpinWait();
+        }
+        return calls;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void shouldShareOneComputationBetweenConcurrentCallers() throws Exception {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            // Given
+            AtomicInteger computed = new AtomicInteger();
+            CountDownLatch release = new CountDownLatch(1);
+            List<Future<Integer>> calls = runTogether(executor, 4, release, computed::incrementAndGet);
+
+            // When
+            release.countDown();
+
+            // Then
+            for (Future<Integer> call : calls) {
+                assertThat(call.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+            }
+            assertThat(computed).hasValue(1);
+            assertThat(flights.executions()).isEqualTo(1);
+            assertThat(flights.coalesced()).isEqualTo(3);
+            assertThat(flights.inFlight()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldShareAFailureOnlyWithTheCallersWaitingForIt() throws Exception {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            // Given
+            CountDownLatch release = new CountDownLatch(1);
+            List<Future<Integer>> calls = runTogether(executor, 3, release, () -> {
+                throw new IllegalStateException("Data unavailable");
+            });
+
+            // When
+            release.countDown();
+
+            // Then
+            for (Future<Integer> call : calls) {
+                assertThatThrownBy(() -> call.get(10, TimeUnit.SECONDS))
+                        .hasCauseInstanceOf(IllegalStateException.class)
+                        .hasRootCauseMessage("Data unavailable");
+            }
+            assertThat(flights.run("key", () -> 42)).isEqualTo(42);
+            assertThat(flights.executions()).isEqualTo(2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldComputeAgainOnceTheRunningComputationFinished() {
+        // When
+        int first = flights.run("key", () -> 1);
+        int second = flights.run("key", () -> 2);
+
+        // Then
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(2);
+        assertThat(flights.coalesced()).isZero();
+    }
+}
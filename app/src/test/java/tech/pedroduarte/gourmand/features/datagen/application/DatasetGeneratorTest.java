@@ -0,0 +1,93 @@
+package tech.pedroduarte.gourmand.features.datagen.application;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvDataSource;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvRestaurantRepository;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatasetGeneratorTest {
+
+    @TempDir
+    Path directory;
+
+    private static String generate(DatasetSpec spec) throws IOException {
+        StringWriter cuisines = new StringWriter();
+        StringWriter restaurants = new StringWriter();
+        new DatasetGenerator(spec).write(cuisines, restaurants);
+        return cuisines + restaurants.toString();
+    }
+
+    @Test
+    void shouldWriteFilesTheCsvRepositoryLoads() throws IOException {
+        // When
+        new DatasetGenerator(DatasetSpec.of(2_000, 40, 7)).write(directory);
+        CsvRestaurantRepository repository = new CsvRestaurantRepository(CsvDataSource.fromDirectory(directory));
+
+        // Then
+        List<Restaurant> restaurants = repository.findAll();
+        assertThat(restaurants).hasSize(2_000);
+        assertThat(restaurants).extracting(Restaurant::getName).doesNotHaveDuplicates();
+        assertThat(restaurants).allSatisfy(restaurant -> {
+            assertThat(restaurant.getCuisine()).isNotNull();
+            assertThat(restaurant.getLocation()).isNotNull();
+        });
+        assertThat(repository.findAllCuisines()).hasSize(40).contains(new Cuisine("American"));
+    }
+
+    @Test
+    void shouldWriteTheSameBytesForTheSameSeed() throws IOException {
+        // When
+        String first = generate(DatasetSpec.of(500, 30, 1));
+        String second = generate(DatasetSpec.of(500, 30, 1));
+        String otherSeed = generate(DatasetSpec.of(500, 30, 2));
+
+        // Then
+        assertThat(first).isEqualTo(second).isNotEqualTo(otherSeed);
+    }
+
+    @Test
+    void shouldFollowTheRequestedDistributions() throws IOException {
+        // Given
+        DatasetSpec spec = new DatasetSpec(20_000, 10, 3, 1.5, List.of(0, 0, 1, 0, 3), 50, 0.0);
+
+        // When
+        new DatasetGenerator(spec).write(directory);
+        List<Restaurant> restaurants = new CsvRestaurantRepository(CsvDataSource.fromDirectory(directory)).findAll();
+
+        // Then
+        Map<Integer, Long> ratings = restaurants.stream()
+                .collect(Collectors.groupingBy(restaurant -> restaurant.getRating().getValue(), Collectors.counting()));
+        assertThat(ratings).containsOnlyKeys(3, 5);
+        assertThat((double) ratings.get(5) / ratings.get(3)).isBetween(2.7, 3.3);
+
+        Map<String, Long> cuisines = restaurants.stream()
+                .collect(Collectors.groupingBy(restaurant -> restaurant.getCuisine().getName(), Collectors.counting()));
+        // Zipf with exponent 1.5: the first cuisine has 2^1.5 times the share of the second
+        assertThat((double) cuisines.get("American") / cuisines.get("Chinese")).isBetween(2.5, 3.2);
+
+        Map<String, Long> firstWords = restaurants.stream()
+                .map(restaurant -> restaurant.getName().substring(0, restaurant.getName().indexOf(' ')))
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        assertThat(firstWords).hasSize(50);
+    }
+
+    @Test
+    void shouldRejectRatingWeightsForOtherThanFiveRatings() {
+        assertThatThrownBy(() -> new DatasetSpec(10, 5, 1, 1.0, List.of(1, 2, 3), 100, 1.0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Rating weights must be 5 non-negative numbers, one per rating, not all zero");
+    }
+}
@@ -0,0 +1,62 @@
+package tech.pedroduarte.gourmand.features.datagen.cli;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GenDataCommandTest {
+
+    private StringWriter outputWriter;
+    private StringWriter errorWriter;
+    private CommandLine cmd;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        outputWriter = new StringWriter();
+        errorWriter = new StringWriter();
+        cmd = new CommandLine(new GenDataCommand())
+                .setOut(new PrintWriter(outputWriter, true))
+                .setErr(new PrintWriter(errorWriter, true));
+    }
+
+    @Test
+    void shouldWriteBothFilesIntoTheOutputDirectory() throws IOException {
+        // Given
+        Path out = tempDir.resolve("data");
+
+        // When
+        int exitCode = cmd.execute("--rows", "100", "--cuisines", "5", "--seed", "9", "--out", out.toString());
+
+        // Then
+        assertThat(exitCode).isZero();
+        assertThat(outputWriter.toString()).startsWith("Wrote 100 restaurants and 5 cuisines to " + out);
+        assertThat(Files.readAllLines(out.resolve("restaurants.csv"))).hasSize(101)
+                .first().isEqualTo("name,customer_rating,distance,price,cuisine_id,latitude,longitude");
+        assertThat(Files.readAllLines(out.resolve("cuisines.csv")))
+                .containsExactly("id,name", "1,American", "2,Chinese", "3,Italian", "4,Mexican", "5,Japanese");
+    }
+
+    @Test
+    void shouldReportInvalidDistributions() {
+        // When
+        int exitCode = cmd.execute("--rows", "10", "--ratings", "1,2", "--out", tempDir.toString());
+
+        // Then
+        assertThat(exitCode).isEqualTo(1);
+        assertThat(errorWriter.toString())
+                .isEqualTo("Error: Rating weights must be 5 non-negative numbers, one per rating, not all zero"
+                        + System.lineSeparator());
+    }
+}
@@ -0,0 +1,188 @@
+package tech.pedroduarte.gourmand.features.search.application;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tech.pedroduarte.gourmand.common.exception.OverloadedException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControllerTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts a call that holds its slot until released, and waits for it to be running.
+     */
+    private Future<String> hold(AdmissionController controller, CountDownLatch release) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        Future<String> call = executor.submit(() -> controller.execute(() -> {
+            started.countDown();
+            await(release);
+            return "held";
+        }));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        return call;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void shouldRunQueuedCallsInArrivalOrderAsSlotsFreeUp() throws Exception {
+        // Given
+        AdmissionController controller = new AdmissionController(1, 1, Duration.ofSeconds(10), 2, Duration.ofSeconds(10));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> running = hold(controller, release);
+        List<String> order = new ArrayList<>();
+        Future<String> first = executor.submit(() -> controller.execute(() -> {
+            order.add("first");
+            return "first";
+        }));
+        while (controller.queued() < 1) {
+            Thread.onSpinWait();
+        }
+        Future<String> second = executor.submit(() -> controller.execute(() -> {
+            order.add("second");
+            return "second";
+        }));
+        while (controller.queued() < 2) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        release.countDown();
+
+        // Then
+        assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo("held");
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("second");
+        assertThat(order).containsExactly("first", "second");
+        assertThat(controller.admitted()).isEqualTo(3);
+        assertThat(controller.running()).isZero();
+    }
+
+    @Test
+    void shouldTurnAwayCallsArrivingAtAFullQueue() throws Exception {
+        // Given
+        AdmissionController controller = new AdmissionController(1, 1, Duration.ofSeconds(10), 1, Duration.ofSeconds(10));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> running = hold(controller, release);
+        Future<String> queued = executor.submit(() -> controller.execute(() -> "queued"));
+        while (controller.queued() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> controller.execute(() -> "rejected"))
+                .isInstanceOf(OverloadedException.class)
+                .hasMessage("Too many searches waiting (1), try again later");
+        release.countDown();
+        assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo("held");
+        assertThat(queued.get(10, TimeUnit.SECONDS)).isEqualTo("queued");
+        assertThat(controller.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDropWaitingCallsOnceTheirTimeoutPassesWithoutRunningThem() throws Exception {
+        // Given
+        AdmissionController controller = new AdmissionController(1, 1, Duration.ofSeconds(10), 4, Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> running = hold(controller, release);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        // When / Then
+        assertThatThrownBy(() -> controller.execute(() -> ran.getAndSet(true)))
+                .isInstanceOf(OverloadedException.class)
+                .hasMessage("No search slot freed up within 50 ms, try again later");
+        release.countDown();
+        assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo("held");
+        assertThat(ran).isFalse();
+        assertThat(controller.shed()).isEqualTo(1);
+        assertThat(controller.queued()).isZero();
+    }
+
+    /**
+     * Synthetic load: clients call in a closed loop, far more of them than a backend that serves
+     * two calls at a time can keep within the latency target.
+     */
+    @Test
+    void shouldShrinkTheLimitAndTurnAwayTheExcessUnderSustainedOverload() throws Exception {
+        // Given
+        AdmissionController controller = new AdmissionController(16, 32, Duration.ofMillis(20), 8, Duration.ofMillis(100));
+        Semaphore backend = new Semaphore(2);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger mostInside = new AtomicInteger();
+        LongAdder served = new LongAdder();
+        LongAdder overloaded = new LongAdder();
+        long stopAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1500);
+
+        // When
+        List<Future<?>> clients = new ArrayList<>();
+        for (int client = 0; client < 64; client++) {
+            clients.add(executor.submit(() -> {
+                while (System.nanoTime() - stopAt < 0) {
+                    try {
+                        controller.execute(() -> {
+                            mostInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                            backend.acquireUninterruptibly();
+                            try {
+                                sleep(5);
+                            } finally {
+                                backend.release();
+                                inside.decrementAndGet();
+                            }
+                            return null;
+                        });
+                        served.increment();
+                    } catch (OverloadedException e) {
+                        overloaded.increment();
+                        sleep(1);
+                    }
+                }
+            }));
+        }
+        for (Future<?> client : clients) {
+            client.get(30, TimeUnit.SECONDS);
+        }
+
+        // Then
+        assertThat(served.sum()).isPositive();
+        assertThat(overloaded.sum()).isEqualTo(controller.rejected() + controller.shed()).isPositive();
+        assertThat(mostInside.get()).isLessThanOrEqualTo(32);
+        assertThat(controller.limit()).isLessThan(16);
+        assertThat(controller.running()).isZero();
+        assertThat(controller.queued()).isZero();
+    }
+}
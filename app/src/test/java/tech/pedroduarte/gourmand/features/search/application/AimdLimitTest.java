@@ -0,0 +1,72 @@
+package tech.pedroduarte.gourmand.features.search.application;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdLimitTest {
+
+    private static final long TARGET = 1_000;
+
+    @Test
+    void shouldGrowByAboutOnePerLimitOfFastCallsWhileInUse() {
+        // Given
+        AimdLimit limit = new AimdLimit(4, 10, TARGET);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            limit.onFinished(TARGET, limit.current());
+        }
+
+        // Then
+        assertThat(limit.current()).isEqualTo(6);
+    }
+
+    @Test
+    void shouldNotGrowWhileMostOfTheLimitIsUnused() {
+        // Given
+        AimdLimit limit = new AimdLimit(4, 10, TARGET);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            limit.onFinished(TARGET, 1);
+        }
+
+        // Then
+        assertThat(limit.current()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldCutOncePerLimitOfSlowCalls() {
+        // Given
+        AimdLimit limit = new AimdLimit(10, 10, TARGET);
+
+        // When
+        limit.onFinished(TARGET + 1, 10);
+        int afterFirstCut = limit.current();
+        for (int i = 0; i < 8; i++) {
+            limit.onFinished(TARGET + 1, 10);
+        }
+        int withinTheWindow = limit.current();
+        limit.onFinished(TARGET + 1, 10);
+
+        // Then
+        assertThat(afterFirstCut).isEqualTo(9);
+        assertThat(withinTheWindow).isEqualTo(9);
+        assertThat(limit.current()).isEqualTo(8);
+    }
+
+    @Test
+    void shouldNeverCutBelowOne() {
+        // Given
+        AimdLimit limit = new AimdLimit(1, 10, TARGET);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            limit.onDropped();
+        }
+
+        // Then
+        assertThat(limit.current()).isEqualTo(1);
+    }
+}
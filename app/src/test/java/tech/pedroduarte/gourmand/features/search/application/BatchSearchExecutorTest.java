@@ -0,0 +1,140 @@
+package tech.pedroduarte.gourmand.features.search.application;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.pedroduarte.gourmand.features.search.application.dto.SearchResult;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchSearchExecutorTest {
+
+    private final List<String> events = new ArrayList<>();
+    private ExecutorService executor;
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            restaurants.add(new Restaurant("Place " + i, new Rating(1 + i % 5), new Distance(1 + i % 10),
+                    new Price(10 + i % 40), new Cuisine(i % 2 == 0 ? "Italian" : "Chinese")));
+        }
+        RestaurantRepository repository = mock(RestaurantRepository.class);
+        when(repository.findAll()).thenReturn(restaurants);
+        searchService = new SearchService(repository, new RestaurantSearchDomainService());
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldReportResultsInSubmissionOrder() {
+        // Given
+        BatchSearchExecutor batch = new BatchSearchExecutor(searchService, executor, 3, 4, recordingHandler());
+
+        // When
+        for (int i = 1; i <= 50; i++) {
+            String name = "Place " + i;
+            batch.submit("q" + i, () -> SearchCriteria.builder().name(name).build());
+        }
+        batch.flush();
+
+        // Then
+        assertThat(events).hasSize(50);
+        for (int i = 1; i <= 50; i++) {
+            assertThat(events.get(i - 1)).startsWith("q" + i + ":");
+        }
+        assertThat(events.get(6)).isEqualTo("q7:Place 7");
+    }
+
+    @Test
+    void shouldReportInvalidCriteriaAtTheirPosition() {
+        // Given
+        BatchSearchExecutor batch = new BatchSearchExecutor(searchService, executor, 8, 2, recordingHandler());
+
+        // When
+        batch.submit("first", () -> SearchCriteria.builder().name("Place 7").build());
+        batch.submit("broken", () -> {
+            throw new IllegalArgumentException("Invalid rating: 'x' is not a whole number");
+        });
+        batch.submit("last", () -> SearchCriteria.builder().name("Place 9").build());
+        batch.flush();
+
+        // Then
+        assertThat(events).containsExactly(
+                "first:Place 7",
+                "broken!Invalid rating: 'x' is not a whole number",
+                "last:Place 9"
+        );
+    }
+
+    @Test
+    void shouldNeverExceedTheInFlightWindow() {
+        // Given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        BatchSearchExecutor batch = new BatchSearchExecutor(searchService, executor, 2, 1, recordingHandler());
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            batch.submit(String.valueOf(i), () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return SearchCriteria.builder().build();
+            });
+        }
+        batch.flush();
+
+        // Then
+        assertThat(events).hasSize(20);
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void shouldRejectEmptyWindowOrChunk() {
+        assertThatThrownBy(() -> new BatchSearchExecutor(searchService, executor, 0, 1, recordingHandler()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BatchSearchExecutor(searchService, executor, 1, 0, recordingHandler()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private BatchSearchExecutor.ResultHandler recordingHandler() {
+        return new BatchSearchExecutor.ResultHandler() {
+            @Override
+            public void onResults(String queryId, List<SearchResult> results) {
+                events.add(queryId + ":" + String.join(",", results.stream().map(SearchResult::getName).toList()));
+            }
+
+            @Override
+            public void onError(String queryId, Exception error) {
+                events.add(queryId + "!" + error.getMessage());
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package tech.pedroduarte.gourmand.features.search.application;
+
+import org.junit.jupiter.api.Test;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RestaurantParserTest {
+
+    private final RestaurantParser parser = new RestaurantParser();
+
+    @Test
+    void shouldParseEveryField() {
+        // When
+        Restaurant restaurant = parser.parse(Map.of(
+                "name", " Pizza Roma ",
+                "rating", "4",
+                "distance", "3.5",
+                "price", "25",
+                "cuisine", "Italian",
+                "lat", "40.7128",
+                "lon", "-74.006"
+        ));
+
+        // Then
+        assertThat(restaurant.getName()).isEqualTo("Pizza Roma");
+        assertThat(restaurant.getRating()).isEqualTo(new Rating(4));
+        assertThat(restaurant.getDistance()).isEqualTo(new Distance(3.5));
+        assertThat(restaurant.getPrice()).isEqualTo(new Price(25));
+        assertThat(restaurant.getCuisine()).isEqualTo(new Cuisine("Italian"));
+        assertThat(restaurant.getLocation()).isEqualTo(new GeoLocation(40.7128, -74.006));
+    }
+
+    @Test
+    void shouldLeaveTheLocationOutWhenNotGiven() {
+        // When
+        Restaurant restaurant = parser.parse(Map.of(
+                "name", "Pizza Roma", "rating", "4", "distance", "3.5", "price", "25", "cuisine", "Italian"));
+
+        // Then
+        assertThat(restaurant.getLocation()).isNull();
+    }
+
+    @Test
+    void shouldRequireEveryFieldButTheLocation() {
+        assertThatThrownBy(() -> parser.parse(Map.of("name", "Pizza Roma", "rating", "4")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Missing distance");
+    }
+
+    @Test
+    void shouldRejectMalformedNumbers() {
+        assertThatThrownBy(() -> parser.parse(Map.of(
+                "name", "Pizza Roma", "rating", "4", "distance", "far", "price", "25", "cuisine", "Italian")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid distance: 'far' is not a number");
+    }
+
+    @Test
+    void shouldRequireBothCoordinates() {
+        assertThatThrownBy(() -> parser.parse(Map.of(
+                "name", "Pizza Roma", "rating", "4", "distance", "1", "price", "25", "cuisine", "Italian",
+                "lat", "40.7")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Both lat and lon are required for a location");
+    }
+}
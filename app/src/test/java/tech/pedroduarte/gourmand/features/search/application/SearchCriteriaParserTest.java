@@ -0,0 +1,72 @@
+package tech.pedroduarte.gourmand.features.search.application;
+
+import org.junit.jupiter.api.Test;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchCriteriaParserTest {
+
+    private final SearchCriteriaParser parser = new SearchCriteriaParser();
+
+    @Test
+    void shouldParseEveryField() {
+        // When
+        SearchCriteria criteria = parser.parse(Map.of(
+                "name", " Pizza ",
+                "rating", "4",
+                "distance", "2.5",
+                "price", "25",
+                "cuisine", "Italian",
+                "lat", "40.7128",
+                "lon", "-74.006",
+                "fuzzy", "1"
+        ));
+
+        // Then
+        assertThat(criteria.name()).isEqualTo("Pizza");
+        assertThat(criteria.minRating()).isEqualTo(new Rating(4));
+        assertThat(criteria.maxDistance()).isEqualTo(new Distance(2.5));
+        assertThat(criteria.maxPrice()).isEqualTo(new Price(25));
+        assertThat(criteria.cuisine()).isEqualTo(new Cuisine("Italian"));
+        assertThat(criteria.origin()).isEqualTo(new GeoLocation(40.7128, -74.006));
+        assertThat(criteria.fuzzyDistance()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTreatBlankValuesAsUnset() {
+        // When
+        SearchCriteria criteria = parser.parse(Map.of("name", "", "rating", "  "));
+
+        // Then
+        assertThat(criteria).isEqualTo(SearchCriteria.builder().build());
+    }
+
+    @Test
+    void shouldRejectMalformedNumbers() {
+        assertThatThrownBy(() -> parser.parse(Map.of("rating", "four")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid rating: 'four' is not a whole number");
+    }
+
+    @Test
+    void shouldRejectOutOfRangeValues() {
+        assertThatThrownBy(() -> parser.parse(Map.of("distance", "42")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRequireBothCoordinates() {
+        assertThatThrownBy(() -> parser.parse(Map.of("lat", "40.7")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Both lat and lon");
+    }
+}
@@ -1,23 +1,51 @@
 package tech.pedroduarte.gourmand.features.search.application;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import tech.pedroduarte.gourmand.common.metrics.Metrics;
+import tech.pedroduarte.gourmand.features.search.application.dto.SearchFacets;
 import tech.pedroduarte.gourmand.features.search.application.dto.SearchResult;
 import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
 import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.ResultCursor;
 import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+import tech.pedroduarte.gourmand.features.search.domain.SearchProbe;
+import tech.pedroduarte.gourmand.features.search.domain.index.RestaurantColumns;
 import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
 import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CsvRestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.LsmRestaurantRepository;
 import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
 import tech.pedroduarte.gourmand.shared.domain.Price;
 import tech.pedroduarte.gourmand.shared.domain.Rating;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +62,14 @@ class SearchServiceTest {
     void setUp() {
         RestaurantSearchDomainService domainService = new RestaurantSearchDomainService();
         searchService = new SearchService(repository, domainService);
+        Metrics.reset();
+        Metrics.enable();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Metrics.disable();
+        Metrics.reset();
     }
 
     @Test
@@ -181,4 +217,408 @@ class SearchServiceTest {
         assertThat(results).extracting("name")
                 .containsExactly("Good Pizza");
     }
+
+    @Test
+    void shouldRankByDistanceFromOriginWhenLocationGiven() {
+        // Given
+        GeoLocation origin = new GeoLocation(40.7128, -74.0060);
+        List<Restaurant> restaurants = List.of(
+                new Restaurant("Static Close", new Rating(4), new Distance(1.0), new Price(20.0),
+                        new Cuisine("Italian"), new GeoLocation(40.80, -74.0060)),
+                new Restaurant("Around The Corner", new Rating(3), new Distance(9.0), new Price(20.0),
+                        new Cuisine("Italian"), new GeoLocation(40.7130, -74.0062)),
+                new Restaurant("No Coordinates", new Rating(5), new Distance(1.0), new Price(20.0),
+                        new Cuisine("Italian"))
+        );
+        when(repository.findAll()).thenReturn(restaurants);
+
+        // When
+        List<SearchResult> results = searchService.search(
+                SearchCriteria.builder().origin(origin).maxDistance(new Distance(10.0)).build()
+        );
+
+        // Then
+        assertThat(results).extracting("name")
+                .containsExactly("Around The Corner", "Static Close");
+        assertThat(results.get(0).getDistance()).isLessThan(0.1);
+        assertThat(results.get(1).getDistance()).isBetween(6.0, 6.1);
+    }
+
+    @Test
+    void shouldMatchMistypedNameWhenFuzzy() {
+        // Given
+        List<Restaurant> restaurants = List.of(
+                new Restaurant("Deliciousgenix", new Rating(4), new Distance(1.0), new Price(20.0), new Cuisine("Spanish")),
+                new Restaurant("Deliciousgenix Express", new Rating(4), new Distance(1.0), new Price(20.0), new Cuisine("Spanish")),
+                new Restaurant("Deliciousscape", new Rating(3), new Distance(7.0), new Price(50.0), new Cuisine("American"))
+        );
+        when(repository.findAll()).thenReturn(restaurants);
+
+        // When
+        List<SearchResult> results = searchService.search(
+                SearchCriteria.builder().name("Delicousgenix").fuzzyDistance(1).build()
+        );
+
+        // Then
+        assertThat(results).extracting("name")
+                .containsExactly("Deliciousgenix");
+    }
+
+    @Test
+    void shouldMatchSingleSearchesWhenRunningManyInOneScan() {
+        // Given
+        Random random = new Random(42);
+        String[] cuisines = {"Italian", "Chinese", "Korean", "American"};
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            restaurants.add(new Restaurant(
+                    "Place " + random.nextInt(500),
+                    new Rating(1 + random.nextInt(5)),
+                    new Distance(1 + random.nextInt(10)),
+                    new Price(10 + random.nextInt(41)),
+                    new Cuisine(cuisines[random.nextInt(cuisines.length)])
+            ));
+        }
+        when(repository.findAll()).thenReturn(restaurants);
+
+        List<SearchCriteria> criteria = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            criteria.add(SearchCriteria.builder()
+                    .name(random.nextBoolean() ? "place " + random.nextInt(60) : null)
+                    .minRating(random.nextBoolean() ? new Rating(1 + random.nextInt(5)) : null)
+                    .maxDistance(random.nextBoolean() ? new Distance(1 + random.nextInt(10)) : null)
+                    .maxPrice(random.nextBoolean() ? new Price(10 + random.nextInt(41)) : null)
+                    .cuisine(random.nextBoolean() ? new Cuisine(cuisines[random.nextInt(cuisines.length)]) : null)
+                    .build());
+        }
+        criteria.add(SearchCriteria.builder().name("Plaec 1").fuzzyDistance(2).build());
+
+        // When
+        List<List<SearchResult>> results = searchService.searchAll(criteria);
+
+        // Then
+        assertThat(results).hasSize(criteria.size());
+        for (int i = 0; i < criteria.size(); i++) {
+            assertThat(results.get(i)).isEqualTo(searchService.search(criteria.get(i)));
+        }
+    }
+
+    @Test
+    void shouldWalkMatchesInRelevanceOrderUpToTheLimit() {
+        // Given
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            restaurants.add(new Restaurant("Place " + i, new Rating(1 + i % 5), new Distance(1 + i % 10),
+                    new Price(10 + i), new Cuisine("Thai")));
+        }
+        when(repository.findAll()).thenReturn(restaurants);
+        SearchCriteria criteria = SearchCriteria.builder().cuisine(new Cuisine("Thai")).build();
+        List<String> streamed = new ArrayList<>();
+
+        // When
+        ResultCursor cursor = searchService.cursor(criteria, 10, SearchProbe.DISABLED);
+        while (cursor.next()) {
+            streamed.add(cursor.name());
+        }
+
+        // Then
+        assertThat(streamed).hasSize(10);
+        assertThat(streamed.subList(0, SearchService.DEFAULT_LIMIT))
+                .isEqualTo(searchService.search(criteria).stream().map(SearchResult::getName).toList());
+        assertThat(searchService.search(criteria, 100, SearchProbe.DISABLED)).hasSize(12);
+    }
+
+    @Test
+    void shouldCountFacetsOfEveryMatchBeyondResultLimit() {
+        // Given
+        List<Restaurant> restaurants = List.of(
+                new Restaurant("Pasta One", new Rating(5), new Distance(1.0), new Price(15.0), new Cuisine("Italian")),
+                new Restaurant("Pasta Two", new Rating(4), new Distance(3.0), new Price(25.0), new Cuisine("Italian")),
+                new Restaurant("Pasta Three", new Rating(4), new Distance(5.0), new Price(35.0), new Cuisine("Italian")),
+                new Restaurant("Pasta Four", new Rating(3), new Distance(7.0), new Price(45.0), new Cuisine("Italian")),
+                new Restaurant("Pasta Five", new Rating(2), new Distance(9.0), new Price(50.0), new Cuisine("Italian")),
+                new Restaurant("Pasta Six", new Rating(1), new Distance(10.0), new Price(10.0), new Cuisine("Chinese")),
+                new Restaurant("Noodles", new Rating(5), new Distance(1.0), new Price(10.0), new Cuisine("Chinese"))
+        );
+        when(repository.findAll()).thenReturn(restaurants);
+        SearchCriteria criteria = SearchCriteria.builder().name("pasta").build();
+
+        // When
+        SearchFacets facets = searchService.facets(criteria);
+
+        // Then
+        assertThat(facets.getTotal()).isEqualTo(6);
+        assertThat(searchService.count(criteria)).isEqualTo(6);
+        assertThat(facets.getCuisines()).containsExactly(entry("Italian", 5), entry("Chinese", 1));
+        assertThat(facets.getRatings()).containsEntry(4, 2).containsEntry(5, 1);
+        assertThat(facets.getPriceBands()).containsEntry("$10-20", 2).containsEntry("$40-50", 2);
+        assertThat(facets.getDistanceBands()).containsEntry("8-10 mi", 2).doesNotContainKey("10+ mi");
+    }
+
+    @Test
+    void shouldCountFacetsFromOriginForLocationSearch() {
+        // Given
+        GeoLocation origin = new GeoLocation(40.7128, -74.0060);
+        List<Restaurant> restaurants = List.of(
+                new Restaurant("Near", new Rating(4), new Distance(9.0), new Price(20.0), new Cuisine("Italian"),
+                        new GeoLocation(40.7130, -74.0062)),
+                new Restaurant("Far", new Rating(4), new Distance(1.0), new Price(20.0), new Cuisine("Italian"),
+                        new GeoLocation(40.8, -74.0060)),
+                new Restaurant("Unlocated", new Rating(4), new Distance(1.0), new Price(20.0), new Cuisine("Italian"))
+        );
+        when(repository.findAll()).thenReturn(restaurants);
+        SearchCriteria criteria = SearchCriteria.builder().origin(origin).build();
+
+        // When
+        SearchFacets facets = searchService.facets(criteria);
+
+        // Then
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(searchService.count(criteria)).isEqualTo(2);
+        assertThat(facets.getDistanceBands()).containsEntry("0-2 mi", 1).containsEntry("6-8 mi", 1);
+    }
+
+    @Test
+    void shouldReportPlanToProbe() {
+        // Given
+        List<Restaurant> restaurants = List.of(
+                new Restaurant("Pizza One", new Rating(5), new Distance(1.0), new Price(15.0), new Cuisine("Italian")),
+                new Restaurant("Pizza Two", new Rating(2), new Distance(3.0), new Price(25.0), new Cuisine("Italian")),
+                new Restaurant("Sushi", new Rating(4), new Distance(2.0), new Price(35.0), new Cuisine("Japanese"))
+        );
+        when(repository.findAll()).thenReturn(restaurants);
+        QueryProfile profile = new QueryProfile();
+
+        // When
+        List<SearchResult> results = searchService.search(
+                SearchCriteria.builder().name("pizza").minRating(new Rating(4)).build(), profile);
+
+        // Then
+        assertThat(results).extracting("name").containsExactly("Pizza One");
+        assertThat(profile.toJson())
+                .startsWith("{\"accessPath\":\"full-scan\",\"rows\":3,\"candidates\":3,")
+                .contains("{\"predicate\":\"rating\",\"rowsIn\":3,\"rowsOut\":2}")
+                .contains("{\"predicate\":\"name\",\"rowsIn\":2,\"rowsOut\":1}")
+                .contains("\"sort\":{\"method\":\"rank-order\",\"rows\":1}")
+                .contains("\"results\":1");
+        assertThat(profile.stageNanos()).containsKeys("index", "filter");
+    }
+
+    @Test
+    void shouldShareOneSearchBetweenConcurrentCallersDifferingOnlyInNameCase() throws Exception {
+        // Given
+        when(repository.findAll()).thenReturn(List.of(
+                new Restaurant("Pizza One", new Rating(5), new Distance(1.0), new Price(15.0), new Cuisine("Italian")),
+                new Restaurant("Sushi", new Rating(4), new Distance(2.0), new Price(35.0), new Cuisine("Japanese"))
+        ));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger scans = new AtomicInteger();
+        SearchService service = new SearchService(repository, new RestaurantSearchDomainService() {
+            @Override
+            public ResultCursor rankedMatches(RestaurantColumns columns, SearchCriteria criteria, int limit,
+                                              SearchProbe probe) {
+                scans.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.rankedMatches(columns, criteria, limit, probe);
+            }
+        });
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<List<SearchResult>> first = executor.submit(
+                    () -> service.search(SearchCriteria.builder().name("Pizza").build()));
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            Future<List<SearchResult>> second = executor.submit(
+                    () -> service.search(SearchCriteria.builder().name(" PIZZA ").build()));
+            while (Metrics.count(Metrics.Counter.COALESCED_SEARCHES) == 0) {
+                Thread.onSpinWait();
+            }
+
+            // When
+            release.countDown();
+
+            // Then
+            List<SearchResult> results = first.get(10, TimeUnit.SECONDS);
+            assertThat(second.get(10, TimeUnit.SECONDS)).isSameAs(results);
+            assertThat(results).extracting("name").containsExactly("Pizza One");
+            assertThat(scans).hasValue(1);
+            assertThat(Metrics.count(Metrics.Counter.EXECUTED_SEARCHES)).isEqualTo(1);
+            assertThat(Metrics.count(Metrics.Counter.COALESCED_SEARCHES)).isEqualTo(1);
+            assertThatThrownBy(results::clear).isInstanceOf(UnsupportedOperationException.class);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldEmitASearchEventWhileRecording(@TempDir Path tempDir) throws IOException {
+        // Given
+        when(repository.findAll()).thenReturn(List.of(
+                new Restaurant("Pizza One", new Rating(5), new Distance(1.0), new Price(15.0), new Cuisine("Italian")),
+                new Restaurant("Pizza Two", new Rating(3), new Distance(2.0), new Price(15.0), new Cuisine("Italian")),
+                new Restaurant("Sushi", new Rating(4), new Distance(3.0), new Price(35.0), new Cuisine("Japanese"))
+        ));
+        Path dump = tempDir.resolve("search.jfr");
+
+        // When
+        try (Recording recording = new Recording()) {
+            recording.start();
+            searchService.search(SearchCriteria.builder().name("pizza").minRating(new Rating(4)).build());
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        // Then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().equals("tech.pedroduarte.gourmand.Search"))
+                .toList();
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.getString("criteria")).isEqualTo("name+rating");
+            assertThat(event.getString("accessPath")).isEqualTo("full-scan");
+            assertThat(event.getInt("limit")).isEqualTo(SearchService.DEFAULT_LIMIT);
+            assertThat(event.getLong("candidates")).isEqualTo(3);
+            assertThat(event.getLong("rowsScanned")).isEqualTo(3);
+            assertThat(event.getInt("results")).isEqualTo(1);
+            assertThat(event.getBoolean("coalesced")).isFalse();
+        });
+    }
+
+    @Test
+    void shouldRunASearchAgainAfterItFailed() {
+        // Given
+        when(repository.findAll()).thenReturn(List.of(
+                new Restaurant("Pizza One", new Rating(5), new Distance(1.0), new Price(15.0), new Cuisine("Italian"))
+        ));
+        AtomicInteger scans = new AtomicInteger();
+        SearchService service = new SearchService(repository, new RestaurantSearchDomainService() {
+            @Override
+            public ResultCursor rankedMatches(RestaurantColumns columns, SearchCriteria criteria, int limit,
+                                              SearchProbe probe) {
+                if (scans.incrementAndGet() == 1) {
+                    throw new IllegalStateException("Scan failed");
+                }
+                return super.rankedMatches(columns, criteria, limit, probe);
+            }
+        });
+        SearchCriteria criteria = SearchCriteria.builder().name("pizza").build();
+
+        // When / Then
+        assertThatThrownBy(() -> service.search(criteria)).hasMessage("Scan failed");
+        assertThat(service.search(criteria)).extracting("name").containsExactly("Pizza One");
+        assertThat(Metrics.count(Metrics.Counter.EXECUTED_SEARCHES)).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "Place 123, 0",
+            "Place 1, 2"
+    })
+    void shouldRankFuzzyMatchesByDistanceFromTheOrigin(String name, int fuzzyDistance) {
+        // Given
+        Random random = new Random(3);
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            restaurants.add(new Restaurant(String.format("Place %03d", i), new Rating(1 + random.nextInt(5)),
+                    new Distance(1.0), new Price(10 + random.nextInt(41)), new Cuisine("Thai"),
+                    i % 5 == 0 ? null : new GeoLocation(40 + random.nextDouble(), -74 + random.nextDouble())));
+        }
+        when(repository.findAll()).thenReturn(restaurants);
+        GeoLocation origin = new GeoLocation(40.5, -73.5);
+        SearchCriteria fuzzy = SearchCriteria.builder().name(name).fuzzyDistance(fuzzyDistance).build();
+        List<String> expected = searchService.search(fuzzy, restaurants.size(), SearchProbe.DISABLED).stream()
+                .map(SearchResult::getName)
+                .map(found -> restaurants.stream().filter(r -> r.getName().equals(found)).findFirst().orElseThrow())
+                .filter(restaurant -> restaurant.getLocation() != null)
+                .sorted(Comparator.<Restaurant>comparingDouble(r -> r.getLocation().milesTo(origin))
+                        .thenComparing(Restaurant::getRating, Comparator.reverseOrder())
+                        .thenComparing(Restaurant::getPrice))
+                .limit(5)
+                .map(Restaurant::getName)
+                .toList();
+
+        // When
+        List<SearchResult> found = searchService.search(
+                SearchCriteria.builder().name(name).fuzzyDistance(fuzzyDistance).origin(origin).build(),
+                5, SearchProbe.DISABLED);
+
+        // Then
+        assertThat(expected).isNotEmpty();
+        assertThat(found).extracting(SearchResult::getName).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void shouldSearchAStoreAsItSearchesTheDataInMemory(@TempDir Path tempDir) throws IOException {
+        // Given
+        Random random = new Random(7);
+        List<Restaurant> restaurants = new ArrayList<>();
+        String[] cuisines = {"Italian", "Thai", "Chinese"};
+        for (int i = 0; i < 500; i++) {
+            // Names in the order the store keeps them, so that ties rank alike
+            restaurants.add(new Restaurant(String.format("Place %03d", i), new Rating(1 + random.nextInt(5)),
+                    new Distance(1 + random.nextInt(90) / 10.0), new Price(10 + random.nextInt(41)),
+                    new Cuisine(cuisines[random.nextInt(cuisines.length)]),
+                    i % 5 == 0 ? null : new GeoLocation(40 + random.nextDouble(), -74 + random.nextDouble())));
+        }
+        when(repository.findAll()).thenReturn(restaurants);
+        List<SearchCriteria> criteria = List.of(
+                SearchCriteria.builder().build(),
+                SearchCriteria.builder().maxDistance(new Distance(2.5)).maxPrice(new Price(30)).build(),
+                SearchCriteria.builder().name("place 1").minRating(new Rating(3)).cuisine(new Cuisine("Thai")).build(),
+                SearchCriteria.builder().origin(new GeoLocation(40.5, -73.5)).maxDistance(new Distance(9)).build(),
+                SearchCriteria.builder().origin(new GeoLocation(40.2, -73.8)).maxPrice(new Price(20)).build()
+        );
+
+        try (LsmRestaurantRepository store = LsmRestaurantRepository.open(tempDir, 100, 10, 4)) {
+            store.addAll(restaurants);
+            SearchService storeService = new SearchService(store, new RestaurantSearchDomainService());
+
+            for (SearchCriteria query : criteria) {
+                // When
+                List<SearchResult> found = storeService.search(query, 20, SearchProbe.DISABLED);
+
+                // Then
+                assertThat(found).isEqualTo(searchService.search(query, 20, SearchProbe.DISABLED));
+                assertThat(storeService.count(query)).isEqualTo(searchService.count(query));
+                assertThat(storeService.facets(query)).isEqualTo(searchService.facets(query));
+            }
+            assertThat(storeService.searchAll(criteria)).isEqualTo(searchService.searchAll(criteria));
+        }
+    }
+
+    @Test
+    void shouldReportARangeScanOfAStore(@TempDir Path tempDir) throws IOException {
+        try (LsmRestaurantRepository store = LsmRestaurantRepository.open(tempDir)) {
+            // Given
+            store.add(new Restaurant("Pizza One", new Rating(5), new Distance(1.0), new Price(15.0), new Cuisine("Italian")));
+            store.add(new Restaurant("Pizza Two", new Rating(3), new Distance(2.0), new Price(15.0), new Cuisine("Italian")));
+            QueryProfile profile = new QueryProfile();
+
+            // When
+            List<SearchResult> results = new SearchService(store, new RestaurantSearchDomainService())
+                    .search(SearchCriteria.builder().minRating(new Rating(4)).build(), profile);
+
+            // Then
+            assertThat(results).extracting("name").containsExactly("Pizza One");
+            assertThat(profile.toJson()).startsWith("{\"accessPath\":\"range-scan\",\"rows\":2,\"candidates\":2,");
+        }
+    }
+
+    @Test
+    void shouldRejectFuzzySearchesOfAStore(@TempDir Path tempDir) throws IOException {
+        try (LsmRestaurantRepository store = LsmRestaurantRepository.open(tempDir)) {
+            // Given
+            SearchService storeService = new SearchService(store, new RestaurantSearchDomainService());
+            SearchCriteria criteria = SearchCriteria.builder().name("Piza").fuzzyDistance(1).build();
+
+            // When / Then
+            assertThatThrownBy(() -> storeService.search(criteria))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Fuzzy name searches need the data loaded in memory");
+        }
+    }
 }
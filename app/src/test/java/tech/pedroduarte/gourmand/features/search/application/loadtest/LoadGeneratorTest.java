@@ -0,0 +1,153 @@
+package tech.pedroduarte.gourmand.features.search.application.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadGeneratorTest {
+
+    private final QueryMix mix = QueryMix.random(10, 1);
+
+    private static LoadTarget target(LoadTargetAction action) {
+        return new LoadTarget() {
+            @Override
+            public String description() {
+                return "test";
+            }
+
+            @Override
+            public void execute(LoadQuery query) throws Exception {
+                action.run();
+            }
+        };
+    }
+
+    @Test
+    void shouldStartSearchesAtTheRequestedRateAndCountErrorsByKind() throws Exception {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        LoadTarget target = target(() -> {
+            if (calls.incrementAndGet() % 5 == 0) {
+                throw new SearchFailedException("HTTP 503");
+            }
+        });
+        LoadPlan plan = LoadPlan.openLoop(100, Duration.ofMillis(500), Duration.ZERO);
+
+        // When
+        LoadTestResult result = new LoadGenerator(plan).run(target, mix);
+
+        // Then
+        assertThat(result.requests()).isBetween(45L, 50L);
+        assertThat(result.errors()).containsOnlyKeys("HTTP 503");
+        assertThat(result.errorCount()).isEqualTo(result.requests() - result.latency().count());
+        assertThat(result.throughput()).isBetween(90.0, 100.0);
+
+        StringWriter file = new StringWriter();
+        result.writeTo(file);
+        assertThat(file.toString().lines())
+                .contains("mode=open-loop", "target=test", "rate=100.0", "queries=10",
+                        "error.http-503=" + result.errorCount())
+                .anyMatch(line -> line.startsWith("latency-us.p99.9="))
+                .anyMatch(line -> line.startsWith("service-time-us.max="));
+    }
+
+    @Test
+    void shouldCountOtherFailuresByTheirExceptionRatherThanTheirMessage() throws Exception {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        LoadTarget target = target(() -> {
+            throw new IllegalStateException("Failed search " + calls.incrementAndGet());
+        });
+        LoadPlan plan = LoadPlan.openLoop(100, Duration.ofMillis(200), Duration.ZERO);
+
+        // When
+        LoadTestResult result = new LoadGenerator(plan).run(target, mix);
+
+        // Then
+        assertThat(result.errors()).containsOnlyKeys("IllegalStateException");
+        assertThat(result.errorCount()).isEqualTo(result.requests());
+    }
+
+    @Test
+    void shouldStopAClosedLoopClientWhoseSearchIsInterrupted() throws Exception {
+        // Given
+        LoadTarget target = target(() -> {
+            throw new InterruptedException();
+        });
+        LoadPlan plan = LoadPlan.closedLoop(1, Duration.ofMillis(200), Duration.ZERO);
+
+        // When
+        LoadTestResult result = new LoadGenerator(plan).run(target, mix);
+
+        // Then
+        assertThat(result.requests()).isEqualTo(1);
+        assertThat(result.errors()).containsEntry("InterruptedException", 1L);
+    }
+
+    @Test
+    void shouldCountSearchesDueWhileTooManyRunAsErrors() throws Exception {
+        // Given
+        LoadTarget target = target(() -> Thread.sleep(50));
+        LoadPlan plan = new LoadPlan(100, 0, Duration.ofMillis(300), Duration.ZERO, 1, null);
+
+        // When
+        LoadTestResult result = new LoadGenerator(plan).run(target, mix);
+
+        // Then
+        assertThat(result.errors().get(LoadGenerator.IN_FLIGHT_LIMIT)).isGreaterThan(10L);
+        assertThat(result.latency().count()).isBetween(1L, 8L);
+    }
+
+    @Test
+    void shouldCorrectClosedLoopLatencyForTheSearchesAStallHeldBack() throws Exception {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        LoadTarget target = target(() -> Thread.sleep(calls.incrementAndGet() == 10 ? 100 : 1));
+        LoadPlan plan = new LoadPlan(0, 1, Duration.ofMillis(400), Duration.ZERO, LoadPlan.DEFAULT_MAX_IN_FLIGHT,
+                Duration.ofMillis(1));
+
+        // When
+        LoadTestResult result = new LoadGenerator(plan).run(target, mix);
+
+        // Then
+        assertThat(result.errors()).isEmpty();
+        assertThat(result.expectedInterval()).isEqualTo(Duration.ofMillis(1).toNanos());
+        assertThat(result.latency().count()).isGreaterThan(result.serviceTime().count());
+        assertThat(result.latency().valueAtPercentile(90))
+                .isGreaterThan(5 * result.serviceTime().valueAtPercentile(90));
+    }
+
+    @Test
+    void shouldReportOnlyServiceTimesForAClosedLoopWithoutAnExpectedInterval() throws Exception {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        LoadTarget target = target(() -> Thread.sleep(calls.incrementAndGet() == 10 ? 100 : 1));
+        LoadPlan plan = LoadPlan.closedLoop(1, Duration.ofMillis(300), Duration.ZERO);
+
+        // When
+        LoadTestResult result = new LoadGenerator(plan).run(target, mix);
+
+        // Then
+        assertThat(result.isCorrected()).isFalse();
+        assertThat(result.latency()).isNull();
+        assertThat(result.expectedInterval()).isZero();
+        assertThat(result.serviceTime().count()).isEqualTo(result.requests());
+    }
+
+    @Test
+    void shouldRequireEitherARateOrClients() {
+        assertThatThrownBy(() -> new LoadPlan(10, 2, Duration.ofSeconds(1), Duration.ZERO, 1, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Either a rate (open loop) or a number of clients (closed loop) is required, not both");
+    }
+
+    @FunctionalInterface
+    private interface LoadTargetAction {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,55 @@
+package tech.pedroduarte.gourmand.features.search.application.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryMixTest {
+
+    private static InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldReplayBatchQueriesInOrderAndStartOver() {
+        // Given
+        QueryMix mix = QueryMix.read(csv("id,name,rating\nq1,Deli,\nq2,,4\n"));
+
+        // When / Then
+        assertThat(mix.size()).isEqualTo(2);
+        assertThat(mix.next().fields()).isEqualTo(Map.of("name", "Deli"));
+        assertThat(mix.next().criteria().minRating().getValue()).isEqualTo(4);
+        assertThat(mix.next().fields()).isEqualTo(Map.of("name", "Deli"));
+    }
+
+    @Test
+    void shouldGenerateTheSameRandomMixForTheSameSeed() {
+        // When
+        QueryMix first = QueryMix.random(50, 7);
+        QueryMix second = QueryMix.random(50, 7);
+
+        // Then
+        for (int i = 0; i < 50; i++) {
+            assertThat(first.next().fields()).isEqualTo(second.next().fields()).containsKey("rating");
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidQueries() {
+        assertThatThrownBy(() -> QueryMix.read(csv("rating\nfive\n")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid query on row 1:");
+        assertThatThrownBy(() -> QueryMix.read(csv("stars\n5\n")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Unknown query column 'stars'");
+        assertThatThrownBy(() -> QueryMix.read(csv("rating\n")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The query mix has no queries");
+    }
+}
@@ -0,0 +1,89 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutocompleteCommandTest {
+
+    private StringWriter outputWriter;
+    private StringWriter errorWriter;
+    private CommandLine cmd;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        outputWriter = new StringWriter();
+        errorWriter = new StringWriter();
+        cmd = new CommandLine(new AutocompleteCommand())
+                .setOut(new PrintWriter(outputWriter, true))
+                .setErr(new PrintWriter(errorWriter, true));
+
+        Files.writeString(tempDir.resolve("cuisines.csv"), """
+                id,name
+                1,Italian
+                2,Indian
+                """);
+        Files.writeString(tempDir.resolve("restaurants.csv"), """
+                name,customer_rating,distance,price,cuisine_id
+                Italian Corner,4,3.0,20.0,1
+                Indigo,5,1.0,25.0,2
+                Burger Stop,3,1.0,15.0,1
+                """);
+    }
+
+    @Test
+    void shouldSuggestRestaurantsAndCuisines() {
+        // When
+        int exitCode = cmd.execute("in", "--data-dir", tempDir.toString());
+
+        // Then
+        assertThat(exitCode).isZero();
+        assertThat(outputWriter.toString().lines())
+                .containsExactly(
+                        "Indian                cuisine",
+                        "Indigo                restaurant"
+                );
+    }
+
+    @Test
+    void shouldLimitSuggestions() {
+        // When
+        int exitCode = cmd.execute("i", "--limit", "1", "--data-dir", tempDir.toString());
+
+        // Then
+        assertThat(exitCode).isZero();
+        assertThat(outputWriter.toString().lines()).hasSize(1);
+    }
+
+    @Test
+    void shouldReportMissingSuggestions() {
+        // When
+        int exitCode = cmd.execute("xyz", "--data-dir", tempDir.toString());
+
+        // Then
+        assertThat(exitCode).isZero();
+        assertThat(outputWriter.toString()).contains("No suggestions found for \"xyz\"");
+    }
+
+    @Test
+    void shouldRejectInvalidLimit() {
+        // When
+        int exitCode = cmd.execute("i", "--limit", "0", "--data-dir", tempDir.toString());
+
+        // Then
+        assertThat(exitCode).isNotZero();
+        assertThat(errorWriter.toString()).contains("Limit must be at least 1");
+    }
+}
@@ -0,0 +1,222 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+import tech.pedroduarte.gourmand.features.search.application.SearchService;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DaemonServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path socketPath;
+    private DaemonServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Data that only the daemon knows about, so a forwarded search is recognizable
+        RestaurantRepository repository = mock(RestaurantRepository.class);
+        when(repository.findAll()).thenReturn(List.of(
+                new Restaurant("Only In Daemon", new Rating(5), new Distance(1.0), new Price(20.0), new Cuisine("Thai"))
+        ));
+        SearchService searchService = new SearchService(repository, new RestaurantSearchDomainService());
+
+        socketPath = tempDir.resolve("gourmand.sock");
+        server = new DaemonServer(socketPath, "", searchService, 2);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void shouldRunForwardedSearchWithWarmService() throws IOException {
+        // Given
+        StringWriter out = new StringWriter();
+
+        // When
+        Optional<Integer> exitCode = DaemonClient.forward(socketPath, "", List.of("--name", "daemon"),
+                out, new StringWriter());
+
+        // Then
+        assertThat(exitCode).contains(0);
+        assertThat(out.toString()).contains("Only In Daemon");
+    }
+
+    @Test
+    void shouldReturnErrorsAndExitCodeOfForwardedSearch() throws IOException {
+        // Given
+        StringWriter err = new StringWriter();
+
+        // When
+        Optional<Integer> exitCode = DaemonClient.forward(socketPath, "", List.of("--fuzzy", "2"),
+                new StringWriter(), err);
+
+        // Then
+        assertThat(exitCode).contains(1);
+        assertThat(err.toString()).contains("Fuzzy matching requires a restaurant name");
+    }
+
+    @Test
+    void shouldStreamExportsLargerThanAnyOneMessage() throws IOException {
+        // Given
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int i = 0; i < 150_000; i++) {
+            restaurants.add(new Restaurant(String.format("Restaurant %06d with a long enough name to fill the export", i),
+                    new Rating(5), new Distance(1.0), new Price(20.0), new Cuisine("Thai")));
+        }
+        RestaurantRepository repository = mock(RestaurantRepository.class);
+        when(repository.findAll()).thenReturn(restaurants);
+        Path largeSocket = tempDir.resolve("large.sock");
+        StringWriter out = new StringWriter();
+
+        // When
+        Optional<Integer> exitCode;
+        try (DaemonServer large = new DaemonServer(largeSocket, "",
+                new SearchService(repository, new RestaurantSearchDomainService()), 1)) {
+            large.start();
+            exitCode = DaemonClient.forward(largeSocket, "", List.of("--format", "jsonl", "--limit", "1000000"),
+                    out, new StringWriter());
+        }
+
+        // Then
+        // Well over the 16 MB a single string of the protocol may take
+        assertThat(out.toString().length()).isGreaterThan(16 * 1024 * 1024);
+        assertThat(exitCode).contains(0);
+        assertThat(out.toString().lines()).hasSize(150_000);
+    }
+
+    @Test
+    void shouldRefuseOtherDataSet() throws IOException {
+        // When
+        Optional<Integer> exitCode = DaemonClient.forward(socketPath, "/some/other/data", List.of(),
+                new StringWriter(), new StringWriter());
+
+        // Then
+        assertThat(exitCode).isEmpty();
+    }
+
+    @Test
+    void shouldFallBackWhenNoDaemonIsListening() throws IOException {
+        assertThat(DaemonClient.forward(tempDir.resolve("missing.sock"), "", List.of(),
+                new StringWriter(), new StringWriter())).isEmpty();
+    }
+
+    @Test
+    void shouldForwardSearchSubcommandThroughSocket() {
+        // Given
+        StringWriter out = new StringWriter();
+        CommandLine cmd = new CommandLine(new Parent())
+                .addSubcommand(new SearchCommand())
+                .setOut(new PrintWriter(out, true));
+
+        // When
+        int exitCode = cmd.execute("search", "--socket", socketPath.toString(), "--name", "daemon");
+
+        // Then
+        assertThat(exitCode).isZero();
+        assertThat(out.toString()).contains("Only In Daemon");
+    }
+
+    @Test
+    void shouldForwardOnlyTheOptionsGivenToTheSearchSubcommand() {
+        // Given
+        StringWriter out = new StringWriter();
+        CommandLine cmd = new CommandLine(new Parent())
+                .addSubcommand(new SearchCommand())
+                .setAbbreviatedSubcommandsAllowed(true)
+                .setOut(new PrintWriter(out, true));
+
+        // When
+        int exitCode = cmd.execute("sea", "--socket", socketPath.toString(), "--name", "daemon");
+
+        // Then
+        assertThat(exitCode).isZero();
+        assertThat(out.toString()).contains("Only In Daemon");
+    }
+
+    @Test
+    void shouldSearchInProcessWithNoDaemonOption() {
+        // Given
+        StringWriter out = new StringWriter();
+        CommandLine cmd = new CommandLine(new SearchCommand()).setOut(new PrintWriter(out, true));
+
+        // When
+        int exitCode = cmd.execute("--socket", socketPath.toString(), "--no-daemon", "--name", "daemon");
+
+        // Then
+        assertThat(exitCode).isZero();
+        assertThat(out.toString()).doesNotContain("Only In Daemon");
+    }
+
+    @Test
+    void shouldRefuseSecondDaemonOnSameSocket() {
+        // Given
+        DaemonServer second = new DaemonServer(socketPath, "", mock(SearchService.class), 1);
+
+        // Then
+        assertThatThrownBy(second::start)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already listening");
+    }
+
+    @Test
+    void shouldReplaceStaleSocketFile() throws IOException {
+        // Given
+        server.close();
+        Files.createFile(socketPath);
+        server = new DaemonServer(socketPath, "", mock(SearchService.class), 1);
+
+        // When
+        server.start();
+
+        // Then
+        assertThat(socketPath).exists();
+    }
+
+    @Test
+    void shouldCreateSocketOnlyTheOwnerCanUse() throws IOException {
+        // Then
+        assertThat(Files.getPosixFilePermissions(socketPath))
+                .isEqualTo(PosixFilePermissions.fromString("rw-------"));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            // Nothing is left of the private directory the socket was bound in
+            assertThat(files).containsExactly(socketPath);
+        }
+    }
+
+    @CommandLine.Command(name = "gourmand")
+    static class Parent implements Runnable {
+        @Override
+        public void run() {
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadTestCommandTest {
+
+    private StringWriter outputWriter;
+    private StringWriter errorWriter;
+    private CommandLine cmd;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        outputWriter = new StringWriter();
+        errorWriter = new StringWriter();
+        cmd = new CommandLine(new LoadTestCommand())
+                .setOut(new PrintWriter(outputWriter, true))
+                .setErr(new PrintWriter(errorWriter, true));
+    }
+
+    @Test
+    void shouldRunInProcessAndWriteTheResultsFile() throws IOException {
+        // Given
+        Path results = tempDir.resolve("results.txt");
+
+        // When
+        int exitCode = cmd.execute("--clients", "2", "--duration", "0.3", "--warmup", "0",
+                "--out", results.toString());
+
+        // Then
+        assertThat(exitCode).isZero();
+        assertThat(outputWriter.toString())
+                .contains("Closed loop with 2 clients against in-process")
+                .contains("errors: 0 (0.00%)")
+                .contains("Service times are uncorrected for coordinated omission")
+                .doesNotContainPattern("(?m)^latency")
+                .contains("Wrote results to " + results);
+        assertThat(Files.readAllLines(results))
+                .startsWith("# gourmand loadtest", "mode=closed-loop", "target=in-process", "clients=2",
+                        "coordinated-omission=uncorrected")
+                .contains("errors=0", "queries=1000")
+                .noneMatch(line -> line.startsWith("latency"));
+    }
+
+    @Test
+    void shouldCorrectAClosedLoopGivenTheExpectedInterval() throws IOException {
+        // Given
+        Path results = tempDir.resolve("results.txt");
+
+        // When
+        int exitCode = cmd.execute("--clients", "1", "--duration", "0.3", "--warmup", "0",
+                "--expected-interval", "500", "--out", results.toString());
+
+        // Then
+        assertThat(exitCode).isZero();
+        assertThat(outputWriter.toString()).contains("Latency assumes each client starts a search every");
+        assertThat(Files.readAllLines(results))
+                .contains("clients=1", "expected-interval-us=500.0", "coordinated-omission=corrected")
+                .anyMatch(line -> line.startsWith("latency-us.p99="));
+    }
+
+    @Test
+    void shouldReportAMissingDaemon() {
+        // When
+        int exitCode = cmd.execute("--rate", "10", "--daemon", "--socket", tempDir.resolve("missing.sock").toString());
+
+        // Then
+        assertThat(exitCode).isEqualTo(1);
+        assertThat(errorWriter.toString()).startsWith("Error: No daemon serving this data set is listening on");
+    }
+
+    @Test
+    void shouldRejectTwoTargets() {
+        // When
+        int exitCode = cmd.execute("--rate", "10", "--daemon", "--url", "http://127.0.0.1:8080");
+
+        // Then
+        assertThat(exitCode).isEqualTo(1);
+        assertThat(errorWriter.toString())
+                .isEqualTo("Error: --url cannot be combined with --daemon" + System.lineSeparator());
+    }
+}
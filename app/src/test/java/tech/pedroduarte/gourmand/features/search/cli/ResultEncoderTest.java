@@ -0,0 +1,121 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResultEncoderTest {
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    private String encode(OutputFormat format, String name, double distance, double price, String cuisine)
+            throws IOException {
+        ResultEncoder encoder = new ResultEncoder(format, bytes);
+        encoder.writeHeader();
+        encoder.write(name, 4, distance, price, cuisine);
+        encoder.flush();
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Nested
+    class Formats {
+        @Test
+        void shouldWriteJsonLinesWithEscapedStrings() throws IOException {
+            // When
+            String output = encode(OutputFormat.JSONL, "Joe's \"Diner\"\t\\", 1.0, 25.5, "Café\u0001");
+
+            // Then
+            assertThat(output).isEqualTo(
+                    "{\"name\":\"Joe's \\\"Diner\\\"\\t\\\\\",\"rating\":4,\"distance\":1.0,"
+                            + "\"price\":25.5,\"cuisine\":\"Café\\u0001\"}\n");
+        }
+
+        @Test
+        void shouldQuoteCsvFieldsOnlyWhenNeeded() throws IOException {
+            // When
+            String output = encode(OutputFormat.CSV, "Fish, \"Chips\"", 2.0, 10.0, "British");
+
+            // Then
+            assertThat(output).isEqualTo("""
+                    name,rating,distance,price,cuisine
+                    "Fish, ""Chips\""",4,2.0,10.0,British
+                    """);
+        }
+
+        @Test
+        void shouldEscapeTabsAndNewlinesInTsv() throws IOException {
+            // When
+            String output = encode(OutputFormat.TSV, "Tab\there\nnow", 2.0, 10.0, "C:\\food");
+
+            // Then
+            assertThat(output).isEqualTo(
+                    "name\trating\tdistance\tprice\tcuisine\nTab\\there\\nnow\t4\t2.0\t10.0\tC:\\\\food\n");
+        }
+
+        @Test
+        void shouldRejectTheTableFormat() {
+            assertThatThrownBy(() -> new ResultEncoder(OutputFormat.TABLE, bytes))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class Encoding {
+        @Test
+        void shouldWriteDecimalsInFixedPoint() throws IOException {
+            // When
+            String output = encode(OutputFormat.CSV, "A", 3.14159265, 0.000_000_1, "B");
+
+            // Then
+            assertThat(output.lines().skip(1).findFirst()).contains("A,4,3.141593,0.0,B");
+        }
+
+        @Test
+        void shouldFallBackToPlainDoublesOutsideTheFixedPointRange() throws IOException {
+            // When
+            String csv = encode(OutputFormat.CSV, "A", 1e13, Double.NaN, "B");
+            bytes.reset();
+            String json = encode(OutputFormat.JSONL, "A", 1e13, Double.NaN, "B");
+
+            // Then
+            assertThat(csv).endsWith("A,4,1.0E13,NaN,B\n");
+            assertThat(json).contains("\"distance\":1.0E13,\"price\":null");
+        }
+
+        @Test
+        void shouldEncodeUtf8IncludingSurrogatePairs() throws IOException {
+            // When
+            String output = encode(OutputFormat.JSONL, "Crème brûlée \uD83C\uDF70", 1.0, 10.0, "日本料理");
+
+            // Then
+            assertThat(output).contains("\"name\":\"Crème brûlée \uD83C\uDF70\"")
+                    .contains("\"cuisine\":\"日本料理\"");
+        }
+
+        @Test
+        void shouldKeepMultiByteCharactersIntactAcrossFlushes() throws IOException {
+            // Given
+            StringWriter writer = new StringWriter();
+            ResultEncoder encoder = ResultEncoder.toWriter(OutputFormat.TSV, writer);
+            StringBuilder expected = new StringBuilder();
+
+            // When
+            for (int i = 0; i < 20_000; i++) {
+                String name = "Brasserie \u00e9\u20ac\uD83C\uDF7D " + i;
+                encoder.write(name, 5, 1.5, 20.0, "Français");
+                expected.append(name).append("\t5\t1.5\t20.0\tFrançais\n");
+            }
+            encoder.flush();
+
+            // Then
+            assertThat(writer.toString()).isEqualTo(expected.toString());
+        }
+    }
+}
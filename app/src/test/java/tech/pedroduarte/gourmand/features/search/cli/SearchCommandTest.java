@@ -16,6 +16,7 @@ import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 
+import tech.pedroduarte.gourmand.common.metrics.Metrics;
 import tech.pedroduarte.gourmand.features.search.application.dto.SearchResult;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -125,6 +126,99 @@ class SearchCommandTest {
             assertThat(exitCode).isZero();
         }
 
+        @Test
+        void shouldSearchFromLocation() {
+            // When
+            int exitCode = cmd.execute("--lat", "40.7128", "--lon", "-74.0060", "--distance", "2");
+
+            // Then
+            assertThat(exitCode).isZero();
+            assertThat(outputWriter.toString())
+                    .contains("Distance from: 40.712800, -74.006000")
+                    .contains("Deliciousgenix");
+        }
+
+        @Test
+        void shouldRequireLongitudeWithLatitude() {
+            // When
+            int exitCode = cmd.execute("--lat", "40.7128");
+
+            // Then
+            assertThat(exitCode).isNotZero();
+            assertThat(errorWriter.toString()).contains("--lon");
+        }
+
+        @Test
+        void shouldRejectInvalidLatitude() {
+            // When
+            int exitCode = cmd.execute("--lat", "95", "--lon", "10");
+
+            // Then
+            assertThat(exitCode).isNotZero();
+            assertThat(errorWriter.toString()).contains("Latitude must be between");
+        }
+
+        @Test
+        void shouldFindMistypedNameWithFuzzyOption() {
+            // When
+            int exitCode = cmd.execute("--name", "Delicousgenix", "--fuzzy", "1");
+
+            // Then
+            assertThat(exitCode).isZero();
+            assertThat(outputWriter.toString()).contains("Found 1 matching restaurants");
+        }
+
+        @Test
+        void shouldRequireNameForFuzzyOption() {
+            // When
+            int exitCode = cmd.execute("--fuzzy", "2");
+
+            // Then
+            assertThat(exitCode).isNotZero();
+            assertThat(errorWriter.toString()).contains("Fuzzy matching requires a restaurant name");
+        }
+
+        @Test
+        void shouldPrintFacetsAfterResults() {
+            // When
+            int exitCode = cmd.execute("--cuisine", "Korean", "--facets");
+
+            // Then
+            assertThat(exitCode).isZero();
+            assertThat(outputWriter.toString())
+                    .contains("Found 5 matching restaurants")
+                    .containsPattern("Facets over \\d+ matching restaurants")
+                    .contains("CUISINE", "RATING", "PRICE", "DISTANCE", "$10-20", "0-2 mi");
+        }
+
+        @Test
+        void shouldOnlyPrintCountInCountMode() {
+            // When
+            int exitCode = cmd.execute("--name", "Deliciousgenix", "--count");
+
+            // Then
+            assertThat(exitCode).isZero();
+            assertThat(outputWriter.toString())
+                    .contains("Found 1 matching restaurants")
+                    .doesNotContain("NAME");
+        }
+
+        @Test
+        void shouldPrintQueryPlanAsJsonWhenExplaining() {
+            // When
+            int exitCode = cmd.execute("--cuisine", "Korean", "--explain");
+
+            // Then
+            assertThat(exitCode).isZero();
+            assertThat(outputWriter.toString()).contains("Found 5 matching restaurants");
+            assertThat(errorWriter.toString().trim())
+                    .startsWith("{\"accessPath\":\"full-scan\"")
+                    .contains("\"predicate\":\"cuisine\"")
+                    .containsPattern("\"loadNanos\":\\d+")
+                    .containsPattern("\"renderNanos\":\\d+")
+                    .endsWith("}}");
+        }
+
         @Test
         void shouldHandleNoArguments() {
             // When
@@ -152,6 +246,24 @@ class SearchCommandTest {
             assertThat(exitCode).isZero();
         }
 
+        @Test
+        void shouldSearchAStoreFilledFromTheDataDirectory() throws Exception {
+            // Given
+            createValidTestFiles(tempDir);
+            Path store = tempDir.resolve("store");
+            cmd.execute("--data-dir", tempDir.toString(), "--store", store.toString(), "--no-daemon");
+            Files.writeString(tempDir.resolve("restaurants.csv"), "name,customer_rating,distance,price,cuisine_id\n");
+            outputWriter.getBuffer().setLength(0);
+
+            // When
+            int exitCode = cmd.execute("--data-dir", tempDir.toString(), "--store", store.toString(),
+                    "--name", "test", "--no-daemon");
+
+            // Then
+            assertThat(exitCode).isZero();
+            assertThat(outputWriter.toString()).contains("Test Restaurant");
+        }
+
         private void createValidTestFiles(Path directory) throws Exception {
             Files.writeString(directory.resolve("cuisines.csv"),
                     "id,name\n1,Italian\n2,American");
@@ -246,6 +358,189 @@ class SearchCommandTest {
         }
     }
 
+    @Nested
+    class MachineReadableFormatTests {
+        @TempDir
+        Path tempDir;
+
+        @BeforeEach
+        void setUpTestData() throws IOException {
+            Files.writeString(tempDir.resolve("cuisines.csv"), """
+                id,name
+                1,Italian
+                2,Chinese
+                """);
+            Files.writeString(tempDir.resolve("restaurants.csv"), """
+                name,customer_rating,distance,price,cuisine_id
+                Test Italian,4,1.0,20.0,1
+                Test Chinese,3,2.0,15.0,2
+                """);
+        }
+
+        @Test
+        void shouldStreamJsonLinesWithoutTheTable() {
+            // When
+            int exitCode = cmd.execute("--data-dir", tempDir.toString(), "--format", "jsonl");
+
+            // Then
+            assertThat(exitCode).isZero();
+            assertThat(outputWriter.toString()).isEqualTo("""
+                    {"name":"Test Italian","rating":4,"distance":1.0,"price":20.0,"cuisine":"Italian"}
+                    {"name":"Test Chinese","rating":3,"distance":2.0,"price":15.0,"cuisine":"Chinese"}
+                    """);
+        }
+
+        @Test
+        void shouldWriteLimitedCsvToTheOutputFile() throws IOException {
+            // Given
+            Path output = tempDir.resolve("results.csv");
+
+            // When
+            int exitCode = cmd.execute("--data-dir", tempDir.toString(), "--format", "CSV",
+                    "--limit", "1", "--output", output.toString());
+
+            // Then
+            assertThat(exitCode).isZero();
+            assertThat(outputWriter.toString()).isEmpty();
+            assertThat(Files.readString(output)).isEqualTo("""
+                    name,rating,distance,price,cuisine
+                    Test Italian,4,1.0,20.0,Italian
+                    """);
+        }
+
+        @Test
+        void shouldApplyTheLimitToTheTable() {
+            // When
+            int exitCode = cmd.execute("--data-dir", tempDir.toString(), "--limit", "1");
+
+            // Then
+            assertThat(exitCode).isZero();
+            assertThat(outputWriter.toString())
+                    .contains("Found 1 matching restaurants")
+                    .contains("Test Italian")
+                    .doesNotContain("Test Chinese");
+        }
+
+        @Test
+        void shouldPrintStageStatsAndLeaveRecordingOff() {
+            // When
+            int exitCode = cmd.execute("--data-dir", tempDir.toString(), "--stats");
+
+            // Then
+            assertThat(exitCode).isZero();
+            assertThat(outputWriter.toString()).contains("Test Italian");
+            assertThat(errorWriter.toString())
+                    .contains("STAGE", "P99", "load", "search", "render")
+                    .containsPattern("rows-loaded +2")
+                    .containsPattern("rows-scanned +2")
+                    .containsPattern("index-cache-misses +1");
+            assertThat(Metrics.isEnabled()).isFalse();
+        }
+
+        @Test
+        void shouldRejectOutputFileForTheTable() {
+            // When
+            int exitCode = cmd.execute("--data-dir", tempDir.toString(), "--output", "results.txt");
+
+            // Then
+            assertThat(exitCode).isEqualTo(1);
+            assertThat(errorWriter.toString()).contains("--output requires --format jsonl, csv or tsv");
+        }
+
+        @Test
+        void shouldRejectCountWithMachineReadableFormats() {
+            // When
+            int exitCode = cmd.execute("--data-dir", tempDir.toString(), "--format", "tsv", "--count");
+
+            // Then
+            assertThat(exitCode).isEqualTo(1);
+            assertThat(errorWriter.toString()).contains("--facets and --count only apply to the table format");
+        }
+
+        @Test
+        void shouldRejectUnknownFormats() {
+            // When
+            int exitCode = cmd.execute("--format", "xml");
+
+            // Then
+            assertThat(exitCode).isEqualTo(2);
+            assertThat(errorWriter.toString()).contains("Unknown format 'xml'");
+        }
+    }
+
+    @Nested
+    class BatchModeTests {
+        @TempDir
+        Path tempDir;
+
+        @Test
+        void shouldPrintTaggedResultsInInputOrder() throws IOException {
+            // Given
+            Path queries = tempDir.resolve("queries.csv");
+            Files.writeString(queries, """
+                id,name,rating,cuisine
+                deli,Deliciousgenix,,
+                none,NonExistent,,
+                ,,5,Korean
+                """);
+
+            // When
+            int exitCode = cmd.execute("--batch", queries.toString(), "--threads", "2");
+
+            // Then
+            assertThat(exitCode).isZero();
+            String[] lines = outputWriter.toString().split("\n");
+            assertThat(lines[0]).isEqualTo(BatchSearchRunner.OUTPUT_HEADER);
+            assertThat(lines[1]).startsWith("deli,1,Deliciousgenix,");
+            assertThat(Arrays.stream(lines).skip(2))
+                    .isNotEmpty()
+                    .allMatch(line -> line.startsWith("3,") && line.endsWith(",Korean"));
+        }
+
+        @Test
+        void shouldReportInvalidRowsAndKeepGoing() throws IOException {
+            // Given
+            Path queries = tempDir.resolve("queries.csv");
+            Files.writeString(queries, """
+                name,rating
+                Deliciousgenix,9
+                Deliciousgenix,
+                """);
+
+            // When
+            int exitCode = cmd.execute("--batch", queries.toString());
+
+            // Then
+            assertThat(exitCode).isEqualTo(1);
+            assertThat(errorWriter.toString()).contains("Error in query 1:");
+            assertThat(outputWriter.toString()).contains("2,1,Deliciousgenix,");
+        }
+
+        @Test
+        void shouldRejectUnknownColumns() throws IOException {
+            // Given
+            Path queries = tempDir.resolve("queries.csv");
+            Files.writeString(queries, "name,stars\nDeliciousgenix,4\n");
+
+            // When
+            int exitCode = cmd.execute("--batch", queries.toString());
+
+            // Then
+            assertThat(exitCode).isEqualTo(1);
+            assertThat(errorWriter.toString()).contains("Unknown batch column 'stars'");
+        }
+
+        @Test
+        void shouldNotCombineBatchWithCriteriaOptions() {
+            // When
+            int exitCode = cmd.execute("--batch", "-", "--name", "Pizza");
+
+            // Then
+            assertThat(exitCode).isEqualTo(1);
+            assertThat(errorWriter.toString()).contains("--batch cannot be combined");
+        }
+    }
+
     @Nested
     class HelpAndVersionTests {
         @Test
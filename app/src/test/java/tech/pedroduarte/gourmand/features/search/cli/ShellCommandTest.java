@@ -0,0 +1,188 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.SequenceInputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShellCommandTest {
+
+    @TempDir
+    Path dataDir;
+
+    private final StringWriter outputWriter = new StringWriter();
+    private final StringWriter errorWriter = new StringWriter();
+
+    @Test
+    void shouldRunSearchesAndReportLatency() throws IOException {
+        // Given
+        writeData("Old Italian");
+
+        // When
+        int exitCode = run(input("--name italian", "-c Italian -r 9", "help", "exit", "--name never-run"));
+
+        // Then
+        assertThat(exitCode).isZero();
+        assertThat(outputWriter.toString())
+                .contains("Loaded data in")
+                .contains("Old Italian")
+                .containsPattern("\\(\\d+\\.\\d{2} ms\\)")
+                .contains("reload")
+                .doesNotContain("never-run");
+        assertThat(errorWriter.toString()).contains("Rating must be between");
+    }
+
+    @Test
+    void shouldAcceptSearchPrefixAndQuotes() throws IOException {
+        // Given
+        writeData("Old Italian");
+
+        // When
+        run(input("search --name 'old italian'"));
+
+        // Then
+        assertThat(outputWriter.toString()).contains("Found 1 matching restaurants");
+    }
+
+    @Test
+    void shouldRejectADataDirectoryOnASearchLine() throws IOException {
+        // Given
+        writeData("Old Italian");
+
+        // When
+        run(input("--data-dir /elsewhere --name italian", "--name italian --data-dir=/elsewhere"));
+
+        // Then
+        assertThat(outputWriter.toString()).doesNotContain("Old Italian");
+        assertThat(errorWriter.toString().lines())
+                .containsExactly("Error: --data-dir cannot change between searches; start the shell with it instead",
+                        "Error: --data-dir cannot change between searches; start the shell with it instead");
+    }
+
+    @Test
+    void shouldRejectAStoreOnASearchLine() throws IOException {
+        // Given
+        writeData("Old Italian");
+
+        // When
+        run(input("--store /elsewhere --name italian"));
+
+        // Then
+        assertThat(outputWriter.toString()).doesNotContain("Old Italian");
+        assertThat(errorWriter.toString().lines())
+                .containsExactly("Error: --store is not supported in the shell; use search --store instead");
+    }
+
+    @Test
+    void shouldReloadDataWithoutExiting() throws IOException {
+        // Given
+        writeData("Old Italian");
+        InputStream input = new SequenceInputStream(Collections.enumeration(List.<Supplier<InputStream>>of(
+                () -> input("--name italian"),
+                () -> {
+                    // Runs once the first search is done, as the shell asks for more input
+                    writeData("New Italian");
+                    return input("--name italian", "reload", "--name italian");
+                }
+        ).stream().map(LazyStream::new).toList()));
+
+        // When
+        run(input);
+
+        // Then
+        String output = outputWriter.toString();
+        int reload = output.lastIndexOf("Loaded data in");
+        assertThat(output.substring(0, reload)).contains("Old Italian").doesNotContain("New Italian");
+        assertThat(output.substring(reload)).contains("New Italian").doesNotContain("Old Italian");
+    }
+
+    @Test
+    void shouldKeepPreviousDataWhenReloadFails() throws IOException {
+        // Given
+        writeData("Old Italian");
+        InputStream input = new SequenceInputStream(Collections.enumeration(List.<Supplier<InputStream>>of(
+                () -> input("--name italian"),
+                () -> {
+                    try {
+                        Files.delete(dataDir.resolve("restaurants.csv"));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return input("reload", "--name italian");
+                }
+        ).stream().map(LazyStream::new).toList()));
+
+        // When
+        run(input);
+
+        // Then
+        assertThat(errorWriter.toString()).contains("Keeping the previous data");
+        String output = outputWriter.toString();
+        assertThat(output.indexOf("Old Italian")).isNotEqualTo(output.lastIndexOf("Old Italian"));
+    }
+
+    private int run(InputStream input) {
+        return new CommandLine(new ShellCommand(input))
+                .setOut(new PrintWriter(outputWriter, true))
+                .setErr(new PrintWriter(errorWriter, true))
+                .execute("--data-dir", dataDir.toString());
+    }
+
+    private void writeData(String restaurantName) {
+        try {
+            Files.writeString(dataDir.resolve("cuisines.csv"), "id,name\n1,Italian\n");
+            Files.writeString(dataDir.resolve("restaurants.csv"),
+                    "name,customer_rating,distance,price,cuisine_id\n" + restaurantName + ",4,1.0,20.0,1\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static InputStream input(String... lines) {
+        return new ByteArrayInputStream((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stream opened on first read, so tests can act between two chunks of shell input.
+     */
+    private static final class LazyStream extends InputStream {
+        private final Supplier<InputStream> opener;
+        private InputStream delegate;
+
+        LazyStream(Supplier<InputStream> opener) {
+            this.opener = opener;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return open().read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return open().read(buffer, offset, length);
+        }
+
+        private InputStream open() {
+            if (delegate == null) {
+                delegate = opener.get();
+            }
+            return delegate;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package tech.pedroduarte.gourmand.features.search.cli;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShellTokenizerTest {
+
+    @Test
+    void shouldSplitOnWhitespace() {
+        assertThat(ShellTokenizer.tokenize("  -c Italian\t-r 4 ")).containsExactly("-c", "Italian", "-r", "4");
+    }
+
+    @Test
+    void shouldKeepQuotedWhitespace() {
+        assertThat(ShellTokenizer.tokenize("--name \"Golden Dragon\" --cuisine 'Fast Food'"))
+                .containsExactly("--name", "Golden Dragon", "--cuisine", "Fast Food");
+    }
+
+    @Test
+    void shouldHandleEscapesAndEmptyQuotes() {
+        assertThat(ShellTokenizer.tokenize("--name Joe\\'s \"\" 'a\\b'"))
+                .containsExactly("--name", "Joe's", "", "a\\b");
+    }
+
+    @Test
+    void shouldRejectUnterminatedQuote() {
+        assertThatThrownBy(() -> ShellTokenizer.tokenize("--name \"Golden"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unterminated double quote");
+    }
+}
@@ -0,0 +1,74 @@
+package tech.pedroduarte.gourmand.features.search.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class FacetCountsTest {
+
+    @Test
+    void shouldIncludeUpperLimitInEachBand() {
+        // Given
+        FacetCounts.Counter counter = new FacetCounts.Counter(1);
+
+        // When
+        counter.add(4, 20.0, 2.0, 0);
+        counter.add(4, 20.5, 2.5, 0);
+        counter.add(5, 50.0, 10.0, 0);
+
+        // Then
+        FacetCounts counts = counter.build(List.of("Italian"));
+        assertThat(counts.total()).isEqualTo(3);
+        assertThat(counts.byPrice()).containsExactly(
+                entry("$10-20", 1), entry("$20-30", 1), entry("$30-40", 0), entry("$40-50", 1));
+        assertThat(counts.byDistance()).containsExactly(
+                entry("0-2 mi", 1), entry("2-4 mi", 1), entry("4-6 mi", 0), entry("6-8 mi", 0), entry("8-10 mi", 1));
+    }
+
+    @Test
+    void shouldListEveryRatingFromHighest() {
+        // Given
+        FacetCounts.Counter counter = new FacetCounts.Counter(1);
+        counter.add(3, 10.0, 1.0, 0);
+
+        // When
+        FacetCounts counts = counter.build(List.of("Italian"));
+
+        // Then
+        assertThat(counts.byRating()).containsExactly(
+                entry(5, 0), entry(4, 0), entry(3, 1), entry(2, 0), entry(1, 0));
+    }
+
+    @Test
+    void shouldOrderCuisinesByCountThenName() {
+        // Given
+        FacetCounts.Counter counter = new FacetCounts.Counter(3);
+        counter.add(3, 10.0, 1.0, 2);
+        counter.add(3, 10.0, 1.0, 1);
+        counter.add(3, 10.0, 1.0, 1);
+        counter.add(3, 10.0, 1.0, 0);
+
+        // When
+        FacetCounts counts = counter.build(List.of("Thai", "Korean", "Chinese", "Unused"));
+
+        // Then
+        assertThat(counts.byCuisine()).containsExactly(
+                entry("Korean", 2), entry("Chinese", 1), entry("Thai", 1));
+    }
+
+    @Test
+    void shouldOnlyShowOpenDistanceBandWhenUsed() {
+        // Given
+        FacetCounts.Counter counter = new FacetCounts.Counter(1);
+        counter.add(3, 10.0, 12.5, 0);
+
+        // When
+        FacetCounts counts = counter.build(List.of("Italian"));
+
+        // Then
+        assertThat(counts.byDistance()).containsEntry("10+ mi", 1).hasSize(6);
+    }
+}
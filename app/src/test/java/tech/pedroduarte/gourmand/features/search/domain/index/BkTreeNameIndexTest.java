@@ -0,0 +1,117 @@
+package tech.pedroduarte.gourmand.features.search.domain.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BkTreeNameIndexTest {
+
+    @Test
+    void shouldFindNameWithTypo() {
+        // Given
+        BkTreeNameIndex index = BkTreeNameIndex.build(List.of(
+                restaurant("Deliciousgenix"),
+                restaurant("Deliciousscape"),
+                restaurant("Herbed Delicious")
+        ));
+
+        // When
+        List<Restaurant> matches = index.search("Delicousgenix", 1);
+
+        // Then
+        assertThat(matches).extracting(Restaurant::getName).containsExactly("Deliciousgenix");
+    }
+
+    @Test
+    void shouldIgnoreCase() {
+        // Given
+        BkTreeNameIndex index = BkTreeNameIndex.build(List.of(restaurant("Grove Table")));
+
+        // When/Then
+        assertThat(index.search("gRovE TABLE", 0)).hasSize(1);
+    }
+
+    @Test
+    void shouldKeepOriginalOrderForDuplicateNames() {
+        // Given
+        Restaurant first = restaurant("Cafe");
+        Restaurant other = restaurant("Cafes");
+        Restaurant second = restaurant("cafe");
+        BkTreeNameIndex index = BkTreeNameIndex.build(List.of(first, other, second));
+
+        // When
+        List<Restaurant> matches = index.search("cafe", 1);
+
+        // Then
+        assertThat(matches).containsExactly(first, other, second);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3})
+    void shouldMatchBruteForceEditDistance(int maxDistance) {
+        // Given
+        Random random = new Random(5);
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            restaurants.add(restaurant(randomName(random)));
+        }
+        BkTreeNameIndex index = BkTreeNameIndex.build(restaurants);
+
+        for (int q = 0; q < 50; q++) {
+            String query = randomName(random);
+
+            // When
+            List<Restaurant> matches = index.search(query, maxDistance);
+
+            // Then
+            List<Restaurant> expected = restaurants.stream()
+                    .filter(r -> levenshtein(r.getName().toLowerCase(), query.toLowerCase()) <= maxDistance)
+                    .collect(Collectors.toList());
+            assertThat(matches).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void shouldHandleEmptyIndex() {
+        assertThat(BkTreeNameIndex.build(List.of()).search("anything", 2)).isEmpty();
+    }
+
+    private static String randomName(Random random) {
+        String alphabet = "abcde";
+        int length = 3 + random.nextInt(4);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            name.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return name.toString();
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] dp = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) dp[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) dp[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                dp[i][j] = Math.min(dp[i - 1][j - 1] + cost, Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1));
+            }
+        }
+        return dp[a.length()][b.length()];
+    }
+
+    private static Restaurant restaurant(String name) {
+        return new Restaurant(name, new Rating(4), new Distance(1.0), new Price(20.0), new Cuisine("Italian"));
+    }
+}
@@ -0,0 +1,154 @@
+package tech.pedroduarte.gourmand.features.search.domain.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.NearbyRestaurant;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeoGridIndexTest {
+
+    private static final Cuisine ITALIAN = new Cuisine("Italian");
+    private static final Cuisine THAI = new Cuisine("Thai");
+
+    @ParameterizedTest
+    @CsvSource({
+            "40.7128, -74.0060, 5, 3.0",
+            "40.7128, -74.0060, 20, Infinity",
+            "40.9000, -74.3000, 5, 10.0",
+            "51.5074, -0.1278, 5, Infinity",
+            "0.0, 179.99, 5, 50.0"
+    })
+    void shouldMatchBruteForceNearestNeighbours(double latitude, double longitude, int limit, double radius) {
+        // Given
+        List<Restaurant> restaurants = randomRestaurants(new Random(11), 5_000);
+        GeoGridIndex index = GeoGridIndex.build(restaurants);
+        GeoLocation origin = new GeoLocation(latitude, longitude);
+        Predicate<Restaurant> italianOnly = r -> r.getCuisine().equals(ITALIAN);
+
+        // When
+        List<NearbyRestaurant> nearest = index.nearest(origin, radius, limit, italianOnly);
+
+        // Then
+        assertThat(nearest).extracting(NearbyRestaurant::restaurant)
+                .containsExactlyElementsOf(bruteForce(restaurants, origin, radius, limit, italianOnly));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1, Infinity",
+            "20, 10.0",
+            "2147483647, 30.0"
+    })
+    void shouldScanToTheSameAnswerAsTheGrid(int limit, double radius) {
+        // Given
+        List<Restaurant> restaurants = new ArrayList<>(randomRestaurants(new Random(5), 2_000));
+        restaurants.add(new Restaurant("Nowhere", new Rating(5), new Distance(1.0), new Price(10.0), ITALIAN));
+        GeoLocation origin = new GeoLocation(40.7128, -74.0060);
+        Predicate<Restaurant> thaiOnly = r -> r.getCuisine().equals(THAI);
+
+        // When
+        List<NearbyRestaurant> scanned = GeoGridIndex.scan(restaurants, origin, radius, limit, thaiOnly);
+
+        // Then
+        assertThat(scanned).isNotEmpty()
+                .isEqualTo(GeoGridIndex.build(restaurants).nearest(origin, radius, limit, thaiOnly));
+    }
+
+    @Test
+    void shouldBreakDistanceTiesByRatingThenPrice() {
+        // Given
+        GeoLocation spot = new GeoLocation(10.0, 10.0);
+        List<Restaurant> restaurants = List.of(
+                restaurant("Low", 3, 20.0, spot, ITALIAN),
+                restaurant("HighExpensive", 5, 40.0, spot, ITALIAN),
+                restaurant("HighCheap", 5, 15.0, spot, ITALIAN)
+        );
+
+        // When
+        List<NearbyRestaurant> nearest = GeoGridIndex.build(restaurants)
+                .nearest(new GeoLocation(10.01, 10.01), Double.POSITIVE_INFINITY, 3, r -> true);
+
+        // Then
+        assertThat(nearest).extracting(n -> n.restaurant().getName())
+                .containsExactly("HighCheap", "HighExpensive", "Low");
+    }
+
+    @Test
+    void shouldIgnoreRestaurantsWithoutLocation() {
+        // Given
+        List<Restaurant> restaurants = List.of(
+                new Restaurant("Nowhere", new Rating(5), new Distance(1.0), new Price(10.0), ITALIAN),
+                restaurant("Somewhere", 4, 20.0, new GeoLocation(1.0, 1.0), ITALIAN)
+        );
+
+        // When
+        GeoGridIndex index = GeoGridIndex.build(restaurants);
+
+        // Then
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.nearest(new GeoLocation(1.0, 1.0), 1.0, 5, r -> true))
+                .extracting(n -> n.restaurant().getName())
+                .containsExactly("Somewhere");
+    }
+
+    @Test
+    void shouldRespectRadius() {
+        // Given
+        List<Restaurant> restaurants = List.of(
+                restaurant("Far", 5, 20.0, new GeoLocation(11.0, 10.0), ITALIAN)
+        );
+
+        // When
+        List<NearbyRestaurant> nearest = GeoGridIndex.build(restaurants)
+                .nearest(new GeoLocation(10.0, 10.0), 10.0, 5, r -> true);
+
+        // Then
+        assertThat(nearest).isEmpty();
+    }
+
+    private static List<Restaurant> bruteForce(List<Restaurant> restaurants, GeoLocation origin,
+                                               double radius, int limit, Predicate<Restaurant> filter) {
+        Comparator<Restaurant> order = Comparator.<Restaurant>comparingDouble(r -> r.getLocation().milesTo(origin))
+                .thenComparing(Restaurant::getRating, Comparator.reverseOrder())
+                .thenComparing(Restaurant::getPrice);
+        return restaurants.stream()
+                .filter(r -> r.getLocation().milesTo(origin) <= radius)
+                .filter(filter)
+                .sorted(order)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Restaurant> randomRestaurants(Random random, int count) {
+        double[][] cities = {{40.7128, -74.0060}, {51.5074, -0.1278}, {0.0, 179.95}, {0.0, -179.95}};
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double[] city = cities[random.nextInt(cities.length)];
+            GeoLocation location = new GeoLocation(
+                    city[0] + (random.nextDouble() - 0.5) * 0.6,
+                    Math.max(-180.0, Math.min(180.0, city[1] + (random.nextDouble() - 0.5) * 0.6)));
+            restaurants.add(restaurant("R" + i, 1 + random.nextInt(5), 10.0 + random.nextInt(41),
+                    location, random.nextBoolean() ? ITALIAN : THAI));
+        }
+        return restaurants;
+    }
+
+    private static Restaurant restaurant(String name, int rating, double price, GeoLocation location, Cuisine cuisine) {
+        return new Restaurant(name, new Rating(rating), new Distance(1.0), new Price(price), cuisine, location);
+    }
+}
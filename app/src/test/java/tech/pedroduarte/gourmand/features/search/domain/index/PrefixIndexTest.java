@@ -0,0 +1,123 @@
+package tech.pedroduarte.gourmand.features.search.domain.index;
+
+import org.junit.jupiter.api.Test;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.index.PrefixIndex.Completion;
+import tech.pedroduarte.gourmand.features.search.domain.index.PrefixIndex.Kind;
+import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTest {
+
+    private final RestaurantSearchDomainService domainService = new RestaurantSearchDomainService();
+
+    @Test
+    void shouldRankCompletionsByRelevance() {
+        // Given
+        List<Restaurant> restaurants = List.of(
+                restaurant("Grove Far", 5, 9.0, "Greek"),
+                restaurant("Grove Near", 3, 1.0, "Greek"),
+                restaurant("Grill House", 4, 2.0, "American")
+        );
+        PrefixIndex index = build(restaurants, List.of(new Cuisine("Greek"), new Cuisine("American")));
+
+        // When
+        List<Completion> completions = index.complete("gr", 10);
+
+        // Then
+        assertThat(completions).containsExactly(
+                new Completion("Greek", Kind.CUISINE),
+                new Completion("Grove Near", Kind.RESTAURANT),
+                new Completion("Grill House", Kind.RESTAURANT),
+                new Completion("Grove Far", Kind.RESTAURANT)
+        );
+    }
+
+    @Test
+    void shouldBeCaseInsensitiveAndRespectLimit() {
+        // Given
+        List<Restaurant> restaurants = List.of(
+                restaurant("Pizza One", 4, 1.0, "Italian"),
+                restaurant("Pizza Two", 4, 2.0, "Italian"),
+                restaurant("Pizza Three", 4, 3.0, "Italian")
+        );
+        PrefixIndex index = build(restaurants, List.of(new Cuisine("Italian")));
+
+        // When
+        List<Completion> completions = index.complete("PIZ", 2);
+
+        // Then
+        assertThat(completions).extracting(Completion::text)
+                .containsExactly("Pizza One", "Pizza Two");
+    }
+
+    @Test
+    void shouldPlaceCuisinesWithoutRestaurantsLast() {
+        // Given
+        List<Restaurant> restaurants = List.of(restaurant("Thai Palace", 4, 5.0, "Thai"));
+        PrefixIndex index = build(restaurants, List.of(new Cuisine("Thai"), new Cuisine("Turkish")));
+
+        // When
+        List<Completion> completions = index.complete("t", 5);
+
+        // Then
+        assertThat(completions).extracting(Completion::text)
+                .containsExactly("Thai", "Thai Palace", "Turkish");
+    }
+
+    @Test
+    void shouldReturnNothingForUnknownPrefix() {
+        // Given
+        PrefixIndex index = build(List.of(restaurant("Sushi Bar", 4, 1.0, "Japanese")), List.of());
+
+        // When/Then
+        assertThat(index.complete("zz", 5)).isEmpty();
+        assertThat(build(List.of(), List.of()).complete("a", 5)).isEmpty();
+    }
+
+    @Test
+    void shouldMatchBruteForceTopK() {
+        // Given
+        Random random = new Random(3);
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            String name = "" + (char) ('a' + random.nextInt(3)) + (char) ('a' + random.nextInt(3)) + " place " + i;
+            restaurants.add(restaurant(name, 1 + random.nextInt(5), 1.0 + random.nextInt(10), "Italian"));
+        }
+        PrefixIndex index = build(restaurants, List.of());
+        List<String> byRelevance = domainService.sortByRelevance(restaurants).stream()
+                .map(Restaurant::getName)
+                .collect(Collectors.toList());
+
+        for (String prefix : List.of("a", "ab", "cc", "b")) {
+            // When
+            List<Completion> completions = index.complete(prefix, 7);
+
+            // Then
+            List<String> expected = byRelevance.stream()
+                    .filter(name -> name.toLowerCase(Locale.ROOT).startsWith(prefix))
+                    .limit(7)
+                    .collect(Collectors.toList());
+            assertThat(completions).extracting(Completion::text).containsExactlyElementsOf(expected);
+        }
+    }
+
+    private PrefixIndex build(List<Restaurant> restaurants, List<Cuisine> cuisines) {
+        return PrefixIndex.build(restaurants, domainService.relevanceRanks(restaurants), cuisines);
+    }
+
+    private static Restaurant restaurant(String name, int rating, double distance, String cuisine) {
+        return new Restaurant(name, new Rating(rating), new Distance(distance), new Price(20.0), new Cuisine(cuisine));
+    }
+}
@@ -0,0 +1,101 @@
+package tech.pedroduarte.gourmand.features.search.domain.service;
+
+import org.junit.jupiter.api.Test;
+import tech.pedroduarte.gourmand.features.search.application.QueryProfile;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.ResultCursor;
+import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+import tech.pedroduarte.gourmand.features.search.domain.SearchProbe;
+import tech.pedroduarte.gourmand.features.search.domain.index.RestaurantColumns;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankedMatchesTest {
+
+    private static final String[] CUISINES = {"Italian", "Chinese", "Thai", "Korean"};
+
+    private final RestaurantSearchDomainService domainService = new RestaurantSearchDomainService();
+
+    @Test
+    void shouldWalkTheSameMatchesAsFilteringAndSorting() {
+        // Given
+        Random random = new Random(7);
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            restaurants.add(new Restaurant(
+                    "Place " + random.nextInt(400),
+                    new Rating(1 + random.nextInt(5)),
+                    new Distance(1.0 + random.nextInt(10)),
+                    new Price(10.0 + random.nextInt(41)),
+                    new Cuisine(CUISINES[random.nextInt(CUISINES.length)])
+            ));
+        }
+        RestaurantColumns columns = RestaurantColumns.build(restaurants, domainService.relevanceRanks(restaurants));
+
+        for (int query = 0; query < 100; query++) {
+            SearchCriteria criteria = SearchCriteria.builder()
+                    .name(random.nextBoolean() ? "place " + random.nextInt(40) : null)
+                    .minRating(random.nextBoolean() ? new Rating(1 + random.nextInt(5)) : null)
+                    .maxDistance(random.nextBoolean() ? new Distance(1 + random.nextInt(10)) : null)
+                    .maxPrice(random.nextBoolean() ? new Price(10 + random.nextInt(41)) : null)
+                    .cuisine(random.nextBoolean() ? new Cuisine(CUISINES[random.nextInt(CUISINES.length)]) : null)
+                    .build();
+            int limit = 1 + random.nextInt(50);
+
+            // When
+            List<String> walked = new ArrayList<>();
+            ResultCursor cursor = domainService.rankedMatches(columns, criteria, limit, SearchProbe.DISABLED);
+            while (cursor.next()) {
+                walked.add(cursor.name() + "|" + cursor.rating() + "|" + cursor.distance() + "|"
+                        + cursor.price() + "|" + cursor.cuisine());
+            }
+
+            // Then
+            List<Restaurant> expected = domainService.sortByRelevance(domainService.findMatches(restaurants,
+                    criteria.name(), criteria.minRating(), criteria.maxDistance(), criteria.maxPrice(),
+                    criteria.cuisine()));
+            assertThat(walked).containsExactlyElementsOf(expected.stream()
+                    .limit(limit)
+                    .map(r -> r.getName() + "|" + r.getRating().getValue() + "|" + r.getDistance().getMiles() + "|"
+                            + r.getPrice().getAmount() + "|" + r.getCuisine().getName())
+                    .toList());
+        }
+    }
+
+    @Test
+    void shouldStopAtTheLimitAndReportTheRowsItVisited() {
+        // Given
+        List<Restaurant> restaurants = List.of(
+                new Restaurant("Near Pizza", new Rating(5), new Distance(1.0), new Price(15.0), new Cuisine("Italian")),
+                new Restaurant("Far Pizza", new Rating(5), new Distance(9.0), new Price(15.0), new Cuisine("Italian")),
+                new Restaurant("Sushi", new Rating(2), new Distance(2.0), new Price(15.0), new Cuisine("Japanese")),
+                new Restaurant("Mid Pizza", new Rating(4), new Distance(3.0), new Price(15.0), new Cuisine("Italian"))
+        );
+        RestaurantColumns columns = RestaurantColumns.build(restaurants, domainService.relevanceRanks(restaurants));
+        SearchCriteria criteria = SearchCriteria.builder().minRating(new Rating(4)).build();
+        QueryProfile profile = new QueryProfile();
+
+        // When
+        ResultCursor cursor = domainService.rankedMatches(columns, criteria, 2, profile);
+        List<String> names = new ArrayList<>();
+        while (cursor.next()) {
+            names.add(cursor.name());
+        }
+
+        // Then
+        assertThat(names).containsExactly("Near Pizza", "Mid Pizza");
+        assertThat(cursor.next()).isFalse();
+        assertThat(profile.toJson())
+                .contains("{\"predicate\":\"rating\",\"rowsIn\":3,\"rowsOut\":2}")
+                .contains("\"sort\":{\"method\":\"rank-order\",\"rows\":2}")
+                .contains("\"results\":2");
+    }
+}
@@ -0,0 +1,96 @@
+package tech.pedroduarte.gourmand.features.search.domain.service;
+
+import org.junit.jupiter.api.Test;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RelevanceKeysTest {
+
+    private static final Comparator<Restaurant> REFERENCE_ORDER =
+            Comparator.comparing(Restaurant::getDistance)
+                    .thenComparing(Restaurant::getRating, Comparator.reverseOrder())
+                    .thenComparing(Restaurant::getPrice);
+
+    private final RestaurantSearchDomainService domainService = new RestaurantSearchDomainService();
+
+    @Test
+    void shouldMatchComparatorOrderOnRandomData() {
+        // Given
+        Random random = new Random(42);
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            restaurants.add(new Restaurant(
+                    "R" + i,
+                    new Rating(1 + random.nextInt(5)),
+                    new Distance(1.0 + random.nextInt(37) * 0.25),
+                    new Price(10.0 + random.nextInt(9) * 5.0),
+                    new Cuisine("Italian")
+            ));
+        }
+
+        // When
+        List<Restaurant> sorted = domainService.sortByRelevance(restaurants);
+
+        // Then
+        List<Restaurant> expected = restaurants.stream()
+                .sorted(REFERENCE_ORDER)
+                .collect(Collectors.toList());
+        assertThat(sorted).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void shouldKeepInputOrderForFullTies() {
+        // Given
+        List<Restaurant> restaurants = List.of(
+                restaurant("First", 4, 2.0, 20.0),
+                restaurant("Second", 4, 2.0, 20.0),
+                restaurant("Third", 4, 2.0, 20.0)
+        );
+
+        // When
+        List<Restaurant> sorted = domainService.sortByRelevance(restaurants);
+
+        // Then
+        assertThat(sorted).extracting(Restaurant::getName)
+                .containsExactly("First", "Second", "Third");
+    }
+
+    @Test
+    void shouldEncodeRowIndexInEveryKey() {
+        // Given
+        List<Restaurant> restaurants = List.of(
+                restaurant("Far", 5, 9.0, 10.0),
+                restaurant("Near", 1, 1.0, 50.0)
+        );
+
+        // When
+        RelevanceKeys relevance = RelevanceKeys.encode(restaurants);
+
+        // Then
+        assertThat(relevance).isNotNull();
+        long[] keys = relevance.keys();
+        assertThat(relevance.rowOf(keys[0])).isZero();
+        assertThat(relevance.rowOf(keys[1])).isEqualTo(1);
+        assertThat(keys[1]).isLessThan(keys[0]);
+    }
+
+    @Test
+    void shouldHandleEmptyList() {
+        assertThat(domainService.sortByRelevance(List.of())).isEmpty();
+    }
+
+    private static Restaurant restaurant(String name, int rating, double distance, double price) {
+        return new Restaurant(name, new Rating(rating), new Distance(distance), new Price(price), new Cuisine("Italian"));
+    }
+}
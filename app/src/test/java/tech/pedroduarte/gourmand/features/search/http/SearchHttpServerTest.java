@@ -0,0 +1,261 @@
+package tech.pedroduarte.gourmand.features.search.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import tech.pedroduarte.gourmand.features.search.application.AdmissionController;
+import tech.pedroduarte.gourmand.features.search.application.SearchService;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
+import tech.pedroduarte.gourmand.features.search.infrastructure.persistence.CopyOnWriteRestaurantRepository;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchHttpServerTest {
+
+    private RestaurantRepository repository;
+    private SearchHttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        repository = mock(RestaurantRepository.class);
+        when(repository.findAll()).thenReturn(List.of(
+                new Restaurant("Pizza \"Roma\"", new Rating(5), new Distance(1.0), new Price(20.0), new Cuisine("Italian")),
+                new Restaurant("Pizza Napoli", new Rating(3), new Distance(2.0), new Price(15.0), new Cuisine("Italian")),
+                new Restaurant("Golden Dragon", new Rating(4), new Distance(1.5), new Price(25.0), new Cuisine("Chinese"))
+        ));
+        server = new SearchHttpServer(new SearchService(repository, new RestaurantSearchDomainService()),
+                new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void shouldReturnResultsAsJson() throws Exception {
+        // When
+        HttpResponse<String> response = get("/search?name=pizza&rating=4");
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValue("application/json; charset=utf-8");
+        assertThat(response.body()).isEqualTo(
+                "{\"results\":[{\"name\":\"Pizza \\\"Roma\\\"\",\"rating\":5,\"distance\":1.0,\"price\":20.0,\"cuisine\":\"Italian\"}]}");
+    }
+
+    @Test
+    void shouldDecodeQueryParameters() throws Exception {
+        // When
+        HttpResponse<String> response = get("/search?name=golden%20dragon");
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).contains("\"name\":\"Golden Dragon\"");
+    }
+
+    @Test
+    void shouldRejectInvalidCriteria() throws Exception {
+        // When
+        HttpResponse<String> response = get("/search?rating=9");
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(400);
+        assertThat(response.body()).startsWith("{\"error\":\"Rating must be between");
+    }
+
+    @Test
+    void shouldRejectUnknownParameters() throws Exception {
+        // When
+        HttpResponse<String> response = get("/search?stars=4");
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(400);
+        assertThat(response.body()).contains("Unknown parameter 'stars'");
+    }
+
+    @Test
+    void shouldRejectOtherMethods() throws Exception {
+        // When
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(uri("/search")).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(405);
+    }
+
+    @Test
+    void shouldReportHealth() throws Exception {
+        assertThat(get("/health").body()).isEqualTo("{\"status\":\"ok\"}");
+    }
+
+    @Test
+    void shouldServeConcurrentRequests() throws Exception {
+        // Given
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(uri("/search?cuisine=italian")).build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+
+        // Then
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertThat(response.get().statusCode()).isEqualTo(200);
+            assertThat(response.get().body()).contains("Pizza Napoli");
+        }
+    }
+
+    @Test
+    void shouldAnswerUnavailableWhenAdmissionTurnsASearchAway() throws Exception {
+        // Given
+        server.close();
+        AdmissionController admission = new AdmissionController(1, 1, Duration.ofSeconds(10), 0, Duration.ZERO);
+        server = new SearchHttpServer(new SearchService(repository, new RestaurantSearchDomainService()), admission,
+                new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> busy = CompletableFuture.supplyAsync(() -> admission.execute(() -> {
+            started.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        HttpResponse<String> response = get("/search?name=pizza");
+        release.countDown();
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(503);
+        assertThat(response.headers().firstValue("Retry-After")).hasValue("1");
+        assertThat(response.body()).isEqualTo("{\"error\":\"Too many searches waiting (0), try again later\"}");
+        assertThat(busy.get(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(get("/search?name=pizza").statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void shouldNotAcceptChangesWithoutARepositoryForThem() throws Exception {
+        // When
+        HttpResponse<String> response = send("DELETE", "/restaurants?name=Pizza%20Napoli");
+
+        // Then
+        assertThat(response.statusCode()).isEqualTo(404);
+    }
+
+    @Nested
+    class Changes {
+
+        @BeforeEach
+        void setUp() throws IOException {
+            server.close();
+            RestaurantSearchDomainService domainService = new RestaurantSearchDomainService();
+            CopyOnWriteRestaurantRepository writable =
+                    new CopyOnWriteRestaurantRepository(() -> repository, domainService::relevanceRanks);
+            server = new SearchHttpServer(new SearchService(writable, domainService), null, writable,
+                    new InetSocketAddress("127.0.0.1", 0));
+            server.start();
+        }
+
+        @Test
+        void shouldServeAnAddedRestaurant() throws Exception {
+            // When
+            HttpResponse<String> response = send("POST",
+                    "/restaurants?name=Sushi%20Ya&rating=5&distance=1.5&price=30&cuisine=Japanese");
+
+            // Then
+            assertThat(response.statusCode()).isEqualTo(204);
+            assertThat(get("/search?cuisine=japanese").body()).contains("\"name\":\"Sushi Ya\"");
+        }
+
+        @Test
+        void shouldReplaceAndRemoveRestaurants() throws Exception {
+            // When
+            HttpResponse<String> replaced = send("PUT",
+                    "/restaurants?name=Pizza%20Napoli&rating=1&distance=2&price=15&cuisine=Italian");
+            HttpResponse<String> removed = send("DELETE", "/restaurants?name=Golden%20Dragon");
+
+            // Then
+            assertThat(replaced.statusCode()).isEqualTo(204);
+            assertThat(removed.statusCode()).isEqualTo(204);
+            assertThat(get("/search?name=napoli").body()).contains("\"rating\":1");
+            assertThat(get("/search?name=dragon").body()).isEqualTo("{\"results\":[]}");
+        }
+
+        @Test
+        void shouldRejectChangesTheRepositoryRefuses() throws Exception {
+            // When
+            HttpResponse<String> response = send("DELETE", "/restaurants?name=Nowhere");
+
+            // Then
+            assertThat(response.statusCode()).isEqualTo(400);
+            assertThat(response.body()).contains("Nowhere");
+        }
+
+        @Test
+        void shouldRejectIncompleteRestaurants() throws Exception {
+            // When
+            HttpResponse<String> response = send("POST", "/restaurants?name=Sushi%20Ya&rating=5");
+
+            // Then
+            assertThat(response.statusCode()).isEqualTo(400);
+            assertThat(response.body()).isEqualTo("{\"error\":\"Missing distance\"}");
+        }
+
+        @Test
+        void shouldRejectOtherMethods() throws Exception {
+            // When
+            HttpResponse<String> response = get("/restaurants?name=Pizza%20Napoli");
+
+            // Then
+            assertThat(response.statusCode()).isEqualTo(405);
+            assertThat(response.headers().firstValue("Allow")).hasValue("POST, PUT, DELETE");
+        }
+    }
+
+    private HttpResponse<String> send(String method, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).method(method, HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        InetSocketAddress address = server.getAddress();
+        return URI.create("http://127.0.0.1:" + address.getPort() + path);
+    }
+}
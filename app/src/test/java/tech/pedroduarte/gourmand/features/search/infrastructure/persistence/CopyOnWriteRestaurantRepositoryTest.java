@@ -0,0 +1,471 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.pedroduarte.gourmand.common.exception.DataLoadException;
+import tech.pedroduarte.gourmand.features.search.application.SearchService;
+import tech.pedroduarte.gourmand.features.search.application.dto.SearchResult;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.SearchCriteria;
+import tech.pedroduarte.gourmand.features.search.domain.SearchProbe;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantRepository;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantSnapshot;
+import tech.pedroduarte.gourmand.features.search.domain.service.RestaurantSearchDomainService;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CopyOnWriteRestaurantRepositoryTest {
+
+    private final RestaurantSearchDomainService domainService = new RestaurantSearchDomainService();
+    private final AtomicInteger generation = new AtomicInteger();
+    private final AtomicBoolean failLoading = new AtomicBoolean();
+
+    /**
+     * Every load returns a new generation of data: {@code 10 * generation} restaurants all named
+     * after it.
+     */
+    private RestaurantRepository load() {
+        if (failLoading.get()) {
+            throw new DataLoadException("File not found: restaurants.csv");
+        }
+        int current = generation.incrementAndGet();
+        List<Restaurant> restaurants = IntStream.range(0, 10 * current)
+                .mapToObj(i -> new Restaurant("Generation " + current, new Rating(1 + i % 5),
+                        new Distance(1.0 + i % 10), new Price(10.0 + i % 41), new Cuisine("Italian")))
+                .toList();
+        return new RestaurantRepository() {
+            @Override
+            public List<Restaurant> findAll() {
+                return restaurants;
+            }
+
+            @Override
+            public List<Cuisine> findAllCuisines() {
+                return List.of(new Cuisine("Italian"));
+            }
+        };
+    }
+
+    private CopyOnWriteRestaurantRepository newRepository() {
+        return new CopyOnWriteRestaurantRepository(this::load, domainService::relevanceRanks);
+    }
+
+    @Nested
+    class Reloading {
+        @Test
+        void shouldLoadTheFirstSnapshotWithItsIndexesBuilt() {
+            // When
+            CopyOnWriteRestaurantRepository repository = newRepository();
+
+            // Then
+            RestaurantSnapshot snapshot = repository.snapshot();
+            assertThat(snapshot.version()).isEqualTo(1);
+            assertThat(repository.findAll()).hasSize(10).isSameAs(snapshot.restaurants());
+            assertThat(repository.findAllCuisines()).containsExactly(new Cuisine("Italian"));
+            assertThat(snapshot.indexes().columns().size()).isEqualTo(10);
+        }
+
+        @Test
+        void shouldSwapInTheReloadedDataWithoutChangingPinnedSnapshots() {
+            // Given
+            CopyOnWriteRestaurantRepository repository = newRepository();
+            RestaurantSnapshot pinned = repository.snapshot();
+
+            // When
+            RestaurantSnapshot reloaded = repository.reload();
+
+            // Then
+            assertThat(reloaded.version()).isEqualTo(2);
+            assertThat(repository.snapshot()).isSameAs(reloaded);
+            assertThat(repository.findAll()).hasSize(20);
+            assertThat(pinned.restaurants()).hasSize(10);
+            assertThat(pinned.indexes().columns().size()).isEqualTo(10);
+        }
+
+        @Test
+        void shouldKeepServingThePreviousSnapshotWhenReloadFails() {
+            // Given
+            CopyOnWriteRestaurantRepository repository = newRepository();
+            RestaurantSnapshot before = repository.snapshot();
+            failLoading.set(true);
+
+            // When / Then
+            assertThatThrownBy(repository::reload).isInstanceOf(DataLoadException.class);
+            assertThat(repository.snapshot()).isSameAs(before);
+        }
+
+        @Test
+        void shouldAnswerEverySearchFromOneConsistentSnapshotWhileReloading() throws Exception {
+            // Given
+            CopyOnWriteRestaurantRepository repository = newRepository();
+            SearchService searchService = new SearchService(repository, domainService);
+            SearchCriteria criteria = SearchCriteria.builder().name("generation").build();
+            AtomicBoolean reloading = new AtomicBoolean(true);
+            ExecutorService executor = Executors.newFixedThreadPool(5);
+
+            // When
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int reader = 0; reader < 4; reader++) {
+                readers.add(executor.submit(() -> {
+                    int searches = 0;
+                    while (reloading.get() || searches == 0) {
+                        List<SearchResult> results = searchService.search(criteria, Integer.MAX_VALUE, SearchProbe.DISABLED);
+                        // A snapshot of generation g holds 10 * g restaurants, all named after g
+                        String name = results.get(0).getName();
+                        int resultGeneration = Integer.parseInt(name.substring("Generation ".length()));
+                        assertThat(results).hasSize(10 * resultGeneration).allMatch(r -> r.getName().equals(name));
+                        searches++;
+                    }
+                    return searches;
+                }));
+            }
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 30; i++) {
+                    repository.reload();
+                }
+                reloading.set(false);
+            });
+
+            // Then
+            writer.get(30, TimeUnit.SECONDS);
+            for (Future<Integer> reader : readers) {
+                assertThat(reader.get(30, TimeUnit.SECONDS)).isPositive();
+            }
+            executor.shutdown();
+            assertThat(repository.snapshot().version()).isEqualTo(31);
+        }
+    }
+
+    @Nested
+    class Mutations {
+        @Test
+        void shouldMakeEveryChangeVisibleToTheNextRead() {
+            // Given
+            CopyOnWriteRestaurantRepository repository = newRepository();
+            Restaurant sushi = restaurant("Sushi Bar", "Japanese", 30.0);
+
+            // When
+            repository.add(sushi);
+            repository.update("Sushi Bar", restaurant("Sushi House", "Japanese", 35.0));
+            repository.remove("Generation 1");
+
+            // Then
+            assertThat(repository.findAll()).extracting(Restaurant::getName).containsExactly("Sushi House");
+            assertThat(repository.findAllCuisines()).containsExactly(new Cuisine("Italian"), new Cuisine("Japanese"));
+            assertThat(repository.snapshot().version()).isEqualTo(4);
+            assertThat(repository.snapshot().indexes().columns().size()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldRejectChangesToMissingOrTakenNamesWithoutPublishing() {
+            // Given
+            CopyOnWriteRestaurantRepository repository = newRepository();
+            RestaurantSnapshot before = repository.snapshot();
+
+            // When / Then
+            assertThatThrownBy(() -> repository.add(restaurant("Generation 1", "Thai", 20.0)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Restaurant 'Generation 1' already exists");
+            assertThatThrownBy(() -> repository.remove("Missing"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Restaurant 'Missing' not found");
+            assertThat(repository.snapshot()).isSameAs(before);
+        }
+
+        @Test
+        void shouldLetExactlyOneOfManyRacingWritersAddAName() throws Exception {
+            // Given
+            CopyOnWriteRestaurantRepository repository = newRepository();
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            CountDownLatch start = new CountDownLatch(1);
+
+            // When
+            List<Future<Boolean>> writers = new ArrayList<>();
+            for (int writer = 0; writer < 16; writer++) {
+                double price = 20.0 + writer;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        repository.add(restaurant("Contested", "Thai", price));
+                        return true;
+                    } catch (IllegalArgumentException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            // Then
+            int added = 0;
+            for (Future<Boolean> writer : writers) {
+                added += writer.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            executor.shutdown();
+            assertThat(added).isEqualTo(1);
+            assertThat(repository.findAll()).filteredOn(r -> r.getName().equals("Contested")).hasSize(1);
+        }
+
+        @Test
+        void shouldApplyConcurrentWritesWhileReadersSeeConsistentSnapshots() throws Exception {
+            // Given
+            CopyOnWriteRestaurantRepository repository = newRepository();
+            SearchService searchService = new SearchService(repository, domainService);
+            int writerCount = 8;
+            int namesPerWriter = 150;
+            AtomicBoolean writing = new AtomicBoolean(true);
+            ExecutorService executor = Executors.newFixedThreadPool(writerCount + 4);
+
+            // When
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int reader = 0; reader < 4; reader++) {
+                readers.add(executor.submit(() -> {
+                    int searches = 0;
+                    while (writing.get() || searches == 0) {
+                        RestaurantSnapshot snapshot = repository.snapshot();
+                        assertThat(snapshot.indexes().columns().size()).isEqualTo(snapshot.restaurants().size());
+                        assertThat(searchService.count(SearchCriteria.builder().build()))
+                                .isGreaterThanOrEqualTo(0);
+                        searches++;
+                    }
+                    return searches;
+                }));
+            }
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < writerCount; writer++) {
+                int id = writer;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < namesPerWriter; i++) {
+                        String name = "Writer " + id + " #" + i;
+                        repository.add(restaurant(name, "Thai", 20.0));
+                        repository.update(name, restaurant(name, "Thai", 25.0));
+                        if (i % 3 == 0) {
+                            repository.remove(name);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+
+            // Then
+            for (Future<Integer> reader : readers) {
+                assertThat(reader.get(60, TimeUnit.SECONDS)).isPositive();
+            }
+            executor.shutdown();
+            List<Restaurant> written = repository.findAll().stream()
+                    .filter(r -> r.getName().startsWith("Writer "))
+                    .toList();
+            assertThat(written).hasSize(writerCount * (namesPerWriter - namesPerWriter / 3))
+                    .allMatch(r -> r.getPrice().getAmount() == 25.0);
+            // At most one snapshot per write, fewer whenever writes were combined
+            int writes = writerCount * (2 * namesPerWriter + namesPerWriter / 3);
+            assertThat(repository.snapshot().version()).isLessThanOrEqualTo(1 + writes);
+        }
+    }
+
+    @Nested
+    class Journaling {
+        @TempDir
+        Path dataDirectory;
+
+        @BeforeEach
+        void writeData() throws IOException {
+            Files.writeString(dataDirectory.resolve("cuisines.csv"), """
+                    id,name
+                    7,Italian
+                    """);
+            Files.writeString(dataDirectory.resolve("restaurants.csv"), """
+                    name,customer_rating,distance,price,cuisine_id
+                    Roma,5,1,20,7
+                    Napoli,3,2,15,7
+                    """);
+        }
+
+        private MutationJournal openJournal() {
+            return MutationJournal.open(dataDirectory.resolve(MutationJournal.FILENAME));
+        }
+
+        private CopyOnWriteRestaurantRepository open(MutationJournal journal) {
+            return new CopyOnWriteRestaurantRepository(
+                    () -> new CsvRestaurantRepository(CsvDataSource.fromDirectory(dataDirectory)),
+                    domainService::relevanceRanks,
+                    journal
+            );
+        }
+
+        private void change(CopyOnWriteRestaurantRepository repository) {
+            repository.add(restaurant("Sushi, \"Bar\"", "Japanese", 30.0));
+            repository.update("Roma", restaurant("Roma", "Italian", 22.0));
+            repository.remove("Napoli");
+        }
+
+        private List<Restaurant> expected() {
+            return List.of(restaurant("Roma", "Italian", 22.0), restaurant("Sushi, \"Bar\"", "Japanese", 30.0));
+        }
+
+        @Test
+        void shouldReplayJournaledChangesAfterARestart() throws IOException {
+            // Given
+            try (MutationJournal journal = openJournal()) {
+                change(open(journal));
+            }
+
+            // When
+            try (MutationJournal journal = openJournal()) {
+                CopyOnWriteRestaurantRepository restarted = open(journal);
+
+                // Then
+                assertThat(restarted.findAll()).containsExactlyInAnyOrderElementsOf(expected());
+                assertThat(restarted.findAllCuisines()).contains(new Cuisine("Japanese"));
+            }
+        }
+
+        @Test
+        void shouldFoldTheJournalIntoTheDataFilesOnCheckpoint() throws IOException {
+            // Given
+            try (MutationJournal journal = openJournal()) {
+                CopyOnWriteRestaurantRepository repository = open(journal);
+                change(repository);
+
+                // When
+                repository.checkpoint(new CsvCheckpoint(dataDirectory));
+
+                // Then
+                assertThat(journal.records()).isZero();
+            }
+            assertThat(new CsvRestaurantRepository(CsvDataSource.fromDirectory(dataDirectory)).findAll())
+                    .containsExactlyInAnyOrderElementsOf(expected());
+            assertThat(Files.readString(dataDirectory.resolve("cuisines.csv"))).isEqualTo("""
+                    id,name
+                    7,"Italian"
+                    8,"Japanese"
+                    """);
+        }
+
+        @Test
+        void shouldRecoverTheSameDataWhenCrashingBeforeTheJournalIsCut() throws IOException {
+            // Given
+            try (MutationJournal journal = openJournal()) {
+                CopyOnWriteRestaurantRepository repository = open(journal);
+                change(repository);
+                // The data files are written, but the process dies before the journal is cut
+                new CsvCheckpoint(dataDirectory).accept(repository.snapshot());
+            }
+
+            // When
+            try (MutationJournal journal = openJournal()) {
+                CopyOnWriteRestaurantRepository restarted = open(journal);
+
+                // Then
+                assertThat(journal.records()).isEqualTo(3);
+                assertThat(restarted.findAll()).containsExactlyInAnyOrderElementsOf(expected());
+            }
+        }
+
+        @Test
+        void shouldCheckpointInTheBackgroundOnceTheJournalIsLongEnough() throws Exception {
+            // Given
+            try (MutationJournal journal = openJournal()) {
+                CopyOnWriteRestaurantRepository repository = open(journal);
+                JournalCheckpointer checkpointer = new JournalCheckpointer(repository, journal,
+                        new CsvCheckpoint(dataDirectory), 3, Duration.ofMillis(10));
+                try {
+                    // When
+                    change(repository);
+
+                    // Then
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                    while (journal.records() > 0 && System.nanoTime() < deadline) {
+                        Thread.sleep(10);
+                    }
+                    assertThat(journal.records()).isZero();
+                } finally {
+                    checkpointer.close();
+                }
+            }
+            assertThat(new CsvRestaurantRepository(CsvDataSource.fromDirectory(dataDirectory)).findAll())
+                    .containsExactlyInAnyOrderElementsOf(expected());
+        }
+
+        @Test
+        void shouldCommitQueuedWritesAndRefuseLaterOnesOnClose() throws Exception {
+            // Given
+            try (MutationJournal journal = openJournal()) {
+                CopyOnWriteRestaurantRepository repository = open(journal);
+                change(repository);
+
+                // When
+                repository.close();
+
+                // Then
+                assertThatThrownBy(() -> repository.remove("Roma"))
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasMessage("Repository is closed");
+                assertThat(journal.records()).isEqualTo(3);
+                assertThat(repository.findAll()).containsExactlyInAnyOrderElementsOf(expected());
+            }
+        }
+
+        @Test
+        void shouldKeepEveryChangeWrittenWhileCheckpointing() throws Exception {
+            // Given
+            int writerCount = 4;
+            int namesPerWriter = 300;
+            ExecutorService executor = Executors.newFixedThreadPool(writerCount);
+            try (MutationJournal journal = openJournal()) {
+                CopyOnWriteRestaurantRepository repository = open(journal);
+
+                // When
+                List<Future<?>> writers = new ArrayList<>();
+                for (int writer = 0; writer < writerCount; writer++) {
+                    int id = writer;
+                    writers.add(executor.submit(() -> {
+                        for (int i = 0; i < namesPerWriter; i++) {
+                            repository.add(restaurant("Writer " + id + " #" + i, "Thai", 20.0));
+                        }
+                    }));
+                }
+                for (int checkpoint = 0; checkpoint < 5; checkpoint++) {
+                    repository.checkpoint(new CsvCheckpoint(dataDirectory));
+                }
+                for (Future<?> writer : writers) {
+                    writer.get(60, TimeUnit.SECONDS);
+                }
+                executor.shutdown();
+            }
+
+            // Then
+            try (MutationJournal journal = openJournal()) {
+                assertThat(open(journal).findAll()).hasSize(2 + writerCount * namesPerWriter);
+            }
+        }
+    }
+
+    private static Restaurant restaurant(String name, String cuisine, double price) {
+        return new Restaurant(name, new Rating(4), new Distance(2.0), new Price(price), new Cuisine(cuisine));
+    }
+}
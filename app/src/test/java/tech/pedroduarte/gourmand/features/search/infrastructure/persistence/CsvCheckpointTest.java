@@ -0,0 +1,60 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.pedroduarte.gourmand.common.utils.CsvReader;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantSnapshot;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvCheckpointTest {
+
+    @TempDir
+    Path dataDirectory;
+
+    @Test
+    void shouldQuoteValuesSoThatCommasAndQuotesSurviveReading() {
+        // Given
+        StringBuilder line = new StringBuilder("3,");
+
+        // When
+        CsvCheckpoint.quote(line, "Thai, Lao \"Street\"");
+
+        // Then
+        List<String[]> rows = new CsvReader().readCsv(
+                new ByteArrayInputStream(line.toString().getBytes(StandardCharsets.UTF_8)), false, columns -> columns);
+        assertThat(rows).singleElement().satisfies(columns ->
+                assertThat(columns).containsExactly("3", "Thai, Lao \"Street\""));
+    }
+
+    @Test
+    void shouldWriteCuisinesThatLoadBackUnchanged() throws IOException {
+        // Given
+        Restaurant restaurant = new Restaurant("Pho, \"Saigon\"", new Rating(4), new Distance(2.0), new Price(20.0),
+                new Cuisine("South-east Asian"));
+        RestaurantSnapshot snapshot = RestaurantSnapshot.of(1, List.of(restaurant), List.of(restaurant.getCuisine()),
+                restaurants -> new int[restaurants.size()]);
+
+        // When
+        new CsvCheckpoint(dataDirectory).accept(snapshot);
+
+        // Then
+        assertThat(Files.readString(dataDirectory.resolve("cuisines.csv")))
+                .isEqualTo("id,name\n1,\"South-east asian\"\n");
+        CsvRestaurantRepository reloaded = new CsvRestaurantRepository(CsvDataSource.fromDirectory(dataDirectory));
+        assertThat(reloaded.findAll()).containsExactly(restaurant);
+        assertThat(reloaded.findAllCuisines()).containsExactly(restaurant.getCuisine());
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
@@ -14,16 +15,23 @@ import tech.pedroduarte.gourmand.common.exception.DataLoadException;
 import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
 import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
 import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
 import tech.pedroduarte.gourmand.shared.domain.Price;
 import tech.pedroduarte.gourmand.shared.domain.Rating;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -76,6 +84,52 @@ class CsvRestaurantRepositoryTest {
                     .containsExactly("Italian", "American", "Chinese");
         }
 
+        @Test
+        void shouldLoadOptionalCoordinates() {
+            // Given
+            String restaurantsWithCoordinates = """
+                    name,customer_rating,distance,price,cuisine_id,latitude,longitude
+                    Located Place,4,1.0,20.0,1,40.7128,-74.0060
+                    Unlocated Place,3,2.0,15.0,2,,""";
+            when(dataSource.getRestaurantsStream())
+                    .thenReturn(new ByteArrayInputStream(restaurantsWithCoordinates.getBytes(StandardCharsets.UTF_8)));
+
+            // When
+            repository = new CsvRestaurantRepository(dataSource);
+
+            // Then
+            List<Restaurant> restaurants = repository.findAll();
+            assertThat(restaurants.get(0).getLocation()).isEqualTo(new GeoLocation(40.7128, -74.0060));
+            assertThat(restaurants.get(1).hasLocation()).isFalse();
+        }
+
+        @Test
+        void shouldEmitALoadEventPerFileWhileRecording(@TempDir Path tempDir) throws IOException {
+            // Given
+            when(dataSource.cuisinesLocation()).thenReturn("cuisines.csv");
+            when(dataSource.restaurantsLocation()).thenReturn("restaurants.csv");
+            Path dump = tempDir.resolve("load.jfr");
+
+            // When
+            try (Recording recording = new Recording()) {
+                recording.start();
+                repository = new CsvRestaurantRepository(dataSource);
+                recording.stop();
+                recording.dump(dump);
+            }
+
+            // Then
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().equals("tech.pedroduarte.gourmand.CsvLoad"))
+                .toList();
+            assertThat(events)
+                    .extracting(event -> event.getString("file"), event -> event.getLong("rows"),
+                            event -> event.getLong("bytes"))
+                    .containsExactly(
+                            tuple("cuisines.csv", 3L, (long) VALID_CUISINES_CSV.length()),
+                            tuple("restaurants.csv", 3L, (long) VALID_RESTAURANTS_CSV.length()));
+        }
+
         @Test
         void shouldProvideAvailableCuisines() throws IOException {
             // When
@@ -0,0 +1,364 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LsmRestaurantRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Distance and price grow with the name, so that blocks of a run cover distinct ranges.
+     */
+    private static Restaurant restaurant(int i) {
+        return restaurant(i, 10.0 + i * 0.04);
+    }
+
+    private static Restaurant restaurant(int i, double price) {
+        return new Restaurant(String.format("R%04d", i), new Rating(4), new Distance(1.0 + i % 1000 * 0.009),
+                new Price(price), new Cuisine(i % 2 == 0 ? "Italian" : "Thai"));
+    }
+
+    private static List<String> names(List<Restaurant> restaurants) {
+        return restaurants.stream().map(Restaurant::getName).toList();
+    }
+
+    private static List<String> names(IntStream numbers) {
+        return numbers.mapToObj(i -> String.format("R%04d", i)).toList();
+    }
+
+    private LsmRestaurantRepository open() {
+        return LsmRestaurantRepository.open(directory, 100, 10, 4);
+    }
+
+    @Nested
+    class Writes {
+
+        @Test
+        void shouldReadEveryChangeWhereverItIsStored() throws IOException {
+            try (LsmRestaurantRepository repository = open()) {
+                // Given
+                for (int i = 0; i < 250; i++) {
+                    repository.add(restaurant(i));
+                }
+                repository.flush();
+                repository.update("R0010", restaurant(10, 45.0));
+                repository.remove("R0020");
+                repository.update("R0030", new Restaurant("A0030", new Rating(2), new Distance(3.0),
+                        new Price(30.0), new Cuisine("Greek")));
+
+                // When
+                List<Restaurant> all = repository.findAll();
+
+                // Then
+                assertThat(repository.runs()).hasSizeBetween(1, 3);
+                assertThat(all).hasSize(249);
+                assertThat(all.getFirst().getName()).isEqualTo("A0030");
+                assertThat(all).contains(restaurant(10, 45.0)).doesNotContain(restaurant(10), restaurant(20));
+                assertThat(repository.find("R0030")).isEmpty();
+                assertThat(repository.find("R0200")).contains(restaurant(200));
+                assertThat(repository.findAllCuisines())
+                        .containsExactly(new Cuisine("Greek"), new Cuisine("Italian"), new Cuisine("Thai"));
+            }
+        }
+
+        @Test
+        void shouldFailOnlyTheWriteWhoseNameCannotBeJournaled() throws IOException {
+            try (LsmRestaurantRepository repository = open()) {
+                // When
+                assertThatThrownBy(() -> repository.addAll(List.of(restaurant(1),
+                        new Restaurant("x".repeat(70_000), new Rating(4), new Distance(2.0), new Price(20.0),
+                                new Cuisine("Thai")),
+                        restaurant(2))))
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessage("Names and cuisines must encode to at most 65535 bytes");
+
+                // Then
+                assertThat(names(repository.findAll())).containsExactly("R0001", "R0002");
+            }
+            try (LsmRestaurantRepository reopened = open()) {
+                assertThat(names(reopened.findAll())).containsExactly("R0001", "R0002");
+            }
+        }
+
+        @Test
+        void shouldCreateAStoreFromTheDataFilesInBatches() throws IOException {
+            // Given
+            Path data = writeData("Roma,4,1.5,20,1\nBangkok,5,2.5,25,2\nNapoli,3,3.5,30,1\n");
+            Path store = directory.resolve("store");
+
+            // When
+            long imported = LsmRestaurantRepository.create(store, CsvDataSource.fromDirectory(data), 2);
+
+            // Then
+            assertThat(imported).isEqualTo(3);
+            try (LsmRestaurantRepository repository = LsmRestaurantRepository.open(store)) {
+                assertThat(names(repository.findAll())).containsExactly("Bangkok", "Napoli", "Roma");
+                assertThat(repository.find("Bangkok").orElseThrow().getCuisine()).isEqualTo(new Cuisine("Thai"));
+            }
+        }
+
+        @Test
+        void shouldLeaveNoStoreBehindAFailedImport() throws IOException {
+            // Given
+            Path data = writeData("Roma,4,1.5,20,1\nBangkok,5,2.5,25,2\nNapoli,three,3.5,30,1\n");
+            Path store = directory.resolve("store");
+
+            // When
+            assertThatThrownBy(() -> LsmRestaurantRepository.create(store, CsvDataSource.fromDirectory(data), 2))
+                    .isInstanceOf(RuntimeException.class);
+            Files.writeString(data.resolve("restaurants.csv"),
+                    "name,customer_rating,distance,price,cuisine_id\nNapoli,3,3.5,30,1\n");
+            long imported = LsmRestaurantRepository.create(store, CsvDataSource.fromDirectory(data), 2);
+
+            // Then
+            assertThat(imported).isEqualTo(1);
+            try (LsmRestaurantRepository repository = LsmRestaurantRepository.open(store)) {
+                assertThat(names(repository.findAll())).containsExactly("Napoli");
+            }
+            assertThat(directory.resolve("store.importing")).doesNotExist();
+        }
+
+        private Path writeData(String rows) throws IOException {
+            Path data = Files.createDirectories(directory.resolve("data"));
+            Files.writeString(data.resolve("cuisines.csv"), "id,name\n1,Italian\n2,Thai\n");
+            Files.writeString(data.resolve("restaurants.csv"), "name,customer_rating,distance,price,cuisine_id\n" + rows);
+            return data;
+        }
+
+        @Test
+        void shouldRejectMissingAndDuplicateNamesAcrossRuns() throws IOException {
+            try (LsmRestaurantRepository repository = open()) {
+                // Given
+                repository.add(restaurant(1));
+                repository.add(restaurant(2));
+                repository.flush();
+                repository.remove("R0002");
+
+                // When / Then
+                assertThatThrownBy(() -> repository.add(restaurant(1)))
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessage("Restaurant 'R0001' already exists");
+                assertThatThrownBy(() -> repository.remove("R0002"))
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessage("Restaurant 'R0002' not found");
+                assertThatThrownBy(() -> repository.update("R0002", restaurant(2)))
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessage("Restaurant 'R0002' not found");
+                repository.add(restaurant(2));
+                assertThat(names(repository.findAll())).containsExactly("R0001", "R0002");
+            }
+        }
+    }
+
+    @Nested
+    class RangeScans {
+
+        @Test
+        void shouldOnlyReadTheBlocksThatCanHoldMatches() throws IOException {
+            try (LsmRestaurantRepository repository = open()) {
+                // Given
+                for (int i = 0; i < 1000; i++) {
+                    repository.add(restaurant(i));
+                }
+                repository.flush();
+                repository.compact();
+                SortedRun run = repository.runs().getFirst();
+                long before = run.blocksRead();
+
+                // When
+                List<Restaurant> found = repository.findWithin(new Distance(1.905), null);
+
+                // Then
+                assertThat(names(found)).isEqualTo(names(IntStream.rangeClosed(0, 100)));
+                assertThat(run.blocks()).hasSize(100);
+                assertThat(run.blocksRead() - before).isEqualTo(11);
+            }
+        }
+
+        @Test
+        void shouldNotReturnValuesHiddenBySkippedBlocksOfNewerRuns() throws IOException {
+            try (LsmRestaurantRepository repository = open()) {
+                // Given
+                for (int i = 0; i < 100; i++) {
+                    repository.add(restaurant(i));
+                }
+                repository.flush();
+                for (int i = 0; i < 10; i++) {
+                    repository.update(String.format("R%04d", i), restaurant(i, 50.0));
+                }
+                for (int i = 10; i < 20; i++) {
+                    repository.remove(String.format("R%04d", i));
+                }
+                repository.flush();
+
+                // When
+                List<Restaurant> found = repository.findWithin(null, new Price(12.01));
+
+                // Then
+                assertThat(repository.runs()).hasSize(2);
+                assertThat(names(found)).isEqualTo(names(IntStream.rangeClosed(20, 50)));
+            }
+        }
+
+        @Test
+        void shouldKeepStreamingTheRunsACompactionReplaced() throws IOException {
+            try (LsmRestaurantRepository repository = open()) {
+                // Given
+                for (int i = 0; i < 300; i++) {
+                    repository.add(restaurant(i));
+                }
+                repository.flush();
+                List<String> streamed = new ArrayList<>();
+
+                try (Stream<Restaurant> restaurants = repository.streamWithin(null, null)) {
+                    Iterator<Restaurant> iterator = restaurants.iterator();
+                    streamed.add(iterator.next().getName());
+
+                    // When
+                    repository.remove("R0299");
+                    repository.flush();
+                    repository.compact();
+                    iterator.forEachRemaining(restaurant -> streamed.add(restaurant.getName()));
+                }
+
+                // Then
+                assertThat(streamed).isEqualTo(names(IntStream.range(0, 300)));
+                assertThat(repository.findAll()).hasSize(299);
+            }
+        }
+    }
+
+    @Nested
+    class Recovery {
+
+        @Test
+        void shouldReopenToTheRunsAndTheJournal() throws IOException {
+            // Given
+            try (LsmRestaurantRepository repository = open()) {
+                for (int i = 0; i < 450; i++) {
+                    repository.add(restaurant(i));
+                }
+                repository.flush();
+                for (int i = 0; i < 450; i += 3) {
+                    repository.remove(String.format("R%04d", i));
+                }
+            }
+
+            // When
+            try (LsmRestaurantRepository repository = open()) {
+                // Then
+                assertThat(names(repository.findAll()))
+                        .isEqualTo(names(IntStream.range(0, 450).filter(i -> i % 3 != 0)));
+            }
+        }
+
+        @Test
+        void shouldMergeRunsIntoOneWithoutRemovedNames() throws IOException {
+            // Given
+            try (LsmRestaurantRepository repository = open()) {
+                for (int i = 0; i < 300; i++) {
+                    repository.add(restaurant(i));
+                }
+                repository.flush();
+                for (int i = 0; i < 300; i += 2) {
+                    repository.remove(String.format("R%04d", i));
+                }
+                repository.flush();
+
+                // When
+                repository.compact();
+
+                // Then
+                assertThat(repository.runs()).hasSize(1);
+                assertThat(repository.runs().getFirst().entries()).isEqualTo(150);
+            }
+            try (LsmRestaurantRepository repository = open();
+                 Stream<Path> files = Files.list(directory)) {
+                assertThat(files.filter(file -> file.toString().endsWith(SortedRun.SUFFIX))).hasSize(1);
+                assertThat(names(repository.findAll()))
+                        .isEqualTo(names(IntStream.range(0, 300).filter(i -> i % 2 == 1)));
+            }
+        }
+
+        @Test
+        void shouldDeleteRunsTheManifestDoesNotList() throws IOException {
+            // Given
+            try (LsmRestaurantRepository repository = open()) {
+                repository.add(restaurant(1));
+                repository.flush();
+            }
+            SortedRun.write(directory.resolve("00000099.run"), List.of(StoredEntry.of(restaurant(2))).iterator(), 1, 10)
+                    .close();
+
+            // When
+            try (LsmRestaurantRepository repository = open()) {
+                // Then
+                assertThat(names(repository.findAll())).containsExactly("R0001");
+                assertThat(directory.resolve("00000099.run")).doesNotExist();
+            }
+        }
+    }
+
+    @Test
+    void shouldServeReadsWhileFlushingAndCompacting() throws Exception {
+        ExecutorService readers = Executors.newFixedThreadPool(2);
+        try (LsmRestaurantRepository repository = open()) {
+            // Given
+            for (int i = 0; i < 100; i++) {
+                repository.add(restaurant(i));
+            }
+            List<Future<Integer>> reads = new ArrayList<>();
+            for (int reader = 0; reader < 2; reader++) {
+                reads.add(readers.submit(() -> {
+                    int scans = 0;
+                    while (repository.find("R2999").isEmpty()) {
+                        // Every write adds a name, so a scan sees at least the first hundred
+                        assertThat(repository.findAll().size()).isGreaterThanOrEqualTo(100);
+                        assertThat(repository.find("R0050")).contains(restaurant(50));
+                        scans++;
+                    }
+                    return scans;
+                }));
+            }
+
+            // When
+            for (int i = 100; i < 3000; i++) {
+                repository.add(restaurant(i, 10.0 + i % 40));
+            }
+
+            // Then
+            for (Future<Integer> read : reads) {
+                assertThat(read.get(30, TimeUnit.SECONDS)).isPositive();
+            }
+            repository.compact();
+            assertThat(repository.findAll()).hasSize(3000);
+            assertThat(repository.runs()).hasSize(1);
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+}
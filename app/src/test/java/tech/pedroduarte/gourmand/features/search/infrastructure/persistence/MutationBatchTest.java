@@ -0,0 +1,108 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import org.junit.jupiter.api.Test;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantMutation;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MutationBatchTest {
+
+    private static Restaurant restaurant(String name, double price) {
+        return new Restaurant(name, new Rating(4), new Distance(2.0), new Price(price), new Cuisine("Italian"));
+    }
+
+    private static Set<String> names(List<Restaurant> restaurants) {
+        return restaurants.stream().map(Restaurant::getName).collect(Collectors.toSet());
+    }
+
+    @Test
+    void shouldApplyEachMutationToTheDataThePreviousOnesLeft() {
+        // Given
+        List<Restaurant> restaurants = List.of(restaurant("Roma", 20.0), restaurant("Napoli", 25.0));
+        List<RestaurantMutation> mutations = List.of(
+                new RestaurantMutation.Add(restaurant("Milano", 30.0)),
+                new RestaurantMutation.Update("Roma", restaurant("Roma Nuova", 22.0)),
+                new RestaurantMutation.Add(restaurant("Roma", 40.0)),
+                new RestaurantMutation.Remove("Napoli"),
+                new RestaurantMutation.Update("Milano", restaurant("Milano", 35.0))
+        );
+        RuntimeException[] failures = new RuntimeException[mutations.size()];
+
+        // When
+        Map<String, Restaurant> changes = MutationBatch.apply(names(restaurants)::contains, mutations, failures);
+        List<Restaurant> result = MutationBatch.merge(restaurants, changes);
+
+        // Then
+        assertThat(failures).containsOnlyNulls();
+        assertThat(result).containsExactly(
+                restaurant("Roma", 40.0),
+                restaurant("Milano", 35.0),
+                restaurant("Roma Nuova", 22.0)
+        );
+    }
+
+    @Test
+    void shouldRejectOnlyTheMutationsThatConflict() {
+        // Given
+        List<Restaurant> restaurants = List.of(restaurant("Roma", 20.0), restaurant("Napoli", 25.0));
+        List<RestaurantMutation> mutations = List.of(
+                new RestaurantMutation.Add(restaurant("Napoli", 30.0)),
+                new RestaurantMutation.Remove("Roma"),
+                new RestaurantMutation.Remove("Roma"),
+                new RestaurantMutation.Update("Napoli", restaurant("Roma", 21.0)),
+                new RestaurantMutation.Update("Milano", restaurant("Milano", 21.0))
+        );
+        RuntimeException[] failures = new RuntimeException[mutations.size()];
+
+        // When
+        Map<String, Restaurant> changes = MutationBatch.apply(names(restaurants)::contains, mutations, failures);
+        List<Restaurant> result = MutationBatch.merge(restaurants, changes);
+
+        // Then
+        assertThat(failures[0]).hasMessage("Restaurant 'Napoli' already exists");
+        assertThat(failures[1]).isNull();
+        assertThat(failures[2]).hasMessage("Restaurant 'Roma' not found");
+        assertThat(failures[3]).isNull();
+        assertThat(failures[4]).hasMessage("Restaurant 'Milano' not found");
+        assertThat(result).containsExactly(restaurant("Roma", 21.0));
+    }
+
+    @Test
+    void shouldReturnNoChangesWhenEveryMutationIsRejected() {
+        // Given
+        RuntimeException[] failures = new RuntimeException[1];
+
+        // When
+        Map<String, Restaurant> result = MutationBatch.apply(Set.of("Roma")::contains,
+                List.of(new RestaurantMutation.Remove("Napoli")), failures);
+
+        // Then
+        assertThat(result).isEmpty();
+        assertThat(failures[0]).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldCollapseDuplicateNamesIntoTheUpdatedRestaurant() {
+        // Given
+        List<Restaurant> restaurants = List.of(restaurant("Roma", 20.0), restaurant("Roma", 25.0));
+        RuntimeException[] failures = new RuntimeException[1];
+
+        // When
+        Map<String, Restaurant> changes = MutationBatch.apply(names(restaurants)::contains,
+                List.of(new RestaurantMutation.Update("Roma", restaurant("Roma", 30.0))), failures);
+        List<Restaurant> result = MutationBatch.merge(restaurants, changes);
+
+        // Then
+        assertThat(result).containsExactly(restaurant("Roma", 30.0));
+    }
+}
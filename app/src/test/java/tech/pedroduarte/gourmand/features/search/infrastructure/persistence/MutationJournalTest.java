@@ -0,0 +1,175 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.features.search.domain.persistence.RestaurantMutation;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MutationJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private static final List<RestaurantMutation> MUTATIONS = List.of(
+            new RestaurantMutation.Add(new Restaurant("Café \"Roma\", Centro", new Rating(5), new Distance(1.5),
+                    new Price(20.0), new Cuisine("Italian"), new GeoLocation(40.7, -73.9))),
+            new RestaurantMutation.Update("Café \"Roma\", Centro", new Restaurant("Roma", new Rating(4),
+                    new Distance(2.0), new Price(25.0), new Cuisine("Italian"))),
+            new RestaurantMutation.Remove("Napoli")
+    );
+
+    private Path journalFile() {
+        return directory.resolve(MutationJournal.FILENAME);
+    }
+
+    @Test
+    void shouldReadBackEveryAppendedMutationAfterReopening() throws IOException {
+        // Given
+        try (MutationJournal journal = MutationJournal.open(journalFile())) {
+            journal.append(MUTATIONS.subList(0, 2));
+            journal.append(MUTATIONS.subList(2, 3));
+        }
+
+        // When
+        try (MutationJournal journal = MutationJournal.open(journalFile())) {
+            // Then
+            assertThat(journal.readAll()).containsExactlyElementsOf(MUTATIONS);
+            assertThat(journal.records()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void shouldDropATornRecordLeftByACrashAndKeepAppending() throws IOException {
+        // Given
+        try (MutationJournal journal = MutationJournal.open(journalFile())) {
+            journal.append(MUTATIONS);
+        }
+        long complete = Files.size(journalFile());
+        try (MutationJournal journal = MutationJournal.open(journalFile())) {
+            journal.append(List.of(new RestaurantMutation.Remove("Torn")));
+        }
+        // Cut the last record short, as a crash in the middle of a write would
+        try (FileChannel channel = FileChannel.open(journalFile(), StandardOpenOption.WRITE)) {
+            channel.truncate(complete + 6);
+        }
+
+        // When
+        try (MutationJournal journal = MutationJournal.open(journalFile())) {
+            journal.append(List.of(new RestaurantMutation.Remove("Milano")));
+        }
+
+        // Then
+        try (MutationJournal journal = MutationJournal.open(journalFile())) {
+            assertThat(journal.readAll()).hasSize(4)
+                    .endsWith(new RestaurantMutation.Remove("Milano"));
+        }
+    }
+
+    @Test
+    void shouldRejectOnlyTheMutationsItCannotHold() throws IOException {
+        // Given
+        RestaurantMutation tooLong = new RestaurantMutation.Remove("x".repeat(70_000));
+        List<RestaurantMutation> mutations = List.of(MUTATIONS.get(0), tooLong, MUTATIONS.get(2));
+        RuntimeException[] failures = new RuntimeException[mutations.size()];
+
+        try (MutationJournal journal = MutationJournal.open(journalFile())) {
+            // When
+            List<byte[]> records = MutationJournal.encodeEach(mutations, failures);
+            journal.appendEncoded(MutationBatch.applied(records, failures));
+
+            // Then
+            assertThat(failures[0]).isNull();
+            assertThat(failures[1]).isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Names and cuisines must encode to at most 65535 bytes");
+            assertThat(failures[2]).isNull();
+            assertThat(journal.readAll()).containsExactly(MUTATIONS.get(0), MUTATIONS.get(2));
+        }
+    }
+
+    @Test
+    void shouldDropTheZerosOfARecordThatNeverLanded() throws IOException {
+        // Given
+        try (MutationJournal journal = MutationJournal.open(journalFile())) {
+            journal.append(MUTATIONS);
+        }
+        Files.write(journalFile(), new byte[64], StandardOpenOption.APPEND);
+
+        // When
+        try (MutationJournal journal = MutationJournal.open(journalFile())) {
+            // Then
+            assertThat(journal.readAll()).containsExactlyElementsOf(MUTATIONS);
+        }
+    }
+
+    @Test
+    void shouldRefuseToOpenAJournalCorruptedBeforeItsLastRecord() throws IOException {
+        // Given
+        try (MutationJournal journal = MutationJournal.open(journalFile())) {
+            journal.append(MUTATIONS);
+        }
+        byte[] bytes = Files.readAllBytes(journalFile());
+        bytes[12] ^= 0x55;
+        Files.write(journalFile(), bytes);
+
+        // When / Then
+        assertThatThrownBy(() -> MutationJournal.open(journalFile()))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasRootCauseMessage(String.format("Journal %s is corrupt at byte 0, before its last record",
+                        journalFile()));
+        assertThat(Files.readAllBytes(journalFile())).isEqualTo(bytes);
+    }
+
+    @Test
+    void shouldDropALastRecordThatFailsItsChecksum() throws IOException {
+        // Given
+        try (MutationJournal journal = MutationJournal.open(journalFile())) {
+            journal.append(MUTATIONS);
+        }
+        byte[] bytes = Files.readAllBytes(journalFile());
+        bytes[bytes.length - 1] ^= 0x55;
+        Files.write(journalFile(), bytes);
+
+        // When
+        try (MutationJournal journal = MutationJournal.open(journalFile())) {
+            // Then
+            assertThat(journal.readAll()).containsExactlyElementsOf(MUTATIONS.subList(0, 2));
+        }
+    }
+
+    @Test
+    void shouldKeepOnlyTheRecordsAfterTheDiscardedPosition() throws IOException {
+        // Given
+        try (MutationJournal journal = MutationJournal.open(journalFile())) {
+            journal.append(MUTATIONS.subList(0, 2));
+            long position = journal.position();
+            journal.append(MUTATIONS.subList(2, 3));
+
+            // When
+            journal.discardBefore(position);
+            journal.append(List.of(new RestaurantMutation.Remove("Milano")));
+
+            // Then
+            assertThat(journal.records()).isEqualTo(2);
+            assertThat(journal.readAll()).containsExactly(MUTATIONS.get(2), new RestaurantMutation.Remove("Milano"));
+        }
+        try (MutationJournal journal = MutationJournal.open(journalFile())) {
+            assertThat(journal.readAll()).containsExactly(MUTATIONS.get(2), new RestaurantMutation.Remove("Milano"));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package tech.pedroduarte.gourmand.features.search.infrastructure.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.pedroduarte.gourmand.features.search.domain.Cuisine;
+import tech.pedroduarte.gourmand.features.search.domain.Restaurant;
+import tech.pedroduarte.gourmand.shared.domain.Distance;
+import tech.pedroduarte.gourmand.shared.domain.GeoLocation;
+import tech.pedroduarte.gourmand.shared.domain.Price;
+import tech.pedroduarte.gourmand.shared.domain.Rating;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SortedRunTest {
+
+    @TempDir
+    Path directory;
+
+    private static Restaurant restaurant(int i) {
+        return new Restaurant(String.format("R%04d", i), new Rating(1 + i % 5), new Distance(1.0 + i * 0.009),
+                new Price(10.0 + i * 0.04), new Cuisine(i % 2 == 0 ? "Italian" : "Thai"),
+                i % 3 == 0 ? new GeoLocation(40.7, -73.9) : null);
+    }
+
+    /**
+     * Names R0000 to R0999, every tenth one removed.
+     */
+    private static List<StoredEntry> entries() {
+        List<StoredEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.add(i % 10 == 9 ? StoredEntry.removed(restaurant(i).getName()) : StoredEntry.of(restaurant(i)));
+        }
+        return entries;
+    }
+
+    @Test
+    void shouldFindEveryEntryAfterReopening() {
+        // Given
+        SortedRun.write(directory.resolve("1.run"), entries().iterator(), 1000, 16).close();
+
+        // When
+        try (SortedRun run = SortedRun.open(directory.resolve("1.run"))) {
+            // Then
+            assertThat(run.entries()).isEqualTo(1000);
+            assertThat(run.blocks()).hasSize(63);
+            for (StoredEntry entry : entries()) {
+                assertThat(run.find(entry.name())).isEqualTo(entry);
+            }
+            assertThat(run.find("A")).isNull();
+            assertThat(run.find("R0500a")).isNull();
+            assertThat(run.find("S")).isNull();
+            assertThat(run.cuisines()).containsExactly(new Cuisine("Italian"), new Cuisine("Thai"));
+        }
+    }
+
+    @Test
+    void shouldRecordTheBoundsOfTheLiveRestaurantsOfEachBlock() {
+        // When
+        try (SortedRun run = SortedRun.write(directory.resolve("1.run"), entries().iterator(), 1000, 10)) {
+            // Then
+            SortedRun.Block first = run.blocks().getFirst();
+            assertThat(first.firstName()).isEqualTo("R0000");
+            assertThat(first.lastName()).isEqualTo("R0009");
+            assertThat(first.live()).isEqualTo(9);
+            assertThat(first.minDistance()).isEqualTo(1.0);
+            assertThat(first.maxDistance()).isEqualTo(restaurant(8).getDistance().getMiles());
+            assertThat(first.minPrice()).isEqualTo(10.0);
+            assertThat(first.maxPrice()).isEqualTo(restaurant(8).getPrice().getAmount());
+        }
+    }
+
+    @Test
+    void shouldRejectACorruptedBlock() throws IOException {
+        // Given
+        Path file = directory.resolve("1.run");
+        SortedRun.write(file, entries().iterator(), 1000, 16).close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), 20);
+        }
+
+        // When
+        try (SortedRun run = SortedRun.open(file)) {
+            // Then
+            assertThatThrownBy(() -> run.readBlock(0))
+                    .isInstanceOf(UncheckedIOException.class)
+                    .hasRootCauseMessage("Checksum mismatch");
+            assertThat(run.find("R0999")).isEqualTo(StoredEntry.removed("R0999"));
+        }
+    }
+
+    @Test
+    void shouldRefuseEntriesOutOfOrder() {
+        // Given
+        List<StoredEntry> entries = List.of(StoredEntry.of(restaurant(2)), StoredEntry.of(restaurant(1)));
+
+        // When / Then
+        assertThatThrownBy(() -> SortedRun.write(directory.resolve("1.run"), entries.iterator(), 2, 16))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("R0001");
+    }
+}
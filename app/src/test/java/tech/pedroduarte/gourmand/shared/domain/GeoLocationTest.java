@@ -0,0 +1,43 @@
+package tech.pedroduarte.gourmand.shared.domain;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class GeoLocationTest {
+
+    @Test
+    void shouldCreateValidLocation() {
+        GeoLocation location = new GeoLocation(40.7128, -74.0060);
+        assertThat(location.getLatitude()).isEqualTo(40.7128);
+        assertThat(location.getLongitude()).isEqualTo(-74.0060);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"90.1, 0", "-90.1, 0", "0, 180.1", "0, -180.1", "NaN, 0"})
+    void shouldRejectInvalidCoordinates(double latitude, double longitude) {
+        assertThatThrownBy(() -> new GeoLocation(latitude, longitude))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must be between");
+    }
+
+    @Test
+    void shouldComputeHaversineDistance() {
+        GeoLocation newYork = new GeoLocation(40.7128, -74.0060);
+        GeoLocation losAngeles = new GeoLocation(34.0522, -118.2437);
+
+        assertThat(newYork.milesTo(losAngeles)).isCloseTo(2445.6, within(1.0));
+        assertThat(newYork.milesTo(newYork)).isZero();
+    }
+
+    @Test
+    void shouldEqualLocations() {
+        assertThat(new GeoLocation(1.5, 2.5))
+                .isEqualTo(new GeoLocation(1.5, 2.5))
+                .isNotEqualTo(new GeoLocation(1.5, 2.6));
+    }
+}